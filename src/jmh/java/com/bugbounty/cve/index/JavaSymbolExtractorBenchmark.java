@@ -0,0 +1,107 @@
+package com.bugbounty.cve.index;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * The per-line method regex the codebase index used before versus {@link JavaSymbolExtractor},
+ * on a hand-written class and on the inputs that made the regex slow: generated code with very
+ * long lines, and minified single-line sources.
+ *
+ * Run with {@code ./gradlew jmh}; compare the {@code gc.alloc.rate.norm} column with {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JavaSymbolExtractorBenchmark {
+
+    private static final Pattern JAVA_METHOD = Pattern.compile(".*(public|private|protected)\\s+.*\\(.*\\).*\\{");
+
+    @Param({"handwritten", "generated", "minified"})
+    private String shape;
+
+    private String source;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        source = switch (shape) {
+            case "handwritten" -> handwritten(random);
+            case "generated" -> generated(random);
+            default -> handwritten(random).replace('\n', ' ');
+        };
+    }
+
+    @Benchmark
+    public List<String> lineRegex() {
+        List<String> methods = new ArrayList<>();
+        for (String line : source.lines().toList()) {
+            String trimmed = line.trim();
+            if (JAVA_METHOD.matcher(trimmed).matches()) {
+                methods.add(trimmed);
+            }
+        }
+        return methods;
+    }
+
+    @Benchmark
+    public JavaSymbolExtractor.JavaSymbols extractor() {
+        return JavaSymbolExtractor.extract(source);
+    }
+
+    /**
+     * A service-sized class: fields and forty methods of mixed visibility, about 20 KB.
+     */
+    private static String handwritten(Random random) {
+        StringBuilder source = new StringBuilder("package com.example.service;\n\npublic class OrderService {\n");
+        source.append("    private final Map<String, Order> orders = new HashMap<>();\n\n");
+        for (int i = 0; i < 40; i++) {
+            String visibility = switch (random.nextInt(3)) {
+                case 0 -> "public";
+                case 1 -> "private";
+                default -> "protected";
+            };
+            source.append("    ").append(visibility).append(" Optional<Order> find").append(i)
+                    .append("(String id, int limit) {\n");
+            for (int line = 0; line < 8; line++) {
+                source.append("        log.debug(\"Looking up {} ({} of {})\", id, ").append(line)
+                        .append(", limit); if (orders.containsKey(id)) { return Optional.of(orders.get(id)); }\n");
+            }
+            source.append("        return Optional.empty();\n    }\n\n");
+        }
+        return source.append("}\n").toString();
+    }
+
+    /**
+     * Generated code: lookup tables and builder chains of several thousand characters per line,
+     * full of parentheses and braces but with a visibility modifier only at the start.
+     */
+    private static String generated(Random random) {
+        StringBuilder source = new StringBuilder("package com.example.generated;\n\npublic final class Tables {\n");
+        for (int table = 0; table < 20; table++) {
+            source.append("    private static final int[][] TABLE").append(table).append(" = {");
+            for (int row = 0; row < 300; row++) {
+                source.append("{").append(random.nextInt(1000)).append(", ").append(random.nextInt(1000)).append("}, ");
+            }
+            source.append("};\n");
+            source.append("    public static Message build").append(table).append("() { return Message.newBuilder()");
+            for (int field = 0; field < 200; field++) {
+                source.append(".setField").append(field).append("(Value.of(").append(random.nextInt(100)).append("))");
+            }
+            source.append(".build(); }\n");
+        }
+        return source.append("}\n").toString();
+    }
+}
@@ -0,0 +1,168 @@
+package com.bugbounty.cve.service;
+
+import com.bugbounty.cve.index.JavaIndexer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Full Java index of a large synthetic repository: the parallel single-read extraction in
+ * {@link CodebaseIndexService} at several pool sizes, against the previous sequential walk that
+ * read every file twice.
+ *
+ * Scores are files/s. Peak heap of each iteration is printed after it; add {@code -prof gc} for
+ * allocation per file. Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CodebaseIndexBenchmark {
+
+    private static final int FILES = 20_000;
+    private static final int PACKAGES = 200;
+
+    @Param({"1", "4", "16", "64"})
+    private int parallelism;
+
+    private Path repoPath;
+    private CodebaseIndexService indexService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        repoPath = Files.createTempDirectory("codebase-index-bench");
+        Random random = new Random(42);
+        for (int i = 0; i < FILES; i++) {
+            int pkg = i % PACKAGES;
+            Path dir = Files.createDirectories(repoPath.resolve("module" + (pkg % 20) + "/src/main/java/com/example/pkg" + pkg));
+            Files.writeString(dir.resolve("Type" + i + ".java"), source(pkg, i, random));
+        }
+
+        indexService = new CodebaseIndexService(null, null, null, new ObjectMapper(), List.of(new JavaIndexer()), null);
+        Field field = CodebaseIndexService.class.getDeclaredField("parallelism");
+        field.setAccessible(true);
+        field.setInt(indexService, parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(repoPath)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPeakHeap() {
+        System.gc();
+        heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    @TearDown(Level.Iteration)
+    public void printPeakHeap() {
+        long peak = heapPools().stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        System.out.printf("%n  peak heap: %d MB%n", peak / (1024 * 1024));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILES)
+    public List<Object> parallelSingleRead() throws Exception {
+        return indexService.buildEntries(repoPath, "Java");
+    }
+
+    /**
+     * The indexer before the parallel pipeline; independent of {@code parallelism}.
+     */
+    @Benchmark
+    @OperationsPerInvocation(FILES)
+    public Map<String, Object> sequentialTwoReads() throws Exception {
+        List<Map<String, Object>> packages = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(repoPath)) {
+            paths.filter(path -> path.toString().endsWith(".java"))
+                    .filter(path -> !path.toString().contains("/test/"))
+                    .forEach(javaFile -> {
+                        try {
+                            String packageName = "default";
+                            for (String line : Files.readAllLines(javaFile)) {
+                                if (line.trim().startsWith("package ")) {
+                                    packageName = line.trim().replace("package ", "").replace(";", "").trim();
+                                    break;
+                                }
+                            }
+                            List<String> methods = new ArrayList<>();
+                            for (String line : Files.readAllLines(javaFile)) {
+                                if (line.trim().matches(".*(public|private|protected)\\s+.*\\(.*\\).*\\{")) {
+                                    methods.add(line.trim());
+                                }
+                            }
+                            Map<String, Object> pkg = new HashMap<>();
+                            pkg.put("package", packageName);
+                            pkg.put("class", javaFile.getFileName().toString().replace(".java", ""));
+                            pkg.put("path", repoPath.relativize(javaFile).toString());
+                            pkg.put("methods", methods);
+                            packages.add(pkg);
+                        } catch (IOException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    });
+        }
+        return Map.of("language", "Java", "packages", packages, "totalClasses", packages.size());
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+    }
+
+    /**
+     * A service-sized class: imports, fields and a dozen methods of mixed visibility.
+     */
+    private static String source(int pkg, int index, Random random) {
+        StringBuilder source = new StringBuilder(8192)
+                .append("package com.example.pkg").append(pkg).append(";\n\n")
+                .append("import java.util.List;\nimport java.util.Map;\nimport java.util.Optional;\n\n")
+                .append("public class Type").append(index).append(" {\n\n")
+                .append("    private final Map<String, Object> cache = new java.util.HashMap<>();\n\n");
+        for (int method = 0; method < 12; method++) {
+            String visibility = switch (random.nextInt(3)) {
+                case 0 -> "public";
+                case 1 -> "private";
+                default -> "protected";
+            };
+            source.append("    ").append(visibility).append(" Optional<String> handle").append(method)
+                    .append("(String id, int limit) {\n");
+            for (int line = 0; line < 8; line++) {
+                source.append("        String value").append(line).append(" = (String) cache.get(id + \"")
+                        .append(random.nextInt(1000)).append("\");\n");
+            }
+            source.append("        return Optional.ofNullable(value0);\n    }\n\n");
+        }
+        return source.append("}\n").toString();
+    }
+}
@@ -0,0 +1,154 @@
+package com.bugbounty.llm.prompt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chained {@link String#replace} versus {@link CompiledPromptTemplate} for the individual-CVE
+ * commit analysis prompt, the largest one we build (diff, file contents and codebase index).
+ *
+ * Run with {@code ./gradlew jmh}; compare the {@code gc.alloc.rate.norm} column with {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PromptRenderingBenchmark {
+
+    private static final String TEMPLATE = """
+            Analyze this specific CVE in detail.
+
+            CVE: {cveId}
+            Summary: {summary}
+            Vulnerable Pattern: {vulnerablePattern}
+            Fixed Pattern: {fixedPattern}
+
+            Programming Language: {language}
+
+            Commit Diff:
+            {commitDiff}
+
+            Affected Files Content:
+            {fileContents}
+
+            Codebase Structure:
+            {codebaseIndex}
+
+            Analyze:
+            1. Is this CVE definitely present in the commit? (confidence 0.0-1.0)
+            2. What is the specific vulnerable code?
+            3. What would be the recommended fix?
+
+            Respond with JSON:
+            {{
+              "cveId": "{cveId}",
+              "present": true/false,
+              "confidence": 0.0-1.0,
+              "vulnerableCode": "specific code that is vulnerable",
+              "recommendedFix": "suggested fix code",
+              "notes": "additional analysis notes"
+            }}
+            """;
+
+    private static final CompiledPromptTemplate COMPILED = CompiledPromptTemplate.compile(TEMPLATE);
+
+    // Typical single-fix commit, a large feature commit, and a vendored-dependency bump
+    @Param({"16", "256", "2048"})
+    private int diffKb;
+
+    @Param({"1024"})
+    private int indexKb;
+
+    private String commitDiff;
+    private String fileContents;
+    private String codebaseIndex;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        commitDiff = diff(diffKb * 1024, random);
+        fileContents = source(diffKb * 2048, random);
+        codebaseIndex = index(indexKb * 1024, random);
+    }
+
+    @Benchmark
+    public String chainedReplace() {
+        return TEMPLATE.replace("{cveId}", "CVE-2021-44228")
+                .replace("{summary}", "Log4Shell JNDI lookup in log messages")
+                .replace("{vulnerablePattern}", "Logging attacker-controlled strings with lookups enabled")
+                .replace("{fixedPattern}", "Upgrade log4j-core and disable message lookups")
+                .replace("{language}", "Java")
+                .replace("{commitDiff}", commitDiff)
+                .replace("{fileContents}", fileContents)
+                .replace("{codebaseIndex}", codebaseIndex);
+    }
+
+    @Benchmark
+    public String compiledTemplate() {
+        return COMPILED.with("cveId", "CVE-2021-44228")
+                .with("summary", "Log4Shell JNDI lookup in log messages")
+                .with("vulnerablePattern", "Logging attacker-controlled strings with lookups enabled")
+                .with("fixedPattern", "Upgrade log4j-core and disable message lookups")
+                .with("language", "Java")
+                .with("commitDiff", commitDiff)
+                .with("fileContents", fileContents)
+                .with("codebaseIndex", codebaseIndex)
+                .render();
+    }
+
+    private static String diff(int size, Random random) {
+        StringBuilder diff = new StringBuilder(size + 128);
+        int file = 0;
+        while (diff.length() < size) {
+            diff.append("diff --git a/src/main/java/com/example/Service").append(file)
+                    .append(".java b/src/main/java/com/example/Service").append(file).append(".java\n")
+                    .append("@@ -").append(random.nextInt(500)).append(",7 +").append(random.nextInt(500)).append(",8 @@\n");
+            for (int line = 0; line < 40 && diff.length() < size; line++) {
+                char marker = switch (random.nextInt(4)) {
+                    case 0 -> '+';
+                    case 1 -> '-';
+                    default -> ' ';
+                };
+                diff.append(marker).append(codeLine(random)).append('\n');
+            }
+            file++;
+        }
+        return diff.toString();
+    }
+
+    private static String source(int size, Random random) {
+        StringBuilder source = new StringBuilder(size + 128);
+        while (source.length() < size) {
+            source.append(codeLine(random)).append('\n');
+        }
+        return source.toString();
+    }
+
+    private static String index(int size, Random random) {
+        StringBuilder index = new StringBuilder(size + 128).append("{\"files\": [");
+        while (index.length() < size) {
+            index.append("{\"path\": \"src/main/java/com/example/pkg").append(random.nextInt(100))
+                    .append("/Type").append(random.nextInt(10_000))
+                    .append(".java\", \"classes\": [\"Type\"], \"methods\": [\"handle\", \"validate\"]},");
+        }
+        return index.append("]}").toString();
+    }
+
+    private static String codeLine(Random random) {
+        return switch (random.nextInt(5)) {
+            case 0 -> "        String value = request.getParameter(\"field" + random.nextInt(100) + "\");";
+            case 1 -> "        if (value == null || value.isBlank()) { return Optional.empty(); }";
+            case 2 -> "        log.debug(\"Processing {} for {}\", value, userId);";
+            case 3 -> "        Map<String, Object> params = Map.of(\"id\", id, \"limit\", " + random.nextInt(1000) + ");";
+            default -> "        return repository.findById(id).map(mapper::toDomain).orElseThrow();";
+        };
+    }
+}
@@ -0,0 +1,57 @@
+package com.bugbounty.bounty.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Memoized LLM triage outcome, keyed by a hash of the issue content and triage thresholds.
+ * Shared by every bounty with the same content (edits, reopens, cross-platform duplicates).
+ */
+@Entity
+@Table(name = "triage_decisions", indexes = {
+    @Index(name = "idx_triage_decisions_content_hash", columnList = "contentHash", unique = true)
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TriageDecisionEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false, length = 64)
+    private String contentHash; // SHA-256 hex of the normalized triage inputs
+
+    @Column(nullable = false)
+    private boolean shouldProcess;
+
+    @Column(nullable = false)
+    private double confidence;
+
+    @Column(nullable = false)
+    private int estimatedTimeMinutes;
+
+    @Column(columnDefinition = "TEXT")
+    private String reason;
+
+    private String issueId; // Bounty that was triaged first, for reference
+    private String platform;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
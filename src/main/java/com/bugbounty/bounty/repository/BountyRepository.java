@@ -18,5 +18,7 @@ public interface BountyRepository extends JpaRepository<BountyEntity, UUID> {
     List<BountyEntity> findByPlatformAndStatus(String platform, BountyStatus status);
     
     java.util.Optional<BountyEntity> findByIssueIdAndPlatform(String issueId, String platform);
+    
+    List<BountyEntity> findByIssueIdIn(java.util.Collection<String> issueIds);
 }
 
@@ -0,0 +1,21 @@
+package com.bugbounty.bounty.repository;
+
+import com.bugbounty.bounty.entity.TriageDecisionEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface TriageDecisionRepository extends JpaRepository<TriageDecisionEntity, UUID> {
+    
+    Optional<TriageDecisionEntity> findByContentHash(String contentHash);
+
+    /**
+     * Decisions that still name the bounty they were made for, a page at a time (no count query).
+     */
+    Slice<TriageDecisionEntity> findByIssueIdIsNotNullAndPlatformIsNotNull(Pageable pageable);
+}
@@ -7,6 +7,7 @@ import com.bugbounty.bounty.service.GitPayApiClient;
 import com.bugbounty.bounty.triage.BountyFilteringService;
 import com.bugbounty.bounty.triage.FilterResult;
 import com.bugbounty.bounty.triage.TriageQueueService;
+import com.bugbounty.llm.deadline.Deadline;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,6 +16,9 @@ import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -39,6 +43,12 @@ public class BountyPollingService {
     
     @Value("${app.bounty.polling.interval-seconds:300}")
     private long pollingIntervalSeconds;
+
+    /**
+     * Budget for one scheduled poll including its LLM triage, so a slow model cannot make polls overlap.
+     */
+    @Value("${app.bounty.polling.deadline-seconds:240}")
+    private long pollingDeadlineSeconds = 240;
     
     /**
      * Scheduled task to poll all platforms (Algora, Polar, GitHub) for new bounties.
@@ -56,6 +66,7 @@ public class BountyPollingService {
         pollAllPlatforms()
                 .doOnComplete(() -> log.info("Scheduled bounty polling completed"))
                 .doOnError(error -> log.error("Error during scheduled bounty polling", error))
+                .contextWrite(Deadline.after(Duration.ofSeconds(pollingDeadlineSeconds))::writeTo)
                 .subscribe();
     }
 
@@ -66,29 +77,7 @@ public class BountyPollingService {
     public Flux<Bounty> pollAlgora(BigDecimal minimumAmount) {
         log.debug("Polling Algora API for new bounties");
         
-        return algoraApiClient.fetchBounties()
-                .filter(bounty -> !bountyRepository.existsByIssueIdAndPlatform(
-                        bounty.getIssueId(), 
-                        bounty.getPlatform()))
-                .filter(bounty -> bounty.meetsMinimumAmount(minimumAmount))
-                .flatMap(bounty -> {
-                    // Save to database
-                    log.info("Saving new bounty: {} from {}", bounty.getIssueId(), bounty.getPlatform());
-                    var entity = bountyMapper.toEntity(bounty);
-                    var saved = bountyRepository.save(entity);
-                    Bounty savedBounty = bountyMapper.toDomain(saved);
-                    
-                    // Filter and enqueue for triage
-                    FilterResult filterResult = filteringService.shouldProcess(savedBounty);
-                    if (filterResult.shouldProcess()) {
-                        log.info("Bounty {} passed filtering, enqueuing for triage", savedBounty.getIssueId());
-                        triageQueueService.enqueue(savedBounty);
-                    } else {
-                        log.debug("Bounty {} filtered out: {}", savedBounty.getIssueId(), filterResult.reason());
-                    }
-                    
-                    return Flux.just(savedBounty);
-                })
+        return saveAndTriage(algoraApiClient.fetchBounties(), minimumAmount)
                 .doOnError(error -> log.error("Error polling Algora API", error));
     }
 
@@ -99,29 +88,7 @@ public class BountyPollingService {
     public Flux<Bounty> pollPolar(BigDecimal minimumAmount) {
         log.debug("Polling Polar API for new bounties");
         
-        return polarApiClient.fetchBounties()
-                .filter(bounty -> !bountyRepository.existsByIssueIdAndPlatform(
-                        bounty.getIssueId(), 
-                        bounty.getPlatform()))
-                .filter(bounty -> bounty.meetsMinimumAmount(minimumAmount))
-                .flatMap(bounty -> {
-                    // Save to database
-                    log.info("Saving new bounty: {} from {}", bounty.getIssueId(), bounty.getPlatform());
-                    var entity = bountyMapper.toEntity(bounty);
-                    var saved = bountyRepository.save(entity);
-                    Bounty savedBounty = bountyMapper.toDomain(saved);
-                    
-                    // Filter and enqueue for triage
-                    FilterResult filterResult = filteringService.shouldProcess(savedBounty);
-                    if (filterResult.shouldProcess()) {
-                        log.info("Bounty {} passed filtering, enqueuing for triage", savedBounty.getIssueId());
-                        triageQueueService.enqueue(savedBounty);
-                    } else {
-                        log.debug("Bounty {} filtered out: {}", savedBounty.getIssueId(), filterResult.reason());
-                    }
-                    
-                    return Flux.just(savedBounty);
-                })
+        return saveAndTriage(polarApiClient.fetchBounties(), minimumAmount)
                 .doOnError(error -> log.error("Error polling Polar API", error));
     }
 
@@ -169,34 +136,85 @@ public class BountyPollingService {
     public Flux<Bounty> pollGitPay(BigDecimal minimumAmount) {
         log.debug("Polling GitPay API for new bounties");
         
-        return gitpayApiClient.fetchBounties()
+        return saveAndTriage(gitpayApiClient.fetchBounties(), minimumAmount)
+                .doOnError(error -> log.error("Error polling GitPay API", error));
+    }
+    
+    public Flux<Bounty> pollGitPay() {
+        return pollGitPay(DEFAULT_MINIMUM_AMOUNT);
+    }
+
+    /**
+     * Save the new bounties from one poll, then triage them together so the LLM step can batch
+     * several bounties per prompt. Accepted bounties are enqueued for triage. Triage runs under the
+     * subscriber's {@link Deadline}, if any. Bounties whose triage failed (LLM error, timeout, spent
+     * deadline) are deleted again so the next poll sees them as new and triages them once more;
+     * only the bounties that stay saved are emitted.
+     */
+    private Flux<Bounty> saveAndTriage(Flux<Bounty> fetched, BigDecimal minimumAmount) {
+        return fetched
                 .filter(bounty -> !bountyRepository.existsByIssueIdAndPlatform(
                         bounty.getIssueId(), 
                         bounty.getPlatform()))
                 .filter(bounty -> bounty.meetsMinimumAmount(minimumAmount))
-                .flatMap(bounty -> {
+                .map(bounty -> {
                     // Save to database
                     log.info("Saving new bounty: {} from {}", bounty.getIssueId(), bounty.getPlatform());
                     var entity = bountyMapper.toEntity(bounty);
                     var saved = bountyRepository.save(entity);
-                    Bounty savedBounty = bountyMapper.toDomain(saved);
-                    
-                    // Filter and enqueue for triage
-                    FilterResult filterResult = filteringService.shouldProcess(savedBounty);
-                    if (filterResult.shouldProcess()) {
-                        log.info("Bounty {} passed filtering, enqueuing for triage", savedBounty.getIssueId());
-                        triageQueueService.enqueue(savedBounty);
-                    } else {
-                        log.debug("Bounty {} filtered out: {}", savedBounty.getIssueId(), filterResult.reason());
-                    }
-                    
-                    return Flux.just(savedBounty);
+                    return bountyMapper.toDomain(saved);
                 })
-                .doOnError(error -> log.error("Error polling GitPay API", error));
+                .collectList()
+                .flatMapMany(savedBounties -> Flux.deferContextual(context -> {
+                    List<Bounty> kept = new ArrayList<>();
+                    Deadline.from(context).run(() -> kept.addAll(filterAndEnqueue(savedBounties)));
+                    return Flux.fromIterable(kept);
+                }));
     }
-    
-    public Flux<Bounty> pollGitPay() {
-        return pollGitPay(DEFAULT_MINIMUM_AMOUNT);
+
+    /**
+     * @return The bounties that were triaged, accepted or rejected; the rest were deleted for a retry
+     */
+    private List<Bounty> filterAndEnqueue(List<Bounty> bounties) {
+        if (bounties.isEmpty()) {
+            return bounties;
+        }
+
+        List<FilterResult> filterResults;
+        try {
+            filterResults = filteringService.shouldProcessBatch(bounties);
+        } catch (RuntimeException e) {
+            log.warn("Triage of {} bounties failed, will retry on the next poll: {}", bounties.size(), e.getMessage());
+            bounties.forEach(this::releaseForRetry);
+            return List.of();
+        }
+
+        List<Bounty> triaged = new ArrayList<>();
+        for (int i = 0; i < bounties.size(); i++) {
+            Bounty bounty = bounties.get(i);
+            FilterResult filterResult = filterResults.get(i);
+            if (filterResult.failed()) {
+                log.info("Triage of bounty {} failed, will retry on the next poll: {}",
+                        bounty.getIssueId(), filterResult.reason());
+                releaseForRetry(bounty);
+                continue;
+            }
+            triaged.add(bounty);
+            if (filterResult.shouldProcess()) {
+                log.info("Bounty {} passed filtering, enqueuing for triage", bounty.getIssueId());
+                triageQueueService.enqueue(bounty);
+            } else {
+                log.debug("Bounty {} filtered out: {}", bounty.getIssueId(), filterResult.reason());
+            }
+        }
+        return triaged;
     }
-}
 
+    /**
+     * Undo the save, so the bounty is not skipped as already known by the next poll.
+     */
+    private void releaseForRetry(Bounty bounty) {
+        bountyRepository.findByIssueIdAndPlatform(bounty.getIssueId(), bounty.getPlatform())
+                .ifPresent(bountyRepository::delete);
+    }
+}
@@ -1,22 +1,28 @@
 package com.bugbounty.bounty.triage;
 
 import com.bugbounty.bounty.domain.Bounty;
+import com.bugbounty.bounty.triage.classifier.TriageClassifier;
+import com.bugbounty.llm.prompt.CompiledPromptTemplate;
+import com.bugbounty.llm.scheduler.LlmPriority;
+import com.bugbounty.llm.service.LlmGateway;
 import com.bugbounty.repository.entity.RepositoryEntity;
 import com.bugbounty.repository.repository.RepositoryRepository;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.ai.chat.ChatClient;
-import org.springframework.ai.chat.ChatResponse;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -29,9 +35,122 @@ public class BountyFilteringService {
     private static final double DEFAULT_MIN_CONFIDENCE = 0.6;
     private static final int DEFAULT_MAX_TIME_MINUTES = 60;
 
-    private final ChatClient chatClient;
+    // Bump when the triage prompts or criteria change, so memoized decisions are not reused
+    private static final int TRIAGE_PROMPT_VERSION = 1;
+
+    private static final FilterResult UNPARSEABLE = new FilterResult(false, 0.0, 0, "Failed to parse LLM response");
+
+    // Batches mix repositories, so they share one fairness key in the LLM scheduler
+    private static final String BATCH_FAIRNESS_KEY = "triage-batch";
+
+    // The decision fields come first in the response; generation stops once they are parsed,
+    // so the free-text "reason" is only present when the model emits it early
+    private static final Set<String> DECISION_FIELDS =
+            Set.of("shouldProcess", "confidence", "estimatedTimeMinutes", "complexity");
+
+    // Shared by the single and batch prompts so both apply the same bar
+    private static final String TRIAGE_GUIDELINES = """
+            CRITICAL: We are looking for SIMPLE, QUICK bugs that can be fixed fast for quick cash.
+            BRUTAL REALITY CHECK: Most Algora bounties require full POCs, multiple PR iterations, 
+            and deep codebase understanding. We need to REJECT 95%+ of bounties and only accept 
+            truly trivial fixes that can be done in a single file with no POC required.
+            """;
+
+    private static final CompiledPromptTemplate TRIAGE_CRITERIA = CompiledPromptTemplate.compile("""
+            CRITICAL REJECTION CRITERIA (reject if ANY apply):
+            1. **POC Required**: Mentions "proof", "exploit", "demonstration", "POC", "PoC", "proof of concept"
+            2. **Security Bug**: Security vulnerabilities need POCs to prove
+            3. **Multiple Files**: Requires changes in more than 1 file
+            4. **Architecture**: Mentions "refactor", "architecture", "design pattern", "restructure"
+            5. **Testing Required**: Needs new tests, test suites, or extensive testing
+            6. **Documentation**: Requires documentation updates
+            7. **Vague**: Description is unclear, incomplete, or missing steps
+            8. **High Value**: Bounty > $300 usually indicates complexity
+            9. **Performance**: Performance issues require profiling/benchmarking
+            10. **Integration**: Requires understanding external systems or APIs
+            11. **Multiple Iterations**: Any indication that feedback/iterations are expected
+            12. **Complex Logic**: Involves algorithms, data structures, or complex business logic
+            
+            ACCEPT ONLY if ALL of these are true:
+            1. **Single File**: Fix in exactly 1 file, no other files touched
+            2. **Trivial Bug**: Obvious error (typo, wrong variable name, missing null check, wrong operator)
+            3. **No POC**: Just a code fix, no proof/demonstration needed
+            4. **Clear Description**: Issue has clear steps, expected vs actual behavior
+            5. **Low Complexity**: Can understand the fix without reading other files
+            6. **No Testing**: Fix doesn't require new tests (or tests already exist)
+            7. **Low Value**: Bounty < $200 (simple fixes are usually lower value)
+            8. **Non-Security**: Not a security vulnerability
+            9. **Quick Fix**: Can be done in under {maxTime} minutes
+            10. **High Confidence**: 90%+ confidence this is truly trivial
+            
+            BE BRUTAL: If there's ANY doubt, REJECT. Better to miss a bounty than waste time on complex ones.""");
+
+    private static final CompiledPromptTemplate TRIAGE_PROMPT = CompiledPromptTemplate.compile("""
+            Analyze this bug bounty and determine if it should be processed.
+            
+            {guidelines}
+            
+            Bounty Details:
+            - Issue ID: {issueId}
+            - Repository: {repositoryUrl}
+            - {languageInfo}
+            - Platform: {platform}
+            - Amount: {amount} {currency}
+            - Title: {title}
+            - Description: {description}
+            
+            {criteria}
+            
+            Respond with a JSON object:
+            {{
+              "shouldProcess": true/false,
+              "confidence": 0.0-1.0,
+              "estimatedTimeMinutes": number,
+              "complexity": "simple|moderate|complex",
+              "reason": "brief explanation - be specific about why accepted/rejected"
+            }}
+            """);
+
+    private static final CompiledPromptTemplate BATCH_TRIAGE_PROMPT = CompiledPromptTemplate.compile("""
+            Analyze each of the following bug bounties independently and determine if it should be processed.
+            
+            {guidelines}
+            
+            {criteria}
+            
+            Bounties (each starts with its ID in brackets):
+            
+            {items}
+            Respond with a JSON array containing exactly one object per bounty, using the bounty's ID:
+            [
+              {{
+                "id": "B1",
+                "shouldProcess": true/false,
+                "confidence": 0.0-1.0,
+                "estimatedTimeMinutes": number,
+                "complexity": "simple|moderate|complex",
+                "reason": "brief explanation - be specific about why accepted/rejected"
+              }}
+            ]
+            """);
+
+    private static final CompiledPromptTemplate BATCH_TRIAGE_ITEM = CompiledPromptTemplate.compile("""
+            [{id}]
+            - Repository: {repositoryUrl}
+            - Repository Language: {language}
+            - Platform: {platform}
+            - Amount: {amount} {currency}
+            - Title: {title}
+            - Description: {description}
+
+            """);
+
+    private final LlmGateway llmGateway;
     private final ObjectMapper objectMapper;
     private final RepositoryRepository repositoryRepository;
+    private final TriageDecisionStore triageDecisionStore;
+    private final TriageRuleEngine triageRuleEngine;
+    private final TriageClassifier triageClassifier;
 
     @Value("${app.bounty.triage.supported-languages:Java,TypeScript,JavaScript,Python}")
     private String supportedLanguagesConfig;
@@ -48,6 +167,9 @@ public class BountyFilteringService {
     @Value("${app.bounty.triage.max-bounty-amount:200}")
     private String maxBountyAmountStr;
 
+    @Value("${app.bounty.triage.batch-size:8}")
+    private int batchSize = 8;
+
     /**
      * Get set of supported languages from configuration.
      */
@@ -83,58 +205,237 @@ public class BountyFilteringService {
         try {
             log.debug("Filtering bounty: {} - {}", bounty.getIssueId(), bounty.getTitle());
 
-            // Step 1: Pre-filter by language (fast, no LLM call)
-            FilterResult languageCheck = checkLanguage(bounty);
+            // Step 1: Pre-filter by language, bounty amount and keyword rules (fast, no LLM call)
+            // Higher bounties usually indicate complexity - reject them early
+            FilterResult languageCheck = preFilter(bounty);
             if (!languageCheck.shouldProcess()) {
-                log.debug("Bounty {} rejected at language check: {}", bounty.getIssueId(), languageCheck.reason());
                 return languageCheck;
             }
 
-            // Step 1.5: Pre-filter by bounty amount (fast, no LLM call)
-            // Higher bounties usually indicate complexity - reject them early
-            BigDecimal maxAmount = getMaxBountyAmount();
-            if (bounty.getAmount() != null && bounty.getAmount().compareTo(maxAmount) > 0) {
-                log.debug("Bounty {} rejected: amount {} exceeds maximum {}", 
-                        bounty.getIssueId(), bounty.getAmount(), maxAmount);
-                return new FilterResult(false, 0.0, 0, 
-                        String.format("Bounty amount %s exceeds maximum %s (higher amounts usually indicate complexity)", 
-                                bounty.getAmount(), maxAmount));
+            // Same content already triaged under the same thresholds (edit, reopen, cross-post)
+            String memoKey = memoKey(bounty, minConfidence, maxTimeMinutes);
+            Optional<FilterResult> memoized = triageDecisionStore.get(memoKey);
+            if (memoized.isPresent()) {
+                log.debug("Bounty {} answered from memoized triage decision", bounty.getIssueId());
+                return memoized.get();
+            }
+
+            // Step 2: Learned pre-screen - confident rejections skip the LLM, likely accepts skip the cascade screen
+            Optional<TriageClassifier.Prediction> prediction = triageClassifier.predict(bounty, getRepositoryLanguage(bounty));
+            if (isVerdict(prediction, TriageClassifier.Verdict.REJECT)) {
+                return classifierRejection(bounty, prediction.get());
             }
 
-            // Step 2: LLM-based complexity and feasibility analysis
-            String promptText = buildPrompt(bounty, languageCheck);
+            // Step 3: LLM-based complexity and feasibility analysis
+            return triageSingle(bounty, minConfidence, maxTimeMinutes, isVerdict(prediction, TriageClassifier.Verdict.ESCALATE));
+
+        } catch (Exception e) {
+            log.error("Error filtering bounty: {}", bounty.getIssueId(), e);
+            // Fail-safe: do not process, but leave the bounty to be triaged again
+            return FilterResult.failed("Error during filtering: " + e.getMessage());
+        }
+    }
+
+    /**
+     * One LLM triage call for a bounty that passed the pre-filters.
+     *
+     * @param escalate Skip the cascade screen and ask the primary model directly
+     */
+    private FilterResult triageSingle(Bounty bounty, double minConfidence, int maxTimeMinutes, boolean escalate) {
+        try {
+            String promptText = buildPrompt(bounty);
             Prompt aiPrompt = new Prompt(new UserMessage(promptText));
 
-            ChatResponse response = chatClient.call(aiPrompt);
-            String content = response.getResult().getOutput().getContent();
+            String content = escalate
+                    ? llmGateway.stream(aiPrompt, LlmPriority.TRIAGE, bounty.getRepositoryUrl(), DECISION_FIELDS)
+                    : llmGateway.cascade(aiPrompt, LlmPriority.TRIAGE, bounty.getRepositoryUrl(),
+                            DECISION_FIELDS, "triage", this::screenRejectConfidence);
 
-            FilterResult result = parseResponse(content);
+            FilterResult parsed = parseResponse(content);
+            FilterResult result = applyThresholds(bounty, parsed, minConfidence, maxTimeMinutes);
+            if (parsed != UNPARSEABLE) {
+                triageDecisionStore.put(memoKey(bounty, minConfidence, maxTimeMinutes), bounty, result);
+            }
+            return result;
 
-            // Apply thresholds
-            if (result.confidence() < minConfidence) {
-                log.debug("Bounty {} rejected: confidence {} below threshold {}", 
-                        bounty.getIssueId(), result.confidence(), minConfidence);
-                return new FilterResult(false, result.confidence(), result.estimatedTimeMinutes(), 
-                        result.reason() + " (confidence too low)");
+        } catch (Exception e) {
+            log.error("Error filtering bounty: {}", bounty.getIssueId(), e);
+            // Fail-safe: do not process, but leave the bounty to be triaged again
+            return FilterResult.failed("Error during filtering: " + e.getMessage());
+        }
+    }
+
+    private static boolean isVerdict(Optional<TriageClassifier.Prediction> prediction, TriageClassifier.Verdict verdict) {
+        return prediction.isPresent() && prediction.get().verdict() == verdict;
+    }
+
+    private FilterResult classifierRejection(Bounty bounty, TriageClassifier.Prediction prediction) {
+        log.debug("Bounty {} rejected by triage classifier (p(accept)={})", bounty.getIssueId(), prediction.probability());
+        return new FilterResult(false, 1.0 - prediction.probability(), 0,
+                String.format("Rejected by triage classifier: estimated acceptance probability %.3f", prediction.probability()));
+    }
+
+    /**
+     * Triage several bounties, packing up to {@code batch-size} LLM candidates into one prompt.
+     * Pre-filters (language, amount, keyword rules), memoized decisions and classifier rejections
+     * still apply per bounty without an LLM call; bounties the classifier escalates are batched
+     * separately and skip the cascade screen. Any bounty whose result is missing or unparseable in
+     * the batch response is triaged with a single-item call.
+     *
+     * @return Filter results in the same order as {@code bounties}
+     */
+    public List<FilterResult> shouldProcessBatch(List<Bounty> bounties) {
+        FilterResult[] results = new FilterResult[bounties.size()];
+        List<Integer> candidates = new ArrayList<>();
+        List<Integer> escalated = new ArrayList<>();
+
+        for (int i = 0; i < bounties.size(); i++) {
+            FilterResult preFilter = preFilter(bounties.get(i));
+            if (!preFilter.shouldProcess()) {
+                results[i] = preFilter;
+                continue;
+            }
+            Optional<FilterResult> memoized = triageDecisionStore.get(memoKey(bounties.get(i), minConfidence, maxTimeMinutes));
+            if (memoized.isPresent()) {
+                results[i] = memoized.get();
+                continue;
             }
+            Optional<TriageClassifier.Prediction> prediction =
+                    triageClassifier.predict(bounties.get(i), getRepositoryLanguage(bounties.get(i)));
+            if (isVerdict(prediction, TriageClassifier.Verdict.REJECT)) {
+                results[i] = classifierRejection(bounties.get(i), prediction.get());
+            } else if (isVerdict(prediction, TriageClassifier.Verdict.ESCALATE)) {
+                escalated.add(i);
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        triageChunks(bounties, candidates, false, results);
+        triageChunks(bounties, escalated, true, results);
+        return Arrays.asList(results);
+    }
 
-            if (result.estimatedTimeMinutes() > maxTimeMinutes) {
-                log.debug("Bounty {} rejected: estimated time {} exceeds threshold {}", 
-                        bounty.getIssueId(), result.estimatedTimeMinutes(), maxTimeMinutes);
-                return new FilterResult(false, result.confidence(), result.estimatedTimeMinutes(), 
-                        result.reason() + " (time estimate too high)");
+    private void triageChunks(List<Bounty> bounties, List<Integer> candidates, boolean escalate, FilterResult[] results) {
+        int size = Math.max(1, batchSize);
+        for (int start = 0; start < candidates.size(); start += size) {
+            List<Integer> chunk = candidates.subList(start, Math.min(start + size, candidates.size()));
+            if (chunk.size() == 1) {
+                int index = chunk.get(0);
+                results[index] = triageSingle(bounties.get(index), minConfidence, maxTimeMinutes, escalate);
+                continue;
+            }
+
+            Map<Integer, FilterResult> batchResults = triageBatch(bounties, chunk, escalate);
+            for (int index : chunk) {
+                FilterResult result = batchResults.get(index);
+                if (result == null) {
+                    log.debug("No batch triage result for bounty {}, falling back to single call",
+                            bounties.get(index).getIssueId());
+                    result = triageSingle(bounties.get(index), minConfidence, maxTimeMinutes, escalate);
+                }
+                results[index] = result;
             }
+        }
+    }
+
+    /**
+     * Language, amount and keyword rule checks that reject without an LLM call.
+     * Returns the language check result (shouldProcess=true) when the bounty needs LLM triage.
+     */
+    private FilterResult preFilter(Bounty bounty) {
+        FilterResult languageCheck = checkLanguage(bounty);
+        if (!languageCheck.shouldProcess()) {
+            log.debug("Bounty {} rejected at language check: {}", bounty.getIssueId(), languageCheck.reason());
+            return languageCheck;
+        }
 
+        BigDecimal maxAmount = getMaxBountyAmount();
+        if (bounty.getAmount() != null && bounty.getAmount().compareTo(maxAmount) > 0) {
+            log.debug("Bounty {} rejected: amount {} exceeds maximum {}", 
+                    bounty.getIssueId(), bounty.getAmount(), maxAmount);
+            return new FilterResult(false, 0.0, 0, 
+                    String.format("Bounty amount %s exceeds maximum %s (higher amounts usually indicate complexity)", 
+                            bounty.getAmount(), maxAmount));
+        }
+
+        Optional<FilterResult> ruleRejection = triageRuleEngine.evaluate(bounty);
+        if (ruleRejection.isPresent()) {
+            log.debug("Bounty {} rejected by keyword rules: {}", bounty.getIssueId(), ruleRejection.get().reason());
+            return ruleRejection.get();
+        }
+        return languageCheck;
+    }
+
+    /**
+     * One LLM call for a chunk of bounties. Returns results keyed by index into {@code bounties};
+     * bounties missing from the response are absent from the map.
+     */
+    private Map<Integer, FilterResult> triageBatch(List<Bounty> bounties, List<Integer> chunk, boolean escalate) {
+        Map<Integer, FilterResult> results = new HashMap<>();
+        try {
+            Map<String, Integer> indexById = new LinkedHashMap<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                indexById.put("B" + (i + 1), chunk.get(i));
+            }
+
+            Prompt aiPrompt = new Prompt(new UserMessage(buildBatchPrompt(bounties, indexById)));
+            String content = escalate
+                    ? llmGateway.call(aiPrompt, LlmPriority.TRIAGE, BATCH_FAIRNESS_KEY)
+                    : llmGateway.cascade(aiPrompt, LlmPriority.TRIAGE, BATCH_FAIRNESS_KEY,
+                            Set.of(), "triage-batch", this::batchScreenRejectConfidence);
+
+            JsonNode array = objectMapper.readTree(stripCodeFences(content));
+            if (array.isObject() && array.has("results")) {
+                array = array.get("results");
+            }
+            if (!array.isArray()) {
+                log.warn("Batch triage response is not a JSON array, falling back to single calls");
+                return results;
+            }
+
+            for (JsonNode item : array) {
+                Integer index = indexById.get(item.path("id").asText());
+                if (index == null || results.containsKey(index) || !item.has("shouldProcess")
+                        || !item.has("confidence") || !item.has("estimatedTimeMinutes")) {
+                    continue;
+                }
+                Bounty bounty = bounties.get(index);
+                FilterResult parsed = parseResponse(item.toString());
+                FilterResult result = applyThresholds(bounty, parsed, minConfidence, maxTimeMinutes);
+                if (parsed != UNPARSEABLE) {
+                    triageDecisionStore.put(memoKey(bounty, minConfidence, maxTimeMinutes), bounty, result);
+                }
+                results.put(index, result);
+            }
+            log.debug("Batch triage parsed {}/{} results", results.size(), chunk.size());
+        } catch (Exception e) {
+            log.warn("Batch triage of {} bounties failed, falling back to single calls: {}", chunk.size(), e.getMessage());
+        }
+        return results;
+    }
+
+    private FilterResult applyThresholds(Bounty bounty, FilterResult result, double minConfidence, int maxTimeMinutes) {
+        if (result.confidence() < minConfidence) {
+            log.debug("Bounty {} rejected: confidence {} below threshold {}", 
+                    bounty.getIssueId(), result.confidence(), minConfidence);
+            return new FilterResult(false, result.confidence(), result.estimatedTimeMinutes(), 
+                    result.reason() + " (confidence too low)");
+        }
+
+        if (result.estimatedTimeMinutes() > maxTimeMinutes) {
+            log.debug("Bounty {} rejected: estimated time {} exceeds threshold {}", 
+                    bounty.getIssueId(), result.estimatedTimeMinutes(), maxTimeMinutes);
+            return new FilterResult(false, result.confidence(), result.estimatedTimeMinutes(), 
+                    result.reason() + " (time estimate too high)");
+        }
+
+        if (result.shouldProcess()) {
             log.info("Bounty {} accepted: confidence={}, time={}min, language={}", 
                     bounty.getIssueId(), result.confidence(), result.estimatedTimeMinutes(), 
                     getRepositoryLanguage(bounty));
-            return result;
-
-        } catch (Exception e) {
-            log.error("Error filtering bounty: {}", bounty.getIssueId(), e);
-            // Fail-safe: reject on error
-            return new FilterResult(false, 0.0, 0, "Error during filtering: " + e.getMessage());
         }
+        return result;
     }
 
     /**
@@ -204,92 +505,125 @@ public class BountyFilteringService {
         return null;
     }
 
-    private String buildPrompt(Bounty bounty, FilterResult languageCheck) {
+    private String buildPrompt(Bounty bounty) {
         String repositoryLanguage = getRepositoryLanguage(bounty);
         String languageInfo = repositoryLanguage != null ? 
                 String.format("Repository Language: %s (supported)", repositoryLanguage) : 
                 "Repository Language: Unknown";
         
-        return """
-                Analyze this bug bounty and determine if it should be processed.
-                
-                CRITICAL: We are looking for SIMPLE, QUICK bugs that can be fixed fast for quick cash.
-                BRUTAL REALITY CHECK: Most Algora bounties require full POCs, multiple PR iterations, 
-                and deep codebase understanding. We need to REJECT 95%+ of bounties and only accept 
-                truly trivial fixes that can be done in a single file with no POC required.
-                
-                Bounty Details:
-                - Issue ID: {issueId}
-                - Repository: {repositoryUrl}
-                - {languageInfo}
-                - Platform: {platform}
-                - Amount: {amount} {currency}
-                - Title: {title}
-                - Description: {description}
-                
-                CRITICAL REJECTION CRITERIA (reject if ANY apply):
-                1. **POC Required**: Mentions "proof", "exploit", "demonstration", "POC", "PoC", "proof of concept"
-                2. **Security Bug**: Security vulnerabilities need POCs to prove
-                3. **Multiple Files**: Requires changes in more than 1 file
-                4. **Architecture**: Mentions "refactor", "architecture", "design pattern", "restructure"
-                5. **Testing Required**: Needs new tests, test suites, or extensive testing
-                6. **Documentation**: Requires documentation updates
-                7. **Vague**: Description is unclear, incomplete, or missing steps
-                8. **High Value**: Bounty > $300 usually indicates complexity
-                9. **Performance**: Performance issues require profiling/benchmarking
-                10. **Integration**: Requires understanding external systems or APIs
-                11. **Multiple Iterations**: Any indication that feedback/iterations are expected
-                12. **Complex Logic**: Involves algorithms, data structures, or complex business logic
-                
-                ACCEPT ONLY if ALL of these are true:
-                1. **Single File**: Fix in exactly 1 file, no other files touched
-                2. **Trivial Bug**: Obvious error (typo, wrong variable name, missing null check, wrong operator)
-                3. **No POC**: Just a code fix, no proof/demonstration needed
-                4. **Clear Description**: Issue has clear steps, expected vs actual behavior
-                5. **Low Complexity**: Can understand the fix without reading other files
-                6. **No Testing**: Fix doesn't require new tests (or tests already exist)
-                7. **Low Value**: Bounty < $200 (simple fixes are usually lower value)
-                8. **Non-Security**: Not a security vulnerability
-                9. **Quick Fix**: Can be done in under {maxTime} minutes
-                10. **High Confidence**: 90%+ confidence this is truly trivial
-                
-                BE BRUTAL: If there's ANY doubt, REJECT. Better to miss a bounty than waste time on complex ones.
-                
-                Respond with a JSON object:
-                {{
-                  "shouldProcess": true/false,
-                  "confidence": 0.0-1.0,
-                  "estimatedTimeMinutes": number,
-                  "complexity": "simple|moderate|complex",
-                  "reason": "brief explanation - be specific about why accepted/rejected"
-                }}
-                """.replace("{issueId}", bounty.getIssueId())
-                .replace("{repositoryUrl}", bounty.getRepositoryUrl() != null ? bounty.getRepositoryUrl() : "N/A")
-                .replace("{languageInfo}", languageInfo)
-                .replace("{platform}", bounty.getPlatform())
-                .replace("{amount}", bounty.getAmount() != null ? bounty.getAmount().toString() : "N/A")
-                .replace("{currency}", bounty.getCurrency() != null ? bounty.getCurrency() : "USD")
-                .replace("{title}", bounty.getTitle() != null ? bounty.getTitle() : "N/A")
-                .replace("{description}", bounty.getDescription() != null ? bounty.getDescription() : "N/A")
-                .replace("{maxTime}", String.valueOf(maxTimeMinutes));
+        return TRIAGE_PROMPT
+                .with("guidelines", TRIAGE_GUIDELINES.strip())
+                .with("criteria", renderCriteria())
+                .with("issueId", bounty.getIssueId())
+                .with("repositoryUrl", bounty.getRepositoryUrl() != null ? bounty.getRepositoryUrl() : "N/A")
+                .with("languageInfo", languageInfo)
+                .with("platform", bounty.getPlatform())
+                .with("amount", bounty.getAmount() != null ? bounty.getAmount().toString() : "N/A")
+                .with("currency", bounty.getCurrency() != null ? bounty.getCurrency() : "USD")
+                .with("title", bounty.getTitle() != null ? bounty.getTitle() : "N/A")
+                .with("description", bounty.getDescription() != null ? bounty.getDescription() : "N/A")
+                .render();
     }
 
-    private FilterResult parseResponse(String content) {
+    private String buildBatchPrompt(List<Bounty> bounties, Map<String, Integer> indexById) {
+        StringBuilder items = new StringBuilder();
+        indexById.forEach((id, index) -> {
+            Bounty bounty = bounties.get(index);
+            String repositoryLanguage = getRepositoryLanguage(bounty);
+            items.append(BATCH_TRIAGE_ITEM
+                    .with("id", id)
+                    .with("repositoryUrl", bounty.getRepositoryUrl() != null ? bounty.getRepositoryUrl() : "N/A")
+                    .with("language", repositoryLanguage != null ? repositoryLanguage : "Unknown")
+                    .with("platform", bounty.getPlatform())
+                    .with("amount", bounty.getAmount() != null ? bounty.getAmount().toString() : "N/A")
+                    .with("currency", bounty.getCurrency() != null ? bounty.getCurrency() : "USD")
+                    .with("title", bounty.getTitle() != null ? bounty.getTitle() : "N/A")
+                    .with("description", bounty.getDescription() != null ? bounty.getDescription() : "N/A")
+                    .render());
+        });
+
+        return BATCH_TRIAGE_PROMPT
+                .with("guidelines", TRIAGE_GUIDELINES.strip())
+                .with("criteria", renderCriteria())
+                .with("items", items)
+                .render();
+    }
+
+    /**
+     * Memoization key: issue content plus everything that changes the decision for that content.
+     */
+    private String memoKey(Bounty bounty, double minConfidence, int maxTimeMinutes) {
+        String thresholdsVersion = String.join("|", String.valueOf(TRIAGE_PROMPT_VERSION),
+                String.valueOf(minConfidence), String.valueOf(maxTimeMinutes), String.valueOf(this.maxTimeMinutes),
+                maxComplexity);
+        return TriageDecisionStore.key(bounty, getRepositoryLanguage(bounty), thresholdsVersion);
+    }
+
+    private String renderCriteria() {
+        return TRIAGE_CRITERIA.with("maxTime", String.valueOf(maxTimeMinutes)).render();
+    }
+
+    /**
+     * Cascade screen verdict for one bounty: the screening model's confidence when it rejects, else 0.
+     */
+    private double screenRejectConfidence(String content) {
+        try {
+            return rejectConfidence(objectMapper.readTree(stripCodeFences(content)));
+        } catch (Exception e) {
+            return 0.0;
+        }
+    }
+
+    /**
+     * Cascade screen verdict for a batch: the batch is settled by the screening model only if it
+     * rejects every bounty, so the weakest rejection counts.
+     */
+    private double batchScreenRejectConfidence(String content) {
         try {
-            // Extract JSON from response (might have markdown code blocks)
-            String jsonContent = content.trim();
-            if (jsonContent.startsWith("```json")) {
-                jsonContent = jsonContent.substring(7);
+            JsonNode array = objectMapper.readTree(stripCodeFences(content));
+            if (array.isObject() && array.has("results")) {
+                array = array.get("results");
             }
-            if (jsonContent.startsWith("```")) {
-                jsonContent = jsonContent.substring(3);
+            if (!array.isArray() || array.isEmpty()) {
+                return 0.0;
             }
-            if (jsonContent.endsWith("```")) {
-                jsonContent = jsonContent.substring(0, jsonContent.length() - 3);
+            double weakest = 1.0;
+            for (JsonNode item : array) {
+                weakest = Math.min(weakest, rejectConfidence(item));
             }
-            jsonContent = jsonContent.trim();
+            return weakest;
+        } catch (Exception e) {
+            return 0.0;
+        }
+    }
+
+    private double rejectConfidence(JsonNode decision) {
+        if (!decision.path("shouldProcess").isBoolean() || decision.path("shouldProcess").asBoolean()) {
+            return 0.0;
+        }
+        return decision.path("confidence").asDouble(0.0);
+    }
 
-            JsonNode node = objectMapper.readTree(jsonContent);
+    /**
+     * Extract JSON from a response that might be wrapped in markdown code blocks.
+     */
+    private String stripCodeFences(String content) {
+        String jsonContent = content.trim();
+        if (jsonContent.startsWith("```json")) {
+            jsonContent = jsonContent.substring(7);
+        }
+        if (jsonContent.startsWith("```")) {
+            jsonContent = jsonContent.substring(3);
+        }
+        if (jsonContent.endsWith("```")) {
+            jsonContent = jsonContent.substring(0, jsonContent.length() - 3);
+        }
+        return jsonContent.trim();
+    }
+
+    private FilterResult parseResponse(String content) {
+        try {
+            JsonNode node = objectMapper.readTree(stripCodeFences(content));
             
             boolean shouldProcess = node.get("shouldProcess").asBoolean();
             double confidence = node.get("confidence").asDouble();
@@ -318,7 +652,7 @@ public class BountyFilteringService {
             return new FilterResult(shouldProcess, confidence, estimatedTime, reason);
         } catch (Exception e) {
             log.error("Failed to parse LLM response: {}", content, e);
-            return new FilterResult(false, 0.0, 0, "Failed to parse LLM response");
+            return UNPARSEABLE;
         }
     }
 }
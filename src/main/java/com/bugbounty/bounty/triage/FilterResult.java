@@ -1,10 +1,22 @@
 package com.bugbounty.bounty.triage;
 
+/**
+ * @param failed Triage could not reach a decision (LLM error, timeout, spent deadline); the bounty
+ *               was not judged and should be triaged again rather than treated as rejected
+ */
 public record FilterResult(
         boolean shouldProcess,
         double confidence,
         int estimatedTimeMinutes,
-        String reason
+        String reason,
+        boolean failed
 ) {
-}
 
+    public FilterResult(boolean shouldProcess, double confidence, int estimatedTimeMinutes, String reason) {
+        this(shouldProcess, confidence, estimatedTimeMinutes, reason, false);
+    }
+
+    public static FilterResult failed(String reason) {
+        return new FilterResult(false, 0.0, 0, reason, true);
+    }
+}
@@ -0,0 +1,198 @@
+package com.bugbounty.bounty.triage;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Aho-Corasick automaton over a fixed set of keywords and phrases.
+ *
+ * {@link #scan} finds every keyword in a text in one pass, independent of how many keywords there
+ * are. Matching is case-insensitive, treats any run of whitespace as a single space and only
+ * accepts whole words: "poc" matches "PoC required" but not "epoch". Immutable and thread-safe.
+ */
+public final class KeywordAutomaton {
+
+    private static final int ROOT = 0;
+    private static final int[] NO_OUTPUT = new int[0];
+
+    // Per state: sorted edge labels and their target states
+    private final char[][] labels;
+    private final int[][] targets;
+    private final int[] failure;
+    // Keyword ids recognised on entering each state, including those reached via failure links
+    private final int[][] outputs;
+    private final String[] keywords;
+
+    private KeywordAutomaton(char[][] labels, int[][] targets, int[] failure, int[][] outputs, String[] keywords) {
+        this.labels = labels;
+        this.targets = targets;
+        this.failure = failure;
+        this.outputs = outputs;
+        this.keywords = keywords;
+    }
+
+    /**
+     * Build the automaton. Keyword ids are positions in {@code keywords}; blank keywords never match.
+     */
+    public static KeywordAutomaton compile(List<String> keywords) {
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<List<Integer>> terminal = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        terminal.add(new ArrayList<>());
+
+        String[] normalized = new String[keywords.size()];
+        for (int id = 0; id < keywords.size(); id++) {
+            normalized[id] = normalize(keywords.get(id));
+            if (normalized[id].isEmpty()) {
+                continue;
+            }
+            int state = ROOT;
+            for (int i = 0; i < normalized[id].length(); i++) {
+                char c = normalized[id].charAt(i);
+                Integer next = trie.get(state).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<>());
+                    terminal.add(new ArrayList<>());
+                    trie.get(state).put(c, next);
+                }
+                state = next;
+            }
+            terminal.get(state).add(id);
+        }
+
+        int size = trie.size();
+        char[][] labels = new char[size][];
+        int[][] targets = new int[size][];
+        for (int state = 0; state < size; state++) {
+            TreeMap<Character, Integer> edges = trie.get(state);
+            labels[state] = new char[edges.size()];
+            targets[state] = new int[edges.size()];
+            int i = 0;
+            for (var edge : edges.entrySet()) {
+                labels[state][i] = edge.getKey();
+                targets[state][i] = edge.getValue();
+                i++;
+            }
+        }
+
+        // Breadth-first, so a state's failure target is finished before the state itself
+        int[] failure = new int[size];
+        int[][] outputs = new int[size][];
+        outputs[ROOT] = NO_OUTPUT;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[ROOT]) {
+            failure[child] = ROOT;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int[] own = terminal.get(state).stream().mapToInt(Integer::intValue).toArray();
+            int[] inherited = outputs[failure[state]];
+            outputs[state] = own.length == 0 ? inherited : concat(own, inherited);
+
+            for (int i = 0; i < labels[state].length; i++) {
+                int child = targets[state][i];
+                int fallback = failure[state];
+                int next;
+                while ((next = step(labels, targets, fallback, labels[state][i])) < 0 && fallback != ROOT) {
+                    fallback = failure[fallback];
+                }
+                failure[child] = next >= 0 ? next : ROOT;
+                queue.add(child);
+            }
+        }
+
+        return new KeywordAutomaton(labels, targets, failure, outputs, normalized);
+    }
+
+    /**
+     * Report the id of every whole-word keyword occurrence in {@code text}, in order of where it ends.
+     * A keyword found several times is reported several times.
+     */
+    public void scan(CharSequence text, IntConsumer onMatch) {
+        char[] input = normalizeToArray(text);
+        int state = ROOT;
+        for (int position = 0; position < input.length; position++) {
+            char c = input[position];
+            int next;
+            while ((next = step(labels, targets, state, c)) < 0 && state != ROOT) {
+                state = failure[state];
+            }
+            state = next >= 0 ? next : ROOT;
+
+            for (int id : outputs[state]) {
+                int start = position - keywords[id].length() + 1;
+                if (isWholeWord(input, start, position)) {
+                    onMatch.accept(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * The keyword with the given id as it is matched (lower case, whitespace collapsed).
+     */
+    public String keyword(int id) {
+        return keywords[id];
+    }
+
+    private static int step(char[][] labels, int[][] targets, int state, char c) {
+        int index = Arrays.binarySearch(labels[state], c);
+        return index >= 0 ? targets[state][index] : -1;
+    }
+
+    /**
+     * A keyword edge that is a letter or digit must not continue into a neighbouring letter or digit.
+     */
+    private static boolean isWholeWord(char[] input, int start, int end) {
+        boolean startsInsideWord = start > 0 && isWordChar(input[start]) && isWordChar(input[start - 1]);
+        boolean endsInsideWord = end + 1 < input.length && isWordChar(input[end]) && isWordChar(input[end + 1]);
+        return !startsInsideWord && !endsInsideWord;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c);
+    }
+
+    private static String normalize(String keyword) {
+        return keyword == null ? "" : new String(normalizeToArray(keyword)).trim();
+    }
+
+    /**
+     * Lower case, with every whitespace run collapsed to one space. Linear in the text length.
+     */
+    private static char[] normalizeToArray(CharSequence text) {
+        char[] out = new char[text.length()];
+        int length = 0;
+        boolean inWhitespace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                if (!inWhitespace) {
+                    out[length++] = ' ';
+                    inWhitespace = true;
+                }
+                continue;
+            }
+            inWhitespace = false;
+            out[length++] = Character.toLowerCase(c);
+        }
+        return length == out.length ? out : Arrays.copyOf(out, length);
+    }
+
+    private static int[] concat(int[] first, int[] second) {
+        int[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "KeywordAutomaton[" + keywords.length + " keywords, " + labels.length + " states]";
+    }
+}
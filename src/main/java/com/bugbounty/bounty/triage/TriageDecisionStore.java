@@ -0,0 +1,216 @@
+package com.bugbounty.bounty.triage;
+
+import com.bugbounty.bounty.domain.Bounty;
+import com.bugbounty.bounty.entity.TriageDecisionEntity;
+import com.bugbounty.bounty.repository.TriageDecisionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Memoized LLM triage decisions, so an edited, reopened or cross-posted issue whose content has
+ * not materially changed is not triaged again.
+ *
+ * Decisions are keyed by a SHA-256 of the normalized title and description (Unicode NFKC,
+ * lower case, whitespace collapsed), the repository language, a power-of-two amount bucket and
+ * the triage thresholds version. They are persisted in {@code triage_decisions} and fronted by
+ * an in-process LRU map. Database failures never fail triage - they are logged and treated as a miss.
+ *
+ * Metric: bounty.triage.memo.requests{tier=local|database, result=hit|miss}
+ */
+@Component
+@Slf4j
+public class TriageDecisionStore {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final TriageDecisionRepository repository;
+    private final Map<String, Entry> localEntries = new LinkedHashMap<>(256, 0.75f, true);
+
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter databaseHits;
+    private final Counter databaseMisses;
+
+    @Value("${app.bounty.triage.memo.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.bounty.triage.memo.local.max-entries:10000}")
+    private int localMaxEntries = 10000;
+
+    @Value("${app.bounty.triage.memo.ttl-days:30}")
+    private long ttlDays = 30;
+
+    public TriageDecisionStore(TriageDecisionRepository repository, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.localHits = requestCounter(meterRegistry, "local", "hit");
+        this.localMisses = requestCounter(meterRegistry, "local", "miss");
+        this.databaseHits = requestCounter(meterRegistry, "database", "hit");
+        this.databaseMisses = requestCounter(meterRegistry, "database", "miss");
+    }
+
+    /**
+     * Build the memoization key for a bounty's triage inputs.
+     *
+     * @param language          Repository language (null if unknown)
+     * @param thresholdsVersion Anything that changes the decision for the same content
+     *                          (prompt version, confidence/time/complexity thresholds)
+     */
+    public static String key(Bounty bounty, String language, String thresholdsVersion) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, normalize(bounty.getTitle()));
+            update(digest, normalize(bounty.getDescription()));
+            update(digest, normalize(language));
+            update(digest, amountBucket(bounty.getAmount(), bounty.getCurrency()));
+            update(digest, thresholdsVersion);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Look up a memoized decision, checking the in-process tier before the database.
+     */
+    public Optional<FilterResult> get(String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        FilterResult local = getLocal(key);
+        if (local != null) {
+            localHits.increment();
+            return Optional.of(local);
+        }
+        localMisses.increment();
+
+        try {
+            Optional<TriageDecisionEntity> stored = repository.findByContentHash(key)
+                    .filter(entity -> !isExpired(entity.getCreatedAt()));
+            if (stored.isPresent()) {
+                databaseHits.increment();
+                TriageDecisionEntity entity = stored.get();
+                FilterResult result = new FilterResult(entity.isShouldProcess(), entity.getConfidence(),
+                        entity.getEstimatedTimeMinutes(), entity.getReason());
+                putLocal(key, result, entity.getCreatedAt());
+                return Optional.of(result);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to read triage decision {}: {}", key, e.getMessage());
+        }
+        databaseMisses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Store a decision in both tiers, replacing any expired one with the same key.
+     */
+    public void put(String key, Bounty bounty, FilterResult result) {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        putLocal(key, result, now);
+
+        try {
+            TriageDecisionEntity entity = repository.findByContentHash(key)
+                    .orElseGet(() -> TriageDecisionEntity.builder().contentHash(key).build());
+            entity.setShouldProcess(result.shouldProcess());
+            entity.setConfidence(result.confidence());
+            entity.setEstimatedTimeMinutes(result.estimatedTimeMinutes());
+            entity.setReason(result.reason());
+            entity.setIssueId(bounty.getIssueId());
+            entity.setPlatform(bounty.getPlatform());
+            entity.setCreatedAt(now);
+            repository.save(entity);
+        } catch (Exception e) {
+            // Most likely a concurrent triage of the same content; the local tier still has it
+            log.warn("Failed to store triage decision {} for bounty {}: {}", key, bounty.getIssueId(), e.getMessage());
+        }
+    }
+
+    private synchronized FilterResult getLocal(String key) {
+        Entry entry = localEntries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry.createdAt())) {
+            localEntries.remove(key);
+            return null;
+        }
+        return entry.result();
+    }
+
+    private synchronized void putLocal(String key, FilterResult result, LocalDateTime createdAt) {
+        localEntries.put(key, new Entry(result, createdAt));
+        Iterator<Map.Entry<String, Entry>> eldest = localEntries.entrySet().iterator();
+        while (localEntries.size() > localMaxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    private boolean isExpired(LocalDateTime createdAt) {
+        return createdAt == null || createdAt.isBefore(LocalDateTime.now().minusDays(ttlDays));
+    }
+
+    /**
+     * Case, Unicode form and whitespace changes are not material to triage.
+     */
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    /**
+     * Power-of-two bucket of the whole amount: $40 and $60 share a bucket, $60 and $70 do not.
+     */
+    private static String amountBucket(BigDecimal amount, String currency) {
+        if (amount == null) {
+            return "none";
+        }
+        long whole = Math.max(0L, amount.longValue());
+        int bucket = 64 - Long.numberOfLeadingZeros(whole);
+        return bucket + (currency != null ? currency.toUpperCase(Locale.ROOT) : "USD");
+    }
+
+    private static void update(MessageDigest digest, String part) {
+        byte[] bytes = (part != null ? part : "").getBytes(StandardCharsets.UTF_8);
+        // Length prefix so adjacent parts cannot run into each other
+        digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) ':');
+        digest.update(bytes);
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("bounty.triage.memo.requests")
+                .description("Triage decision lookups by tier and outcome")
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Entry(FilterResult result, LocalDateTime createdAt) {
+    }
+}
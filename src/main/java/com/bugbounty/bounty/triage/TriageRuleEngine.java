@@ -0,0 +1,144 @@
+package com.bugbounty.bounty.triage;
+
+import com.bugbounty.bounty.domain.Bounty;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keyword rejection rules applied before LLM triage.
+ *
+ * Each rule is a list of keywords and phrases (app.bounty.triage.rules.keywords.&lt;rule&gt;) that mark a
+ * bounty as out of scope, mirroring the rejection criteria in the triage prompt ("proof of concept",
+ * "refactor", "security", ...). All rules are compiled into one {@link KeywordAutomaton}, so title
+ * and description are scanned once regardless of the number of rules or keywords.
+ *
+ * Metrics:
+ * - bounty.triage.rules.hits{rule}: bounties matching each rule (a bounty can match several)
+ * - bounty.triage.rules.evaluations{outcome=rejected|passed}: bounties rejected without an LLM call
+ */
+@Component
+@Slf4j
+public class TriageRuleEngine {
+
+    private static final String KEYWORDS_PROPERTY = "app.bounty.triage.rules.keywords";
+
+    private final String[] ruleNames;
+    private final KeywordAutomaton automaton;
+    // Keyword id -> rules that list it
+    private final int[][] keywordRules;
+    private final Counter[] ruleHits;
+    private final Counter rejected;
+    private final Counter passed;
+
+    @Value("${app.bounty.triage.rules.enabled:true}")
+    private boolean enabled = true;
+
+    @Autowired
+    public TriageRuleEngine(Environment environment, MeterRegistry meterRegistry) {
+        this(bindRules(environment), meterRegistry);
+    }
+
+    /**
+     * @param rules Rule name to keywords and phrases, in the order rules are reported
+     */
+    public TriageRuleEngine(Map<String, List<String>> rules, MeterRegistry meterRegistry) {
+        this.ruleNames = rules.keySet().toArray(String[]::new);
+
+        Map<String, List<Integer>> rulesByKeyword = new LinkedHashMap<>();
+        for (int rule = 0; rule < ruleNames.length; rule++) {
+            for (String keyword : rules.get(ruleNames[rule])) {
+                List<Integer> owners = rulesByKeyword.computeIfAbsent(keyword, k -> new ArrayList<>());
+                if (!owners.contains(rule)) {
+                    owners.add(rule);
+                }
+            }
+        }
+        this.automaton = KeywordAutomaton.compile(new ArrayList<>(rulesByKeyword.keySet()));
+        this.keywordRules = rulesByKeyword.values().stream()
+                .map(owners -> owners.stream().mapToInt(Integer::intValue).toArray())
+                .toArray(int[][]::new);
+
+        this.ruleHits = new Counter[ruleNames.length];
+        for (int rule = 0; rule < ruleNames.length; rule++) {
+            ruleHits[rule] = Counter.builder("bounty.triage.rules.hits")
+                    .description("Bounties matching each triage rejection rule")
+                    .tag("rule", ruleNames[rule])
+                    .register(meterRegistry);
+        }
+        this.rejected = evaluationCounter(meterRegistry, "rejected");
+        this.passed = evaluationCounter(meterRegistry, "passed");
+        log.info("Triage rules compiled: {} rule(s), {}", ruleNames.length, automaton);
+    }
+
+    /**
+     * Scan the bounty's title and description.
+     *
+     * @return A rejection naming the matched rules and keywords, or empty if the bounty needs LLM triage
+     */
+    public Optional<FilterResult> evaluate(Bounty bounty) {
+        if (!enabled || ruleNames.length == 0) {
+            return Optional.empty();
+        }
+
+        // The separator is not a word character, so keywords cannot span title and description
+        String text = (bounty.getTitle() != null ? bounty.getTitle() : "") + " | "
+                + (bounty.getDescription() != null ? bounty.getDescription() : "");
+        String[] firstKeyword = new String[ruleNames.length];
+        automaton.scan(text, keyword -> {
+            for (int rule : keywordRules[keyword]) {
+                if (firstKeyword[rule] == null) {
+                    firstKeyword[rule] = automaton.keyword(keyword);
+                }
+            }
+        });
+
+        List<String> matches = new ArrayList<>();
+        for (int rule = 0; rule < ruleNames.length; rule++) {
+            if (firstKeyword[rule] != null) {
+                ruleHits[rule].increment();
+                matches.add(ruleNames[rule] + " (\"" + firstKeyword[rule] + "\")");
+            }
+        }
+        if (matches.isEmpty()) {
+            passed.increment();
+            return Optional.empty();
+        }
+
+        rejected.increment();
+        log.debug("Bounty {} rejected by triage rules: {}", bounty.getIssueId(), matches);
+        return Optional.of(new FilterResult(false, 1.0, 0,
+                "Rejected by triage rule(s): " + String.join(", ", matches)));
+    }
+
+    /**
+     * Keyword lists may be YAML lists or comma-separated strings; rule order follows the configuration.
+     */
+    private static Map<String, List<String>> bindRules(Environment environment) {
+        Map<String, String[]> bound = Binder.get(environment)
+                .bind(KEYWORDS_PROPERTY, Bindable.mapOf(String.class, String[].class))
+                .orElse(Map.of());
+        Map<String, List<String>> rules = new LinkedHashMap<>();
+        bound.forEach((rule, keywords) -> rules.put(rule, List.of(keywords)));
+        return rules;
+    }
+
+    private static Counter evaluationCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("bounty.triage.rules.evaluations")
+                .description("Bounties checked against the triage rules, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,137 @@
+package com.bugbounty.bounty.triage.classifier;
+
+import com.bugbounty.bounty.domain.Bounty;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Learned pre-screen for LLM triage.
+ *
+ * Predicts the calibrated probability that LLM triage would accept a bounty from a model trained
+ * on past decisions ({@link TriageClassifierTrainingJob}). Below {@code reject-below} the bounty is
+ * rejected without an LLM call; at or above {@code escalate-above} it goes straight to the primary
+ * model, skipping the cascade screen; in between triage proceeds as usual. Off by default, and a
+ * no-op until a model has been trained.
+ *
+ * Metric: bounty.triage.classifier.predictions{verdict=reject|escalate|uncertain}
+ */
+@Component
+@Slf4j
+public class TriageClassifier {
+
+    public enum Verdict { REJECT, ESCALATE, UNCERTAIN }
+
+    public record Prediction(double probability, Verdict verdict) {
+    }
+
+    private final Counter rejections;
+    private final Counter escalations;
+    private final Counter uncertain;
+
+    private volatile TriageClassifierModel model;
+
+    @Value("${app.bounty.triage.classifier.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${app.bounty.triage.classifier.model-path:./data/triage-classifier.bin}")
+    private String modelPath = "./data/triage-classifier.bin";
+
+    @Value("${app.bounty.triage.classifier.reject-below:0.02}")
+    private double rejectBelow = 0.02;
+
+    @Value("${app.bounty.triage.classifier.escalate-above:0.6}")
+    private double escalateAbove = 0.6;
+
+    public TriageClassifier(MeterRegistry meterRegistry) {
+        this.rejections = predictionCounter(meterRegistry, "reject");
+        this.escalations = predictionCounter(meterRegistry, "escalate");
+        this.uncertain = predictionCounter(meterRegistry, "uncertain");
+    }
+
+    /**
+     * Load the last trained model, if there is one.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Path path = Paths.get(modelPath);
+        if (!Files.exists(path)) {
+            log.info("No triage classifier model at {}; classifier inactive until trained", path);
+            return;
+        }
+        try (InputStream in = Files.newInputStream(path)) {
+            model = TriageClassifierModel.readFrom(in);
+            log.info("Loaded triage classifier trained at {} on {} examples", model.trainedAt(), model.trainingExamples());
+        } catch (IOException e) {
+            log.warn("Failed to load triage classifier model {}", path, e);
+        }
+    }
+
+    /**
+     * @return The prediction, or empty when the classifier is disabled or untrained
+     */
+    public Optional<Prediction> predict(Bounty bounty, String language) {
+        TriageClassifierModel current = model;
+        if (!enabled || current == null) {
+            return Optional.empty();
+        }
+
+        double probability = current.probability(TriageFeatures.extract(bounty.getTitle(), bounty.getDescription(),
+                bounty.getPlatform(), language, bounty.getAmount(), bounty.getCurrency()));
+        Verdict verdict;
+        if (probability < rejectBelow) {
+            verdict = Verdict.REJECT;
+            rejections.increment();
+        } else if (probability >= escalateAbove) {
+            verdict = Verdict.ESCALATE;
+            escalations.increment();
+        } else {
+            verdict = Verdict.UNCERTAIN;
+            uncertain.increment();
+        }
+        return Optional.of(new Prediction(probability, verdict));
+    }
+
+    /**
+     * Persist a newly trained model and start using it.
+     */
+    public void install(TriageClassifierModel trained) throws IOException {
+        Path target = Paths.get(modelPath);
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            trained.writeTo(out);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        model = trained;
+    }
+
+    public double rejectBelow() {
+        return rejectBelow;
+    }
+
+    public double escalateAbove() {
+        return escalateAbove;
+    }
+
+    private static Counter predictionCounter(MeterRegistry meterRegistry, String verdict) {
+        return Counter.builder("bounty.triage.classifier.predictions")
+                .description("Triage classifier predictions by verdict")
+                .tag("verdict", verdict)
+                .register(meterRegistry);
+    }
+}
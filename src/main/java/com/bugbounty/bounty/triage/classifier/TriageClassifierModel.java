@@ -0,0 +1,118 @@
+package com.bugbounty.bounty.triage.classifier;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+
+/**
+ * Trained logistic regression over {@link TriageFeatures}, with Platt calibration.
+ *
+ * {@link #probability} is the calibrated probability that LLM triage would accept the bounty:
+ * sigmoid(slope * (w . x + bias) + intercept). Immutable once built.
+ */
+public final class TriageClassifierModel {
+
+    private static final int MAGIC = 0x54524943; // "TRIC"
+    private static final int FORMAT_VERSION = 1;
+
+    private final float[] weights;
+    private final double bias;
+    private final double calibrationSlope;
+    private final double calibrationIntercept;
+    private final int trainingExamples;
+    private final Instant trainedAt;
+
+    public TriageClassifierModel(float[] weights, double bias, double calibrationSlope, double calibrationIntercept,
+                                 int trainingExamples, Instant trainedAt) {
+        if (weights.length != TriageFeatures.DIMENSIONS) {
+            throw new IllegalArgumentException("Expected " + TriageFeatures.DIMENSIONS + " weights, got " + weights.length);
+        }
+        this.weights = weights;
+        this.bias = bias;
+        this.calibrationSlope = calibrationSlope;
+        this.calibrationIntercept = calibrationIntercept;
+        this.trainingExamples = trainingExamples;
+        this.trainedAt = trainedAt;
+    }
+
+    /**
+     * Uncalibrated score (log-odds under the class-weighted training objective).
+     */
+    public double logit(TriageFeatures.Vector features) {
+        double z = bias;
+        int[] indices = features.indices();
+        float[] values = features.values();
+        for (int i = 0; i < indices.length; i++) {
+            z += weights[indices[i]] * values[i];
+        }
+        return z;
+    }
+
+    /**
+     * Calibrated probability that the bounty would be accepted.
+     */
+    public double probability(TriageFeatures.Vector features) {
+        return sigmoid(calibrationSlope * logit(features) + calibrationIntercept);
+    }
+
+    public int trainingExamples() {
+        return trainingExamples;
+    }
+
+    public Instant trainedAt() {
+        return trainedAt;
+    }
+
+    static double sigmoid(double z) {
+        return z >= 0 ? 1.0 / (1.0 + Math.exp(-z)) : Math.exp(z) / (1.0 + Math.exp(z));
+    }
+
+    public void writeTo(OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(weights.length);
+        out.writeDouble(bias);
+        out.writeDouble(calibrationSlope);
+        out.writeDouble(calibrationIntercept);
+        out.writeInt(trainingExamples);
+        out.writeLong(trainedAt.toEpochMilli());
+        for (float weight : weights) {
+            out.writeFloat(weight);
+        }
+        out.flush();
+    }
+
+    /**
+     * Read a model written by {@link #writeTo(OutputStream)}.
+     */
+    public static TriageClassifierModel readFrom(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a triage classifier model file");
+        }
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported triage classifier format version " + version);
+        }
+        int dimensions = in.readInt();
+        if (dimensions != TriageFeatures.DIMENSIONS) {
+            throw new IOException("Model has " + dimensions + " dimensions, features have " + TriageFeatures.DIMENSIONS);
+        }
+        double bias = in.readDouble();
+        double slope = in.readDouble();
+        double intercept = in.readDouble();
+        int trainingExamples = in.readInt();
+        Instant trainedAt = Instant.ofEpochMilli(in.readLong());
+        float[] weights = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            weights[i] = in.readFloat();
+        }
+        return new TriageClassifierModel(weights, bias, slope, intercept, trainingExamples, trainedAt);
+    }
+}
@@ -0,0 +1,84 @@
+package com.bugbounty.bounty.triage.classifier;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Held-out evaluation of a triage classifier against the LLM decisions it imitates.
+ *
+ * "Positive" is an LLM accept. Auto-rejection precision is the share of classifier rejections the
+ * LLM also rejected (1 - precision is the rate of lost bounties); its recall is the share of LLM
+ * rejections caught. {@code llmCallsSaved} is the share of evaluated bounties that would have been
+ * rejected without an LLM call.
+ */
+public record TriageClassifierReport(
+        Instant trainedAt,
+        int trainingExamples,
+        int calibrationExamples,
+        int evaluationExamples,
+        double acceptRate,
+        double logLoss,
+        double rejectBelow,
+        double rejectPrecision,
+        double rejectRecall,
+        int missedAccepts,
+        double escalateAbove,
+        double escalatePrecision,
+        double escalateRecall,
+        double llmCallsSaved
+) {
+
+    /**
+     * Evaluate calibrated probabilities against the LLM's decisions.
+     */
+    static TriageClassifierReport evaluate(TriageClassifierModel model, List<TriageClassifierTrainer.Example> evaluation,
+                                           int trainingExamples, int calibrationExamples,
+                                           double rejectBelow, double escalateAbove) {
+        int accepted = 0;
+        int rejectedByLlm = 0;
+        int autoRejected = 0;
+        int autoRejectedCorrect = 0;
+        int escalated = 0;
+        int escalatedCorrect = 0;
+        double logLoss = 0;
+        for (TriageClassifierTrainer.Example example : evaluation) {
+            double p = model.probability(example.features());
+            p = Math.min(1 - 1e-12, Math.max(1e-12, p));
+            logLoss -= example.accepted() ? Math.log(p) : Math.log(1 - p);
+            if (example.accepted()) {
+                accepted++;
+            } else {
+                rejectedByLlm++;
+            }
+            if (p < rejectBelow) {
+                autoRejected++;
+                autoRejectedCorrect += example.accepted() ? 0 : 1;
+            } else if (p >= escalateAbove) {
+                escalated++;
+                escalatedCorrect += example.accepted() ? 1 : 0;
+            }
+        }
+        int total = evaluation.size();
+        return new TriageClassifierReport(model.trainedAt(), trainingExamples, calibrationExamples, total,
+                ratio(accepted, total), total > 0 ? logLoss / total : 0.0,
+                rejectBelow, ratio(autoRejectedCorrect, autoRejected), ratio(autoRejectedCorrect, rejectedByLlm),
+                autoRejected - autoRejectedCorrect,
+                escalateAbove, ratio(escalatedCorrect, escalated), ratio(escalatedCorrect, accepted),
+                ratio(autoRejected, total));
+    }
+
+    private static double ratio(int numerator, int denominator) {
+        return denominator > 0 ? (double) numerator / denominator : 0.0;
+    }
+
+    /**
+     * One-line summary for the logs.
+     */
+    public String summary() {
+        return String.format("%d evaluated (%.1f%% accepted), log loss %.3f; auto-reject below %.2f: "
+                        + "precision %.3f, recall %.3f, %d accept(s) lost, %.1f%% of LLM calls saved; "
+                        + "escalate at %.2f: precision %.3f, recall %.3f",
+                evaluationExamples, acceptRate * 100, logLoss, rejectBelow, rejectPrecision, rejectRecall,
+                missedAccepts, llmCallsSaved * 100, escalateAbove, escalatePrecision, escalateRecall);
+    }
+}
@@ -0,0 +1,156 @@
+package com.bugbounty.bounty.triage.classifier;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Offline training of the triage classifier from stored LLM triage decisions.
+ *
+ * Examples are split deterministically by key: 70% train a class-weighted logistic regression by
+ * SGD with L2 regularisation, 15% fit the Platt calibration (so the skewed class weights do not
+ * distort probabilities) and 15% are held out for the {@link TriageClassifierReport}.
+ */
+public class TriageClassifierTrainer {
+
+    private static final long SHUFFLE_SEED = 42L;
+
+    private final int epochs;
+    private final double learningRate;
+    private final double l2;
+
+    public TriageClassifierTrainer(int epochs, double learningRate, double l2) {
+        this.epochs = epochs;
+        this.learningRate = learningRate;
+        this.l2 = l2;
+    }
+
+    /**
+     * @param key      Stable identity of the example (the content hash), used for the split
+     * @param accepted Whether LLM triage accepted the bounty
+     */
+    public record Example(String key, TriageFeatures.Vector features, boolean accepted) {
+    }
+
+    public record Result(TriageClassifierModel model, TriageClassifierReport report) {
+    }
+
+    /**
+     * @throws IllegalArgumentException if a split lacks accepted or rejected examples
+     */
+    public Result train(List<Example> examples, double rejectBelow, double escalateAbove) {
+        List<Example> training = new ArrayList<>();
+        List<Example> calibration = new ArrayList<>();
+        List<Example> evaluation = new ArrayList<>();
+        for (Example example : examples) {
+            int bucket = Math.floorMod(example.key().hashCode() * 0x9E3779B9, 20);
+            (bucket < 3 ? calibration : bucket < 6 ? evaluation : training).add(example);
+        }
+        requireBothClasses(training, "training");
+        requireBothClasses(calibration, "calibration");
+
+        float[] weights = new float[TriageFeatures.DIMENSIONS];
+        double bias = fit(training, weights);
+        double[] platt = calibrate(calibration, weights, bias);
+
+        TriageClassifierModel model = new TriageClassifierModel(weights, bias, platt[0], platt[1],
+                training.size(), Instant.now().truncatedTo(ChronoUnit.MILLIS));
+        TriageClassifierReport report = TriageClassifierReport.evaluate(model, evaluation,
+                training.size(), calibration.size(), rejectBelow, escalateAbove);
+        return new Result(model, report);
+    }
+
+    /**
+     * SGD on the class-weighted log loss; returns the bias and fills {@code weights}.
+     */
+    private double fit(List<Example> training, float[] weights) {
+        long accepted = training.stream().filter(Example::accepted).count();
+        // Accepts are rare; weight them up to the rejects, capped so a handful cannot dominate
+        double acceptWeight = Math.min(20.0, (double) (training.size() - accepted) / accepted);
+
+        List<Example> order = new ArrayList<>(training);
+        Random random = new Random(SHUFFLE_SEED);
+        double bias = 0;
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            Collections.shuffle(order, random);
+            double rate = learningRate / (1 + epoch);
+            for (Example example : order) {
+                int[] indices = example.features().indices();
+                float[] values = example.features().values();
+                double z = bias;
+                for (int i = 0; i < indices.length; i++) {
+                    z += weights[indices[i]] * values[i];
+                }
+                double gradient = (TriageClassifierModel.sigmoid(z) - (example.accepted() ? 1 : 0))
+                        * (example.accepted() ? acceptWeight : 1.0);
+                for (int i = 0; i < indices.length; i++) {
+                    int index = indices[i];
+                    // Regularisation applied lazily, to the features this example touches
+                    weights[index] -= (float) (rate * (gradient * values[i] + l2 * weights[index]));
+                }
+                bias -= rate * gradient;
+            }
+        }
+        return bias;
+    }
+
+    /**
+     * Platt scaling: fit sigmoid(a * logit + b) to the calibration labels by Newton's method,
+     * with Platt's smoothed targets to avoid overconfidence on small sets.
+     */
+    private double[] calibrate(List<Example> calibration, float[] weights, double bias) {
+        TriageClassifierModel uncalibrated = new TriageClassifierModel(weights, bias, 1.0, 0.0, 0, Instant.now());
+        double[] logits = new double[calibration.size()];
+        double[] targets = new double[calibration.size()];
+        long accepted = calibration.stream().filter(Example::accepted).count();
+        double acceptTarget = (accepted + 1.0) / (accepted + 2.0);
+        double rejectTarget = 1.0 / (calibration.size() - accepted + 2.0);
+        for (int i = 0; i < logits.length; i++) {
+            logits[i] = uncalibrated.logit(calibration.get(i).features());
+            targets[i] = calibration.get(i).accepted() ? acceptTarget : rejectTarget;
+        }
+
+        double a = 1.0;
+        double b = 0.0;
+        for (int iteration = 0; iteration < 100; iteration++) {
+            double ga = 0, gb = 0, haa = 1e-9, hab = 0, hbb = 1e-9;
+            for (int i = 0; i < logits.length; i++) {
+                double p = TriageClassifierModel.sigmoid(a * logits[i] + b);
+                double error = p - targets[i];
+                double curvature = p * (1 - p);
+                ga += error * logits[i];
+                gb += error;
+                haa += curvature * logits[i] * logits[i];
+                hab += curvature * logits[i];
+                hbb += curvature;
+            }
+            double determinant = haa * hbb - hab * hab;
+            if (Math.abs(determinant) < 1e-12) {
+                break;
+            }
+            double stepA = (hbb * ga - hab * gb) / determinant;
+            double stepB = (haa * gb - hab * ga) / determinant;
+            a -= stepA;
+            b -= stepB;
+            if (Math.abs(stepA) < 1e-7 && Math.abs(stepB) < 1e-7) {
+                break;
+            }
+        }
+        if (!Double.isFinite(a) || !Double.isFinite(b)) {
+            return new double[]{1.0, 0.0};
+        }
+        return new double[]{a, b};
+    }
+
+    private static void requireBothClasses(List<Example> examples, String split) {
+        boolean anyAccepted = examples.stream().anyMatch(Example::accepted);
+        boolean anyRejected = examples.stream().anyMatch(example -> !example.accepted());
+        if (!anyAccepted || !anyRejected) {
+            throw new IllegalArgumentException("The " + split + " split needs both accepted and rejected examples ("
+                    + examples.size() + " examples)");
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.bugbounty.bounty.triage.classifier;
+
+import com.bugbounty.bounty.entity.BountyEntity;
+import com.bugbounty.bounty.entity.TriageDecisionEntity;
+import com.bugbounty.bounty.repository.BountyRepository;
+import com.bugbounty.bounty.repository.TriageDecisionRepository;
+import com.bugbounty.repository.entity.RepositoryEntity;
+import com.bugbounty.repository.repository.RepositoryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Periodic retraining of the {@link TriageClassifier} from the memoized LLM triage decisions
+ * ({@code triage_decisions}, joined to the bounty for its text).
+ *
+ * Runs only while the classifier itself is enabled, and trains on at most {@code max-examples} of
+ * the most recent decisions, read {@code page-size} rows at a time.
+ *
+ * The new model is installed only when its held-out auto-rejection precision reaches
+ * {@code min-reject-precision}; either way the precision/recall report is logged and written to
+ * {@code report-path}, including the share of LLM calls the model would have saved.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TriageClassifierTrainingJob {
+
+    private final TriageDecisionRepository triageDecisionRepository;
+    private final BountyRepository bountyRepository;
+    private final RepositoryRepository repositoryRepository;
+    private final TriageClassifier triageClassifier;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.bounty.triage.classifier.enabled:false}")
+    private boolean classifierEnabled = false;
+
+    @Value("${app.bounty.triage.classifier.training.enabled:true}")
+    private boolean trainingEnabled = true;
+
+    @Value("${app.bounty.triage.classifier.training.max-examples:50000}")
+    private int maxExamples = 50000;
+
+    @Value("${app.bounty.triage.classifier.training.page-size:1000}")
+    private int pageSize = 1000;
+
+    @Value("${app.bounty.triage.classifier.training.min-examples:500}")
+    private int minExamples = 500;
+
+    @Value("${app.bounty.triage.classifier.training.min-reject-precision:0.98}")
+    private double minRejectPrecision = 0.98;
+
+    @Value("${app.bounty.triage.classifier.training.epochs:10}")
+    private int epochs = 10;
+
+    @Value("${app.bounty.triage.classifier.training.learning-rate:0.1}")
+    private double learningRate = 0.1;
+
+    @Value("${app.bounty.triage.classifier.training.l2:0.00001}")
+    private double l2 = 0.00001;
+
+    @Value("${app.bounty.triage.classifier.report-path:./data/triage-classifier-report.json}")
+    private String reportPath = "./data/triage-classifier-report.json";
+
+    @Scheduled(cron = "${app.bounty.triage.classifier.training.cron:0 0 4 * * SUN}")
+    public void scheduledRetrain() {
+        if (!classifierEnabled || !trainingEnabled) {
+            return;
+        }
+        try {
+            retrain();
+        } catch (Exception e) {
+            log.error("Triage classifier retraining failed", e);
+        }
+    }
+
+    /**
+     * Train on the most recent stored decisions, evaluate, and install the model if it is precise enough.
+     *
+     * @return The evaluation report, or empty if there were too few decisions to train on
+     */
+    public Optional<TriageClassifierReport> retrain() throws IOException {
+        List<TriageClassifierTrainer.Example> examples = loadExamples();
+        if (examples.size() < minExamples) {
+            log.info("Skipping triage classifier training: {} decisions, need {}", examples.size(), minExamples);
+            return Optional.empty();
+        }
+
+        TriageClassifierTrainer.Result result = new TriageClassifierTrainer(epochs, learningRate, l2)
+                .train(examples, triageClassifier.rejectBelow(), triageClassifier.escalateAbove());
+        TriageClassifierReport report = result.report();
+        log.info("Triage classifier trained: {}", report.summary());
+        writeReport(report);
+
+        if (report.rejectPrecision() < minRejectPrecision) {
+            log.warn("Not installing triage classifier: auto-reject precision {} below {}",
+                    report.rejectPrecision(), minRejectPrecision);
+        } else {
+            triageClassifier.install(result.model());
+            log.info("Installed triage classifier trained on {} examples", result.model().trainingExamples());
+        }
+        return Optional.of(report);
+    }
+
+    private List<TriageClassifierTrainer.Example> loadExamples() {
+        Map<String, Optional<String>> languageByRepository = new HashMap<>();
+        List<TriageClassifierTrainer.Example> examples = new ArrayList<>();
+        Pageable page = PageRequest.of(0, Math.min(pageSize, maxExamples), Sort.by(Sort.Direction.DESC, "createdAt"));
+        int read = 0;
+        while (read < maxExamples) {
+            Slice<TriageDecisionEntity> decisions = triageDecisionRepository.findByIssueIdIsNotNullAndPlatformIsNotNull(page);
+            List<TriageDecisionEntity> batch = decisions.getContent()
+                    .subList(0, Math.min(decisions.getNumberOfElements(), maxExamples - read));
+            read += batch.size();
+
+            // One query for the page's bounties, joined to the decisions in memory
+            Map<String, BountyEntity> bounties = new HashMap<>();
+            bountyRepository.findByIssueIdIn(batch.stream().map(TriageDecisionEntity::getIssueId).distinct().toList())
+                    .forEach(bounty -> bounties.put(bountyKey(bounty.getIssueId(), bounty.getPlatform()), bounty));
+            for (TriageDecisionEntity decision : batch) {
+                BountyEntity bounty = bounties.get(bountyKey(decision.getIssueId(), decision.getPlatform()));
+                if (bounty != null) {
+                    examples.add(toExample(decision, bounty, languageByRepository));
+                }
+            }
+
+            if (!decisions.hasNext()) {
+                break;
+            }
+            page = decisions.nextPageable();
+        }
+        return examples;
+    }
+
+    private TriageClassifierTrainer.Example toExample(TriageDecisionEntity decision, BountyEntity bounty,
+                                                      Map<String, Optional<String>> languageByRepository) {
+        String language = languageByRepository.computeIfAbsent(bounty.getRepositoryUrl(),
+                url -> repositoryRepository.findByUrl(url).map(RepositoryEntity::getLanguage)).orElse(null);
+        return new TriageClassifierTrainer.Example(decision.getContentHash(),
+                TriageFeatures.extract(bounty.getTitle(), bounty.getDescription(), bounty.getPlatform(), language,
+                        bounty.getAmount(), bounty.getCurrency()),
+                decision.isShouldProcess());
+    }
+
+    private static String bountyKey(String issueId, String platform) {
+        return platform + "/" + issueId;
+    }
+
+    private void writeReport(TriageClassifierReport report) {
+        try {
+            Path path = Paths.get(reportPath);
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Files.writeString(path, objectMapper.copy()
+                    .enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValueAsString(report));
+        } catch (IOException e) {
+            log.warn("Failed to write triage classifier report to {}", reportPath, e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.bugbounty.bounty.triage.classifier;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Hashed feature vector for triage classification.
+ *
+ * Text features are word unigrams and bigrams of the description plus title unigrams (so a word in
+ * the title counts separately from the same word in the body), present/absent and scaled by
+ * 1/sqrt(count) so long descriptions do not dominate. Metadata features are platform, language,
+ * currency, a power-of-two amount bucket, log amount and a description length bucket. Everything
+ * is hashed into {@link #DIMENSIONS} buckets, so the vocabulary never has to be stored.
+ */
+public final class TriageFeatures {
+
+    public static final int DIMENSIONS = 1 << 18;
+
+    // Long descriptions are mostly logs and stack traces; the opening carries the signal
+    private static final int MAX_DESCRIPTION_TOKENS = 2000;
+
+    private TriageFeatures() {
+    }
+
+    /**
+     * Sparse vector: parallel arrays of bucket indices and values, indices ascending.
+     */
+    public record Vector(int[] indices, float[] values) {
+    }
+
+    public static Vector extract(String title, String description, String platform, String language,
+                                 BigDecimal amount, String currency) {
+        Map<Integer, Float> text = new HashMap<>();
+        addTokens(text, "t:", title, Integer.MAX_VALUE, false);
+        int descriptionTokens = addTokens(text, "w:", description, MAX_DESCRIPTION_TOKENS, true);
+        float scale = text.isEmpty() ? 0f : (float) (1.0 / Math.sqrt(text.size()));
+        text.replaceAll((index, value) -> scale);
+
+        Map<Integer, Float> features = new HashMap<>(text);
+        add(features, "platform:" + lower(platform), 1f);
+        add(features, "language:" + lower(language), 1f);
+        add(features, "currency:" + (currency != null ? lower(currency) : "usd"), 1f);
+        add(features, "description-length:" + (32 - Integer.numberOfLeadingZeros(descriptionTokens)), 1f);
+        if (amount != null) {
+            long whole = Math.max(0L, amount.longValue());
+            add(features, "amount-bucket:" + (64 - Long.numberOfLeadingZeros(whole)), 1f);
+            add(features, "log-amount", (float) (Math.log1p(whole) / 10.0));
+        } else {
+            add(features, "amount-bucket:none", 1f);
+        }
+
+        int[] indices = features.keySet().stream().mapToInt(Integer::intValue).toArray();
+        Arrays.sort(indices);
+        float[] values = new float[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            values[i] = features.get(indices[i]);
+        }
+        return new Vector(indices, values);
+    }
+
+    /**
+     * @return Number of tokens read
+     */
+    private static int addTokens(Map<Integer, Float> features, String prefix, String text, int maxTokens,
+                                 boolean bigrams) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int count = 0;
+        String previous = null;
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length() && count < maxTokens; i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+                continue;
+            }
+            if (token.length() < 2) {
+                token.setLength(0);
+                continue;
+            }
+            String current = token.toString();
+            token.setLength(0);
+            count++;
+            add(features, prefix + current, 1f);
+            if (bigrams && previous != null) {
+                add(features, "b:" + previous + ' ' + current, 1f);
+            }
+            previous = current;
+        }
+        return count;
+    }
+
+    private static void add(Map<Integer, Float> features, String feature, float value) {
+        features.put(bucket(feature), value);
+    }
+
+    /**
+     * Stable across JVMs: String.hashCode is specified, and the mix spreads short strings.
+     */
+    static int bucket(String feature) {
+        int h = feature.hashCode() * 0x9E3779B9;
+        h ^= h >>> 15;
+        return h & (DIMENSIONS - 1);
+    }
+
+    private static String lower(String value) {
+        return value != null ? value.trim().toLowerCase(Locale.ROOT) : "unknown";
+    }
+}
@@ -14,7 +14,7 @@ import java.util.UUID;
  * Domain model for bug finding in a commit.
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class BugFinding {
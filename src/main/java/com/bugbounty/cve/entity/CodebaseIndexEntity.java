@@ -12,6 +12,7 @@ import java.util.UUID;
 /**
  * Entity for storing codebase structure index.
  * Contains lightweight index of classes, methods, packages for LLM context.
+ * The per-file entries live in {@link CodebaseIndexFileEntity} rows; this row holds the index metadata.
  */
 @Entity
 @Table(name = "codebase_index", indexes = {
@@ -34,13 +35,16 @@ public class CodebaseIndexEntity {
     @Column(nullable = false, length = 100)
     private String language; // e.g., "Java", "Python", "JavaScript"
 
-    @Column(nullable = false, columnDefinition = "TEXT")
-    private String indexData; // JSON structure: packages, classes, methods, etc.
+    @Column(columnDefinition = "TEXT")
+    private String indexData; // Legacy JSON blob; null once the index is stored per file (CodebaseIndexFileEntity)
 
     @Column(nullable = false)
     @Builder.Default
     private Integer indexVersion = 1; // Increment when index structure changes
 
+    @Column(length = 40)
+    private String indexedCommit; // HEAD the index was built from; null if unknown
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,67 @@
+package com.bugbounty.cve.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One file of a codebase index: its index entry and the symbols it declares.
+ * Rows are upserted per changed file, so an index update never rewrites unchanged files.
+ */
+@Entity
+@Table(name = "codebase_index_files",
+    uniqueConstraints = @UniqueConstraint(name = "uk_codebase_index_files_index_path", columnNames = {"indexId", "path"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CodebaseIndexFileEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID indexId; // Owning CodebaseIndexEntity
+
+    @Column(nullable = false, length = 1000)
+    private String path; // Relative to the repository root, '/'-separated
+
+    @Column(length = 1000)
+    private String directory; // Directory part of path, "" at the root; the shard this file belongs to
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String entryData; // JSON of this file's entry in the rendered index
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @Fetch(FetchMode.SUBSELECT)
+    @CollectionTable(name = "codebase_index_symbols", joinColumns = @JoinColumn(name = "file_id"))
+    @Builder.Default
+    private List<CodebaseIndexSymbol> symbols = new ArrayList<>();
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Directory part of a '/'-separated relative path, "" for files at the root.
+     */
+    public static String directoryOf(String path) {
+        int slash = path.lastIndexOf('/');
+        return slash < 0 ? "" : path.substring(0, slash);
+    }
+}
@@ -0,0 +1,59 @@
+package com.bugbounty.cve.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One directory of a codebase index. The shard's content is the entries of the files directly
+ * in the directory; its summary rolls up the whole subtree (file counts per subdirectory), so a
+ * prompt can show the shape of a large repository without its entries.
+ */
+@Entity
+@Table(name = "codebase_index_shards",
+    uniqueConstraints = @UniqueConstraint(name = "uk_codebase_index_shards_index_directory", columnNames = {"indexId", "directory"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CodebaseIndexShardEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID indexId; // Owning CodebaseIndexEntity
+
+    @Column(nullable = false, length = 1000)
+    private String directory; // "" for the repository root
+
+    @Column(nullable = false)
+    private int fileCount; // Files directly in the directory
+
+    @Column(nullable = false)
+    private int totalFiles; // Files in the subtree
+
+    @Column(nullable = false)
+    private long entrySize; // Characters of entry JSON directly in the directory
+
+    @Column(nullable = false)
+    private long totalSize; // Characters of entry JSON in the subtree
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String summary; // JSON: directory, counts and the largest subdirectories
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
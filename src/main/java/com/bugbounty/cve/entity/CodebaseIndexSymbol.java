@@ -0,0 +1,23 @@
+package com.bugbounty.cve.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A symbol declared in an indexed file, queryable by name across the index.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CodebaseIndexSymbol {
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false, length = 20)
+    private String kind; // "class", "method", "function", "export" or the declaring keyword, e.g. "struct"
+}
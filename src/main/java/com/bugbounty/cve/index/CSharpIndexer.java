@@ -0,0 +1,35 @@
+package com.bugbounty.cve.index;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * C#: namespace, types, and methods or constructors declared with at least one modifier
+ * (which keeps calls and statements out). Return types containing spaces, such as
+ * {@code Dictionary<string, int>}, hide the method.
+ */
+@Component
+public class CSharpIndexer extends LinePatternIndexer {
+
+    private static final String TYPE_MODIFIERS =
+            "(?:(?:public|private|protected|internal|static|abstract|sealed|partial|readonly|unsafe|new|file|ref)\\s+)*";
+    private static final String MEMBER_MODIFIERS =
+            "(?:(?:public|private|protected|internal|static|virtual|override|abstract|sealed|async|extern|unsafe|partial)\\s+)+";
+
+    public CSharpIndexer() {
+        super("C#", Set.of("csharp", "cs"), Set.of(".cs"),
+                Pattern.compile("\\s*namespace\\s+([\\w.]+)"),
+                List.of(Declaration.of("type",
+                                "\\s*" + TYPE_MODIFIERS + "(?:class|interface|struct|enum|record(?:\\s+(?:class|struct))?)\\s+(\\w+)"),
+                        Declaration.of("method",
+                                "\\s*" + MEMBER_MODIFIERS + "(?:[\\w.<>\\[\\]?,]+\\s+)?(\\w+)\\s*(?:<[\\w\\s,]*>)?\\s*\\(")));
+    }
+
+    @Override
+    public boolean includes(String path) {
+        return super.includes(path) && !path.contains("/obj/") && !path.contains("/bin/") && !path.endsWith(".Designer.cs");
+    }
+}
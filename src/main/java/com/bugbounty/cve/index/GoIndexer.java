@@ -0,0 +1,27 @@
+package com.bugbounty.cve.index;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Go: package, top-level functions and methods ({@code func (r *Recv) Name}) and type
+ * declarations. Types declared inside a {@code type ( ... )} group are not listed.
+ */
+@Component
+public class GoIndexer extends LinePatternIndexer {
+
+    public GoIndexer() {
+        super("Go", Set.of("golang"), Set.of(".go"),
+                Pattern.compile("package\\s+(\\w+)"),
+                List.of(Declaration.of("func", "func\\s+(?:\\([^)]*\\)\\s*)?(\\w+)"),
+                        Declaration.of("type", "type\\s+(\\w+)")));
+    }
+
+    @Override
+    public boolean includes(String path) {
+        return super.includes(path) && !path.endsWith("_test.go");
+    }
+}
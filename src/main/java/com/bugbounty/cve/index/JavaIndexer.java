@@ -0,0 +1,107 @@
+package com.bugbounty.cve.index;
+
+import com.bugbounty.cve.entity.CodebaseIndexSymbol;
+import com.bugbounty.cve.index.JavaSymbolExtractor.JavaSymbols;
+import com.bugbounty.cve.index.JavaSymbolExtractor.MethodDeclaration;
+import com.bugbounty.cve.index.JavaSymbolExtractor.TypeDeclaration;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Java: package, types and method signatures with their line ranges, from
+ * {@link JavaSymbolExtractor}.
+ */
+@Component
+public class JavaIndexer implements LanguageIndexer {
+
+    // Indexes built before the extractor listed methods as bare signature lines
+    private static final Pattern CALLABLE_NAME = Pattern.compile("(\\w+)\\s*\\(");
+
+    @Override
+    public String language() {
+        return "Java";
+    }
+
+    @Override
+    public Set<String> fileExtensions() {
+        return Set.of(".java");
+    }
+
+    @Override
+    public String entriesKey() {
+        return "packages";
+    }
+
+    @Override
+    public String totalKey() {
+        return "totalClasses";
+    }
+
+    /**
+     * The extractor works on the whole text (signatures are cut out of it), so the file is read
+     * into one string first; that copy is the only one made.
+     */
+    @Override
+    public Map<String, Object> index(String relativePath, BufferedReader source) throws IOException {
+        StringWriter content = new StringWriter();
+        source.transferTo(content);
+        JavaSymbols symbols = JavaSymbolExtractor.extract(content.toString());
+
+        List<Map<String, Object>> types = new ArrayList<>();
+        for (TypeDeclaration type : symbols.types()) {
+            Map<String, Object> declaration = new LinkedHashMap<>();
+            declaration.put("kind", type.kind());
+            declaration.put("name", type.name());
+            declaration.put("lines", List.of(type.startLine(), type.endLine()));
+            types.add(declaration);
+        }
+        List<Map<String, Object>> methods = new ArrayList<>();
+        for (MethodDeclaration method : symbols.methods()) {
+            Map<String, Object> declaration = new LinkedHashMap<>();
+            declaration.put("name", method.name());
+            declaration.put("signature", method.signature());
+            declaration.put("lines", List.of(method.startLine(), method.endLine()));
+            methods.add(declaration);
+        }
+
+        String fileName = relativePath.substring(relativePath.lastIndexOf('/') + 1);
+        Map<String, Object> pkg = new HashMap<>();
+        pkg.put("class", fileName.replace(".java", ""));
+        pkg.put("path", relativePath);
+        pkg.put("package", symbols.packageName());
+        pkg.put("types", types);
+        pkg.put("methods", methods);
+        return pkg;
+    }
+
+    @Override
+    public List<CodebaseIndexSymbol> symbols(Map<?, ?> entry) {
+        Set<CodebaseIndexSymbol> symbols = new LinkedHashSet<>();
+        symbols.add(new CodebaseIndexSymbol(String.valueOf(entry.get("class")), "class"));
+        addNames(symbols, entry.get("types"), "class");
+        addNames(symbols, entry.get("methods"), "method");
+        return new ArrayList<>(symbols);
+    }
+
+    private static void addNames(Set<CodebaseIndexSymbol> symbols, Object declarations, String kind) {
+        if (!(declarations instanceof List<?> list)) {
+            return;
+        }
+        for (Object declaration : list) {
+            if (declaration instanceof Map<?, ?> map) {
+                symbols.add(new CodebaseIndexSymbol(String.valueOf(map.get("name")), kind));
+            } else {
+                Matcher matcher = CALLABLE_NAME.matcher(String.valueOf(declaration));
+                if (matcher.find()) {
+                    symbols.add(new CodebaseIndexSymbol(matcher.group(1), kind));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.bugbounty.cve.index;
+
+import com.bugbounty.cve.entity.CodebaseIndexSymbol;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * JavaScript and TypeScript: module file name and export lines.
+ */
+@Component
+public class JavaScriptIndexer implements LanguageIndexer {
+
+    private static final Pattern EXPORT_NAME = Pattern.compile("\\b(?:function\\*?|class|const|let|var)\\s+(\\w+)");
+
+    @Override
+    public String language() {
+        return "JavaScript";
+    }
+
+    @Override
+    public Set<String> aliases() {
+        return Set.of("typescript");
+    }
+
+    @Override
+    public Set<String> fileExtensions() {
+        return Set.of(".js", ".ts", ".jsx", ".tsx");
+    }
+
+    @Override
+    public Map<String, Object> index(String relativePath, BufferedReader source) throws IOException {
+        List<String> exports = new ArrayList<>();
+        String line;
+        while ((line = source.readLine()) != null) {
+            String trimmed = line.trim();
+            if (trimmed.contains("export ") || trimmed.contains("module.exports")) {
+                exports.add(trimmed);
+            }
+        }
+
+        Map<String, Object> module = new HashMap<>();
+        module.put("module", relativePath.substring(relativePath.lastIndexOf('/') + 1));
+        module.put("path", relativePath);
+        module.put("exports", exports);
+        return module;
+    }
+
+    @Override
+    public List<CodebaseIndexSymbol> symbols(Map<?, ?> entry) {
+        Set<CodebaseIndexSymbol> symbols = new LinkedHashSet<>();
+        if (entry.get("exports") instanceof List<?> exports) {
+            for (Object export : exports) {
+                Matcher matcher = EXPORT_NAME.matcher(String.valueOf(export));
+                if (matcher.find()) {
+                    symbols.add(new CodebaseIndexSymbol(matcher.group(1), "export"));
+                }
+            }
+        }
+        return new ArrayList<>(symbols);
+    }
+}
@@ -0,0 +1,532 @@
+package com.bugbounty.cve.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Single-pass Java declaration scanner: package, type declarations and method signatures with
+ * their line ranges.
+ *
+ * A hand-written tokenizer walks the source once, skipping comments, string, text block and
+ * character literals, and keeps a stack of open braces so it knows whether it is directly inside
+ * a type body (where members are declared) or inside a method body or expression (skipped).
+ * Work is linear in the source length whatever the line lengths, and the only allocations are
+ * the results. Signatures may span lines; annotations are left out of them. Members of
+ * anonymous and local classes are not reported.
+ */
+public final class JavaSymbolExtractor {
+
+    /**
+     * What one source file declares. Lines are 1-based and inclusive.
+     */
+    public record JavaSymbols(String packageName, List<TypeDeclaration> types, List<MethodDeclaration> methods) {}
+
+    /**
+     * {@code kind} is one of "class", "interface", "enum", "record" or "annotation".
+     */
+    public record TypeDeclaration(String kind, String name, int startLine, int endLine) {}
+
+    /**
+     * Methods and constructors, with or without a body; {@code signature} runs from the first
+     * modifier to the closing parenthesis or throws clause, whitespace collapsed.
+     */
+    public record MethodDeclaration(String name, String signature, int startLine, int endLine) {}
+
+    // Token types
+    private static final int EOF = 0;
+    private static final int IDENT = 1;
+    private static final int LBRACE = 2;
+    private static final int RBRACE = 3;
+    private static final int LPAREN = 4;
+    private static final int RPAREN = 5;
+    private static final int SEMI = 6;
+    private static final int EQ = 7;
+    private static final int AT = 8;
+    private static final int DOT = 9;
+    private static final int COMMA = 10;
+    private static final int OTHER = 11;
+
+    // What an open brace belongs to
+    private static final int TYPE_BODY = 0;
+    private static final int METHOD_BODY = 1;
+    private static final int INITIALIZER = 2; // static/instance initializer or enum constant body
+    private static final int EXPRESSION = 3;  // array initializer, lambda or anonymous class in a field
+
+    private final String source;
+    private final int length;
+    private int pos;
+    private int line = 1;
+
+    // Current token
+    private int tokenType;
+    private int tokenStart;
+    private int tokenEnd;
+    private int tokenLine;
+
+    // Open braces; declarations[i] is the type or method the brace at depth i closes, if any
+    private int[] scopes = new int[16];
+    private Object[] declarations = new Object[16];
+    private boolean[] enumConstants = new boolean[16];
+    private int depth;
+
+    private String packageName;
+    private final List<PendingType> types = new ArrayList<>();
+    private final List<PendingMethod> methods = new ArrayList<>();
+
+    // The member declaration being read, reset at each ';', '{' and '}' that ends one
+    private int declStart;
+    private int declStartLine;
+    private int declEnd;
+    private int parenDepth;
+    private boolean sawParen;
+    private boolean sawEquals;
+    private int previousType;
+    private int previousStart;
+    private int previousEnd;
+    private int nameStart;
+    private int nameEnd;
+    private String typeKind;
+    private boolean expectTypeName;
+    private int typeNameStart;
+    private int typeNameEnd;
+    private boolean packageDeclaration;
+    private StringBuilder packageBuilder;
+
+    // Annotations: 1 after '@', 2 after its name; argument parentheses are skipped wholesale
+    private int annotationState;
+    private int annotationParens;
+
+    private JavaSymbolExtractor(String source) {
+        this.source = source;
+        this.length = source.length();
+        resetDeclaration();
+    }
+
+    public static JavaSymbols extract(String source) {
+        return new JavaSymbolExtractor(source).scan();
+    }
+
+    private JavaSymbols scan() {
+        while (nextToken() != EOF) {
+            if (atMemberLevel()) {
+                memberToken();
+            } else if (tokenType == LBRACE) {
+                push(EXPRESSION, null);
+            } else if (tokenType == RBRACE) {
+                closeBrace();
+            }
+        }
+
+        // Unbalanced source: whatever is still open ends at the last line
+        while (depth > 0) {
+            closeBrace();
+        }
+        return new JavaSymbols(packageName != null ? packageName : "default",
+                types.stream().map(PendingType::toDeclaration).toList(),
+                methods.stream().map(PendingMethod::toDeclaration).toList());
+    }
+
+    /**
+     * Members are declared at the top level and directly inside type bodies.
+     */
+    private boolean atMemberLevel() {
+        return depth == 0 || scopes[depth - 1] == TYPE_BODY;
+    }
+
+    private void memberToken() {
+        if (annotationParens > 0) {
+            if (tokenType == LPAREN) {
+                annotationParens++;
+            } else if (tokenType == RPAREN) {
+                annotationParens--;
+            }
+            return;
+        }
+        if (annotationState == 1) {
+            if (tokenType == IDENT && is("interface")) {
+                annotationState = 0;
+                typeKind = "annotation";
+                expectTypeName = true;
+                markDeclarationToken();
+                return;
+            }
+            annotationState = tokenType == IDENT ? 2 : 0;
+            return;
+        }
+        if (annotationState == 2) {
+            if (tokenType == DOT) {
+                annotationState = 1;
+                return;
+            }
+            annotationState = 0;
+            if (tokenType == LPAREN) {
+                annotationParens = 1;
+                return;
+            }
+        }
+
+        switch (tokenType) {
+            case AT -> annotationState = 1;
+            case IDENT -> identifier();
+            case LPAREN -> {
+                if (expectTypeName) {
+                    // "record(" is a method named record, not a record declaration
+                    typeKind = null;
+                    expectTypeName = false;
+                }
+                if (parenDepth == 0 && !sawParen && !sawEquals && typeKind == null && previousType == IDENT) {
+                    nameStart = previousStart;
+                    nameEnd = previousEnd;
+                }
+                sawParen = true;
+                parenDepth++;
+                markDeclarationToken();
+            }
+            case RPAREN -> {
+                parenDepth = Math.max(0, parenDepth - 1);
+                markDeclarationToken();
+            }
+            case EQ -> {
+                if (parenDepth == 0) {
+                    sawEquals = true;
+                }
+                markDeclarationToken();
+            }
+            case LBRACE -> openMemberBrace();
+            case RBRACE -> {
+                closeBrace();
+                resetDeclaration();
+            }
+            case SEMI -> {
+                if (depth > 0 && enumConstants[depth - 1]) {
+                    enumConstants[depth - 1] = false;
+                } else if (packageDeclaration) {
+                    packageName = packageBuilder.toString();
+                } else if (parenDepth == 0 && !sawEquals && nameStart >= 0 && typeKind == null) {
+                    // Abstract, interface or annotation-type method
+                    methods.add(new PendingMethod(name(), signature(), declStartLine, tokenLine));
+                }
+                resetDeclaration();
+            }
+            case COMMA -> {
+                if (parenDepth == 0 && depth > 0 && enumConstants[depth - 1]) {
+                    resetDeclaration();
+                } else {
+                    markDeclarationToken();
+                }
+            }
+            default -> markDeclarationToken();
+        }
+        previousType = tokenType;
+    }
+
+    private void identifier() {
+        if (declStart < 0 && depth == 0 && is("package")) {
+            packageDeclaration = true;
+            packageBuilder = new StringBuilder();
+        } else if (packageDeclaration) {
+            packageBuilder.append(source, tokenStart, tokenEnd);
+        } else if (expectTypeName) {
+            typeNameStart = tokenStart;
+            typeNameEnd = tokenEnd;
+            expectTypeName = false;
+        } else if (typeKind == null && !sawEquals && parenDepth == 0) {
+            String kind = typeKeyword();
+            if (kind != null) {
+                typeKind = kind;
+                expectTypeName = true;
+            }
+        }
+        markDeclarationToken();
+        previousStart = tokenStart;
+        previousEnd = tokenEnd;
+    }
+
+    private void openMemberBrace() {
+        boolean inEnumConstants = depth > 0 && enumConstants[depth - 1];
+        if (!inEnumConstants && !sawEquals && parenDepth == 0 && typeKind != null && typeNameStart >= 0) {
+            PendingType type = new PendingType(typeKind, source.substring(typeNameStart, typeNameEnd), declStartLine);
+            types.add(type);
+            push(TYPE_BODY, type);
+            enumConstants[depth - 1] = "enum".equals(typeKind);
+            resetDeclaration();
+        } else if (!inEnumConstants && !sawEquals && parenDepth == 0 && nameStart >= 0) {
+            PendingMethod method = new PendingMethod(name(), signature(), declStartLine, -1);
+            methods.add(method);
+            push(METHOD_BODY, method);
+            resetDeclaration();
+        } else if (sawEquals || parenDepth > 0) {
+            push(EXPRESSION, null); // The declaration continues after the closing brace
+        } else {
+            push(INITIALIZER, null);
+        }
+    }
+
+    private void closeBrace() {
+        if (depth == 0) {
+            return; // Unbalanced
+        }
+        depth--;
+        int endLine = tokenType == EOF ? line : tokenLine;
+        Object declaration = declarations[depth];
+        declarations[depth] = null;
+        if (declaration instanceof PendingType type) {
+            type.endLine = endLine;
+        } else if (declaration instanceof PendingMethod method) {
+            method.endLine = endLine;
+        }
+        if (scopes[depth] != EXPRESSION && atMemberLevel()) {
+            resetDeclaration();
+        }
+    }
+
+    private void push(int scope, Object declaration) {
+        if (depth == scopes.length) {
+            scopes = Arrays.copyOf(scopes, depth * 2);
+            declarations = Arrays.copyOf(declarations, depth * 2);
+            enumConstants = Arrays.copyOf(enumConstants, depth * 2);
+        }
+        scopes[depth] = scope;
+        declarations[depth] = declaration;
+        enumConstants[depth] = false;
+        depth++;
+    }
+
+    private void markDeclarationToken() {
+        if (declStart < 0) {
+            declStart = tokenStart;
+            declStartLine = tokenLine;
+        }
+        declEnd = tokenEnd;
+        if (packageDeclaration && tokenType == DOT) {
+            packageBuilder.append('.');
+        }
+    }
+
+    private void resetDeclaration() {
+        declStart = -1;
+        declEnd = -1;
+        parenDepth = 0;
+        sawParen = false;
+        sawEquals = false;
+        previousType = OTHER;
+        nameStart = -1;
+        nameEnd = -1;
+        typeKind = null;
+        expectTypeName = false;
+        typeNameStart = -1;
+        typeNameEnd = -1;
+        packageDeclaration = false;
+        annotationState = 0;
+        annotationParens = 0;
+    }
+
+    private String typeKeyword() {
+        if (is("class")) {
+            return "class";
+        } else if (is("interface")) {
+            return "interface";
+        } else if (is("enum")) {
+            return "enum";
+        } else if (is("record")) {
+            return "record";
+        }
+        return null;
+    }
+
+    private boolean is(String keyword) {
+        return tokenEnd - tokenStart == keyword.length() && source.startsWith(keyword, tokenStart);
+    }
+
+    private String name() {
+        return source.substring(nameStart, nameEnd);
+    }
+
+    /**
+     * Declaration text up to the last token before '{' or ';', whitespace runs collapsed.
+     */
+    private String signature() {
+        StringBuilder signature = new StringBuilder(declEnd - declStart);
+        boolean space = false;
+        for (int i = declStart; i < declEnd; i++) {
+            char c = source.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = true;
+            } else {
+                if (space && !signature.isEmpty() && c != ')' && signature.charAt(signature.length() - 1) != '(') {
+                    signature.append(' ');
+                }
+                space = false;
+                signature.append(c);
+            }
+        }
+        return signature.toString();
+    }
+
+    // Tokenizer
+
+    private int nextToken() {
+        skipWhitespaceAndComments();
+        tokenStart = pos;
+        tokenLine = line;
+        if (pos >= length) {
+            tokenEnd = pos;
+            return tokenType = EOF;
+        }
+
+        char c = source.charAt(pos);
+        if (Character.isJavaIdentifierStart(c)) {
+            pos++;
+            while (pos < length && Character.isJavaIdentifierPart(source.charAt(pos))) {
+                pos++;
+            }
+            tokenEnd = pos;
+            return tokenType = IDENT;
+        }
+        if (c >= '0' && c <= '9') {
+            pos++;
+            while (pos < length && (Character.isLetterOrDigit(source.charAt(pos))
+                    || source.charAt(pos) == '_' || source.charAt(pos) == '.')) {
+                pos++;
+            }
+            tokenEnd = pos;
+            return tokenType = OTHER;
+        }
+        if (c == '"') {
+            if (source.startsWith("\"\"\"", pos)) {
+                skipTextBlock();
+            } else {
+                skipQuoted('"');
+            }
+            tokenEnd = pos;
+            return tokenType = OTHER;
+        }
+        if (c == '\'') {
+            skipQuoted('\'');
+            tokenEnd = pos;
+            return tokenType = OTHER;
+        }
+
+        pos++;
+        tokenEnd = pos;
+        return tokenType = switch (c) {
+            case '{' -> LBRACE;
+            case '}' -> RBRACE;
+            case '(' -> LPAREN;
+            case ')' -> RPAREN;
+            case ';' -> SEMI;
+            case '=' -> EQ;
+            case '@' -> AT;
+            case '.' -> DOT;
+            case ',' -> COMMA;
+            default -> OTHER;
+        };
+    }
+
+    private void skipWhitespaceAndComments() {
+        while (pos < length) {
+            char c = source.charAt(pos);
+            if (c == '\n') {
+                line++;
+                pos++;
+            } else if (Character.isWhitespace(c)) {
+                pos++;
+            } else if (c == '/' && pos + 1 < length && source.charAt(pos + 1) == '/') {
+                pos += 2;
+                while (pos < length && source.charAt(pos) != '\n') {
+                    pos++;
+                }
+            } else if (c == '/' && pos + 1 < length && source.charAt(pos + 1) == '*') {
+                pos += 2;
+                while (pos < length && !(source.charAt(pos) == '*' && pos + 1 < length && source.charAt(pos + 1) == '/')) {
+                    if (source.charAt(pos) == '\n') {
+                        line++;
+                    }
+                    pos++;
+                }
+                pos = Math.min(length, pos + 2);
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * String or character literal; an unterminated one ends at the line break.
+     */
+    private void skipQuoted(char quote) {
+        pos++;
+        while (pos < length) {
+            char c = source.charAt(pos);
+            if (c == '\\') {
+                pos += 2;
+            } else if (c == quote) {
+                pos++;
+                return;
+            } else if (c == '\n') {
+                return;
+            } else {
+                pos++;
+            }
+        }
+        pos = Math.min(pos, length);
+    }
+
+    private void skipTextBlock() {
+        pos += 3;
+        while (pos < length) {
+            char c = source.charAt(pos);
+            if (c == '\\') {
+                if (pos + 1 < length && source.charAt(pos + 1) == '\n') {
+                    line++;
+                }
+                pos += 2;
+            } else if (c == '"' && source.startsWith("\"\"\"", pos)) {
+                pos += 3;
+                return;
+            } else {
+                if (c == '\n') {
+                    line++;
+                }
+                pos++;
+            }
+        }
+        pos = Math.min(pos, length);
+    }
+
+    private static final class PendingType {
+        private final String kind;
+        private final String name;
+        private final int startLine;
+        private int endLine = -1;
+
+        private PendingType(String kind, String name, int startLine) {
+            this.kind = kind;
+            this.name = name;
+            this.startLine = startLine;
+        }
+
+        private TypeDeclaration toDeclaration() {
+            return new TypeDeclaration(kind, name, startLine, Math.max(startLine, endLine));
+        }
+    }
+
+    private static final class PendingMethod {
+        private final String name;
+        private final String signature;
+        private final int startLine;
+        private int endLine;
+
+        private PendingMethod(String name, String signature, int startLine, int endLine) {
+            this.name = name;
+            this.signature = signature;
+            this.startLine = startLine;
+            this.endLine = endLine;
+        }
+
+        private MethodDeclaration toDeclaration() {
+            return new MethodDeclaration(name, signature, startLine, Math.max(startLine, endLine));
+        }
+    }
+}
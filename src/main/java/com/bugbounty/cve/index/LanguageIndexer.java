@@ -0,0 +1,79 @@
+package com.bugbounty.cve.index;
+
+import com.bugbounty.cve.entity.CodebaseIndexSymbol;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Extracts the codebase index entry of one source file for a language. Implementations are
+ * Spring components; {@code CodebaseIndexService} picks the one serving a repository's language
+ * and falls back to a plain file list for languages no indexer serves.
+ *
+ * Indexers are shared across the threads extracting files and must be stateless.
+ */
+public interface LanguageIndexer {
+
+    /**
+     * Language name the index is stored and rendered under, e.g. "Java".
+     */
+    String language();
+
+    /**
+     * Other repository language names (lowercase) served by this indexer, e.g. "typescript".
+     */
+    default Set<String> aliases() {
+        return Set.of();
+    }
+
+    /**
+     * Extensions of the files this indexer reads, with the leading dot.
+     */
+    Set<String> fileExtensions();
+
+    /**
+     * JSON key of the entry array in the rendered index.
+     */
+    default String entriesKey() {
+        return "modules";
+    }
+
+    /**
+     * JSON key of the entry count in the rendered index.
+     */
+    default String totalKey() {
+        return "totalModules";
+    }
+
+    default boolean serves(String repositoryLanguage) {
+        String name = repositoryLanguage.toLowerCase(Locale.ROOT);
+        return language().toLowerCase(Locale.ROOT).equals(name) || aliases().contains(name);
+    }
+
+    /**
+     * Whether {@code path} (absolute, or repository-relative with a leading '/') is indexed:
+     * a matching extension outside test directories.
+     */
+    default boolean includes(String path) {
+        if (path.contains("/test/")) {
+            return false;
+        }
+        int dot = path.lastIndexOf('.');
+        return dot > path.lastIndexOf('/') && fileExtensions().contains(path.substring(dot).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Index entry for one file, extracted in a single pass over {@code source}. The entry is
+     * stored as JSON and must carry the file's {@code "path"}.
+     */
+    Map<String, Object> index(String relativePath, BufferedReader source) throws IOException;
+
+    /**
+     * Names an entry declares, for symbol lookups. Entries may come from older index versions.
+     */
+    List<CodebaseIndexSymbol> symbols(Map<?, ?> entry);
+}
@@ -0,0 +1,119 @@
+package com.bugbounty.cve.index;
+
+import com.bugbounty.cve.entity.CodebaseIndexSymbol;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Indexer for languages whose declarations start a line with a keyword: lines are read one at a
+ * time and tried against anchored declaration patterns, so a file is never held in memory and
+ * each line is matched in one forward pass.
+ *
+ * Entries are {@code {"module", "path", "package", "declarations": [{"kind", "name", "line"}]}},
+ * "package" being the first namespace or package declaration, if the language has one.
+ */
+abstract class LinePatternIndexer implements LanguageIndexer {
+
+    /**
+     * Lines longer than this (minified or generated code) are not declarations worth indexing.
+     */
+    private static final int MAX_LINE_LENGTH = 1000;
+
+    /**
+     * A declaration keyword: {@code pattern} is matched from the start of the line and its
+     * first group is the declared name.
+     */
+    protected record Declaration(String kind, Pattern pattern) {
+        protected static Declaration of(String kind, String regex) {
+            return new Declaration(kind, Pattern.compile(regex));
+        }
+    }
+
+    private final String language;
+    private final Set<String> aliases;
+    private final Set<String> fileExtensions;
+    private final Pattern namespace;
+    private final List<Declaration> declarations;
+
+    protected LinePatternIndexer(String language, Set<String> aliases, Set<String> fileExtensions,
+                                 Pattern namespace, List<Declaration> declarations) {
+        this.language = language;
+        this.aliases = aliases;
+        this.fileExtensions = fileExtensions;
+        this.namespace = namespace;
+        this.declarations = declarations;
+    }
+
+    @Override
+    public String language() {
+        return language;
+    }
+
+    @Override
+    public Set<String> aliases() {
+        return aliases;
+    }
+
+    @Override
+    public Set<String> fileExtensions() {
+        return fileExtensions;
+    }
+
+    @Override
+    public Map<String, Object> index(String relativePath, BufferedReader source) throws IOException {
+        String packageName = null;
+        List<Map<String, Object>> found = new ArrayList<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = source.readLine()) != null) {
+            lineNumber++;
+            if (line.length() > MAX_LINE_LENGTH || line.isBlank()) {
+                continue;
+            }
+            if (packageName == null && namespace != null) {
+                Matcher matcher = namespace.matcher(line);
+                if (matcher.lookingAt()) {
+                    packageName = matcher.group(1);
+                    continue;
+                }
+            }
+            for (Declaration declaration : declarations) {
+                Matcher matcher = declaration.pattern().matcher(line);
+                if (matcher.lookingAt()) {
+                    Map<String, Object> entry = new LinkedHashMap<>();
+                    entry.put("kind", declaration.kind());
+                    entry.put("name", matcher.group(1));
+                    entry.put("line", lineNumber);
+                    found.add(entry);
+                    break;
+                }
+            }
+        }
+
+        Map<String, Object> module = new HashMap<>();
+        module.put("module", relativePath.substring(relativePath.lastIndexOf('/') + 1));
+        module.put("path", relativePath);
+        if (namespace != null) {
+            module.put("package", packageName != null ? packageName : "default");
+        }
+        module.put("declarations", found);
+        return module;
+    }
+
+    @Override
+    public List<CodebaseIndexSymbol> symbols(Map<?, ?> entry) {
+        Set<CodebaseIndexSymbol> symbols = new LinkedHashSet<>();
+        if (entry.get("declarations") instanceof List<?> found) {
+            for (Object declaration : found) {
+                if (declaration instanceof Map<?, ?> map) {
+                    symbols.add(new CodebaseIndexSymbol(String.valueOf(map.get("name")), String.valueOf(map.get("kind"))));
+                }
+            }
+        }
+        return new ArrayList<>(symbols);
+    }
+}
@@ -0,0 +1,28 @@
+package com.bugbounty.cve.index;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * PHP: namespace, classes, interfaces, traits, enums and functions or methods.
+ */
+@Component
+public class PhpIndexer extends LinePatternIndexer {
+
+    public PhpIndexer() {
+        super("PHP", Set.of(), Set.of(".php"),
+                Pattern.compile("\\s*namespace\\s+([\\w\\\\]+)"),
+                List.of(Declaration.of("class",
+                                "\\s*(?:(?:abstract|final|readonly)\\s+)*(?:class|interface|trait|enum)\\s+(\\w+)"),
+                        Declaration.of("function",
+                                "\\s*(?:(?:public|private|protected|static|abstract|final)\\s+)*function\\s+&?\\s*(\\w+)")));
+    }
+
+    @Override
+    public boolean includes(String path) {
+        return super.includes(path) && !path.contains("/tests/") && !path.contains("/vendor/");
+    }
+}
@@ -0,0 +1,62 @@
+package com.bugbounty.cve.index;
+
+import com.bugbounty.cve.entity.CodebaseIndexSymbol;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Python: module name and {@code def} lines.
+ */
+@Component
+public class PythonIndexer implements LanguageIndexer {
+
+    private static final Pattern FUNCTION_NAME = Pattern.compile("def\\s+(\\w+)");
+
+    @Override
+    public String language() {
+        return "Python";
+    }
+
+    @Override
+    public Set<String> fileExtensions() {
+        return Set.of(".py");
+    }
+
+    @Override
+    public Map<String, Object> index(String relativePath, BufferedReader source) throws IOException {
+        List<String> functions = new ArrayList<>();
+        String line;
+        while ((line = source.readLine()) != null) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("def ") || trimmed.startsWith("async def ")) {
+                functions.add(trimmed);
+            }
+        }
+
+        String fileName = relativePath.substring(relativePath.lastIndexOf('/') + 1);
+        Map<String, Object> module = new HashMap<>();
+        module.put("module", fileName.replace(".py", ""));
+        module.put("path", relativePath);
+        module.put("functions", functions);
+        return module;
+    }
+
+    @Override
+    public List<CodebaseIndexSymbol> symbols(Map<?, ?> entry) {
+        Set<CodebaseIndexSymbol> symbols = new LinkedHashSet<>();
+        if (entry.get("functions") instanceof List<?> functions) {
+            for (Object function : functions) {
+                Matcher matcher = FUNCTION_NAME.matcher(String.valueOf(function));
+                if (matcher.find()) {
+                    symbols.add(new CodebaseIndexSymbol(matcher.group(1), "function"));
+                }
+            }
+        }
+        return new ArrayList<>(symbols);
+    }
+}
@@ -0,0 +1,26 @@
+package com.bugbounty.cve.index;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Ruby: classes, modules and methods ({@code def name}, {@code def self.name}).
+ */
+@Component
+public class RubyIndexer extends LinePatternIndexer {
+
+    public RubyIndexer() {
+        super("Ruby", Set.of(), Set.of(".rb"), null,
+                List.of(Declaration.of("class", "\\s*class\\s+(?:[A-Z]\\w*::)*([A-Z]\\w*)"),
+                        Declaration.of("module", "\\s*module\\s+(?:[A-Z]\\w*::)*([A-Z]\\w*)"),
+                        Declaration.of("def", "\\s*def\\s+(?:self\\.)?(\\w+[?!=]?)")));
+    }
+
+    @Override
+    public boolean includes(String path) {
+        return super.includes(path) && !path.contains("/spec/") && !path.contains("/vendor/");
+    }
+}
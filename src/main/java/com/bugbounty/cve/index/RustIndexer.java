@@ -0,0 +1,34 @@
+package com.bugbounty.cve.index;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Rust: functions (free and associated), structs, enums, traits, unions, type aliases and
+ * inline modules, public or not. Rust has no package line; the path is the module.
+ */
+@Component
+public class RustIndexer extends LinePatternIndexer {
+
+    private static final String VISIBILITY = "\\s*(?:pub(?:\\([^)]*\\))?\\s+)?";
+
+    public RustIndexer() {
+        super("Rust", Set.of(), Set.of(".rs"), null,
+                List.of(Declaration.of("fn", VISIBILITY
+                                + "(?:(?:const|async|unsafe|default)\\s+|extern\\s+\"[^\"]*\"\\s+)*fn\\s+(\\w+)"),
+                        Declaration.of("struct", VISIBILITY + "struct\\s+(\\w+)"),
+                        Declaration.of("enum", VISIBILITY + "enum\\s+(\\w+)"),
+                        Declaration.of("trait", VISIBILITY + "(?:unsafe\\s+)?trait\\s+(\\w+)"),
+                        Declaration.of("union", VISIBILITY + "union\\s+(\\w+)"),
+                        Declaration.of("type", VISIBILITY + "type\\s+(\\w+)"),
+                        Declaration.of("mod", VISIBILITY + "mod\\s+(\\w+)\\s*\\{")));
+    }
+
+    @Override
+    public boolean includes(String path) {
+        return super.includes(path) && !path.contains("/tests/") && !path.contains("/target/");
+    }
+}
@@ -0,0 +1,49 @@
+package com.bugbounty.cve.repository;
+
+import com.bugbounty.cve.entity.CodebaseIndexFileEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface CodebaseIndexFileRepository extends JpaRepository<CodebaseIndexFileEntity, UUID> {
+    
+    List<CodebaseIndexFileEntity> findByIndexIdOrderByPath(UUID indexId);
+    
+    @Query("SELECT f.entryData FROM CodebaseIndexFileEntity f WHERE f.indexId = :indexId ORDER BY f.path")
+    List<String> findEntryDataByIndexId(@Param("indexId") UUID indexId);
+    
+    List<CodebaseIndexFileEntity> findByIndexIdAndPathIn(UUID indexId, Collection<String> paths);
+    
+    List<CodebaseIndexFileEntity> findByIndexIdAndPathStartingWithOrderByPath(UUID indexId, String pathPrefix);
+    
+    @Query("SELECT f.entryData FROM CodebaseIndexFileEntity f "
+            + "WHERE f.indexId = :indexId AND f.directory IN :directories ORDER BY f.path")
+    List<String> findEntryDataByIndexIdAndDirectoryIn(@Param("indexId") UUID indexId,
+                                                      @Param("directories") Collection<String> directories);
+    
+    /**
+     * Path and entry JSON length of every file, for building shard summaries without loading entries.
+     */
+    @Query("SELECT f.path AS path, LENGTH(f.entryData) AS size FROM CodebaseIndexFileEntity f WHERE f.indexId = :indexId")
+    List<FileSize> findFileSizesByIndexId(@Param("indexId") UUID indexId);
+    
+    @Query("SELECT DISTINCT f.path FROM CodebaseIndexFileEntity f JOIN f.symbols s "
+            + "WHERE f.indexId = :indexId AND s.name IN :names")
+    List<String> findPathsDeclaringAny(@Param("indexId") UUID indexId, @Param("names") Collection<String> names);
+    
+    @Query("SELECT DISTINCT f FROM CodebaseIndexFileEntity f JOIN f.symbols s "
+            + "WHERE f.indexId = :indexId AND s.name = :name ORDER BY f.path")
+    List<CodebaseIndexFileEntity> findBySymbolName(@Param("indexId") UUID indexId, @Param("name") String name);
+    
+    interface FileSize {
+        String getPath();
+        
+        Integer getSize();
+    }
+}
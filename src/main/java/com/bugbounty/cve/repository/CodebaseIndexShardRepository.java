@@ -0,0 +1,20 @@
+package com.bugbounty.cve.repository;
+
+import com.bugbounty.cve.entity.CodebaseIndexShardEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface CodebaseIndexShardRepository extends JpaRepository<CodebaseIndexShardEntity, UUID> {
+    
+    List<CodebaseIndexShardEntity> findByIndexId(UUID indexId);
+    
+    List<CodebaseIndexShardEntity> findByIndexIdAndDirectoryIn(UUID indexId, Collection<String> directories);
+    
+    Optional<CodebaseIndexShardEntity> findByIndexIdAndDirectory(UUID indexId, String directory);
+}
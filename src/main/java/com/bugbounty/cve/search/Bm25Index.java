@@ -0,0 +1,481 @@
+package com.bugbounty.cve.search;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Full-text index over the source files of one repository, scored with Okapi BM25.
+ *
+ * Files are cut into chunks of {@code chunkLines} lines. Each chunk is a document whose terms are
+ * the identifiers and comment words in it, lower-cased, together with their camelCase and
+ * snake_case parts ({@code parseHttpHeader} gives "parsehttpheader", "parse", "http" and
+ * "header"), so prose in an issue matches code and code matches code. Files are replaced or removed
+ * one at a time, which keeps the index current from a git diff without re-reading the tree; the
+ * commit it reflects is recorded alongside.
+ *
+ * Thread-safe: searches share a read lock, file updates take the write lock.
+ */
+public class Bm25Index {
+
+    private static final int MAGIC = 0x424D3235; // "BM25"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /** Lines longer than this (minified or generated code) are skipped rather than tokenized. */
+    private static final int MAX_LINE_LENGTH = 1000;
+    private static final int MIN_TERM_LENGTH = 2;
+    private static final int MAX_TERM_LENGTH = 64;
+
+    // Keywords and prose filler that occur in nearly every chunk or issue
+    private static final Set<String> STOP_WORDS = Set.of(
+            "the", "and", "for", "not", "are", "with", "this", "that", "from", "into", "when", "which",
+            "is", "it", "in", "on", "of", "to", "an", "as", "at", "be", "by", "or", "if", "do", "we",
+            "public", "private", "protected", "static", "final", "void", "return", "import", "package",
+            "new", "null", "true", "false", "int", "var", "let", "const", "def", "self", "else", "try",
+            "catch", "throw", "throws", "while", "func", "fn", "end", "use", "class", "function");
+
+    private final int chunkLines;
+    private final List<Chunk> chunks = new ArrayList<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final Map<String, List<Integer>> chunksByPath = new HashMap<>();
+    private final Map<String, Map<Integer, Integer>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private String commit;
+    private long totalLength;
+    private int liveCount;
+
+    /**
+     * @param chunkLines Lines per chunk; a file's last chunk may be shorter
+     */
+    public Bm25Index(int chunkLines) {
+        if (chunkLines < 1) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkLines);
+        }
+        this.chunkLines = chunkLines;
+    }
+
+    /**
+     * Index (or re-index) a file, replacing its previous chunks.
+     */
+    public void replaceFile(String path, String content) {
+        List<Chunk> added = chunk(path, content);
+        lock.writeLock().lock();
+        try {
+            removeChunks(path);
+            List<Integer> ids = new ArrayList<>(added.size());
+            for (Chunk chunk : added) {
+                ids.add(addChunk(chunk));
+            }
+            if (!ids.isEmpty()) {
+                chunksByPath.put(path, ids);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop a file's chunks; unknown paths are ignored.
+     */
+    public void removeFile(String path) {
+        lock.writeLock().lock();
+        try {
+            removeChunks(path);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The {@code limit} chunks scoring highest against the terms of {@code query}, best first.
+     */
+    public List<Hit> search(String query, int limit) {
+        Set<String> queryTerms = termFrequencies(query).keySet();
+        lock.readLock().lock();
+        try {
+            if (liveCount == 0 || limit <= 0 || queryTerms.isEmpty()) {
+                return List.of();
+            }
+            double averageLength = (double) totalLength / liveCount;
+            Map<Integer, Double> scores = new HashMap<>();
+            for (String term : queryTerms) {
+                Map<Integer, Integer> matches = postings.get(term);
+                if (matches == null) {
+                    continue;
+                }
+                double idf = Math.log(1.0 + (liveCount - matches.size() + 0.5) / (matches.size() + 0.5));
+                matches.forEach((id, frequency) -> {
+                    double norm = K1 * (1 - B + B * chunks.get(id).length / averageLength);
+                    scores.merge(id, idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+                });
+            }
+
+            // Worst of the best kept on top, so each candidate costs O(log limit)
+            Comparator<Hit> ranking = Comparator.comparingDouble(Hit::score).reversed()
+                    .thenComparing(Hit::path)
+                    .thenComparingInt(Hit::startLine);
+            PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, ranking.reversed());
+            scores.forEach((id, score) -> {
+                Chunk chunk = chunks.get(id);
+                best.add(new Hit(chunk.path, chunk.startLine, chunk.endLine, score));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            });
+            List<Hit> hits = new ArrayList<>(best);
+            hits.sort(ranking);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Commit the indexed files were read at, or null if not recorded.
+     */
+    public String commit() {
+        lock.readLock().lock();
+        try {
+            return commit;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void setCommit(String commit) {
+        lock.writeLock().lock();
+        try {
+            this.commit = commit;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int chunkLines() {
+        return chunkLines;
+    }
+
+    /**
+     * Number of chunks indexed.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of files with at least one indexed chunk.
+     */
+    public int fileCount() {
+        lock.readLock().lock();
+        try {
+            return chunksByPath.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Paths of the files with at least one indexed chunk.
+     */
+    public Set<String> paths() {
+        lock.readLock().lock();
+        try {
+            return Set.copyOf(chunksByPath.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Write the index. Terms are written once, in a dictionary the chunks refer to by position.
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        lock.readLock().lock();
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(chunkLines);
+            out.writeBoolean(commit != null);
+            if (commit != null) {
+                out.writeUTF(commit);
+            }
+
+            Map<String, Integer> dictionary = new HashMap<>(postings.size());
+            out.writeInt(postings.size());
+            for (String term : postings.keySet()) {
+                dictionary.put(term, dictionary.size());
+                out.writeUTF(term);
+            }
+
+            out.writeInt(liveCount);
+            for (Chunk chunk : chunks) {
+                if (chunk == null) {
+                    continue;
+                }
+                out.writeUTF(chunk.path);
+                out.writeInt(chunk.startLine);
+                out.writeInt(chunk.endLine);
+                out.writeInt(chunk.terms.length);
+                for (int i = 0; i < chunk.terms.length; i++) {
+                    out.writeInt(dictionary.get(chunk.terms[i]));
+                    out.writeInt(chunk.frequencies[i]);
+                }
+            }
+            out.flush();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Read an index written by {@link #writeTo(OutputStream)}.
+     */
+    public static Bm25Index readFrom(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a BM25 index file");
+        }
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported BM25 index format version " + version);
+        }
+
+        Bm25Index index = new Bm25Index(in.readInt());
+        index.commit = in.readBoolean() ? in.readUTF() : null;
+
+        String[] dictionary = new String[in.readInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = in.readUTF().intern();
+        }
+
+        int chunkCount = in.readInt();
+        for (int c = 0; c < chunkCount; c++) {
+            String path = in.readUTF();
+            int startLine = in.readInt();
+            int endLine = in.readInt();
+            String[] terms = new String[in.readInt()];
+            int[] frequencies = new int[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                terms[i] = dictionary[in.readInt()];
+                frequencies[i] = in.readInt();
+            }
+            int id = index.addChunk(new Chunk(path, startLine, endLine, terms, frequencies));
+            index.chunksByPath.computeIfAbsent(path, p -> new ArrayList<>()).add(id);
+        }
+        return index;
+    }
+
+    /**
+     * Lower-cased terms of {@code text} with their frequencies: identifiers and words of at least
+     * two characters, plus their camelCase, snake_case and digit-separated parts.
+     */
+    static Map<String, Integer> termFrequencies(CharSequence text) {
+        Map<String, Integer> terms = new HashMap<>();
+        if (text == null) {
+            return terms;
+        }
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (!Character.isLetter(c) && c != '_' && c != '$') {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < length && isIdentifierPart(text.charAt(i))) {
+                i++;
+            }
+            addIdentifier(terms, text, start, i);
+        }
+        return terms;
+    }
+
+    private static void addIdentifier(Map<String, Integer> terms, CharSequence text, int start, int end) {
+        if (end - start > MAX_TERM_LENGTH) {
+            return; // Hashes, base64 and similar blobs
+        }
+        addTerm(terms, text.subSequence(start, end).toString());
+
+        List<String> parts = new ArrayList<>(4);
+        int partStart = -1;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '_' || c == '$') {
+                if (partStart >= 0) {
+                    parts.add(text.subSequence(partStart, i).toString());
+                    partStart = -1;
+                }
+            } else if (partStart < 0) {
+                partStart = i;
+            } else if (startsPart(text, i, end)) {
+                parts.add(text.subSequence(partStart, i).toString());
+                partStart = i;
+            }
+        }
+        if (partStart >= 0) {
+            parts.add(text.subSequence(partStart, end).toString());
+        }
+        if (parts.size() > 1 || (parts.size() == 1 && parts.get(0).length() < end - start)) {
+            parts.forEach(part -> addTerm(terms, part));
+        }
+    }
+
+    /**
+     * Whether a new part starts at {@code i}: a lower-to-upper step, the last capital of an
+     * acronym followed by lower case ("HTTPServer"), or a letter-digit step.
+     */
+    private static boolean startsPart(CharSequence text, int i, int end) {
+        char previous = text.charAt(i - 1);
+        char current = text.charAt(i);
+        if (Character.isUpperCase(current)) {
+            return Character.isLowerCase(previous) || Character.isDigit(previous)
+                    || (Character.isUpperCase(previous) && i + 1 < end && Character.isLowerCase(text.charAt(i + 1)));
+        }
+        return Character.isDigit(previous) != Character.isDigit(current);
+    }
+
+    private static void addTerm(Map<String, Integer> terms, String term) {
+        if (term.length() < MIN_TERM_LENGTH) {
+            return;
+        }
+        String normalized = term.toLowerCase(Locale.ROOT);
+        if (!STOP_WORDS.contains(normalized) && !isNumber(normalized)) {
+            terms.merge(normalized, 1, Integer::sum);
+        }
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    private static boolean isNumber(String term) {
+        for (int i = 0; i < term.length(); i++) {
+            if (!Character.isDigit(term.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<Chunk> chunk(String path, String content) {
+        List<Chunk> result = new ArrayList<>();
+        if (content == null || content.isEmpty()) {
+            return result;
+        }
+        StringBuilder window = new StringBuilder();
+        int line = 0;
+        int startLine = 1;
+        int position = 0;
+        while (position < content.length()) {
+            int newline = content.indexOf('\n', position);
+            int lineEnd = newline < 0 ? content.length() : newline;
+            line++;
+            if (lineEnd - position <= MAX_LINE_LENGTH) {
+                window.append(content, position, lineEnd).append('\n');
+            }
+            position = lineEnd + 1;
+            if (line - startLine + 1 == chunkLines || position >= content.length()) {
+                Chunk chunk = Chunk.of(path, startLine, line, termFrequencies(window));
+                if (chunk.terms.length > 0) {
+                    result.add(chunk);
+                }
+                window.setLength(0);
+                startLine = line + 1;
+            }
+        }
+        return result;
+    }
+
+    private int addChunk(Chunk chunk) {
+        int id;
+        if (freeSlots.isEmpty()) {
+            id = chunks.size();
+            chunks.add(chunk);
+        } else {
+            id = freeSlots.pop();
+            chunks.set(id, chunk);
+        }
+        for (int i = 0; i < chunk.terms.length; i++) {
+            postings.computeIfAbsent(chunk.terms[i], term -> new HashMap<>()).put(id, chunk.frequencies[i]);
+        }
+        totalLength += chunk.length;
+        liveCount++;
+        return id;
+    }
+
+    private void removeChunks(String path) {
+        List<Integer> ids = chunksByPath.remove(path);
+        if (ids == null) {
+            return;
+        }
+        for (int id : ids) {
+            Chunk chunk = chunks.get(id);
+            for (String term : chunk.terms) {
+                Map<Integer, Integer> matches = postings.get(term);
+                matches.remove(id);
+                if (matches.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+            chunks.set(id, null);
+            freeSlots.push(id);
+            totalLength -= chunk.length;
+            liveCount--;
+        }
+    }
+
+    /**
+     * A chunk of a file matching a query.
+     *
+     * @param path      Repository-relative path
+     * @param startLine First line of the chunk (1-based)
+     * @param endLine   Last line of the chunk, inclusive
+     * @param score     BM25 score against the query
+     */
+    public record Hit(String path, int startLine, int endLine, double score) {}
+
+    private static final class Chunk {
+        private final String path;
+        private final int startLine;
+        private final int endLine;
+        private final String[] terms;
+        private final int[] frequencies;
+        private final int length;
+
+        private Chunk(String path, int startLine, int endLine, String[] terms, int[] frequencies) {
+            this.path = path;
+            this.startLine = startLine;
+            this.endLine = endLine;
+            this.terms = terms;
+            this.frequencies = frequencies;
+            int sum = 0;
+            for (int frequency : frequencies) {
+                sum += frequency;
+            }
+            this.length = sum;
+        }
+
+        private static Chunk of(String path, int startLine, int endLine, Map<String, Integer> termFrequencies) {
+            String[] terms = new String[termFrequencies.size()];
+            int[] frequencies = new int[terms.length];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+                terms[i] = entry.getKey().intern();
+                frequencies[i] = entry.getValue();
+                i++;
+            }
+            return new Chunk(path, startLine, endLine, terms, frequencies);
+        }
+    }
+}
@@ -5,20 +5,19 @@ import com.bugbounty.cve.domain.CVECatalog;
 import com.bugbounty.cve.entity.CVECatalogEntity;
 import com.bugbounty.cve.mapper.CVECatalogMapper;
 import com.bugbounty.cve.repository.CVECatalogRepository;
+import com.bugbounty.llm.prompt.CompiledPromptTemplate;
+import com.bugbounty.llm.scheduler.LlmPriority;
+import com.bugbounty.llm.service.LlmGateway;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.ai.chat.ChatClient;
-import org.springframework.ai.chat.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
-import org.springframework.ai.chat.prompt.PromptTemplate;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 /**
@@ -31,10 +30,38 @@ import java.util.Set;
 @Slf4j
 public class CVECatalogService {
     
-    private final ChatClient chatClient;
+    private static final CompiledPromptTemplate CATALOG_PROMPT = CompiledPromptTemplate.compile("""
+            Analyze this CVE and create a language-specific summary for {language}.
+            
+            CVE Details:
+            - CVE ID: {cveId}
+            - Description: {description}
+            - Severity: {severity}
+            - CVSS Score: {cvssScore}
+            - Affected Products: {affectedProducts}
+            
+            For the {language} programming language, provide:
+            1. A concise summary of the vulnerability (2-3 sentences)
+            2. A code example showing the vulnerable pattern
+            3. A description of the vulnerable pattern
+            4. A code example showing the fixed pattern
+            5. A description of the fixed pattern
+            
+            Respond with a JSON object:
+            {{
+              "summary": "brief description of the vulnerability in {language}",
+              "codeExample": "example vulnerable code snippet",
+              "vulnerablePattern": "description of what makes code vulnerable",
+              "fixedPattern": "description of how to fix it",
+              "fixedCodeExample": "example fixed code snippet"
+            }}
+            """);
+    
+    private final LlmGateway llmGateway;
     private final CVECatalogRepository catalogRepository;
     private final CVECatalogMapper catalogMapper;
     private final LanguageMappingService languageMappingService;
+    private final SimilarityIndexService similarityIndexService;
     private final ObjectMapper objectMapper;
     
     /**
@@ -57,7 +84,7 @@ public class CVECatalogService {
         log.info("Creating catalog entries for CVE {} in languages: {}", cve.getCveId(), affectedLanguages);
         
         return Flux.fromIterable(affectedLanguages)
-                .flatMap(language -> createCatalogEntry(cve, language))
+                .concatMap(language -> createCatalogEntry(cve, language))
                 .doOnNext(catalog -> log.info("Created catalog entry for CVE {} in language {}", 
                         catalog.getCveId(), catalog.getLanguage()))
                 .doOnError(error -> log.error("Error creating catalog entries for CVE {}", cve.getCveId(), error));
@@ -77,11 +104,10 @@ public class CVECatalogService {
             try {
                 // Build LLM prompt for CVE analysis
                 String prompt = buildCatalogPrompt(cve, language);
-                Prompt aiPrompt = new PromptTemplate(prompt).create(Map.of());
+                Prompt aiPrompt = new Prompt(prompt);
                 
                 // Call LLM to analyze CVE
-                ChatResponse response = chatClient.call(aiPrompt);
-                String content = response.getResult().getOutput().getContent();
+                String content = llmGateway.call(aiPrompt, LlmPriority.CATALOG, cve.getCveId());
                 
                 // Parse LLM response
                 CVECatalog catalog = parseCatalogResponse(cve.getCveId(), language, content);
@@ -91,7 +117,9 @@ public class CVECatalogService {
                 CVECatalogEntity saved = catalogRepository.save(entity);
                 
                 log.info("Created catalog entry for CVE {} in language {}", cve.getCveId(), language);
-                return catalogMapper.toDomain(saved);
+                CVECatalog created = catalogMapper.toDomain(saved);
+                similarityIndexService.indexCatalogEntry(created);
+                return created;
                 
             } catch (Exception e) {
                 log.error("Error creating catalog entry for CVE {} in language {}", 
@@ -106,38 +134,15 @@ public class CVECatalogService {
      * Build LLM prompt for CVE catalog analysis.
      */
     private String buildCatalogPrompt(CVE cve, String language) {
-        return """
-                Analyze this CVE and create a language-specific summary for {language}.
-                
-                CVE Details:
-                - CVE ID: {cveId}
-                - Description: {description}
-                - Severity: {severity}
-                - CVSS Score: {cvssScore}
-                - Affected Products: {affectedProducts}
-                
-                For the {language} programming language, provide:
-                1. A concise summary of the vulnerability (2-3 sentences)
-                2. A code example showing the vulnerable pattern
-                3. A description of the vulnerable pattern
-                4. A code example showing the fixed pattern
-                5. A description of the fixed pattern
-                
-                Respond with a JSON object:
-                {{
-                  "summary": "brief description of the vulnerability in {language}",
-                  "codeExample": "example vulnerable code snippet",
-                  "vulnerablePattern": "description of what makes code vulnerable",
-                  "fixedPattern": "description of how to fix it",
-                  "fixedCodeExample": "example fixed code snippet"
-                }}
-                """.replace("{cveId}", cve.getCveId())
-                .replace("{description}", cve.getDescription() != null ? cve.getDescription() : "N/A")
-                .replace("{severity}", cve.getSeverity() != null ? cve.getSeverity() : "UNKNOWN")
-                .replace("{cvssScore}", cve.getCvssScore() != null ? cve.getCvssScore().toString() : "N/A")
-                .replace("{affectedProducts}", String.join(", ", 
+        return CATALOG_PROMPT
+                .with("cveId", cve.getCveId())
+                .with("description", cve.getDescription() != null ? cve.getDescription() : "N/A")
+                .with("severity", cve.getSeverity() != null ? cve.getSeverity() : "UNKNOWN")
+                .with("cvssScore", cve.getCvssScore() != null ? cve.getCvssScore().toString() : "N/A")
+                .with("affectedProducts", String.join(", ", 
                         cve.getAffectedProducts() != null ? cve.getAffectedProducts() : List.of()))
-                .replace("{language}", language);
+                .with("language", language)
+                .render();
     }
     
     /**
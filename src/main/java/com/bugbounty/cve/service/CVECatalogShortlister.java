@@ -0,0 +1,222 @@
+package com.bugbounty.cve.service;
+
+import com.bugbounty.cve.domain.CVECatalog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Lexical pre-filter that shortlists CVE catalog entries for a commit before the initial
+ * commit-analysis LLM call.
+ *
+ * Each language's catalog is held in an in-memory inverted index of identifiers, qualified API
+ * names (e.g. "runtime.exec") and their camelCase/snake_case parts, taken from
+ * {@code vulnerablePattern} and {@code codeExample} (and, at a lower weight, the summary).
+ * A diff is scored by summing the IDF of every term it shares with an entry, so rare API names
+ * count far more than common words. The index is rebuilt only when the catalog changes.
+ *
+ * Catalogs no larger than top-K are passed through unfiltered.
+ */
+@Service
+@Slf4j
+public class CVECatalogShortlister {
+
+    private static final Pattern API_CALL_PATTERN = Pattern.compile("([A-Za-z_$][\\w$]*)\\s*\\.\\s*([A-Za-z_$][\\w$]*)\\s*\\(");
+    private static final Pattern IDENTIFIER_PATTERN = Pattern.compile("[A-Za-z_$][\\w$]*");
+    private static final Pattern CAMEL_CASE_BOUNDARY = Pattern.compile("(?<=[a-z0-9])(?=[A-Z])|(?<=[A-Z])(?=[A-Z][a-z])|[_$]+");
+    private static final int MIN_TERM_LENGTH = 3;
+
+    private static final double PATTERN_WEIGHT = 1.0;
+    private static final double SUMMARY_WEIGHT = 0.5;
+    private static final double API_NAME_BOOST = 2.0;
+
+    // Keywords and prose filler that appear in nearly every diff or pattern description
+    private static final Set<String> STOP_WORDS = Set.of(
+            "the", "and", "for", "not", "are", "with", "this", "that", "from", "into", "when", "which",
+            "may", "can", "could", "allows", "allow", "via", "use", "using", "used", "code", "data",
+            "value", "values", "input", "user", "function", "method", "class", "public", "private",
+            "protected", "static", "final", "void", "return", "import", "package", "new", "null",
+            "true", "false", "int", "string", "var", "let", "const", "def", "self", "if", "else",
+            "try", "catch", "throw", "throws", "while", "java", "python", "javascript", "typescript");
+
+    private final Map<String, CatalogIndex> indexes = new ConcurrentHashMap<>();
+    private final DistributionSummary shortlistSize;
+    private final DistributionSummary catalogSize;
+    private final Counter emptyShortlists;
+
+    @Value("${app.cve.commit-analysis.shortlist.top-k:20}")
+    private int topK = 20;
+
+    @Value("${app.cve.commit-analysis.shortlist.min-score:2.0}")
+    private double minScore = 2.0;
+
+    public CVECatalogShortlister(MeterRegistry meterRegistry) {
+        this.shortlistSize = DistributionSummary.builder("cve.catalog.shortlist.size")
+                .description("CVE catalog entries placed in an initial commit-analysis prompt")
+                .register(meterRegistry);
+        this.catalogSize = DistributionSummary.builder("cve.catalog.shortlist.catalog.size")
+                .description("CVE catalog entries available for the commit's language")
+                .register(meterRegistry);
+        this.emptyShortlists = Counter.builder("cve.catalog.shortlist.empty")
+                .description("Commits skipped because no catalog entry matched the diff")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Select the catalog entries most relevant to a commit diff.
+     *
+     * @param language       Catalog language (one index is kept per language)
+     * @param catalogEntries All catalog entries for the language
+     * @param commitDiff     Git diff of the commit
+     * @return At most top-K entries scoring at least the minimum score, best first;
+     *         the whole catalog if it has no more than top-K entries
+     */
+    public List<CVECatalog> shortlist(String language, List<CVECatalog> catalogEntries, String commitDiff) {
+        catalogSize.record(catalogEntries.size());
+        if (catalogEntries.size() <= topK) {
+            shortlistSize.record(catalogEntries.size());
+            return catalogEntries;
+        }
+
+        CatalogIndex index = indexFor(language, catalogEntries);
+        Map<Integer, Double> scores = index.score(extractTerms(changedLines(commitDiff), 1.0, API_NAME_BOOST));
+
+        List<CVECatalog> shortlist = scores.entrySet().stream()
+                .filter(entry -> entry.getValue() >= minScore)
+                .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(topK)
+                .map(entry -> index.entries().get(entry.getKey()))
+                .toList();
+
+        shortlistSize.record(shortlist.size());
+        if (shortlist.isEmpty()) {
+            emptyShortlists.increment();
+        }
+        log.debug("Shortlisted {}/{} {} catalog entries ({} matched any term)",
+                shortlist.size(), catalogEntries.size(), language, scores.size());
+        return shortlist;
+    }
+
+    private CatalogIndex indexFor(String language, List<CVECatalog> catalogEntries) {
+        int fingerprint = fingerprint(catalogEntries);
+        return indexes.compute(language, (key, existing) -> {
+            if (existing != null && existing.fingerprint() == fingerprint) {
+                return existing;
+            }
+            log.debug("Building CVE catalog term index for {} ({} entries)", language, catalogEntries.size());
+            return buildIndex(catalogEntries, fingerprint);
+        });
+    }
+
+    private CatalogIndex buildIndex(List<CVECatalog> catalogEntries, int fingerprint) {
+        Map<String, Map<Integer, Double>> postings = new HashMap<>();
+        for (int i = 0; i < catalogEntries.size(); i++) {
+            CVECatalog entry = catalogEntries.get(i);
+            Map<String, Double> terms = new HashMap<>();
+            extractTerms(entry.getSummary(), SUMMARY_WEIGHT, SUMMARY_WEIGHT).forEach((term, weight) -> terms.merge(term, weight, Math::max));
+            extractTerms(entry.getVulnerablePattern(), PATTERN_WEIGHT, PATTERN_WEIGHT).forEach((term, weight) -> terms.merge(term, weight, Math::max));
+            extractTerms(entry.getCodeExample(), PATTERN_WEIGHT, PATTERN_WEIGHT).forEach((term, weight) -> terms.merge(term, weight, Math::max));
+
+            int position = i;
+            terms.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(position, weight));
+        }
+
+        // Rare terms (specific APIs) discriminate between entries; common ones barely count
+        Map<String, Map<Integer, Double>> weighted = new HashMap<>(postings.size());
+        postings.forEach((term, entries) -> {
+            double idf = Math.log(1.0 + (double) catalogEntries.size() / entries.size());
+            Map<Integer, Double> scaled = new HashMap<>(entries.size());
+            entries.forEach((position, weight) -> scaled.put(position, weight * idf));
+            weighted.put(term, scaled);
+        });
+        return new CatalogIndex(List.copyOf(catalogEntries), weighted, fingerprint);
+    }
+
+    /**
+     * Identity of a catalog's indexed content (entry ids are regenerated on every load).
+     */
+    private int fingerprint(List<CVECatalog> catalogEntries) {
+        int hash = 1;
+        for (CVECatalog entry : catalogEntries) {
+            hash = 31 * hash + Objects.hash(entry.getCveId(), entry.getSummary(),
+                    entry.getVulnerablePattern(), entry.getCodeExample());
+        }
+        return hash;
+    }
+
+    /**
+     * Added and removed lines of a unified diff; the whole text if it is not one.
+     */
+    private String changedLines(String diff) {
+        if (diff == null) {
+            return "";
+        }
+        StringBuilder changed = new StringBuilder();
+        for (String line : diff.split("\n")) {
+            if ((line.startsWith("+") && !line.startsWith("+++")) || (line.startsWith("-") && !line.startsWith("---"))) {
+                changed.append(line, 1, line.length()).append('\n');
+            }
+        }
+        return changed.length() > 0 ? changed.toString() : diff;
+    }
+
+    /**
+     * Terms with their weight: qualified API names get {@code apiWeight}, identifiers and their
+     * camelCase/snake_case parts get {@code baseWeight}.
+     */
+    private Map<String, Double> extractTerms(String text, double baseWeight, double apiWeight) {
+        Map<String, Double> terms = new HashMap<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+
+        Matcher apiMatcher = API_CALL_PATTERN.matcher(text);
+        while (apiMatcher.find()) {
+            String apiName = (apiMatcher.group(1) + "." + apiMatcher.group(2)).toLowerCase(Locale.ROOT);
+            terms.merge(apiName, apiWeight, Math::max);
+        }
+
+        Matcher identifierMatcher = IDENTIFIER_PATTERN.matcher(text);
+        while (identifierMatcher.find()) {
+            String identifier = identifierMatcher.group();
+            addTerm(terms, identifier, baseWeight);
+            for (String part : CAMEL_CASE_BOUNDARY.split(identifier)) {
+                addTerm(terms, part, baseWeight);
+            }
+        }
+        return terms;
+    }
+
+    private void addTerm(Map<String, Double> terms, String term, double weight) {
+        String normalized = term.toLowerCase(Locale.ROOT);
+        if (normalized.length() >= MIN_TERM_LENGTH && !STOP_WORDS.contains(normalized)) {
+            terms.merge(normalized, weight, Math::max);
+        }
+    }
+
+    /**
+     * Inverted index over one language's catalog: term -> (entry position -> weight x IDF).
+     */
+    private record CatalogIndex(List<CVECatalog> entries, Map<String, Map<Integer, Double>> postings, int fingerprint) {
+
+        Map<Integer, Double> score(Map<String, Double> queryTerms) {
+            Map<Integer, Double> scores = new HashMap<>();
+            queryTerms.forEach((term, queryWeight) -> {
+                Map<Integer, Double> matches = postings.get(term);
+                if (matches != null) {
+                    matches.forEach((position, weight) -> scores.merge(position, weight * queryWeight, Double::sum));
+                }
+            });
+            return scores;
+        }
+    }
+}
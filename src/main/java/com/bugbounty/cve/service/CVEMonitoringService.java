@@ -51,7 +51,7 @@ public class CVEMonitoringService {
             
             nvdApiClient.fetchCVEsBySeverity(severities, startDate, endDate)
                     .filter(cve -> !cveRepository.existsByCveId(cve.getCveId()))
-                    .flatMap(this::processNewCVE)
+                    .concatMap(this::processNewCVE)
                     .doOnComplete(() -> log.info("CVE polling completed"))
                     .doOnError(error -> log.error("Error during CVE polling", error))
                     .subscribe();
@@ -91,17 +91,19 @@ public class CVEMonitoringService {
             
             log.info("CVE {} affects languages: {}", cve.getCveId(), affectedLanguages);
             
-            // Create CVE catalog entries for each language
-            cveCatalogService.processCVEForCatalog(cve)
+            // Create CVE catalog entries for each language as part of this pipeline
+            // (catalog failures are logged and must not cancel the repository scans)
+            Flux<Void> catalogCreation = cveCatalogService.processCVEForCatalog(cve)
                     .doOnNext(catalog -> log.info("Created catalog entry for CVE {} in language {}", 
                             catalog.getCveId(), catalog.getLanguage()))
                     .doOnError(error -> log.error("Error creating catalog entries for CVE {}", cve.getCveId(), error))
-                    .subscribe();
+                    .onErrorResume(error -> Flux.empty())
+                    .thenMany(Flux.empty());
             
             // Find repositories using affected languages
             List<RepositoryEntity> repositories = repositoryRepository.findAll();
             
-            return Flux.fromIterable(repositories)
+            Flux<Void> repositoryScans = Flux.fromIterable(repositories)
                     .filter(repo -> {
                         String repoLanguage = repo.getLanguage();
                         if (repoLanguage == null || repoLanguage.isEmpty()) {
@@ -118,6 +120,8 @@ public class CVEMonitoringService {
                         );
                     })
                     .doOnError(error -> log.error("Error scanning repositories for CVE {}", cve.getCveId(), error));
+            
+            return Flux.merge(catalogCreation, repositoryScans);
         } catch (Exception e) {
             log.error("Error processing CVE {}", cve.getCveId(), e);
             return Flux.error(e);
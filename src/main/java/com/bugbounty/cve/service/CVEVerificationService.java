@@ -5,22 +5,27 @@ import com.bugbounty.cve.entity.BugFindingEntity;
 import com.bugbounty.cve.mapper.BugFindingMapper;
 import com.bugbounty.cve.repository.BugFindingRepository;
 import com.bugbounty.cve.repository.CVECatalogRepository;
-import com.bugbounty.cve.entity.CodebaseIndexEntity;
+import com.bugbounty.llm.deadline.Deadline;
+import com.bugbounty.llm.prompt.CompiledPromptTemplate;
+import com.bugbounty.llm.scheduler.LlmPriority;
+import com.bugbounty.llm.service.LlmGateway;
 import com.bugbounty.repository.repository.RepositoryRepository;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.ai.chat.ChatClient;
-import org.springframework.ai.chat.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
-import org.springframework.ai.chat.prompt.PromptTemplate;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Service for cross-LLM verification of issue analysis and fix generation.
@@ -31,20 +36,137 @@ import java.util.Optional;
  * 
  * Legacy: This service was originally for CVE verification but has been updated
  * to work with GitHub issue analysis.
+ * 
+ * Speculative mode (app.llm.verification.speculative-fix): fix generation starts alongside the
+ * root cause check, from the initial root cause analysis, and is cancelled or discarded if root
+ * cause confidence comes back below 0.7. A speculative fix that fails or does not pass the fix
+ * check (confidence below 0.6) is dropped and the fix is generated sequentially instead. Metrics:
+ * - llm.verification.speculative{outcome=used|discarded|rejected}: speculative fixes per finding
+ * - llm.verification.speculative.saved: latency saved on findings whose fix was used
+ * - llm.verification.speculative.wasted{outcome=discarded|rejected}: LLM time spent on dropped fixes,
+ *   i.e. fix generation plus, for rejected fixes, the fix check that turned them down
+ * - llm.verification.speculative.wasted.tokens{outcome=discarded|rejected}: estimated prompt and
+ *   response tokens of those same calls
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CVEVerificationService {
     
-    private final ChatClient chatClient; // LLM client (used for both primary and secondary verification)
+    private static final CompiledPromptTemplate ROOT_CAUSE_VERIFICATION_PROMPT = CompiledPromptTemplate.compile("""
+            Verify that we understand the root cause of the reported bug in this GitHub issue.
+            
+            Issue Title: {issueTitle}
+            Issue Description: {issueDescription}
+            
+            Initial Root Cause Analysis:
+            {rootCauseAnalysis}
+            
+            Affected Files:
+            {affectedFiles}
+            
+            Affected Code Sections:
+            {affectedCode}
+            
+            Codebase Structure:
+            {codebaseIndex}
+            
+            Verify:
+            1. Do we correctly understand the root cause of the bug described in the issue?
+            2. Have we identified the correct files and code sections?
+            3. Is our analysis accurate and complete?
+            4. What is your confidence level (0.0-1.0) that we understand the root cause?
+            
+            Respond with JSON:
+            {{
+              "understood": true/false,
+              "confidence": 0.0-1.0,
+              "analysis": "refined or confirmed root cause analysis",
+              "notes": "verification notes"
+            }}
+            """);
+    
+    private static final CompiledPromptTemplate FIX_GENERATION_PROMPT = CompiledPromptTemplate.compile("""
+            Generate a code fix for this GitHub issue.
+            
+            Issue Title: {issueTitle}
+            Issue Description: {issueDescription}
+            
+            Root Cause Analysis:
+            {rootCauseAnalysis}
+            
+            Affected Files:
+            {affectedFiles}
+            
+            Affected Code Sections:
+            {affectedCode}
+            
+            Codebase Structure:
+            {codebaseIndex}
+            
+            Generate:
+            1. Complete fix code that addresses the bug described in the issue
+            2. Ensure the fix follows the codebase patterns and style
+            3. Include all necessary changes to solve the reported problem
+            4. Make sure the fix addresses the root cause we identified
+            
+            Respond with JSON:
+            {{
+              "fixCode": "complete fix code",
+              "notes": "fix generation notes"
+            }}
+            """);
+    
+    private static final CompiledPromptTemplate FIX_VERIFICATION_PROMPT = CompiledPromptTemplate.compile("""
+            Verify that the proposed code fix solves the reported GitHub issue.
+            
+            Issue Title: {issueTitle}
+            Issue Description: {issueDescription}
+            
+            Root Cause Analysis:
+            {rootCauseAnalysis}
+            
+            Original Affected Code:
+            {affectedCode}
+            
+            Recommended Fix:
+            {recommendedFix}
+            
+            Affected Files:
+            {affectedFiles}
+            
+            Codebase Structure:
+            {codebaseIndex}
+            
+            Verify:
+            1. Does the fix solve the specific problem described in the GitHub issue?
+            2. Does it address the root cause we identified?
+            3. Is the fix code correct, complete, and follows codebase patterns?
+            4. Will this fix resolve the issue for the user who reported it?
+            5. What is your confidence (0.0-1.0) that this fix solves the issue?
+            
+            Respond with JSON:
+            {{
+              "solvesIssue": true/false,
+              "confidence": 0.0-1.0,
+              "notes": "verification notes",
+              "suggestions": "any improvements or concerns"
+            }}
+            """);
+    
+    private final LlmGateway llmGateway; // LLM gateway (used for both primary and secondary verification)
     
     private final BugFindingRepository bugFindingRepository;
     private final BugFindingMapper bugFindingMapper;
     private final CVECatalogRepository catalogRepository;
     private final CodebaseIndexService codebaseIndexService;
+    private final CodebaseContextAssembler contextAssembler;
     private final RepositoryRepository repositoryRepository;
     private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${app.llm.verification.speculative-fix:false}")
+    private boolean speculativeFixEnabled = false;
     
     /**
      * Verify and process a bug finding through cross-LLM verification.
@@ -53,7 +175,7 @@ public class CVEVerificationService {
      * @return Updated bug finding
      */
     public Mono<BugFinding> verifyAndProcessBugFinding(java.util.UUID findingId) {
-        return Mono.fromCallable(() -> {
+        return Deadline.fromCallable(() -> {
             Optional<BugFindingEntity> entityOpt = bugFindingRepository.findById(findingId);
             if (entityOpt.isEmpty()) {
                 throw new IllegalArgumentException("Bug finding not found: " + findingId);
@@ -65,23 +187,31 @@ public class CVEVerificationService {
             log.info("Verifying bug finding {} for issue #{} in repository {}", 
                     findingId, finding.getIssueId(), finding.getRepositoryUrl());
             
+            // Speculative mode: generate the fix while the root cause is being verified
+            SpeculativeFix speculativeFix = speculativeFixEnabled ? startSpeculativeFix(finding) : null;
+            
             // Step 1: First cross-check - Verify we understand the root cause
             BugFinding rootCauseVerified = verifyRootCauseUnderstanding(finding);
             
             if (rootCauseVerified.getRootCauseConfidence() == null || 
                 rootCauseVerified.getRootCauseConfidence() < 0.7) {
                 log.warn("Root cause understanding verification failed or low confidence for finding {}", findingId);
+                if (speculativeFix != null) {
+                    discardSpeculativeFix(rootCauseVerified, speculativeFix);
+                }
                 rootCauseVerified.setRequiresHumanReview(true);
                 rootCauseVerified.setStatus(BugFinding.BugFindingStatus.HUMAN_REVIEW);
                 updateBugFinding(rootCauseVerified);
                 return rootCauseVerified;
             }
             
-            // Step 2: Generate fix code
-            BugFinding withFix = generateFix(rootCauseVerified);
-            
-            // Step 3: Second cross-check - Verify that the fix solves the GitHub issue
-            BugFinding confirmed = verifyFixSolvesIssue(withFix);
+            // Steps 2 and 3: Generate fix code, then cross-check that it solves the GitHub issue
+            BugFinding confirmed = speculativeFix != null
+                    ? useSpeculativeFix(rootCauseVerified, speculativeFix)
+                    : null;
+            if (confirmed == null) {
+                confirmed = verifyFixSolvesIssue(generateFix(rootCauseVerified));
+            }
             
             // Update status based on confidence
             if (confirmed.getFixConfidence() != null && confirmed.getFixConfidence() >= 0.8) {
@@ -109,19 +239,15 @@ public class CVEVerificationService {
      */
     private BugFinding verifyRootCauseUnderstanding(BugFinding finding) {
         try {
-            // Get codebase index
-            Optional<CodebaseIndexEntity> indexOpt = codebaseIndexService.getIndex(
-                    finding.getRepositoryUrl(), 
-                    getRepositoryLanguage(finding.getRepositoryUrl()));
-            String codebaseIndex = indexOpt.map(CodebaseIndexEntity::getIndexData).orElse("{}");
+            // Get codebase context relevant to this finding
+            String codebaseIndex = assembleCodebaseContext(finding);
             
             // Build root cause verification prompt
             String prompt = buildRootCauseVerificationPrompt(finding, codebaseIndex);
-            Prompt aiPrompt = new PromptTemplate(prompt).create(Map.of());
+            Prompt aiPrompt = new Prompt(prompt);
             
             // Use LLM for verification
-            ChatResponse response = chatClient.call(aiPrompt);
-            String content = response.getResult().getOutput().getContent();
+            String content = llmGateway.call(aiPrompt, LlmPriority.VERIFICATION, finding.getRepositoryUrl());
             
             // Parse response
             RootCauseVerificationResult result = parseRootCauseVerificationResponse(content);
@@ -151,30 +277,7 @@ public class CVEVerificationService {
      */
     private BugFinding generateFix(BugFinding finding) {
         try {
-            // Get codebase index
-            Optional<CodebaseIndexEntity> indexOpt = codebaseIndexService.getIndex(
-                    finding.getRepositoryUrl(), 
-                    getRepositoryLanguage(finding.getRepositoryUrl()));
-            String codebaseIndex = indexOpt.map(CodebaseIndexEntity::getIndexData).orElse("{}");
-            
-            // Build fix generation prompt
-            String prompt = buildFixGenerationPrompt(finding, codebaseIndex);
-            Prompt aiPrompt = new PromptTemplate(prompt).create(Map.of());
-            
-            // Use LLM for fix generation (second LLM step)
-            ChatResponse response = chatClient.call(aiPrompt);
-            String content = response.getResult().getOutput().getContent();
-            
-            // Parse response
-            FixResult result = parseFixResponse(content);
-            
-            // Update finding
-            finding.setRecommendedFix(result.fixCode);
-            finding.setStatus(BugFinding.BugFindingStatus.FIX_GENERATED);
-            finding.setVerificationNotes(
-                    (finding.getVerificationNotes() != null ? finding.getVerificationNotes() + "\n\n" : "") +
-                    "Fix Generation: " + result.notes);
-            
+            applyFix(finding, requestFix(finding));
             return finding;
             
         } catch (Exception e) {
@@ -184,24 +287,152 @@ public class CVEVerificationService {
         }
     }
     
+    /**
+     * Ask the LLM for fix code. Only reads the finding, so it can run on a snapshot.
+     */
+    private FixResult requestFix(BugFinding finding) {
+        return requestFix(finding, new LongAdder());
+    }
+    
+    /**
+     * As {@link #requestFix(BugFinding)}, adding the estimated prompt tokens to {@code tokens} before
+     * the call and the response tokens after it, so a cancelled call still accounts for its prompt.
+     */
+    private FixResult requestFix(BugFinding finding, LongAdder tokens) {
+        // Get codebase context relevant to this finding
+        String codebaseIndex = assembleCodebaseContext(finding);
+        
+        // Build fix generation prompt
+        String prompt = buildFixGenerationPrompt(finding, codebaseIndex);
+        Prompt aiPrompt = new Prompt(prompt);
+        tokens.add(CodebaseContextAssembler.estimateTokens(prompt));
+        
+        // Use LLM for fix generation (second LLM step)
+        String content = llmGateway.call(aiPrompt, LlmPriority.VERIFICATION, finding.getRepositoryUrl());
+        tokens.add(CodebaseContextAssembler.estimateTokens(content));
+        
+        return parseFixResponse(content);
+    }
+    
+    private void applyFix(BugFinding finding, FixResult result) {
+        finding.setRecommendedFix(result.fixCode);
+        finding.setStatus(BugFinding.BugFindingStatus.FIX_GENERATED);
+        finding.setVerificationNotes(
+                (finding.getVerificationNotes() != null ? finding.getVerificationNotes() + "\n\n" : "") +
+                "Fix Generation: " + result.notes);
+    }
+    
+    /**
+     * Start fix generation for a snapshot of the finding taken before root cause verification,
+     * which would otherwise update the same object concurrently. The fix runs under the caller's deadline.
+     */
+    private SpeculativeFix startSpeculativeFix(BugFinding finding) {
+        BugFinding snapshot = finding.toBuilder().build();
+        SpeculativeFix speculativeFix = new SpeculativeFix();
+        Deadline deadline = Deadline.current();
+        speculativeFix.result = Mono.fromCallable(() -> deadline.call(() -> {
+                    try {
+                        return requestFix(snapshot, speculativeFix.tokens);
+                    } finally {
+                        speculativeFix.finishedNanos = System.nanoTime();
+                    }
+                }))
+                .subscribeOn(Schedulers.boundedElastic())
+                .toFuture();
+        return speculativeFix;
+    }
+    
+    /**
+     * Verify the speculative fix, on a copy of the finding, once the root cause is confirmed.
+     * Returns null if generation failed or the fix did not pass the check (confidence below the
+     * 0.6 needed for FIX_GENERATED), so the caller falls back to sequential fix generation.
+     * Saved latency is the fix generation time minus however long we still had to wait for it here.
+     * A rejected fix's check is wasted work too, so its time and tokens count towards the fix's waste.
+     */
+    private BugFinding useSpeculativeFix(BugFinding finding, SpeculativeFix speculativeFix) {
+        long waitStart = System.nanoTime();
+        FixResult fix;
+        try {
+            fix = speculativeFix.result.join();
+        } catch (Exception e) {
+            log.warn("Speculative fix generation failed for finding {}: {}", finding.getId(), e.getMessage());
+            rejectSpeculativeFix(finding, speculativeFix);
+            return null;
+        }
+        long waitedNanos = System.nanoTime() - waitStart;
+        
+        BugFinding candidate = finding.toBuilder().build();
+        applyFix(candidate, fix);
+        long verifyStart = System.nanoTime();
+        BugFinding verified = fix.fixCode().isBlank() ? null : verifyFixSolvesIssue(candidate, speculativeFix.tokens);
+        speculativeFix.verifyNanos = System.nanoTime() - verifyStart;
+        if (verified == null || verified.getFixConfidence() == null || verified.getFixConfidence() < 0.6) {
+            rejectSpeculativeFix(finding, speculativeFix);
+            return null;
+        }
+        
+        long savedNanos = Math.max(0, speculativeFix.elapsedNanos() - waitedNanos);
+        meterRegistry.counter("llm.verification.speculative", "outcome", "used").increment();
+        meterRegistry.timer("llm.verification.speculative.saved").record(savedNanos, TimeUnit.NANOSECONDS);
+        log.debug("Speculative fix used for finding {} - saved ~{} ms",
+                finding.getId(), TimeUnit.NANOSECONDS.toMillis(savedNanos));
+        return verified;
+    }
+    
+    /**
+     * Drop a speculative fix that failed or did not verify; the fix is then generated sequentially.
+     */
+    private void rejectSpeculativeFix(BugFinding finding, SpeculativeFix speculativeFix) {
+        long wastedNanos = speculativeFix.elapsedNanos() + speculativeFix.verifyNanos;
+        
+        recordWasted(speculativeFix, "rejected", wastedNanos);
+        log.debug("Speculative fix rejected for finding {} - wasted ~{} ms and ~{} tokens, generating the fix sequentially",
+                finding.getId(), TimeUnit.NANOSECONDS.toMillis(wastedNanos), speculativeFix.tokens.sum());
+    }
+    
+    /**
+     * Cancel (or drop, if already finished) a speculative fix after the root cause check failed.
+     */
+    private void discardSpeculativeFix(BugFinding finding, SpeculativeFix speculativeFix) {
+        speculativeFix.result.cancel(true);
+        long wastedNanos = speculativeFix.elapsedNanos();
+        
+        recordWasted(speculativeFix, "discarded", wastedNanos);
+        log.debug("Speculative fix discarded for finding {} - wasted ~{} ms and ~{} tokens",
+                finding.getId(), TimeUnit.NANOSECONDS.toMillis(wastedNanos), speculativeFix.tokens.sum());
+    }
+    
+    private void recordWasted(SpeculativeFix speculativeFix, String outcome, long wastedNanos) {
+        meterRegistry.counter("llm.verification.speculative", "outcome", outcome).increment();
+        meterRegistry.timer("llm.verification.speculative.wasted", "outcome", outcome)
+                .record(wastedNanos, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("llm.verification.speculative.wasted.tokens", "outcome", outcome)
+                .increment(speculativeFix.tokens.sum());
+    }
+    
     /**
      * Step 3: Second cross-check - Verify that the proposed code fix solves the reported GitHub issue.
      */
     private BugFinding verifyFixSolvesIssue(BugFinding finding) {
+        return verifyFixSolvesIssue(finding, new LongAdder());
+    }
+    
+    /**
+     * As {@link #verifyFixSolvesIssue(BugFinding)}, adding the estimated prompt and response tokens to {@code tokens}.
+     */
+    private BugFinding verifyFixSolvesIssue(BugFinding finding, LongAdder tokens) {
         try {
-            // Get codebase index
-            Optional<CodebaseIndexEntity> indexOpt = codebaseIndexService.getIndex(
-                    finding.getRepositoryUrl(), 
-                    getRepositoryLanguage(finding.getRepositoryUrl()));
-            String codebaseIndex = indexOpt.map(CodebaseIndexEntity::getIndexData).orElse("{}");
+            // Get codebase context relevant to this finding
+            String codebaseIndex = assembleCodebaseContext(finding);
             
             // Build fix verification prompt (verify it solves the GitHub issue)
             String prompt = buildFixVerificationPrompt(finding, codebaseIndex);
-            Prompt aiPrompt = new PromptTemplate(prompt).create(Map.of());
+            Prompt aiPrompt = new Prompt(prompt);
+            tokens.add(CodebaseContextAssembler.estimateTokens(prompt));
             
             // Use LLM for verification
-            ChatResponse response = chatClient.call(aiPrompt);
-            String content = response.getResult().getOutput().getContent();
+            String content = llmGateway.call(aiPrompt, LlmPriority.VERIFICATION, finding.getRepositoryUrl());
+            tokens.add(CodebaseContextAssembler.estimateTokens(content));
             
             // Parse response
             FixVerificationResult result = parseFixVerificationResponse(content);
@@ -223,6 +454,33 @@ public class CVEVerificationService {
         }
     }
     
+    /**
+     * Select the codebase index entries relevant to a finding, within the per-prompt token budget.
+     * Entries are ranked against the affected files and the finding's issue text and code.
+     */
+    private String assembleCodebaseContext(BugFinding finding) {
+        StringBuilder seedText = new StringBuilder();
+        appendIfPresent(seedText, finding.getIssueTitle());
+        appendIfPresent(seedText, finding.getIssueDescription());
+        appendIfPresent(seedText, finding.getRootCauseAnalysis());
+        if (finding.getAffectedCode() != null) {
+            finding.getAffectedCode().values().forEach(code -> appendIfPresent(seedText, code));
+        }
+        
+        String indexData = codebaseIndexService.getIndexData(
+                finding.getRepositoryUrl(), 
+                getRepositoryLanguage(finding.getRepositoryUrl()),
+                finding.getAffectedFiles(), seedText.toString()).orElse("{}");
+        
+        return contextAssembler.assemble(indexData, finding.getAffectedFiles(), seedText.toString()).content();
+    }
+    
+    private void appendIfPresent(StringBuilder builder, String value) {
+        if (value != null) {
+            builder.append(value).append('\n');
+        }
+    }
+    
     /**
      * Build root cause verification prompt - First cross-check.
      */
@@ -234,44 +492,15 @@ public class CVEVerificationService {
             });
         }
         
-        return """
-                Verify that we understand the root cause of the reported bug in this GitHub issue.
-                
-                Issue Title: {issueTitle}
-                Issue Description: {issueDescription}
-                
-                Initial Root Cause Analysis:
-                {rootCauseAnalysis}
-                
-                Affected Files:
-                {affectedFiles}
-                
-                Affected Code Sections:
-                {affectedCode}
-                
-                Codebase Structure:
-                {codebaseIndex}
-                
-                Verify:
-                1. Do we correctly understand the root cause of the bug described in the issue?
-                2. Have we identified the correct files and code sections?
-                3. Is our analysis accurate and complete?
-                4. What is your confidence level (0.0-1.0) that we understand the root cause?
-                
-                Respond with JSON:
-                {{
-                  "understood": true/false,
-                  "confidence": 0.0-1.0,
-                  "analysis": "refined or confirmed root cause analysis",
-                  "notes": "verification notes"
-                }}
-                """.replace("{issueTitle}", finding.getIssueTitle() != null ? finding.getIssueTitle() : "")
-                .replace("{issueDescription}", finding.getIssueDescription() != null ? finding.getIssueDescription() : "")
-                .replace("{rootCauseAnalysis}", finding.getRootCauseAnalysis() != null ? finding.getRootCauseAnalysis() : "")
-                .replace("{affectedFiles}", finding.getAffectedFiles() != null 
+        return ROOT_CAUSE_VERIFICATION_PROMPT
+                .with("issueTitle", finding.getIssueTitle() != null ? finding.getIssueTitle() : "")
+                .with("issueDescription", finding.getIssueDescription() != null ? finding.getIssueDescription() : "")
+                .with("rootCauseAnalysis", finding.getRootCauseAnalysis() != null ? finding.getRootCauseAnalysis() : "")
+                .with("affectedFiles", finding.getAffectedFiles() != null 
                         ? String.join("\n", finding.getAffectedFiles()) : "")
-                .replace("{affectedCode}", affectedCodeStr.toString())
-                .replace("{codebaseIndex}", codebaseIndex);
+                .with("affectedCode", affectedCodeStr)
+                .with("codebaseIndex", codebaseIndex)
+                .render();
     }
     
     /**
@@ -285,42 +514,15 @@ public class CVEVerificationService {
             });
         }
         
-        return """
-                Generate a code fix for this GitHub issue.
-                
-                Issue Title: {issueTitle}
-                Issue Description: {issueDescription}
-                
-                Root Cause Analysis:
-                {rootCauseAnalysis}
-                
-                Affected Files:
-                {affectedFiles}
-                
-                Affected Code Sections:
-                {affectedCode}
-                
-                Codebase Structure:
-                {codebaseIndex}
-                
-                Generate:
-                1. Complete fix code that addresses the bug described in the issue
-                2. Ensure the fix follows the codebase patterns and style
-                3. Include all necessary changes to solve the reported problem
-                4. Make sure the fix addresses the root cause we identified
-                
-                Respond with JSON:
-                {{
-                  "fixCode": "complete fix code",
-                  "notes": "fix generation notes"
-                }}
-                """.replace("{issueTitle}", finding.getIssueTitle() != null ? finding.getIssueTitle() : "")
-                .replace("{issueDescription}", finding.getIssueDescription() != null ? finding.getIssueDescription() : "")
-                .replace("{rootCauseAnalysis}", finding.getRootCauseAnalysis() != null ? finding.getRootCauseAnalysis() : "")
-                .replace("{affectedFiles}", finding.getAffectedFiles() != null 
+        return FIX_GENERATION_PROMPT
+                .with("issueTitle", finding.getIssueTitle() != null ? finding.getIssueTitle() : "")
+                .with("issueDescription", finding.getIssueDescription() != null ? finding.getIssueDescription() : "")
+                .with("rootCauseAnalysis", finding.getRootCauseAnalysis() != null ? finding.getRootCauseAnalysis() : "")
+                .with("affectedFiles", finding.getAffectedFiles() != null 
                         ? String.join("\n", finding.getAffectedFiles()) : "")
-                .replace("{affectedCode}", affectedCodeStr.toString())
-                .replace("{codebaseIndex}", codebaseIndex);
+                .with("affectedCode", affectedCodeStr)
+                .with("codebaseIndex", codebaseIndex)
+                .render();
     }
     
     /**
@@ -334,50 +536,17 @@ public class CVEVerificationService {
             });
         }
         
-        return """
-                Verify that the proposed code fix solves the reported GitHub issue.
-                
-                Issue Title: {issueTitle}
-                Issue Description: {issueDescription}
-                
-                Root Cause Analysis:
-                {rootCauseAnalysis}
-                
-                Original Affected Code:
-                {affectedCode}
-                
-                Recommended Fix:
-                {recommendedFix}
-                
-                Affected Files:
-                {affectedFiles}
-                
-                Codebase Structure:
-                {codebaseIndex}
-                
-                Verify:
-                1. Does the fix solve the specific problem described in the GitHub issue?
-                2. Does it address the root cause we identified?
-                3. Is the fix code correct, complete, and follows codebase patterns?
-                4. Will this fix resolve the issue for the user who reported it?
-                5. What is your confidence (0.0-1.0) that this fix solves the issue?
-                
-                Respond with JSON:
-                {{
-                  "solvesIssue": true/false,
-                  "confidence": 0.0-1.0,
-                  "notes": "verification notes",
-                  "suggestions": "any improvements or concerns"
-                }}
-                """.replace("{issueTitle}", finding.getIssueTitle() != null ? finding.getIssueTitle() : "")
-                .replace("{issueDescription}", finding.getIssueDescription() != null ? finding.getIssueDescription() : "")
-                .replace("{rootCauseAnalysis}", finding.getRootCauseAnalysis() != null ? finding.getRootCauseAnalysis() : "")
-                .replace("{affectedCode}", affectedCodeStr.toString())
-                .replace("{recommendedFix}", finding.getRecommendedFix() != null 
+        return FIX_VERIFICATION_PROMPT
+                .with("issueTitle", finding.getIssueTitle() != null ? finding.getIssueTitle() : "")
+                .with("issueDescription", finding.getIssueDescription() != null ? finding.getIssueDescription() : "")
+                .with("rootCauseAnalysis", finding.getRootCauseAnalysis() != null ? finding.getRootCauseAnalysis() : "")
+                .with("affectedCode", affectedCodeStr)
+                .with("recommendedFix", finding.getRecommendedFix() != null 
                         ? finding.getRecommendedFix() : "")
-                .replace("{affectedFiles}", finding.getAffectedFiles() != null 
+                .with("affectedFiles", finding.getAffectedFiles() != null 
                         ? String.join("\n", finding.getAffectedFiles()) : "")
-                .replace("{codebaseIndex}", codebaseIndex);
+                .with("codebaseIndex", codebaseIndex)
+                .render();
     }
     
     /**
@@ -479,5 +648,18 @@ public class CVEVerificationService {
     private record RootCauseVerificationResult(boolean understood, double confidence, String analysis, String notes) {}
     private record FixResult(String fixCode, String notes) {}
     private record FixVerificationResult(boolean solvesIssue, double confidence, String notes) {}
+    
+    private static final class SpeculativeFix {
+        private final long startNanos = System.nanoTime();
+        private volatile long finishedNanos;
+        private final LongAdder tokens = new LongAdder();
+        private long verifyNanos;
+        private CompletableFuture<FixResult> result;
+        
+        long elapsedNanos() {
+            long end = finishedNanos;
+            return (end != 0 ? end : System.nanoTime()) - startNanos;
+        }
+    }
 }
 
@@ -0,0 +1,291 @@
+package com.bugbounty.cve.service;
+
+import com.bugbounty.cve.index.LanguageIndexer;
+import com.bugbounty.cve.search.Bm25Index;
+import com.bugbounty.repository.domain.Repository;
+import com.bugbounty.repository.service.RepositoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * BM25 full-text search over the source of cloned repositories, for finding the code an issue is
+ * about when it names no file or class.
+ *
+ * One {@link Bm25Index} per repository is kept in memory and persisted under the clone base path
+ * ({@code <base-path>/.code-search/<owner>/<name>.bm25}). It records the commit it was built
+ * from and is brought up to HEAD from the git diff since then, re-reading only changed files;
+ * the whole committed tree is read only for the first build, when that commit is unknown, or
+ * when the diff touches a {@code .gitignore} or {@code .gitattributes} file. Only source files
+ * (the extensions of the {@link LanguageIndexer}s) are indexed, so lockfiles, fixtures and data
+ * do not skew term statistics. Result lines are read from the commit the index reflects.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CodeSearchService {
+
+    private static final String INDEX_DIRECTORY = ".code-search";
+    private static final String FILE_SUFFIX = ".bm25";
+
+    /** Files larger than this (bundles, fixtures, data dumps) are not indexed. */
+    private static final int MAX_FILE_CHARS = 1_000_000;
+
+    private final RepositoryService repositoryService;
+    private final List<LanguageIndexer> languageIndexers;
+
+    private final Map<String, Bm25Index> indexes = new ConcurrentHashMap<>();
+    private final Map<String, ReentrantLock> updateLocks = new ConcurrentHashMap<>();
+
+    @Value("${app.repository.clone.base-path:./repos}")
+    private String basePath = "./repos";
+
+    @Value("${app.cve.code-search.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.cve.code-search.chunk-lines:40}")
+    private int chunkLines = 40;
+
+    @Value("${app.cve.code-search.top-n:5}")
+    private int topN = 5;
+
+    /**
+     * Bring the repository's index up to its HEAD commit, loading it from disk first if needed,
+     * and persist it if anything changed.
+     *
+     * @return empty if search is disabled, the repository is not cloned or has no commits
+     */
+    public Optional<Bm25Index> updateIndex(Repository repository) {
+        if (!enabled || !repository.isCloned()) {
+            return Optional.empty();
+        }
+        String key = repository.getUrl();
+        ReentrantLock lock = updateLocks.computeIfAbsent(key, k -> new ReentrantLock());
+        lock.lock();
+        try {
+            String headCommit = repositoryService.getHeadCommitId(repository);
+            if (headCommit == null) {
+                return Optional.empty();
+            }
+
+            Bm25Index index = indexes.get(key);
+            if (index == null) {
+                index = load(repository);
+            }
+            if (index != null && headCommit.equals(index.commit())) {
+                indexes.put(key, index);
+                return Optional.of(index);
+            }
+
+            long start = System.nanoTime();
+            if (index == null || !update(repository, index, headCommit)) {
+                index = build(repository, headCommit);
+            }
+            index.setCommit(headCommit);
+            indexes.put(key, index);
+            save(repository, index);
+            log.info("Code search index of {} at {}: {} file(s), {} chunk(s) in {} ms", repository.getUrl(),
+                    headCommit, index.fileCount(), index.size(), (System.nanoTime() - start) / 1_000_000);
+            return Optional.of(index);
+        } catch (Exception e) {
+            log.warn("Failed to update code search index of {}: {}", repository.getUrl(), e.getMessage());
+            return Optional.ofNullable(indexes.get(key));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The {@code app.cve.code-search.top-n} chunks of the repository most relevant to
+     * {@code text}, best first, with their source lines.
+     */
+    public List<CodeChunk> search(Repository repository, String text) {
+        return search(repository, text, topN);
+    }
+
+    /**
+     * The {@code limit} chunks of the repository most relevant to {@code text}, best first,
+     * with their source lines read from the commit the index was built from.
+     */
+    public List<CodeChunk> search(Repository repository, String text, int limit) {
+        Optional<Bm25Index> index = updateIndex(repository);
+        if (index.isEmpty() || text == null || text.isBlank()) {
+            return List.of();
+        }
+
+        // Hits and commit are taken together, so a concurrent update cannot pair them with other lines
+        List<Bm25Index.Hit> hits;
+        String commit;
+        ReentrantLock lock = updateLocks.computeIfAbsent(repository.getUrl(), k -> new ReentrantLock());
+        lock.lock();
+        try {
+            hits = index.get().search(text, limit);
+            commit = index.get().commit();
+        } finally {
+            lock.unlock();
+        }
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, String> sources = readCommitted(repository, commit, hits);
+        List<CodeChunk> chunks = new ArrayList<>(hits.size());
+        for (Bm25Index.Hit hit : hits) {
+            String source = sources.get(hit.path());
+            if (source != null) {
+                chunks.add(new CodeChunk(hit.path(), hit.startLine(), hit.endLine(), hit.score(),
+                        lines(source, hit.startLine(), hit.endLine())));
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * Re-index the files changed between the index's commit and HEAD.
+     *
+     * @return false if the diff cannot be computed (commit unknown, history rewritten) or changes
+     *         ignore or attribute rules
+     */
+    private boolean update(Repository repository, Bm25Index index, String headCommit) throws Exception {
+        if (index.commit() == null) {
+            return false;
+        }
+        List<String> changedFiles;
+        try {
+            changedFiles = repositoryService.getChangedFiles(repository, index.commit(), headCommit);
+        } catch (Exception e) {
+            log.info("Cannot update code search index of {} from {}, rebuilding: {}",
+                    repository.getUrl(), index.commit(), e.getMessage());
+            return false;
+        }
+
+        // Ignore and attribute rules decide which unchanged files are walked at all
+        if (changedFiles.stream().anyMatch(path -> path.endsWith(".gitignore") || path.endsWith(".gitattributes"))) {
+            log.info("Ignore or attribute rules of {} changed since {}, rebuilding code search index",
+                    repository.getUrl(), index.commit());
+            return false;
+        }
+
+        // Deleted files, and files no longer indexable, just lose their chunks
+        Set<String> changed = new HashSet<>(changedFiles);
+        changed.forEach(index::removeFile);
+        repositoryService.walkCommittedFiles(repository, headCommit, path -> changed.contains(path) && isSource(path),
+                (path, content) -> {
+                    if (content.length() <= MAX_FILE_CHARS) {
+                        index.replaceFile(path, content);
+                    }
+                });
+        log.debug("Re-indexed {} changed file(s) of {} for code search", changed.size(), repository.getUrl());
+        return true;
+    }
+
+    private Bm25Index build(Repository repository, String headCommit) throws Exception {
+        Bm25Index index = new Bm25Index(chunkLines);
+        repositoryService.walkCommittedFiles(repository, headCommit, this::isSource, (path, content) -> {
+            if (content.length() <= MAX_FILE_CHARS) {
+                index.replaceFile(path, content);
+            }
+        });
+        return index;
+    }
+
+    private Bm25Index load(Repository repository) {
+        Path file = indexFile(repository);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            Bm25Index index = Bm25Index.readFrom(in);
+            if (index.chunkLines() != chunkLines) {
+                log.info("Discarding code search index of {} built with {}-line chunks (now {})",
+                        repository.getUrl(), index.chunkLines(), chunkLines);
+                return null;
+            }
+            if (!index.paths().stream().allMatch(this::isSource)) {
+                log.info("Discarding code search index of {} that covers non-source files", repository.getUrl());
+                return null;
+            }
+            return index;
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable code search index {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void save(Repository repository, Bm25Index index) {
+        Path target = indexFile(repository);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(target.getParent());
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                index.writeTo(out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to persist code search index of {}", repository.getUrl(), e);
+        }
+    }
+
+    private Path indexFile(Repository repository) {
+        return Paths.get(basePath, INDEX_DIRECTORY, repository.getOwner(), repository.getName() + FILE_SUFFIX);
+    }
+
+    /**
+     * Files with a chunk among {@code hits}, as committed at {@code commit}.
+     */
+    private Map<String, String> readCommitted(Repository repository, String commit, List<Bm25Index.Hit> hits) {
+        Set<String> paths = new HashSet<>();
+        hits.forEach(hit -> paths.add(hit.path()));
+        Map<String, String> sources = new HashMap<>();
+        try {
+            repositoryService.walkCommittedFiles(repository, commit, paths::contains, sources::put);
+        } catch (Exception e) {
+            log.debug("Cannot read {} at {} for code search results: {}", paths, commit, e.getMessage());
+        }
+        return sources;
+    }
+
+    private static String lines(String source, int startLine, int endLine) {
+        StringBuilder lines = new StringBuilder();
+        source.lines()
+                .skip(startLine - 1L)
+                .limit(endLine - startLine + 1L)
+                .forEach(line -> lines.append(line).append('\n'));
+        return lines.toString();
+    }
+
+    /**
+     * Source files of a language with an indexer; only these are worth searching.
+     */
+    private boolean isSource(String path) {
+        int dot = path.lastIndexOf('.');
+        if (dot <= path.lastIndexOf('/')) {
+            return false;
+        }
+        String extension = path.substring(dot).toLowerCase(Locale.ROOT);
+        return languageIndexers.stream().anyMatch(indexer -> indexer.fileExtensions().contains(extension));
+    }
+
+    /**
+     * Source lines matching a search.
+     *
+     * @param path      Repository-relative path
+     * @param startLine First line (1-based)
+     * @param endLine   Last line, inclusive
+     * @param score     BM25 score against the search text
+     * @param content   The lines, newline-terminated
+     */
+    public record CodeChunk(String path, int startLine, int endLine, double score, String content) {}
+}
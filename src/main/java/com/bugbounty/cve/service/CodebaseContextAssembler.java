@@ -0,0 +1,262 @@
+package com.bugbounty.cve.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Assembles the "Codebase Structure" section of LLM prompts from a stored codebase index.
+ *
+ * Instead of pasting the whole index JSON, entries are ranked by relevance to the prompt's
+ * seed paths (path proximity) and seed text such as a diff or issue body (symbol overlap),
+ * then packed greedily into a token budget. The output keeps the index JSON shape so prompts
+ * read the same, with an "omittedEntries" count when anything was trimmed.
+ */
+@Service
+@Slf4j
+public class CodebaseContextAssembler {
+
+    private static final Pattern IDENTIFIER_PATTERN = Pattern.compile("[A-Za-z_][A-Za-z0-9_]{2,}");
+    private static final List<String> ENTRY_ARRAY_FIELDS = List.of("packages", "modules", "sourceFiles");
+    private static final int PATH_PROXIMITY_WEIGHT = 5;
+    private static final int MAX_PATH_DISTANCE = 1;
+    private static final int SAME_FILE_BONUS = 50;
+
+    // Structural JSON keys and common keywords carry no relevance signal
+    private static final Set<String> NOISE_WORDS = Set.of(
+            "package", "class", "path", "methods", "module", "functions", "exports", "language",
+            "types", "kind", "name", "signature", "lines", "declarations", "line",
+            "public", "private", "protected", "static", "final", "void", "return", "import",
+            "def", "async", "export", "default", "const", "function", "new", "this", "the",
+            "and", "for", "java", "diff", "git", "index");
+
+    private final ObjectMapper objectMapper;
+    private final DistributionSummary trimmedTokens;
+    private final DistributionSummary includedTokens;
+
+    @Value("${app.llm.context.index-token-budget:2000}")
+    private int defaultTokenBudget = 2000;
+
+    public CodebaseContextAssembler(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.trimmedTokens = DistributionSummary.builder("llm.context.index.trimmed.tokens")
+                .description("Estimated codebase index tokens left out of a prompt")
+                .register(meterRegistry);
+        this.includedTokens = DistributionSummary.builder("llm.context.index.included.tokens")
+                .description("Estimated codebase index tokens included in a prompt")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Assemble index context using the configured per-prompt token budget.
+     */
+    public AssembledContext assemble(String indexJson, Collection<String> seedPaths, String seedText) {
+        return assemble(indexJson, seedPaths, seedText, defaultTokenBudget);
+    }
+
+    /**
+     * Assemble index context relevant to the given seed paths and text within a token budget.
+     *
+     * @param indexJson   Stored index JSON ({@code CodebaseIndexEntity.indexData})
+     * @param seedPaths   Paths the prompt is about (affected or mentioned files)
+     * @param seedText    Free text the prompt is about (diff, issue title/body)
+     * @param tokenBudget Maximum estimated tokens for the assembled context
+     */
+    public AssembledContext assemble(String indexJson, Collection<String> seedPaths, String seedText, int tokenBudget) {
+        if (indexJson == null || indexJson.isBlank()) {
+            return new AssembledContext("{}", 1, 0, 0, 0);
+        }
+
+        int fullTokens = estimateTokens(indexJson);
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(indexJson);
+        } catch (Exception e) {
+            log.debug("Codebase index is not valid JSON, truncating raw text: {}", e.getMessage());
+            return truncateRaw(indexJson, tokenBudget);
+        }
+
+        if (!root.isObject()) {
+            return truncateRaw(indexJson, tokenBudget);
+        }
+
+        String arrayField = ENTRY_ARRAY_FIELDS.stream()
+                .filter(field -> root.path(field).isArray())
+                .findFirst()
+                .orElse(null);
+        if (arrayField == null) {
+            return truncateRaw(indexJson, tokenBudget);
+        }
+
+        ArrayNode entries = (ArrayNode) root.get(arrayField);
+        List<ScoredEntry> scored = scoreEntries(entries, normalizePaths(seedPaths), extractIdentifiers(seedText));
+
+        // Header fields (language, totals) are always kept
+        ObjectNode result = ((ObjectNode) root).deepCopy();
+        ArrayNode selected = result.putArray(arrayField);
+        int usedTokens = estimateTokens(result.toString());
+
+        boolean anyRelevant = scored.stream().anyMatch(entry -> entry.score() > 0);
+        for (ScoredEntry entry : scored) {
+            if (anyRelevant && entry.score() <= 0) {
+                break;
+            }
+            int entryTokens = estimateTokens(entry.node().toString()) + 1;
+            if (usedTokens + entryTokens > tokenBudget) {
+                continue;
+            }
+            selected.add(entry.node());
+            usedTokens += entryTokens;
+        }
+
+        int omitted = entries.size() - selected.size();
+        if (omitted > 0) {
+            result.put("omittedEntries", omitted);
+        }
+
+        String content = result.toString();
+        int contentTokens = estimateTokens(content);
+        int trimmed = Math.max(0, fullTokens - contentTokens);
+        record(contentTokens, trimmed);
+
+        if (omitted > 0) {
+            log.debug("Assembled codebase context: {}/{} entries, ~{} tokens ({} trimmed, budget {})",
+                    selected.size(), entries.size(), contentTokens, trimmed, tokenBudget);
+        }
+        return new AssembledContext(content, contentTokens, entries.size(), selected.size(), trimmed);
+    }
+
+    /**
+     * Rough token estimate (~4 characters per token for code and JSON).
+     */
+    public static int estimateTokens(String text) {
+        return text == null ? 0 : (text.length() + 3) / 4;
+    }
+
+    private List<ScoredEntry> scoreEntries(ArrayNode entries, List<String[]> seedPaths, Set<String> seedIdentifiers) {
+        List<ScoredEntry> scored = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            JsonNode node = entries.get(i);
+            String path = node.isTextual() ? node.asText() : node.path("path").asText("");
+            int score = pathScore(splitPath(path), seedPaths) + symbolScore(node, seedIdentifiers);
+            scored.add(new ScoredEntry(node, score, i));
+        }
+        // Highest score first; original order breaks ties so output is deterministic
+        scored.sort(Comparator.comparingInt(ScoredEntry::score).reversed()
+                .thenComparingInt(ScoredEntry::position));
+        return scored;
+    }
+
+    private int pathScore(String[] entryPath, List<String[]> seedPaths) {
+        int best = 0;
+        for (String[] seed : seedPaths) {
+            int entryDirs = entryPath.length - 1;
+            int seedDirs = seed.length - 1;
+            int shared = 0;
+            while (shared < entryDirs && shared < seedDirs && entryPath[shared].equals(seed[shared])) {
+                shared++;
+            }
+            // Directory hops between the two files: 0 = same directory, 1 = parent or child
+            int distance = (entryDirs - shared) + (seedDirs - shared);
+            int score = Math.max(0, MAX_PATH_DISTANCE + 1 - distance) * PATH_PROXIMITY_WEIGHT;
+            if (distance == 0 && entryPath[entryDirs].equals(seed[seedDirs])) {
+                score += SAME_FILE_BONUS;
+            }
+            best = Math.max(best, score);
+        }
+        return best;
+    }
+
+    private int symbolScore(JsonNode node, Set<String> seedIdentifiers) {
+        if (seedIdentifiers.isEmpty()) {
+            return 0;
+        }
+        Set<String> entryIdentifiers = extractIdentifiers(node.isTextual() ? node.asText() : node.toString());
+        int overlap = 0;
+        for (String identifier : entryIdentifiers) {
+            if (seedIdentifiers.contains(identifier)) {
+                overlap++;
+            }
+        }
+        return overlap;
+    }
+
+    private Set<String> extractIdentifiers(String text) {
+        Set<String> identifiers = new HashSet<>();
+        if (text == null || text.isEmpty()) {
+            return identifiers;
+        }
+        Matcher matcher = IDENTIFIER_PATTERN.matcher(text);
+        while (matcher.find()) {
+            identifiers.add(matcher.group().toLowerCase());
+        }
+        identifiers.removeAll(NOISE_WORDS);
+        return identifiers;
+    }
+
+    private List<String[]> normalizePaths(Collection<String> paths) {
+        List<String[]> normalized = new ArrayList<>();
+        if (paths != null) {
+            for (String path : paths) {
+                if (path != null && !path.isBlank()) {
+                    normalized.add(splitPath(path));
+                }
+            }
+        }
+        return normalized;
+    }
+
+    private String[] splitPath(String path) {
+        String normalized = path.replace('\\', '/');
+        while (normalized.startsWith("/") || normalized.startsWith("./")) {
+            normalized = normalized.substring(normalized.startsWith("/") ? 1 : 2);
+        }
+        return normalized.split("/");
+    }
+
+    private AssembledContext truncateRaw(String text, int tokenBudget) {
+        int fullTokens = estimateTokens(text);
+        if (fullTokens <= tokenBudget) {
+            record(fullTokens, 0);
+            return new AssembledContext(text, fullTokens, 1, 1, 0);
+        }
+        String content = text.substring(0, Math.max(0, tokenBudget * 4)) + "\n... (truncated)";
+        int contentTokens = estimateTokens(content);
+        record(contentTokens, fullTokens - contentTokens);
+        return new AssembledContext(content, contentTokens, 1, 1, fullTokens - contentTokens);
+    }
+
+    private void record(int included, int trimmed) {
+        includedTokens.record(included);
+        trimmedTokens.record(trimmed);
+    }
+
+    private record ScoredEntry(JsonNode node, int score, int position) {}
+
+    /**
+     * Result of context assembly.
+     *
+     * @param content         Context text to place in the prompt
+     * @param estimatedTokens Estimated tokens of {@code content}
+     * @param totalEntries    Entries in the full index
+     * @param includedEntries Entries included in {@code content}
+     * @param trimmedTokens   Estimated tokens left out compared to the full index
+     */
+    public record AssembledContext(
+            String content,
+            int estimatedTokens,
+            int totalEntries,
+            int includedEntries,
+            int trimmedTokens
+    ) {}
+}
@@ -1,6 +1,10 @@
 package com.bugbounty.cve.service;
 
 import com.bugbounty.cve.entity.CodebaseIndexEntity;
+import com.bugbounty.cve.entity.CodebaseIndexFileEntity;
+import com.bugbounty.cve.entity.CodebaseIndexSymbol;
+import com.bugbounty.cve.index.LanguageIndexer;
+import com.bugbounty.cve.repository.CodebaseIndexFileRepository;
 import com.bugbounty.cve.repository.CodebaseIndexRepository;
 import com.bugbounty.repository.domain.Repository;
 import com.bugbounty.repository.service.RepositoryService;
@@ -9,16 +13,31 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedReader;
+import java.io.StringReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * Service for creating and managing codebase indexes.
  * Indexes repository structure (packages, classes, methods) for LLM context.
+ * Indexes are stored one row per file and updated incrementally from the git diff since the
+ * commit they were built from, unless the diff touches a {@code .gitignore} or {@code .gitattributes}
+ * file, which can change the indexed set without naming its files. What is extracted per file comes from the {@link LanguageIndexer}
+ * serving the language; languages without one get a list of source file paths.
  */
 @Service
 @RequiredArgsConstructor
@@ -26,15 +45,47 @@ import java.util.*;
 public class CodebaseIndexService {
     
     private final CodebaseIndexRepository indexRepository;
+    private final CodebaseIndexFileRepository fileRepository;
     private final RepositoryService repositoryService;
     private final ObjectMapper objectMapper;
+    private final List<LanguageIndexer> languageIndexers;
+    private final CodebaseIndexShardService shardService;
+    
+    /** Changed paths looked up per query, keeping IN lists well below driver parameter limits. */
+    private static final int PATH_QUERY_BATCH = 500;
+    
+    /** Symbol lookups per repository and language, each as of the commit its index was built from. */
+    private final Map<SymbolIndexKey, CodebaseSymbolIndex> symbolIndexes = new ConcurrentHashMap<>();
     
     @Value("${app.repository.clone.base-path:./repos}")
     private String basePath;
     
+    @Value("${app.cve.codebase-index.parallelism:16}")
+    private int parallelism = 16;
+    
+    @Value("${app.cve.codebase-index.from-git:true}")
+    private boolean fromGit = true;
+    
+    @Value("${app.cve.codebase-index.shard-token-budget:8000}")
+    private int shardTokenBudget = 8000;
+    
     /**
      * Create or update codebase index for a repository.
+     *
+     * Each file's entry and symbols are stored as their own row. An existing index records the
+     * commit it was built from; if that commit is still known, only files changed between it and
+     * HEAD are re-extracted and upserted. Otherwise (first index, unknown commit, rewritten history,
+     * index still stored as a single JSON blob) the whole tree is walked.
+     *
+     * Files are read from the tree committed at HEAD (see {@link RepositoryService#walkCommittedFiles}),
+     * so indexes skip ignored, vendored, generated and binary files and never race a pull; the
+     * working tree is walked instead when {@code app.cve.codebase-index.from-git} is off or HEAD
+     * cannot be resolved.
+     *
+     * Per-directory shard totals and summaries are refreshed afterwards, for
+     * {@link #getIndexData(String, String, Collection, String)}.
      */
+    @Transactional
     public CodebaseIndexEntity indexRepository(Repository repository, String language) {
         log.info("Indexing repository {} for language {}", repository.getUrl(), language);
         
@@ -46,41 +97,59 @@ public class CodebaseIndexService {
         try {
             String localPath = repository.getLocalPath();
             Path repoPath = Paths.get(localPath);
+            IndexLayout layout = layoutFor(language);
+            String headCommit = headCommit(repository);
             
-            // Build index based on language
-            Map<String, Object> indexData = switch (language.toLowerCase()) {
-                case "java" -> indexJavaCodebase(repoPath);
-                case "python" -> indexPythonCodebase(repoPath);
-                case "javascript", "typescript" -> indexJavaScriptCodebase(repoPath);
-                default -> indexGenericCodebase(repoPath);
-            };
-            
-            // Convert to JSON
-            String indexJson = objectMapper.writeValueAsString(indexData);
-            
-            // Save or update index
             Optional<CodebaseIndexEntity> existing = indexRepository.findByRepositoryUrlAndLanguage(
                     repository.getUrl(), language);
+            if (existing.isPresent() && headCommit != null && headCommit.equals(existing.get().getIndexedCommit())) {
+                log.debug("Index for {} ({}) is up to date at {}", repository.getUrl(), language, headCommit);
+                return existing.get();
+            }
+            
+            // Only indexes already stored per file can be patched; legacy blobs are rebuilt into rows
+            String previousCommit = existing
+                    .filter(index -> index.getIndexData() == null)
+                    .map(CodebaseIndexEntity::getIndexedCommit)
+                    .orElse(null);
             
             CodebaseIndexEntity index;
             if (existing.isPresent()) {
                 index = existing.get();
-                index.setIndexData(indexJson);
+                index.setIndexData(null);
                 index.setIndexVersion(index.getIndexVersion() + 1);
+                index.setIndexedCommit(headCommit);
                 index.setUpdatedAt(LocalDateTime.now());
             } else {
                 index = CodebaseIndexEntity.builder()
                         .repositoryUrl(repository.getUrl())
                         .language(language)
-                        .indexData(indexJson)
                         .indexVersion(1)
+                        .indexedCommit(headCommit)
                         .createdAt(LocalDateTime.now())
                         .build();
             }
-            
             CodebaseIndexEntity saved = indexRepository.save(index);
-            log.info("Indexed repository {} for language {} (version {})", 
-                    repository.getUrl(), language, saved.getIndexVersion());
+            
+            SymbolIndexKey key = new SymbolIndexKey(repository.getUrl(), language);
+            boolean updated = previousCommit != null && headCommit != null
+                    && updateFiles(repository, repoPath, layout, saved.getId(), key, previousCommit, headCommit);
+            if (!updated) {
+                List<Object> entries = fromGit && headCommit != null
+                        ? buildEntries(repository, headCommit, layout)
+                        : buildEntries(repoPath, layout);
+                List<CodebaseIndexFileEntity> files = storeFiles(layout, saved.getId(), entries,
+                        fileRepository.findByIndexIdOrderByPath(saved.getId()));
+                if (headCommit != null) {
+                    symbolIndexes.put(key, CodebaseSymbolIndex.of(headCommit, files));
+                } else {
+                    symbolIndexes.remove(key); // Cannot tell when it goes stale
+                }
+            }
+            shardService.rebuildShards(saved.getId());
+            
+            log.info("Indexed repository {} for language {} (version {}, commit {})", 
+                    repository.getUrl(), language, saved.getIndexVersion(), headCommit);
             
             return saved;
             
@@ -90,6 +159,55 @@ public class CodebaseIndexService {
         }
     }
     
+    /**
+     * Languages to index for a repository: {@code primaryLanguage} first, then every other
+     * language with an indexer and at least one matching file at HEAD (or in the working tree
+     * when HEAD cannot be read from git). Only paths are listed; no file is read.
+     */
+    public List<String> languagesToIndex(Repository repository, String primaryLanguage) {
+        List<String> languages = new ArrayList<>(List.of(primaryLanguage));
+        if (!repository.isCloned()) {
+            return languages;
+        }
+    
+        LanguageIndexer primary = layoutFor(primaryLanguage).indexer();
+        Set<LanguageIndexer> candidates = new LinkedHashSet<>(languageIndexers);
+        candidates.remove(primary);
+        Set<LanguageIndexer> present = new HashSet<>();
+        Predicate<String> detect = path -> {
+            for (LanguageIndexer indexer : candidates) {
+                if (!present.contains(indexer) && indexer.includes(path)) {
+                    present.add(indexer);
+                }
+            }
+            return false; // Never read the file
+        };
+    
+        try {
+            String headCommit = fromGit ? headCommit(repository) : null;
+            if (headCommit != null) {
+                repositoryService.walkCommittedFiles(repository, headCommit, path -> detect.test("/" + path),
+                        (path, content) -> { });
+            } else {
+                try (Stream<Path> paths = Files.walk(Paths.get(repository.getLocalPath()))) {
+                    paths.filter(path -> !path.toString().contains("/.git/"))
+                            .filter(Files::isRegularFile)
+                            .forEach(path -> detect.test(path.toString()));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Cannot detect languages of {}, indexing {} only: {}",
+                    repository.getUrl(), primaryLanguage, e.getMessage());
+            return languages;
+        }
+    
+        candidates.stream()
+                .filter(present::contains)
+                .map(LanguageIndexer::language)
+                .forEach(languages::add);
+        return languages;
+    }
+    
     /**
      * Get codebase index for a repository and language.
      */
@@ -98,181 +216,404 @@ public class CodebaseIndexService {
     }
     
     /**
-     * Index Java codebase structure.
+     * The whole index as the JSON document callers have always received
+     * ({@code {"language":..,"packages":[..],"totalClasses":n}} and the per-language equivalents).
      */
-    private Map<String, Object> indexJavaCodebase(Path repoPath) throws Exception {
-        Map<String, Object> index = new HashMap<>();
-        List<Map<String, Object>> packages = new ArrayList<>();
-        
-        // Find all Java source files
-        Files.walk(repoPath)
-                .filter(path -> path.toString().endsWith(".java"))
-                .filter(path -> !path.toString().contains("/test/"))
-                .forEach(javaFile -> {
-                    try {
-                        String relativePath = repoPath.relativize(javaFile).toString();
-                        String packageName = extractJavaPackage(javaFile);
-                        String className = javaFile.getFileName().toString().replace(".java", "");
-                        
-                        Map<String, Object> pkg = new HashMap<>();
-                        pkg.put("package", packageName);
-                        pkg.put("class", className);
-                        pkg.put("path", relativePath);
-                        pkg.put("methods", extractJavaMethods(javaFile));
-                        packages.add(pkg);
-                    } catch (Exception e) {
-                        log.debug("Error indexing Java file: {}", javaFile, e);
-                    }
-                });
-        
-        index.put("language", "Java");
-        index.put("packages", packages);
-        index.put("totalClasses", packages.size());
-        
-        return index;
+    public Optional<String> getIndexData(String repositoryUrl, String language) {
+        return getIndex(repositoryUrl, language).map(this::renderIndexData);
+    }
+    
+    /**
+     * The part of the index relevant to {@code seedPaths} and {@code seedText}, in the same
+     * document shape, sized for a prompt ({@code app.cve.codebase-index.shard-token-budget}).
+     *
+     * Indexes within budget are returned whole. Larger ones (monorepos) carry the entries of the
+     * directories holding the seed paths or declaring identifiers of the seed text, plus a
+     * {@code "directories"} outline of the root and of the other directories on the way there,
+     * and {@code "omittedFiles"}, the number of indexed files left out.
+     */
+    public Optional<String> getIndexData(String repositoryUrl, String language,
+                                         Collection<String> seedPaths, String seedText) {
+        return getIndex(repositoryUrl, language).map(index -> {
+            if (index.getIndexData() != null) {
+                return index.getIndexData();
+            }
+            return shardService.selectShards(index.getId(), seedPaths, seedText, shardTokenBudget * 4L)
+                    .filter(selection -> !selection.wholeIndex())
+                    .map(selection -> renderShards(index, selection))
+                    .orElseGet(() -> renderIndexData(index));
+        });
     }
     
     /**
-     * Index Python codebase structure.
+     * Symbol and file-name lookup for the repository's index, if that index is at the clone's
+     * current HEAD. Kept in memory as a by-product of indexing; after a restart it is loaded once
+     * from the stored rows.
+     *
+     * @return empty if the repository was never indexed or HEAD has moved since (stale index)
      */
-    private Map<String, Object> indexPythonCodebase(Path repoPath) throws Exception {
-        Map<String, Object> index = new HashMap<>();
-        List<Map<String, Object>> modules = new ArrayList<>();
+    public Optional<CodebaseSymbolIndex> getSymbolIndex(Repository repository, String language) {
+        String headCommit = headCommit(repository);
+        if (headCommit == null) {
+            return Optional.empty();
+        }
         
-        Files.walk(repoPath)
-                .filter(path -> path.toString().endsWith(".py"))
-                .filter(path -> !path.toString().contains("/test/"))
-                .forEach(pyFile -> {
-                    try {
-                        String relativePath = repoPath.relativize(pyFile).toString();
-                        String moduleName = pyFile.getFileName().toString().replace(".py", "");
-                        
-                        Map<String, Object> module = new HashMap<>();
-                        module.put("module", moduleName);
-                        module.put("path", relativePath);
-                        module.put("functions", extractPythonFunctions(pyFile));
-                        modules.add(module);
-                    } catch (Exception e) {
-                        log.debug("Error indexing Python file: {}", pyFile, e);
-                    }
+        SymbolIndexKey key = new SymbolIndexKey(repository.getUrl(), language);
+        CodebaseSymbolIndex cached = symbolIndexes.get(key);
+        if (cached != null && headCommit.equals(cached.commit())) {
+            return Optional.of(cached);
+        }
+        return getIndex(repository.getUrl(), language)
+                .filter(index -> index.getIndexData() == null && headCommit.equals(index.getIndexedCommit()))
+                .map(index -> {
+                    CodebaseSymbolIndex loaded = CodebaseSymbolIndex.of(headCommit,
+                            fileRepository.findByIndexIdOrderByPath(index.getId()));
+                    symbolIndexes.put(key, loaded);
+                    return loaded;
                 });
+    }
+    
+    /**
+     * Whether the index for {@code language} lists files like {@code path}: a covered file that a
+     * current {@link #getSymbolIndex symbol index} does not know is not committed at HEAD.
+     */
+    public boolean covers(String language, String path) {
+        return layoutFor(language).includes("/" + path);
+    }
+    
+    /**
+     * Indexed files whose path starts with {@code pathPrefix}, ordered by path.
+     */
+    public List<CodebaseIndexFileEntity> findFiles(String repositoryUrl, String language, String pathPrefix) {
+        return getIndex(repositoryUrl, language)
+                .map(index -> fileRepository.findByIndexIdAndPathStartingWithOrderByPath(index.getId(), pathPrefix))
+                .orElse(List.of());
+    }
+    
+    /**
+     * Indexed files declaring a class, method, function or export named {@code symbolName}.
+     */
+    public List<CodebaseIndexFileEntity> findFilesDeclaring(String repositoryUrl, String language, String symbolName) {
+        return getIndex(repositoryUrl, language)
+                .map(index -> fileRepository.findBySymbolName(index.getId(), symbolName))
+                .orElse(List.of());
+    }
+    
+    /**
+     * Render the stored file rows into the single JSON document, concatenating each row's entry
+     * JSON as stored. Indexes not yet rebuilt since per-file storage return their legacy blob.
+     */
+    private String renderIndexData(CodebaseIndexEntity index) {
+        if (index.getIndexData() != null) {
+            return index.getIndexData();
+        }
+        List<String> entries = fileRepository.findEntryDataByIndexId(index.getId());
+        return renderEntries(layoutFor(index.getLanguage()), entries, entries.size()).append('}').toString();
+    }
+    
+    /**
+     * Render the selected shards: their file rows as entries, with the whole index's file count
+     * as total, then the directory summaries and the count of files left out.
+     */
+    private String renderShards(CodebaseIndexEntity index, CodebaseIndexShardService.ShardSelection selection) {
+        List<String> entries = selection.directories().isEmpty()
+                ? List.of()
+                : fileRepository.findEntryDataByIndexIdAndDirectoryIn(index.getId(), selection.directories());
+        StringBuilder json = renderEntries(layoutFor(index.getLanguage()), entries, selection.totalFiles());
+        json.append(",\"directories\":[");
+        for (int i = 0; i < selection.summaries().size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(selection.summaries().get(i));
+        }
+        return json.append("],\"omittedFiles\":").append(selection.omittedFiles()).append('}').toString();
+    }
+    
+    /**
+     * The index document up to (not including) its closing brace.
+     */
+    private StringBuilder renderEntries(IndexLayout layout, List<String> entries, int total) {
+        StringBuilder json = new StringBuilder(64 + entries.stream().mapToInt(String::length).sum() + entries.size());
+        json.append('{');
+        if (layout.displayName() != null) {
+            json.append("\"language\":\"").append(layout.displayName()).append("\",");
+        }
+        json.append('"').append(layout.entriesKey()).append("\":[");
+        for (int i = 0; i < entries.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(entries.get(i));
+        }
+        return json.append("],\"").append(layout.totalKey()).append("\":").append(total);
+    }
+    
+    /**
+     * Index entries of every {@code language} file in the working tree.
+     */
+    List<Object> buildEntries(Path repoPath, String language) throws Exception {
+        return buildEntries(repoPath, layoutFor(language));
+    }
+    
+    private List<Object> buildEntries(Path repoPath, IndexLayout layout) throws Exception {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(repoPath)) {
+            files = paths.filter(Files::isRegularFile)
+                    .filter(path -> layout.includes(path.toString()))
+                    .toList();
+        }
         
-        index.put("language", "Python");
-        index.put("modules", modules);
-        index.put("totalModules", modules.size());
-        
-        return index;
+        return indexFiles(layout, workingTreeFiles(repoPath, files));
     }
     
     /**
-     * Index JavaScript/TypeScript codebase structure.
+     * Index entries of every matching file committed at {@code commit}, read from the object store.
      */
-    private Map<String, Object> indexJavaScriptCodebase(Path repoPath) throws Exception {
-        Map<String, Object> index = new HashMap<>();
-        List<Map<String, Object>> modules = new ArrayList<>();
+    private List<Object> buildEntries(Repository repository, String commit, IndexLayout layout) throws Exception {
+        return indexFiles(layout, committedFiles(repository, commit, path -> layout.includes("/" + path)));
+    }
+    
+    private static SourceFiles workingTreeFiles(Path repoPath, List<Path> files) {
+        return visitor -> {
+            for (Path file : files) {
+                visitor.visit(repoPath.relativize(file).toString().replace('\\', '/'), () -> Files.newBufferedReader(file));
+            }
+        };
+    }
+    
+    private SourceFiles committedFiles(Repository repository, String commit, Predicate<String> pathFilter) {
+        return visitor -> repositoryService.walkCommittedFiles(repository, commit, pathFilter,
+                (path, content) -> visitor.visit(path, () -> new BufferedReader(new StringReader(content))));
+    }
+    
+    /**
+     * Extract the index entries of {@code files} on virtual threads, at most {@code parallelism}
+     * files being read at once. Entries keep the order the files were visited in; unreadable
+     * files are skipped.
+     */
+    private List<Object> indexFiles(IndexLayout layout, SourceFiles files) throws Exception {
+        long started = System.nanoTime();
+        List<Future<Object>> entries = new ArrayList<>();
+        Semaphore permits = new Semaphore(Math.max(1, parallelism));
         
-        Files.walk(repoPath)
-                .filter(path -> {
-                    String fileName = path.toString();
-                    return fileName.endsWith(".js") || fileName.endsWith(".ts") || fileName.endsWith(".jsx") || fileName.endsWith(".tsx");
-                })
-                .filter(path -> !path.toString().contains("/test/"))
-                .forEach(jsFile -> {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            files.forEach((relativePath, content) -> {
+                permits.acquire();
+                entries.add(executor.submit(() -> {
                     try {
-                        String relativePath = repoPath.relativize(jsFile).toString();
-                        String moduleName = jsFile.getFileName().toString();
-                        
-                        Map<String, Object> module = new HashMap<>();
-                        module.put("module", moduleName);
-                        module.put("path", relativePath);
-                        module.put("exports", extractJavaScriptExports(jsFile));
-                        modules.add(module);
+                        return indexFile(relativePath, content, layout);
                     } catch (Exception e) {
-                        log.debug("Error indexing JavaScript file: {}", jsFile, e);
+                        log.debug("Error indexing file: {}", relativePath, e);
+                        return null;
+                    } finally {
+                        permits.release();
                     }
-                });
+                }));
+            });
+        } // close() waits for the remaining tasks
         
-        index.put("language", "JavaScript");
-        index.put("modules", modules);
-        index.put("totalModules", modules.size());
+        List<Object> indexed = new ArrayList<>(entries.size());
+        for (Future<Object> future : entries) {
+            Object entry = future.get();
+            if (entry != null) {
+                indexed.add(entry);
+            }
+        }
         
-        return index;
+        long elapsedMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.info("Extracted {} of {} file(s) in {} ms ({} files/s)",
+                indexed.size(), entries.size(), elapsedMs, entries.size() * 1000L / elapsedMs);
+        return indexed;
     }
     
     /**
-     * Generic codebase indexing (file structure only).
+     * Re-extract only the files changed between the two commits and upsert their rows.
+     *
+     * @return false if the index cannot be updated incrementally
      */
-    private Map<String, Object> indexGenericCodebase(Path repoPath) throws Exception {
-        Map<String, Object> index = new HashMap<>();
-        List<String> sourceFiles = new ArrayList<>();
+    private boolean updateFiles(Repository repository, Path repoPath, IndexLayout layout, UUID indexId,
+                                SymbolIndexKey key, String fromCommit, String headCommit) throws Exception {
+        List<String> changedFiles;
+        try {
+            changedFiles = repositoryService.getChangedFiles(repository, fromCommit, headCommit);
+        } catch (Exception e) {
+            log.warn("Cannot update index for {} incrementally from {}, rebuilding: {}",
+                    repository.getUrl(), fromCommit, e.getMessage());
+            return false;
+        }
         
-        Files.walk(repoPath)
-                .filter(Files::isRegularFile)
-                .filter(path -> {
-                    String fileName = path.toString();
-                    return !fileName.contains("/test/") 
-                        && !fileName.contains("/.git/")
-                        && !fileName.contains("/node_modules/")
-                        && !fileName.contains("/target/")
-                        && !fileName.contains("/build/");
-                })
-                .forEach(file -> {
-                    try {
-                        sourceFiles.add(repoPath.relativize(file).toString());
-                    } catch (Exception e) {
-                        log.debug("Error indexing file: {}", file, e);
-                    }
-                });
+        // Ignore and attribute rules decide whether unchanged files are indexed (ignored, vendored,
+        // generated), so a change to either can add or drop files the diff does not name
+        Optional<String> rulesFile = changedFiles.stream().filter(CodebaseIndexService::isExclusionRules).findFirst();
+        if (rulesFile.isPresent()) {
+            log.info("{} changed in {} between {} and {}, rebuilding index",
+                    rulesFile.get(), repository.getUrl(), fromCommit, headCommit);
+            return false;
+        }
         
-        index.put("sourceFiles", sourceFiles);
-        index.put("totalFiles", sourceFiles.size());
+        // Deleted files and files this index does not cover only lose their rows
+        SourceFiles files;
+        if (fromGit) {
+            Set<String> changed = new HashSet<>(changedFiles);
+            files = committedFiles(repository, headCommit, path -> changed.contains(path) && layout.includes("/" + path));
+        } else {
+            files = workingTreeFiles(repoPath, changedFiles.stream()
+                    .map(repoPath::resolve)
+                    .filter(Files::isRegularFile)
+                    .filter(file -> layout.includes(file.toString()))
+                    .toList());
+        }
         
-        return index;
+        List<CodebaseIndexFileEntity> current = new ArrayList<>();
+        for (int from = 0; from < changedFiles.size(); from += PATH_QUERY_BATCH) {
+            List<String> batch = changedFiles.subList(from, Math.min(changedFiles.size(), from + PATH_QUERY_BATCH));
+            current.addAll(fileRepository.findByIndexIdAndPathIn(indexId, batch));
+        }
+        List<CodebaseIndexFileEntity> stored = storeFiles(layout, indexId, indexFiles(layout, files), current);
+        
+        CodebaseSymbolIndex symbols = symbolIndexes.get(key);
+        if (symbols != null && fromCommit.equals(symbols.commit())) {
+            symbolIndexes.put(key, symbols.update(headCommit, changedFiles, stored));
+        } else {
+            symbolIndexes.remove(key); // Reloaded from the stored rows on next lookup
+        }
+        
+        log.info("Re-indexed {} changed file(s) in {} between {} and {}",
+                changedFiles.size(), repository.getUrl(), fromCommit, headCommit);
+        return true;
     }
     
-    // Helper methods for extracting code structure
+    private static boolean isExclusionRules(String path) {
+        return path.endsWith(".gitignore") || path.endsWith(".gitattributes");
+    }
     
-    private String extractJavaPackage(Path javaFile) throws Exception {
-        List<String> lines = Files.readAllLines(javaFile);
-        for (String line : lines) {
-            if (line.trim().startsWith("package ")) {
-                return line.trim().replace("package ", "").replace(";", "").trim();
+    /**
+     * Upsert a row per entry, reusing the {@code current} row with the same path, and delete
+     * the {@code current} rows no entry replaced.
+     *
+     * @return The upserted rows
+     */
+    private List<CodebaseIndexFileEntity> storeFiles(IndexLayout layout, UUID indexId, List<Object> entries,
+                            List<CodebaseIndexFileEntity> current) throws Exception {
+        Map<String, CodebaseIndexFileEntity> byPath = new HashMap<>();
+        for (CodebaseIndexFileEntity file : current) {
+            byPath.put(file.getPath(), file);
+        }
+        
+        List<CodebaseIndexFileEntity> upserts = new ArrayList<>(entries.size());
+        for (Object entry : entries) {
+            String path = entryPath(entry);
+            CodebaseIndexFileEntity file = byPath.remove(path);
+            if (file == null) {
+                file = CodebaseIndexFileEntity.builder()
+                        .indexId(indexId)
+                        .path(path)
+                        .build();
             }
+            file.setDirectory(CodebaseIndexFileEntity.directoryOf(path));
+            file.setEntryData(objectMapper.writeValueAsString(entry));
+            file.setSymbols(symbolsOf(layout, entry));
+            upserts.add(file);
         }
-        return "default";
+        
+        fileRepository.deleteAll(byPath.values());
+        fileRepository.saveAll(upserts);
+        return upserts;
     }
     
-    private List<String> extractJavaMethods(Path javaFile) throws Exception {
-        List<String> methods = new ArrayList<>();
-        List<String> lines = Files.readAllLines(javaFile);
-        for (String line : lines) {
-            if (line.trim().matches(".*(public|private|protected)\\s+.*\\(.*\\).*\\{")) {
-                methods.add(line.trim());
-            }
+    private String headCommit(Repository repository) {
+        try {
+            return repositoryService.getHeadCommitId(repository);
+        } catch (Exception e) {
+            log.debug("Cannot resolve HEAD of {}, indexing the whole tree: {}", repository.getUrl(), e.getMessage());
+            return null;
         }
-        return methods;
     }
     
-    private List<String> extractPythonFunctions(Path pyFile) throws Exception {
-        List<String> functions = new ArrayList<>();
-        List<String> lines = Files.readAllLines(pyFile);
-        for (String line : lines) {
-            if (line.trim().startsWith("def ") || line.trim().startsWith("async def ")) {
-                functions.add(line.trim());
-            }
+    /**
+     * Index entry for one file: the language indexer's entry, or the path for generic indexes.
+     * Source files are streamed through the indexer once.
+     */
+    private Object indexFile(String relativePath, Callable<BufferedReader> source, IndexLayout layout) throws Exception {
+        if (layout.indexer() == null) {
+            return relativePath;
         }
-        return functions;
+        try (BufferedReader reader = source.call()) {
+            return layout.indexer().index(relativePath, reader);
+        }
+    }
+    
+    private static String entryPath(Object entry) {
+        return entry instanceof Map<?, ?> map ? String.valueOf(map.get("path")) : String.valueOf(entry);
+    }
+    
+    /**
+     * Names declared by an entry, as its language indexer reads them; generic entries declare none.
+     */
+    private static List<CodebaseIndexSymbol> symbolsOf(IndexLayout layout, Object entry) {
+        if (layout.indexer() != null && entry instanceof Map<?, ?> map) {
+            return new ArrayList<>(layout.indexer().symbols(map));
+        }
+        return new ArrayList<>();
+    }
+    
+    /**
+     * The indexer serving {@code language}, or the generic layout if none does.
+     */
+    IndexLayout layoutFor(String language) {
+        return languageIndexers.stream()
+                .filter(indexer -> indexer.serves(language))
+                .findFirst()
+                .map(IndexLayout::new)
+                .orElse(IndexLayout.GENERIC);
+    }
+    
+    private record SymbolIndexKey(String repositoryUrl, String language) {}
+    
+    /**
+     * Files to extract, from the working tree or a committed tree; each visit supplies a reader
+     * over the file's content, opened by whichever thread extracts it.
+     */
+    @FunctionalInterface
+    private interface SourceFiles {
+        void forEach(SourceFileVisitor visitor) throws Exception;
+    }
+    
+    @FunctionalInterface
+    private interface SourceFileVisitor {
+        void visit(String relativePath, Callable<BufferedReader> content) throws Exception;
     }
     
-    private List<String> extractJavaScriptExports(Path jsFile) throws Exception {
-        List<String> exports = new ArrayList<>();
-        List<String> lines = Files.readAllLines(jsFile);
-        for (String line : lines) {
-            if (line.trim().contains("export ") || line.trim().contains("module.exports")) {
-                exports.add(line.trim());
+    /**
+     * Which files an index covers and the JSON keys it is stored under: those of the language's
+     * indexer, or, with none, every source file listed by path.
+     */
+    record IndexLayout(LanguageIndexer indexer) {
+        
+        static final IndexLayout GENERIC = new IndexLayout(null);
+        
+        String displayName() {
+            return indexer != null ? indexer.language() : null;
+        }
+        
+        String entriesKey() {
+            return indexer != null ? indexer.entriesKey() : "sourceFiles";
+        }
+        
+        String totalKey() {
+            return indexer != null ? indexer.totalKey() : "totalFiles";
+        }
+        
+        boolean includes(String path) {
+            if (indexer != null) {
+                return indexer.includes(path);
             }
+            return !path.contains("/test/")
+                    && !path.contains("/.git/")
+                    && !path.contains("/node_modules/")
+                    && !path.contains("/target/")
+                    && !path.contains("/build/");
         }
-        return exports;
     }
 }
-
@@ -0,0 +1,302 @@
+package com.bugbounty.cve.service;
+
+import com.bugbounty.cve.entity.CodebaseIndexFileEntity;
+import com.bugbounty.cve.entity.CodebaseIndexShardEntity;
+import com.bugbounty.cve.repository.CodebaseIndexFileRepository;
+import com.bugbounty.cve.repository.CodebaseIndexShardRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Per-directory shards of codebase indexes, for repositories too large to prompt with whole.
+ *
+ * A shard is a directory: its content is the entries of the files directly in it, and its
+ * summary rolls up the subtree (file counts, largest subdirectories). Shards are rebuilt from
+ * file paths and entry sizes after every index update; retrieval picks the shards of the
+ * directories a prompt is about and the summaries on the way up to the root, within a budget.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CodebaseIndexShardService {
+
+    private static final Pattern IDENTIFIER_PATTERN = Pattern.compile("[A-Za-z_][A-Za-z0-9_]{2,}");
+
+    /** Subdirectories listed by name in a summary, largest first; the rest are only counted. */
+    private static final int MAX_LISTED_SUBDIRECTORIES = 20;
+
+    /** Distinct identifiers from seed text looked up as symbols, in order of appearance. */
+    private static final int MAX_SEED_SYMBOLS = 1000;
+
+    /** Symbol names per query, keeping IN lists well below driver parameter limits. */
+    private static final int SYMBOL_QUERY_BATCH = 500;
+
+    /** Strongest seed directories considered; beyond these, shards would not fit a prompt anyway. */
+    private static final int MAX_SEED_DIRECTORIES = 100;
+
+    /** Weight of a directory holding a seed path, against 1 per seed symbol declared there. */
+    private static final int SEED_PATH_WEIGHT = 5;
+
+    private final CodebaseIndexFileRepository fileRepository;
+    private final CodebaseIndexShardRepository shardRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Recompute the shards of an index from its file rows (paths and entry sizes only) and write
+     * the shards whose counts changed; shards of directories with no indexed files left are deleted.
+     */
+    public void rebuildShards(UUID indexId) throws Exception {
+        Map<String, ShardTotals> totals = new HashMap<>();
+        totals.put("", new ShardTotals(""));
+        for (CodebaseIndexFileRepository.FileSize file : fileRepository.findFileSizesByIndexId(indexId)) {
+            String directory = CodebaseIndexFileEntity.directoryOf(file.getPath());
+            ShardTotals shard = totals.computeIfAbsent(directory, ShardTotals::new);
+            shard.files++;
+            shard.size += file.getSize() != null ? file.getSize() : 0;
+
+            // Link the directory into its ancestors, up to the first link that already exists
+            String child = directory;
+            while (!child.isEmpty()) {
+                String parent = CodebaseIndexFileEntity.directoryOf(child);
+                if (!totals.computeIfAbsent(parent, ShardTotals::new).children.add(child)) {
+                    break;
+                }
+                child = parent;
+            }
+        }
+
+        // Deepest directories first, so every subtree is complete before it is added to its parent
+        List<ShardTotals> ordered = new ArrayList<>(totals.values());
+        ordered.sort(Comparator.comparingInt((ShardTotals shard) -> depth(shard.directory)).reversed());
+        for (ShardTotals shard : ordered) {
+            shard.totalFiles += shard.files;
+            shard.totalSize += shard.size;
+            if (!shard.directory.isEmpty()) {
+                ShardTotals parent = totals.get(CodebaseIndexFileEntity.directoryOf(shard.directory));
+                parent.totalFiles += shard.totalFiles;
+                parent.totalSize += shard.totalSize;
+            }
+        }
+
+        Map<String, CodebaseIndexShardEntity> existing = new HashMap<>();
+        for (CodebaseIndexShardEntity shard : shardRepository.findByIndexId(indexId)) {
+            existing.put(shard.getDirectory(), shard);
+        }
+
+        List<CodebaseIndexShardEntity> changed = new ArrayList<>();
+        for (ShardTotals shard : ordered) {
+            String summary = summary(shard, totals);
+            CodebaseIndexShardEntity entity = existing.remove(shard.directory);
+            if (entity == null) {
+                entity = CodebaseIndexShardEntity.builder()
+                        .indexId(indexId)
+                        .directory(shard.directory)
+                        .build();
+            } else if (entity.getFileCount() == shard.files && entity.getTotalFiles() == shard.totalFiles
+                    && entity.getEntrySize() == shard.size && entity.getTotalSize() == shard.totalSize
+                    && summary.equals(entity.getSummary())) {
+                continue;
+            }
+            entity.setFileCount(shard.files);
+            entity.setTotalFiles(shard.totalFiles);
+            entity.setEntrySize(shard.size);
+            entity.setTotalSize(shard.totalSize);
+            entity.setSummary(summary);
+            changed.add(entity);
+        }
+
+        shardRepository.deleteAll(existing.values());
+        shardRepository.saveAll(changed);
+        log.debug("Rebuilt {} shard(s) of index {}: {} changed, {} removed",
+                totals.size(), indexId, changed.size(), existing.size());
+    }
+
+    /**
+     * The smallest set of shards covering the seeds that fits {@code maxSize} characters.
+     *
+     * Seed directories are the directories of {@code seedPaths} and of the files declaring an
+     * identifier of {@code seedText}, strongest first (paths outweigh symbols, deeper
+     * directories break ties). Each gets its whole shard if that still fits, else its summary;
+     * summaries of their ancestors up to the root fill what is left. An index small enough to
+     * fit whole is returned whole.
+     *
+     * @return empty if the index has no shards yet (built before sharding, or empty)
+     */
+    public Optional<ShardSelection> selectShards(UUID indexId, Collection<String> seedPaths, String seedText,
+                                                 long maxSize) {
+        Optional<CodebaseIndexShardEntity> root = shardRepository.findByIndexIdAndDirectory(indexId, "");
+        if (root.isEmpty()) {
+            return Optional.empty();
+        }
+        if (root.get().getTotalSize() <= maxSize) {
+            return Optional.of(new ShardSelection(root.get().getTotalFiles(), null, List.of(), 0));
+        }
+
+        Map<String, Integer> weights = seedDirectories(indexId, seedPaths, seedText);
+        List<String> seeds = weights.keySet().stream()
+                .sorted(Comparator.comparing((String directory) -> weights.get(directory)).reversed()
+                        .thenComparing(Comparator.comparingInt(CodebaseIndexShardService::depth).reversed())
+                        .thenComparing(Comparator.naturalOrder()))
+                .limit(MAX_SEED_DIRECTORIES)
+                .toList();
+
+        Set<String> wanted = new HashSet<>(seeds);
+        for (String directory : seeds) {
+            for (String ancestor = directory; !ancestor.isEmpty(); ) {
+                ancestor = CodebaseIndexFileEntity.directoryOf(ancestor);
+                wanted.add(ancestor);
+            }
+        }
+        Map<String, CodebaseIndexShardEntity> shards = new HashMap<>();
+        for (CodebaseIndexShardEntity shard : shardRepository.findByIndexIdAndDirectoryIn(indexId, wanted)) {
+            shards.put(shard.getDirectory(), shard);
+        }
+        shards.put("", root.get());
+
+        long remaining = maxSize;
+        List<String> full = new ArrayList<>();
+        Set<String> summarized = new TreeSet<>();
+        CodebaseIndexShardEntity rootShard = root.get();
+        remaining -= rootShard.getSummary().length() + 1;
+        summarized.add("");
+
+        for (String directory : seeds) {
+            CodebaseIndexShardEntity shard = shards.get(directory);
+            if (shard == null || shard.getFileCount() == 0) {
+                continue; // Nothing indexed directly there; its ancestors are summarized below
+            }
+            if (shard.getEntrySize() + shard.getFileCount() <= remaining) {
+                full.add(directory);
+                remaining -= shard.getEntrySize() + shard.getFileCount();
+            } else if (summarized.add(directory)) {
+                remaining -= shard.getSummary().length() + 1;
+            }
+        }
+        for (String directory : seeds) {
+            for (String ancestor = directory; !ancestor.isEmpty(); ) {
+                ancestor = CodebaseIndexFileEntity.directoryOf(ancestor);
+                CodebaseIndexShardEntity shard = shards.get(ancestor);
+                if (shard != null && !summarized.contains(ancestor) && shard.getSummary().length() + 1 <= remaining) {
+                    summarized.add(ancestor);
+                    remaining -= shard.getSummary().length() + 1;
+                }
+            }
+        }
+
+        List<String> summaries = summarized.stream()
+                .map(directory -> shards.get(directory).getSummary())
+                .toList();
+        return Optional.of(new ShardSelection(rootShard.getTotalFiles(), full, summaries,
+                rootShard.getTotalFiles() - full.stream().mapToInt(directory -> shards.get(directory).getFileCount()).sum()));
+    }
+
+    private Map<String, Integer> seedDirectories(UUID indexId, Collection<String> seedPaths, String seedText) {
+        Map<String, Integer> weights = new HashMap<>();
+        if (seedPaths != null) {
+            for (String path : seedPaths) {
+                if (path != null && !path.isBlank()) {
+                    weights.merge(CodebaseIndexFileEntity.directoryOf(normalize(path)), SEED_PATH_WEIGHT, Integer::sum);
+                }
+            }
+        }
+
+        List<String> symbols = identifiers(seedText);
+        for (int from = 0; from < symbols.size(); from += SYMBOL_QUERY_BATCH) {
+            List<String> batch = symbols.subList(from, Math.min(symbols.size(), from + SYMBOL_QUERY_BATCH));
+            for (String path : fileRepository.findPathsDeclaringAny(indexId, batch)) {
+                weights.merge(CodebaseIndexFileEntity.directoryOf(path), 1, Integer::sum);
+            }
+        }
+        return weights;
+    }
+
+    private static List<String> identifiers(String text) {
+        Set<String> identifiers = new LinkedHashSet<>();
+        if (text != null) {
+            Matcher matcher = IDENTIFIER_PATTERN.matcher(text);
+            while (matcher.find() && identifiers.size() < MAX_SEED_SYMBOLS) {
+                identifiers.add(matcher.group());
+            }
+        }
+        return new ArrayList<>(identifiers);
+    }
+
+    private String summary(ShardTotals shard, Map<String, ShardTotals> totals) throws Exception {
+        List<ShardTotals> children = shard.children.stream()
+                .map(totals::get)
+                .sorted(Comparator.comparingInt((ShardTotals child) -> child.totalFiles).reversed()
+                        .thenComparing(child -> child.directory))
+                .toList();
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("directory", shard.directory.isEmpty() ? "." : shard.directory);
+        summary.put("files", shard.files);
+        summary.put("totalFiles", shard.totalFiles);
+        if (!children.isEmpty()) {
+            Map<String, Integer> subdirectories = new LinkedHashMap<>();
+            for (ShardTotals child : children.subList(0, Math.min(children.size(), MAX_LISTED_SUBDIRECTORIES))) {
+                subdirectories.put(child.directory.substring(child.directory.lastIndexOf('/') + 1), child.totalFiles);
+            }
+            summary.put("subdirectories", subdirectories);
+            if (children.size() > MAX_LISTED_SUBDIRECTORIES) {
+                summary.put("moreSubdirectories", children.size() - MAX_LISTED_SUBDIRECTORIES);
+            }
+        }
+        return objectMapper.writeValueAsString(summary);
+    }
+
+    private static String normalize(String path) {
+        String normalized = path.replace('\\', '/');
+        while (normalized.startsWith("/") || normalized.startsWith("./")) {
+            normalized = normalized.substring(normalized.startsWith("/") ? 1 : 2);
+        }
+        return normalized;
+    }
+
+    private static int depth(String directory) {
+        if (directory.isEmpty()) {
+            return 0;
+        }
+        int depth = 1;
+        for (int i = 0; i < directory.length(); i++) {
+            if (directory.charAt(i) == '/') {
+                depth++;
+            }
+        }
+        return depth;
+    }
+
+    private static final class ShardTotals {
+        private final String directory;
+        private final Set<String> children = new TreeSet<>();
+        private int files;
+        private long size;
+        private int totalFiles;
+        private long totalSize;
+
+        private ShardTotals(String directory) {
+            this.directory = directory;
+        }
+    }
+
+    /**
+     * Shards chosen for a prompt.
+     *
+     * @param totalFiles      Files in the whole index
+     * @param directories     Directories whose entries are included; null when the whole index is
+     * @param summaries       Summary JSON of the directories shown only in outline, root first
+     * @param omittedFiles    Indexed files whose entries are not included
+     */
+    public record ShardSelection(int totalFiles, List<String> directories, List<String> summaries, int omittedFiles) {
+
+        public boolean wholeIndex() {
+            return directories == null;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.bugbounty.cve.service;
+
+import com.bugbounty.cve.entity.CodebaseIndexFileEntity;
+import com.bugbounty.cve.entity.CodebaseIndexSymbol;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory lookup from declared symbol names and file basenames to the indexed files, as of
+ * one commit. Keys are case-insensitive (issue text is matched lowercased); each key maps to
+ * its paths in path order.
+ *
+ * Instances are immutable: {@link #update} returns a copy that shares every untouched list.
+ */
+public final class CodebaseSymbolIndex {
+
+    private final String commit;
+    private final Map<String, List<String>> filesBySymbol;
+    private final Map<String, List<String>> filesByBasename;
+    private final Map<String, List<String>> symbolsByFile;
+
+    private CodebaseSymbolIndex(String commit, Map<String, List<String>> filesBySymbol,
+                                Map<String, List<String>> filesByBasename, Map<String, List<String>> symbolsByFile) {
+        this.commit = commit;
+        this.filesBySymbol = filesBySymbol;
+        this.filesByBasename = filesByBasename;
+        this.symbolsByFile = symbolsByFile;
+    }
+
+    /**
+     * Index of {@code files}, the complete set of indexed files at {@code commit}.
+     */
+    public static CodebaseSymbolIndex of(String commit, Collection<CodebaseIndexFileEntity> files) {
+        CodebaseSymbolIndex index = new CodebaseSymbolIndex(commit, new HashMap<>(), new HashMap<>(), new HashMap<>());
+        index.apply(List.of(), files);
+        return index;
+    }
+
+    /**
+     * This index moved to {@code commit}: every path in {@code changedPaths} is dropped, then
+     * {@code files} (the changed files still indexed) are added.
+     */
+    public CodebaseSymbolIndex update(String commit, Collection<String> changedPaths,
+                                      Collection<CodebaseIndexFileEntity> files) {
+        CodebaseSymbolIndex updated = new CodebaseSymbolIndex(commit, new HashMap<>(filesBySymbol),
+                new HashMap<>(filesByBasename), new HashMap<>(symbolsByFile));
+        updated.apply(changedPaths, files);
+        return updated;
+    }
+
+    public String commit() {
+        return commit;
+    }
+
+    /**
+     * Files declaring a class, method, function or export with this name.
+     */
+    public List<String> filesDeclaring(String symbol) {
+        return filesBySymbol.getOrDefault(key(symbol), List.of());
+    }
+
+    /**
+     * Files with this file name, in any directory.
+     */
+    public List<String> filesNamed(String basename) {
+        return filesByBasename.getOrDefault(key(basename), List.of());
+    }
+
+    /**
+     * Drop {@code removedPaths}, add {@code files}, then sort and freeze each list that changed.
+     * A changed list is copied into a mutable list once and sorted once, however many paths it gains.
+     */
+    private void apply(Collection<String> removedPaths, Collection<CodebaseIndexFileEntity> files) {
+        Map<String, List<String>> symbolEdits = new HashMap<>();
+        Map<String, List<String>> basenameEdits = new HashMap<>();
+        removedPaths.forEach(path -> remove(path, symbolEdits, basenameEdits));
+        for (CodebaseIndexFileEntity file : files) {
+            String path = file.getPath();
+            remove(path, symbolEdits, basenameEdits); // Listed twice: the last entry wins
+            Set<String> names = new LinkedHashSet<>();
+            for (CodebaseIndexSymbol symbol : file.getSymbols()) {
+                String name = key(symbol.getName());
+                if (names.add(name)) {
+                    edit(filesBySymbol, symbolEdits, name).add(path);
+                }
+            }
+            symbolsByFile.put(path, List.copyOf(names));
+            edit(filesByBasename, basenameEdits, key(basename(path))).add(path);
+        }
+        freeze(filesBySymbol, symbolEdits);
+        freeze(filesByBasename, basenameEdits);
+    }
+
+    private void remove(String path, Map<String, List<String>> symbolEdits, Map<String, List<String>> basenameEdits) {
+        List<String> names = symbolsByFile.remove(path);
+        if (names == null) {
+            return; // Not indexed
+        }
+        for (String name : names) {
+            edit(filesBySymbol, symbolEdits, name).remove(path);
+        }
+        edit(filesByBasename, basenameEdits, key(basename(path))).remove(path);
+    }
+
+    /**
+     * The mutable working copy of {@code index}'s list for {@code key}.
+     */
+    private static List<String> edit(Map<String, List<String>> index, Map<String, List<String>> edits, String key) {
+        return edits.computeIfAbsent(key, k -> new ArrayList<>(index.getOrDefault(k, List.of())));
+    }
+
+    private static void freeze(Map<String, List<String>> index, Map<String, List<String>> edits) {
+        edits.forEach((key, paths) -> {
+            if (paths.isEmpty()) {
+                index.remove(key);
+            } else {
+                paths.sort(null);
+                index.put(key, List.copyOf(paths));
+            }
+        });
+    }
+
+    private static String basename(String path) {
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -3,20 +3,20 @@ package com.bugbounty.cve.service;
 import com.bugbounty.cve.domain.BugFinding;
 import com.bugbounty.cve.domain.CVECatalog;
 import com.bugbounty.cve.entity.BugFindingEntity;
-import com.bugbounty.cve.entity.CodebaseIndexEntity;
 import com.bugbounty.cve.mapper.BugFindingMapper;
 import com.bugbounty.cve.repository.BugFindingRepository;
 import com.bugbounty.cve.repository.CVECatalogRepository;
+import com.bugbounty.llm.deadline.Deadline;
+import com.bugbounty.llm.prompt.CompiledPromptTemplate;
+import com.bugbounty.llm.scheduler.LlmPriority;
+import com.bugbounty.llm.service.LlmGateway;
 import com.bugbounty.repository.domain.Repository;
 import com.bugbounty.repository.service.RepositoryService;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.ai.chat.ChatClient;
-import org.springframework.ai.chat.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
-import org.springframework.ai.chat.prompt.PromptTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
@@ -37,9 +37,76 @@ import java.util.stream.Collectors;
 @Slf4j
 public class CommitAnalysisService {
     
-    private final ChatClient chatClient;
+    private static final CompiledPromptTemplate INITIAL_ANALYSIS_PROMPT = CompiledPromptTemplate.compile("""
+            Analyze this commit diff and determine if any of the following CVEs are present.
+            
+            Programming Language: {language}
+            
+            Commit Diff:
+            {commitDiff}
+            
+            Affected Files:
+            {affectedFiles}
+            
+            Codebase Structure:
+            {codebaseIndex}
+            
+            Relevant CVEs:
+            {cveList}
+            
+            Determine which CVEs (if any) are present in this commit. Consider:
+            1. Does the code change match any vulnerable patterns?
+            2. Are there any security issues introduced?
+            3. Does the code match the CVE descriptions?
+            
+            Respond with JSON listing the CVE IDs that are present, and how confident (0.0-1.0)
+            you are that this list is complete and correct:
+            {{"cveIds": ["CVE-2024-1234", "CVE-2024-5678"], "confidence": 0.8}}
+            
+            If no CVEs are present, return an empty list: {{"cveIds": [], "confidence": 0.9}}
+            """);
+    
+    private static final CompiledPromptTemplate INDIVIDUAL_CVE_PROMPT = CompiledPromptTemplate.compile("""
+            Analyze this specific CVE in detail.
+            
+            CVE: {cveId}
+            Summary: {summary}
+            Vulnerable Pattern: {vulnerablePattern}
+            Fixed Pattern: {fixedPattern}
+            
+            Programming Language: {language}
+            
+            Commit Diff:
+            {commitDiff}
+            
+            Affected Files Content:
+            {fileContents}
+            
+            Codebase Structure:
+            {codebaseIndex}
+            
+            Analyze:
+            1. Is this CVE definitely present in the commit? (confidence 0.0-1.0)
+            2. What is the specific vulnerable code?
+            3. What would be the recommended fix?
+            
+            Respond with JSON:
+            {{
+              "cveId": "{cveId}",
+              "present": true/false,
+              "confidence": 0.0-1.0,
+              "vulnerableCode": "specific code that is vulnerable",
+              "recommendedFix": "suggested fix code",
+              "notes": "additional analysis notes"
+            }}
+            """);
+    
+    private final LlmGateway llmGateway;
     private final CVECatalogRepository catalogRepository;
     private final CodebaseIndexService codebaseIndexService;
+    private final CodebaseContextAssembler contextAssembler;
+    private final CVECatalogShortlister catalogShortlister;
+    private final SimilarityIndexService similarityIndexService;
     private final BugFindingRepository bugFindingRepository;
     private final BugFindingMapper bugFindingMapper;
     private final RepositoryService repositoryService;
@@ -86,13 +153,23 @@ public class CommitAnalysisService {
             return Flux.empty();
         }
         
-        // Get codebase index
-        Optional<CodebaseIndexEntity> indexOpt = codebaseIndexService.getIndex(repositoryUrl, language);
-        String codebaseIndex = indexOpt.map(CodebaseIndexEntity::getIndexData).orElse("{}");
+        // Only CVEs whose patterns share identifiers or APIs with the diff (or are semantically
+        // close to it) go into the prompt
+        List<CVECatalog> candidates = addSimilarCVEs(language, catalogEntries,
+                catalogShortlister.shortlist(language, catalogEntries, commitDiff), commitDiff);
+        if (candidates.isEmpty()) {
+            log.debug("No CVE catalog entries match commit {}", commitId);
+            return Flux.empty();
+        }
+        
+        // Get codebase index, trimmed to the entries relevant to this commit
+        String codebaseIndex = contextAssembler.assemble(
+                codebaseIndexService.getIndexData(repositoryUrl, language, affectedFiles, commitDiff).orElse("{}"),
+                affectedFiles, commitDiff).content();
         
         // Initial analysis: check if any CVEs are present in the commit
         return analyzeCommitForCVEs(repositoryUrl, commitId, commitDiff, affectedFiles, 
-                language, catalogEntries, codebaseIndex)
+                language, candidates, codebaseIndex)
                 .flatMapMany(cveIds -> {
                     if (cveIds.isEmpty()) {
                         log.debug("No CVEs detected in commit {}", commitId);
@@ -102,15 +179,44 @@ public class CommitAnalysisService {
                     log.info("Detected {} potential CVE(s) in commit {}: {}", 
                             cveIds.size(), commitId, cveIds);
                     
-                    // Analyze each detected CVE individually
+                    // Analyze each detected CVE individually, one at a time - the LLM
+                    // scheduler interleaves this commit's requests with other repositories
                     return Flux.fromIterable(cveIds)
-                            .flatMap(cveId -> analyzeIndividualCVE(
+                            .concatMap(cveId -> analyzeIndividualCVE(
                                     repositoryUrl, commitId, commitDiff, affectedFiles,
-                                    language, cveId, catalogEntries, codebaseIndex));
+                                    language, cveId, candidates, codebaseIndex));
                 })
                 .doOnError(error -> log.error("Error analyzing commit {}", commitId, error));
     }
     
+    /**
+     * Add catalog entries that the similarity index places close to the diff but the lexical
+     * shortlist missed. Nothing to add when the whole catalog was kept.
+     */
+    private List<CVECatalog> addSimilarCVEs(
+            String language,
+            List<CVECatalog> catalogEntries,
+            List<CVECatalog> shortlist,
+            String commitDiff) {
+        
+        if (shortlist.size() == catalogEntries.size()) {
+            return shortlist;
+        }
+        
+        Map<String, CVECatalog> byCveId = new HashMap<>();
+        catalogEntries.forEach(entry -> byCveId.putIfAbsent(entry.getCveId(), entry));
+        Set<String> selected = shortlist.stream().map(CVECatalog::getCveId).collect(Collectors.toSet());
+        
+        List<CVECatalog> merged = new ArrayList<>(shortlist);
+        similarityIndexService.findSimilarCVEs(language, commitDiff).forEach(match -> {
+            CVECatalog entry = byCveId.get(match.key());
+            if (entry != null && selected.add(match.key())) {
+                merged.add(entry);
+            }
+        });
+        return merged;
+    }
+    
     /**
      * Initial analysis: detect which CVEs might be present in the commit.
      */
@@ -123,15 +229,15 @@ public class CommitAnalysisService {
             List<CVECatalog> catalogEntries,
             String codebaseIndex) {
         
-        return Mono.fromCallable(() -> {
+        return Deadline.fromCallable(() -> {
             try {
                 // Build prompt with all relevant CVEs
                 String prompt = buildInitialAnalysisPrompt(commitDiff, affectedFiles, 
                         language, catalogEntries, codebaseIndex);
                 
-                Prompt aiPrompt = new PromptTemplate(prompt).create(Map.of());
-                ChatResponse response = chatClient.call(aiPrompt);
-                String content = response.getResult().getOutput().getContent();
+                Prompt aiPrompt = new Prompt(prompt);
+                String content = llmGateway.cascade(aiPrompt, LlmPriority.COMMIT_ANALYSIS, repositoryUrl,
+                        Set.of(), "commit-analysis", this::screenRejectConfidence);
                 
                 // Parse response to get list of CVE IDs
                 List<String> cveIds = parseCVEListResponse(content);
@@ -158,7 +264,7 @@ public class CommitAnalysisService {
             List<CVECatalog> catalogEntries,
             String codebaseIndex) {
         
-        return Mono.fromCallable(() -> {
+        return Deadline.fromCallable(() -> {
             try {
                 // Find the specific CVE catalog entry
                 CVECatalog catalogEntry = catalogEntries.stream()
@@ -178,9 +284,8 @@ public class CommitAnalysisService {
                 String prompt = buildIndividualCVEPrompt(commitDiff, affectedFiles, language,
                         catalogEntry, codebaseIndex, fileContents);
                 
-                Prompt aiPrompt = new PromptTemplate(prompt).create(Map.of());
-                ChatResponse response = chatClient.call(aiPrompt);
-                String content = response.getResult().getOutput().getContent();
+                Prompt aiPrompt = new Prompt(prompt);
+                String content = llmGateway.call(aiPrompt, LlmPriority.COMMIT_ANALYSIS, repositoryUrl);
                 
                 // Parse response and create bug finding
                 BugFinding finding = parseIndividualCVEResponse(repositoryUrl, commitId, cveId,
@@ -218,37 +323,13 @@ public class CommitAnalysisService {
             cveList.append(String.format("- %s: %s\n", entry.getCveId(), entry.getSummary()));
         }
         
-        return """
-                Analyze this commit diff and determine if any of the following CVEs are present.
-                
-                Programming Language: {language}
-                
-                Commit Diff:
-                {commitDiff}
-                
-                Affected Files:
-                {affectedFiles}
-                
-                Codebase Structure:
-                {codebaseIndex}
-                
-                Relevant CVEs:
-                {cveList}
-                
-                Determine which CVEs (if any) are present in this commit. Consider:
-                1. Does the code change match any vulnerable patterns?
-                2. Are there any security issues introduced?
-                3. Does the code match the CVE descriptions?
-                
-                Respond with a JSON array of CVE IDs that are present:
-                ["CVE-2024-1234", "CVE-2024-5678"]
-                
-                If no CVEs are present, return an empty array: []
-                """.replace("{language}", language)
-                .replace("{commitDiff}", commitDiff != null ? commitDiff : "")
-                .replace("{affectedFiles}", String.join("\n", affectedFiles != null ? affectedFiles : List.of()))
-                .replace("{codebaseIndex}", codebaseIndex)
-                .replace("{cveList}", cveList.toString());
+        return INITIAL_ANALYSIS_PROMPT
+                .with("language", language)
+                .with("commitDiff", commitDiff != null ? commitDiff : "")
+                .with("affectedFiles", String.join("\n", affectedFiles != null ? affectedFiles : List.of()))
+                .with("codebaseIndex", codebaseIndex)
+                .with("cveList", cveList)
+                .render();
     }
     
     /**
@@ -268,49 +349,18 @@ public class CommitAnalysisService {
                     entry.getKey(), entry.getValue()));
         }
         
-        return """
-                Analyze this specific CVE in detail.
-                
-                CVE: {cveId}
-                Summary: {summary}
-                Vulnerable Pattern: {vulnerablePattern}
-                Fixed Pattern: {fixedPattern}
-                
-                Programming Language: {language}
-                
-                Commit Diff:
-                {commitDiff}
-                
-                Affected Files Content:
-                {fileContents}
-                
-                Codebase Structure:
-                {codebaseIndex}
-                
-                Analyze:
-                1. Is this CVE definitely present in the commit? (confidence 0.0-1.0)
-                2. What is the specific vulnerable code?
-                3. What would be the recommended fix?
-                
-                Respond with JSON:
-                {{
-                  "cveId": "{cveId}",
-                  "present": true/false,
-                  "confidence": 0.0-1.0,
-                  "vulnerableCode": "specific code that is vulnerable",
-                  "recommendedFix": "suggested fix code",
-                  "notes": "additional analysis notes"
-                }}
-                """.replace("{cveId}", catalogEntry.getCveId())
-                .replace("{summary}", catalogEntry.getSummary())
-                .replace("{vulnerablePattern}", catalogEntry.getVulnerablePattern() != null 
+        return INDIVIDUAL_CVE_PROMPT
+                .with("cveId", catalogEntry.getCveId())
+                .with("summary", catalogEntry.getSummary())
+                .with("vulnerablePattern", catalogEntry.getVulnerablePattern() != null 
                         ? catalogEntry.getVulnerablePattern() : "")
-                .replace("{fixedPattern}", catalogEntry.getFixedPattern() != null 
+                .with("fixedPattern", catalogEntry.getFixedPattern() != null 
                         ? catalogEntry.getFixedPattern() : "")
-                .replace("{language}", language)
-                .replace("{commitDiff}", commitDiff != null ? commitDiff : "")
-                .replace("{fileContents}", filesContent.toString())
-                .replace("{codebaseIndex}", codebaseIndex);
+                .with("language", language)
+                .with("commitDiff", commitDiff != null ? commitDiff : "")
+                .with("fileContents", filesContent)
+                .with("codebaseIndex", codebaseIndex)
+                .render();
     }
     
     /**
@@ -358,9 +408,11 @@ public class CommitAnalysisService {
             String jsonContent = extractJsonFromResponse(content);
             JsonNode node = objectMapper.readTree(jsonContent);
             
-            if (node.isArray()) {
+            // {"cveIds": [...], "confidence": ...}, or a bare array from models ignoring the format
+            JsonNode ids = node.isObject() ? node.path("cveIds") : node;
+            if (ids.isArray()) {
                 List<String> cveIds = new ArrayList<>();
-                for (JsonNode item : node) {
+                for (JsonNode item : ids) {
                     cveIds.add(item.asText());
                 }
                 return cveIds;
@@ -371,6 +423,24 @@ public class CommitAnalysisService {
         return Collections.emptyList();
     }
     
+    /**
+     * Cascade screen verdict: an empty CVE list rejects the commit with the confidence the
+     * screening model states for it. A list without a stated confidence (bare array, missing or
+     * non-numeric field) does not reject, so it is escalated.
+     */
+    private double screenRejectConfidence(String content) {
+        try {
+            JsonNode node = objectMapper.readTree(extractJsonFromResponse(content));
+            JsonNode ids = node.path("cveIds");
+            JsonNode confidence = node.path("confidence");
+            return node.isObject() && ids.isArray() && ids.isEmpty() && confidence.isNumber()
+                    ? confidence.asDouble()
+                    : 0.0;
+        } catch (Exception e) {
+            return 0.0;
+        }
+    }
+    
     /**
      * Parse individual CVE analysis response.
      */
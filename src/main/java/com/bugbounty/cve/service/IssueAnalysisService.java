@@ -3,9 +3,13 @@ package com.bugbounty.cve.service;
 import com.bugbounty.bounty.domain.Bounty;
 import com.bugbounty.cve.domain.BugFinding;
 import com.bugbounty.cve.entity.BugFindingEntity;
-import com.bugbounty.cve.entity.CodebaseIndexEntity;
 import com.bugbounty.cve.mapper.BugFindingMapper;
 import com.bugbounty.cve.repository.BugFindingRepository;
+import com.bugbounty.cve.similarity.HnswIndex;
+import com.bugbounty.llm.deadline.Deadline;
+import com.bugbounty.llm.prompt.CompiledPromptTemplate;
+import com.bugbounty.llm.scheduler.LlmPriority;
+import com.bugbounty.llm.service.LlmGateway;
 import com.bugbounty.repository.domain.Repository;
 import com.bugbounty.repository.entity.RepositoryEntity;
 import com.bugbounty.repository.repository.RepositoryRepository;
@@ -14,10 +18,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.ai.chat.ChatClient;
-import org.springframework.ai.chat.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
-import org.springframework.ai.chat.prompt.PromptTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
@@ -30,6 +31,7 @@ import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service for analyzing GitHub issues to understand bugs and generate fixes.
@@ -40,17 +42,67 @@ import java.util.stream.Collectors;
 @Slf4j
 public class IssueAnalysisService {
     
-    private final ChatClient chatClient;
+    private static final CompiledPromptTemplate ROOT_CAUSE_ANALYSIS_PROMPT = CompiledPromptTemplate.compile("""
+            Analyze this GitHub issue to understand the root cause of the reported bug.
+            
+            Issue Title: {title}
+            Issue Description: {description}
+            
+            Programming Language: {language}
+            
+            Mentioned Files:
+            {mentionedFiles}
+            
+            File Contents:
+            {fileContents}
+            
+            Stack Trace Code (lines named by the issue's stack traces marked >>):
+            {stackTraceCode}
+            
+            Relevant Code (full-text search for the issue text):
+            {relevantCode}
+            
+            Similar Past Findings (root causes of earlier issues that read alike; they may not apply):
+            {similarFindings}
+            
+            Codebase Structure:
+            {codebaseIndex}
+            
+            Analyze:
+            1. What is the root cause of the bug described in this issue?
+            2. Which specific classes, methods, or code sections are involved?
+            3. What files need to be modified to fix this issue?
+            4. What is your confidence in understanding the root cause (0.0-1.0)?
+            
+            Respond with JSON:
+            {{
+              "rootCause": "detailed explanation of the root cause",
+              "affectedFiles": ["file1.java", "file2.java"],
+              "affectedCode": {{
+                "file1.java": "specific code sections or methods"
+              }},
+              "confidence": 0.0-1.0
+            }}
+            """);
+    
+    private final LlmGateway llmGateway;
     private final CodebaseIndexService codebaseIndexService;
+    private final CodebaseContextAssembler contextAssembler;
     private final BugFindingRepository bugFindingRepository;
     private final BugFindingMapper bugFindingMapper;
     private final RepositoryService repositoryService;
     private final RepositoryRepository repositoryRepository;
+    private final SimilarityIndexService similarityIndexService;
+    private final CodeSearchService codeSearchService;
+    private final StackTraceLocator stackTraceLocator;
     private final ObjectMapper objectMapper;
     
     @Value("${app.repository.clone.base-path:./repos}")
     private String basePath;
     
+    @Value("${app.similarity.issue-findings:3}")
+    private int similarFindingCount = 3;
+    
     // Patterns to extract file/class/method references from issue descriptions
     private static final Pattern FILE_PATTERN = Pattern.compile(
         "(?:file|class|method|function|in|at)[\\s:]+([a-zA-Z0-9_/\\\\]+\\.(?:java|ts|js|py|go|rs|rb|php|cpp|c|h))",
@@ -80,7 +132,7 @@ public class IssueAnalysisService {
         log.info("Analyzing issue #{} in repository {} for bug root cause", 
                 bounty.getIssueId(), bounty.getRepositoryUrl());
         
-        return Mono.fromCallable(() -> {
+        return Deadline.fromCallable(() -> {
             // Get repository information
             Optional<RepositoryEntity> repoEntity = repositoryRepository.findByUrl(bounty.getRepositoryUrl());
             if (repoEntity.isEmpty()) {
@@ -105,14 +157,21 @@ public class IssueAnalysisService {
                 repository = repositoryService.cloneRepository(repository, basePath);
             }
             
-            // Get codebase index
-            Optional<CodebaseIndexEntity> indexOpt = codebaseIndexService.getIndex(
-                    bounty.getRepositoryUrl(), language);
-            String codebaseIndex = indexOpt.map(CodebaseIndexEntity::getIndexData).orElse("{}");
-            
-            // Extract mentioned files/classes/methods from issue
+            // Extract mentioned files/classes/methods from issue, resolved through the symbol
+            // index when it is at HEAD and by scanning the clone otherwise
+            Optional<CodebaseSymbolIndex> symbolIndex = codebaseIndexService.getSymbolIndex(repository, language);
             List<String> mentionedFiles = extractMentionedFiles(bounty.getDescription(), 
-                    bounty.getTitle(), repository);
+                    bounty.getTitle(), repository, language, symbolIndex);
+            
+            // Files named by stack trace frames are shown as the lines around each frame
+            String issueText = bounty.getTitle() + "\n" + (bounty.getDescription() != null ? bounty.getDescription() : "");
+            List<StackTraceLocator.SourceWindow> stackTraceCode = stackTraceLocator.locate(repository, symbolIndex, issueText);
+            Set<String> framedFiles = stackTraceCode.stream()
+                    .map(StackTraceLocator.SourceWindow::path)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            framedFiles.stream()
+                    .filter(path -> !mentionedFiles.contains(path))
+                    .forEach(mentionedFiles::add);
             
             if (mentionedFiles.isEmpty()) {
                 log.info("No specific files mentioned in issue #{} - will analyze based on issue description", 
@@ -120,11 +179,29 @@ public class IssueAnalysisService {
                 // Still proceed with analysis using issue description
             }
             
-            // Get file contents for mentioned files
-            Map<String, String> fileContents = getFileContents(repository, mentionedFiles);
+            // Get codebase index, trimmed to the entries relevant to this issue
+            String codebaseIndex = contextAssembler.assemble(
+                    codebaseIndexService.getIndexData(bounty.getRepositoryUrl(), language, mentionedFiles, issueText)
+                            .orElse("{}"),
+                    mentionedFiles, issueText).content();
+            
+            // Get file contents for mentioned files not already covered by stack trace windows
+            Map<String, String> fileContents = getFileContents(repository, mentionedFiles.stream()
+                    .filter(path -> !framedFiles.contains(path))
+                    .toList());
+            
+            // Code matching the issue text, whether or not it names anything; chunks of files
+            // already included whole are left out
+            List<CodeSearchService.CodeChunk> relevantCode = codeSearchService.search(repository, issueText).stream()
+                    .filter(chunk -> !fileContents.containsKey(chunk.path()))
+                    .toList();
+            
+            // Root causes of earlier findings on issues that read alike
+            List<BugFindingEntity> similarFindings = findSimilarFindings(bounty, issueText);
             
             // Analyze the issue to understand root cause
-            return analyzeIssueRootCause(bounty, language, codebaseIndex, fileContents, mentionedFiles);
+            return analyzeIssueRootCause(bounty, language, codebaseIndex, fileContents, stackTraceCode, relevantCode,
+                    similarFindings, mentionedFiles);
             
         })
         .flatMapMany(analysisResult -> {
@@ -139,6 +216,7 @@ public class IssueAnalysisService {
             BugFindingEntity entity = bugFindingMapper.toEntity(finding);
             BugFindingEntity saved = bugFindingRepository.save(entity);
             BugFinding savedFinding = bugFindingMapper.toDomain(saved);
+            similarityIndexService.indexFinding(savedFinding);
             
             log.info("Created bug finding for issue #{} in repository {}", 
                     bounty.getIssueId(), bounty.getRepositoryUrl());
@@ -151,7 +229,8 @@ public class IssueAnalysisService {
     /**
      * Extract mentioned files, classes, and methods from issue description.
      */
-    private List<String> extractMentionedFiles(String description, String title, Repository repository) {
+    private List<String> extractMentionedFiles(String description, String title, Repository repository,
+                                               String language, Optional<CodebaseSymbolIndex> symbolIndex) {
         List<String> files = new ArrayList<>();
         String combinedText = ((title != null ? title : "") + " " + 
                               (description != null ? description : "")).toLowerCase();
@@ -162,8 +241,17 @@ public class IssueAnalysisService {
             String filePath = fileMatcher.group(1);
             // Normalize path
             if (!filePath.startsWith("/") && !filePath.contains("\\")) {
-                // Try to find file in repository
-                String foundFile = findFileInRepository(repository, filePath);
+                // Try to find file in repository. A current index is authoritative for the files it
+                // covers; other file types (configs, docs) are matched by path only
+                String foundFile;
+                if (symbolIndex.isEmpty()) {
+                    foundFile = findFileInRepository(repository, filePath);
+                } else {
+                    foundFile = first(symbolIndex.get().filesNamed(filePath));
+                    if (foundFile == null && !codebaseIndexService.covers(language, filePath)) {
+                        foundFile = findFileInRepository(repository, filePath);
+                    }
+                }
                 if (foundFile != null) {
                     files.add(foundFile);
                 }
@@ -172,11 +260,13 @@ public class IssueAnalysisService {
             }
         }
         
-        // Extract class names and try to find corresponding files
+        // Extract class names and try to find corresponding files; a miss on a current index stays a miss
         Matcher classMatcher = CLASS_PATTERN.matcher(combinedText);
         while (classMatcher.find()) {
             String className = classMatcher.group(1);
-            String foundFile = findClassFile(repository, className);
+            String foundFile = symbolIndex.isPresent()
+                    ? first(symbolIndex.get().filesDeclaring(className))
+                    : findClassFile(repository, className);
             if (foundFile != null && !files.contains(foundFile)) {
                 files.add(foundFile);
             }
@@ -185,17 +275,22 @@ public class IssueAnalysisService {
         return files.stream().distinct().collect(Collectors.toList());
     }
     
+    private static String first(List<String> paths) {
+        return paths.isEmpty() ? null : paths.get(0);
+    }
+    
     /**
-     * Find file in repository by name.
+     * Find file in repository by name, walking the clone's paths without reading any file. Used
+     * while the symbol index is stale and for file types it does not cover.
      */
     private String findFileInRepository(Repository repository, String fileName) {
-        try {
-            if (!repository.isCloned()) {
-                return null;
-            }
-            
-            Path repoPath = Paths.get(repository.getLocalPath());
-            return Files.walk(repoPath)
+        if (!repository.isCloned()) {
+            return null;
+        }
+        
+        Path repoPath = Paths.get(repository.getLocalPath());
+        try (Stream<Path> paths = Files.walk(repoPath)) {
+            return paths
                     .filter(Files::isRegularFile)
                     .filter(path -> path.getFileName().toString().equals(fileName))
                     .map(path -> repoPath.relativize(path).toString().replace("\\", "/"))
@@ -208,26 +303,26 @@ public class IssueAnalysisService {
     }
     
     /**
-     * Find file containing a class by class name.
+     * Find file containing a class by class name, reading every file of the clone. Only used
+     * while the symbol index is stale.
      */
     private String findClassFile(Repository repository, String className) {
-        try {
-            if (!repository.isCloned()) {
-                return null;
-            }
-            
-            Path repoPath = Paths.get(repository.getLocalPath());
-            return Files.walk(repoPath)
+        if (!repository.isCloned()) {
+            return null;
+        }
+        
+        Path repoPath = Paths.get(repository.getLocalPath());
+        // Look for class declaration
+        Pattern classDecl = Pattern.compile(
+            "(?:public\\s+)?(?:class|interface|enum)\\s+" + Pattern.quote(className) + "\\b",
+            Pattern.CASE_INSENSITIVE
+        );
+        try (Stream<Path> paths = Files.walk(repoPath)) {
+            return paths
                     .filter(Files::isRegularFile)
                     .filter(path -> {
                         try {
-                            String content = Files.readString(path);
-                            // Look for class declaration
-                            Pattern classDecl = Pattern.compile(
-                                "(?:public\\s+)?(?:class|interface|enum)\\s+" + className + "\\b",
-                                Pattern.CASE_INSENSITIVE
-                            );
-                            return classDecl.matcher(content).find();
+                            return classDecl.matcher(Files.readString(path)).find();
                         } catch (Exception e) {
                             return false;
                         }
@@ -241,6 +336,30 @@ public class IssueAnalysisService {
         }
     }
     
+    /**
+     * Past findings from the similarity index whose issue and root cause read closest to this
+     * issue, most similar first. Rejected findings, failed analyses (confidence 0) and earlier analyses
+     * of the same issue are left out.
+     */
+    private List<BugFindingEntity> findSimilarFindings(Bounty bounty, String issueText) {
+        List<HnswIndex.Neighbour> matches = similarityIndexService.findSimilarFindings(issueText, similarFindingCount);
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, BugFindingEntity> byId = bugFindingRepository.findAllById(matches.stream()
+                        .map(match -> UUID.fromString(match.key()))
+                        .toList()).stream()
+                .collect(Collectors.toMap(BugFindingEntity::getId, finding -> finding));
+        return matches.stream()
+                .map(match -> byId.get(UUID.fromString(match.key())))
+                .filter(Objects::nonNull)
+                .filter(finding -> finding.getStatus() != BugFindingEntity.BugFindingStatus.REJECTED)
+                .filter(finding -> finding.getRootCauseConfidence() != null && finding.getRootCauseConfidence() > 0.0)
+                .filter(finding -> !(bounty.getIssueId().equals(finding.getIssueId())
+                        && bounty.getRepositoryUrl().equals(finding.getRepositoryUrl())))
+                .toList();
+    }
+    
     /**
      * Analyze issue to understand root cause.
      */
@@ -249,16 +368,19 @@ public class IssueAnalysisService {
             String language,
             String codebaseIndex,
             Map<String, String> fileContents,
+            List<StackTraceLocator.SourceWindow> stackTraceCode,
+            List<CodeSearchService.CodeChunk> relevantCode,
+            List<BugFindingEntity> similarFindings,
             List<String> mentionedFiles) {
         
         try {
             // Build analysis prompt
             String prompt = buildRootCauseAnalysisPrompt(
-                    bounty, language, codebaseIndex, fileContents, mentionedFiles);
+                    bounty, language, codebaseIndex, fileContents, stackTraceCode, relevantCode, similarFindings,
+                    mentionedFiles);
             
-            Prompt aiPrompt = new PromptTemplate(prompt).create(Map.of());
-            ChatResponse response = chatClient.call(aiPrompt);
-            String content = response.getResult().getOutput().getContent();
+            Prompt aiPrompt = new Prompt(prompt);
+            String content = llmGateway.call(aiPrompt, LlmPriority.ISSUE_ANALYSIS, bounty.getRepositoryUrl());
             
             // Parse response
             return parseRootCauseAnalysis(content, mentionedFiles);
@@ -282,6 +404,9 @@ public class IssueAnalysisService {
             String language,
             String codebaseIndex,
             Map<String, String> fileContents,
+            List<StackTraceLocator.SourceWindow> stackTraceCode,
+            List<CodeSearchService.CodeChunk> relevantCode,
+            List<BugFindingEntity> similarFindings,
             List<String> mentionedFiles) {
         
         StringBuilder filesContent = new StringBuilder();
@@ -290,44 +415,35 @@ public class IssueAnalysisService {
                     entry.getKey(), entry.getValue()));
         }
         
-        return """
-                Analyze this GitHub issue to understand the root cause of the reported bug.
-                
-                Issue Title: {title}
-                Issue Description: {description}
-                
-                Programming Language: {language}
-                
-                Mentioned Files:
-                {mentionedFiles}
-                
-                File Contents:
-                {fileContents}
-                
-                Codebase Structure:
-                {codebaseIndex}
-                
-                Analyze:
-                1. What is the root cause of the bug described in this issue?
-                2. Which specific classes, methods, or code sections are involved?
-                3. What files need to be modified to fix this issue?
-                4. What is your confidence in understanding the root cause (0.0-1.0)?
-                
-                Respond with JSON:
-                {{
-                  "rootCause": "detailed explanation of the root cause",
-                  "affectedFiles": ["file1.java", "file2.java"],
-                  "affectedCode": {{
-                    "file1.java": "specific code sections or methods"
-                  }},
-                  "confidence": 0.0-1.0
-                }}
-                """.replace("{title}", bounty.getTitle() != null ? bounty.getTitle() : "")
-                .replace("{description}", bounty.getDescription() != null ? bounty.getDescription() : "")
-                .replace("{language}", language)
-                .replace("{mentionedFiles}", String.join("\n", mentionedFiles))
-                .replace("{fileContents}", filesContent.toString())
-                .replace("{codebaseIndex}", codebaseIndex);
+        StringBuilder framesContent = new StringBuilder();
+        for (StackTraceLocator.SourceWindow window : stackTraceCode) {
+            framesContent.append(String.format("\n=== File: %s (lines %d-%d) ===\n%s",
+                    window.path(), window.startLine(), window.endLine(), window.numbered()));
+        }
+        
+        StringBuilder codeContent = new StringBuilder();
+        for (CodeSearchService.CodeChunk chunk : relevantCode) {
+            codeContent.append(String.format("\n=== File: %s (lines %d-%d) ===\n%s",
+                    chunk.path(), chunk.startLine(), chunk.endLine(), chunk.content()));
+        }
+        
+        StringBuilder findingsContent = new StringBuilder();
+        for (BugFindingEntity finding : similarFindings) {
+            findingsContent.append(String.format("\n=== Issue: %s (%s) ===\n%s\n",
+                    finding.getIssueTitle(), finding.getRepositoryUrl(), finding.getRootCauseAnalysis()));
+        }
+        
+        return ROOT_CAUSE_ANALYSIS_PROMPT
+                .with("title", bounty.getTitle() != null ? bounty.getTitle() : "")
+                .with("description", bounty.getDescription() != null ? bounty.getDescription() : "")
+                .with("language", language)
+                .with("mentionedFiles", String.join("\n", mentionedFiles))
+                .with("fileContents", filesContent)
+                .with("stackTraceCode", framesContent)
+                .with("relevantCode", codeContent)
+                .with("similarFindings", findingsContent)
+                .with("codebaseIndex", codebaseIndex)
+                .render();
     }
     
     /**
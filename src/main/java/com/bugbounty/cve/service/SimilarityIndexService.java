@@ -0,0 +1,329 @@
+package com.bugbounty.cve.service;
+
+import com.bugbounty.cve.domain.BugFinding;
+import com.bugbounty.cve.domain.CVECatalog;
+import com.bugbounty.cve.entity.BugFindingEntity;
+import com.bugbounty.cve.entity.CVECatalogEntity;
+import com.bugbounty.cve.mapper.CVECatalogMapper;
+import com.bugbounty.cve.repository.BugFindingRepository;
+import com.bugbounty.cve.repository.CVECatalogRepository;
+import com.bugbounty.cve.similarity.HnswIndex;
+import com.bugbounty.llm.embedding.TextEmbedder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local vector similarity search over the CVE catalog and past bug findings.
+ *
+ * Catalog entries (summary, vulnerable pattern, code example) are embedded into one HNSW index
+ * per language; bug findings (issue title and root cause analysis) into a shared index. Indexes
+ * are persisted under {@code app.similarity.index-path}, reloaded at startup, and caught up with
+ * any catalog entries or findings the database has but the files do not; entries no longer in the
+ * database are removed. New catalog entries and findings are added incrementally as they are
+ * created. Removed and replaced entries stay in the graph as tombstones until they exceed
+ * {@code app.similarity.hnsw.max-deleted-ratio} of an index, which is then rebuilt from its live
+ * vectors. Catalog entries without a language are not indexed.
+ *
+ * Metric: similarity.search{index=catalog|findings} - index lookup time (embedding excluded).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SimilarityIndexService {
+
+    private static final String CATALOG_INDEX_PREFIX = "catalog-";
+    private static final String FINDINGS_INDEX = "findings";
+    private static final String FILE_SUFFIX = ".hnsw";
+    private static final int MAX_EMBED_CHARS = 8000;
+
+    private final TextEmbedder embedder;
+    private final CVECatalogRepository catalogRepository;
+    private final CVECatalogMapper catalogMapper;
+    private final BugFindingRepository bugFindingRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, HnswIndex> indexes = new ConcurrentHashMap<>();
+    private final Set<String> dirtyIndexes = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.similarity.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.similarity.index-path:./data/similarity}")
+    private String indexPath = "./data/similarity";
+
+    @Value("${app.similarity.hnsw.m:16}")
+    private int m = 16;
+
+    @Value("${app.similarity.hnsw.ef-construction:100}")
+    private int efConstruction = 100;
+
+    @Value("${app.similarity.hnsw.ef-search:50}")
+    private int efSearch = 50;
+
+    @Value("${app.similarity.hnsw.max-deleted-ratio:0.2}")
+    private double maxDeletedRatio = 0.2;
+
+    @Value("${app.similarity.min-similarity:0.5}")
+    private double minSimilarity = 0.5;
+
+    @Value("${app.similarity.commit-candidates:5}")
+    private int commitCandidates = 5;
+
+    /**
+     * Load persisted indexes and catch up with the database in the background.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!enabled) {
+            return;
+        }
+        Mono.fromRunnable(this::loadAndCatchUp)
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe(null, error -> log.warn("Failed to initialize similarity indexes", error));
+    }
+
+    void loadAndCatchUp() {
+        loadIndexes();
+        // Only entries loaded from disk can be stale; ones added meanwhile are newer than the scan below
+        Map<String, Set<String>> loadedKeys = new HashMap<>();
+        indexes.forEach((name, index) -> loadedKeys.put(name, index.keys()));
+
+        // Keys the database has per index, to drop deleted entries from the loaded indexes
+        Map<String, Set<String>> expectedKeys = new HashMap<>();
+        int added = 0;
+        for (CVECatalogEntity entity : catalogRepository.findAll()) {
+            if (entity.getCveId() == null || entity.getLanguage() == null) {
+                continue;
+            }
+            String name = catalogIndexName(entity.getLanguage());
+            expectedKeys.computeIfAbsent(name, n -> new HashSet<>()).add(entity.getCveId());
+            HnswIndex index = indexes.get(name);
+            if (index == null || !index.contains(entity.getCveId())) {
+                indexCatalogEntry(catalogMapper.toDomain(entity));
+                added++;
+            }
+        }
+        Set<String> findingKeys = expectedKeys.computeIfAbsent(FINDINGS_INDEX, n -> new HashSet<>());
+        for (BugFindingEntity entity : bugFindingRepository.findAll()) {
+            if (entity.getRootCauseAnalysis() == null) {
+                continue;
+            }
+            String key = entity.getId().toString();
+            findingKeys.add(key);
+            HnswIndex index = indexes.get(FINDINGS_INDEX);
+            if (index == null || !index.contains(key)) {
+                add(FINDINGS_INDEX, key, findingText(entity.getIssueTitle(), entity.getRootCauseAnalysis()));
+                added++;
+            }
+        }
+
+        int removed = 0;
+        for (Map.Entry<String, Set<String>> loaded : loadedKeys.entrySet()) {
+            HnswIndex index = indexes.get(loaded.getKey());
+            Set<String> expected = expectedKeys.getOrDefault(loaded.getKey(), Set.of());
+            for (String key : loaded.getValue()) {
+                if (!expected.contains(key) && index.remove(key)) {
+                    dirtyIndexes.add(loaded.getKey());
+                    removed++;
+                }
+            }
+            compactIfNeeded(loaded.getKey(), index);
+        }
+        log.info("Similarity indexes ready ({} entries added, {} removed since last save)", added, removed);
+        flush();
+    }
+
+    /**
+     * Add (or replace) a catalog entry in its language's index.
+     */
+    public void indexCatalogEntry(CVECatalog entry) {
+        if (!enabled || entry.getCveId() == null || entry.getLanguage() == null) {
+            return;
+        }
+        add(catalogIndexName(entry.getLanguage()), entry.getCveId(),
+                join(entry.getSummary(), entry.getVulnerablePattern(), entry.getCodeExample()));
+    }
+
+    /**
+     * Add (or replace) a bug finding once it has a root cause analysis.
+     */
+    public void indexFinding(BugFinding finding) {
+        if (!enabled || finding.getId() == null || finding.getRootCauseAnalysis() == null) {
+            return;
+        }
+        add(FINDINGS_INDEX, finding.getId().toString(),
+                findingText(finding.getIssueTitle(), finding.getRootCauseAnalysis()));
+    }
+
+    /**
+     * Catalog entries of the language semantically closest to the text (e.g. a commit diff).
+     *
+     * @return Up to {@code app.similarity.commit-candidates} matches above the minimum similarity; keys are CVE IDs
+     */
+    public List<HnswIndex.Neighbour> findSimilarCVEs(String language, String text) {
+        return search(catalogIndexName(language), "catalog", text, commitCandidates);
+    }
+
+    /**
+     * Past bug findings whose root cause is closest to the text.
+     *
+     * @return Up to {@code k} matches above the minimum similarity; keys are finding IDs
+     */
+    public List<HnswIndex.Neighbour> findSimilarFindings(String text, int k) {
+        return search(FINDINGS_INDEX, "findings", text, k);
+    }
+
+    /**
+     * Persist indexes changed since the last flush.
+     */
+    @Scheduled(fixedDelayString = "${app.similarity.flush-interval-ms:60000}")
+    @PreDestroy
+    public void flush() {
+        for (String name : Set.copyOf(dirtyIndexes)) {
+            HnswIndex index = indexes.get(name);
+            if (index == null) {
+                continue;
+            }
+            dirtyIndexes.remove(name);
+            try {
+                Path directory = Paths.get(indexPath);
+                Files.createDirectories(directory);
+                Path target = directory.resolve(name + FILE_SUFFIX);
+                Path temp = directory.resolve(name + FILE_SUFFIX + ".tmp");
+                try (OutputStream out = Files.newOutputStream(temp)) {
+                    index.writeTo(out);
+                }
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                log.warn("Failed to persist similarity index {}", name, e);
+                dirtyIndexes.add(name);
+            }
+        }
+    }
+
+    private List<HnswIndex.Neighbour> search(String name, String metricTag, String text, int k) {
+        HnswIndex index = indexes.get(name);
+        if (!enabled || index == null || index.size() == 0 || k <= 0) {
+            return List.of();
+        }
+        try {
+            float[] query = embedder.embed(truncate(text));
+            Timer.Sample sample = Timer.start(meterRegistry);
+            List<HnswIndex.Neighbour> neighbours = index.search(query, k, efSearch);
+            sample.stop(meterRegistry.timer("similarity.search", "index", metricTag));
+            return neighbours.stream()
+                    .filter(neighbour -> neighbour.similarity() >= minSimilarity)
+                    .toList();
+        } catch (Exception e) {
+            log.warn("Similarity search in {} failed: {}", name, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private void add(String name, String key, String text) {
+        try {
+            float[] vector = embedder.embed(truncate(text));
+            HnswIndex index = indexes.computeIfAbsent(name,
+                    n -> new HnswIndex(embedder.id(), vector.length, m, efConstruction));
+            index.add(key, vector);
+            dirtyIndexes.add(name);
+            compactIfNeeded(name, index);
+        } catch (Exception e) {
+            log.warn("Failed to add {} to similarity index {}: {}", key, name, e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild the index once tombstones make up more than the configured share of its nodes,
+     * so they stop adding to search cost and file size.
+     */
+    private void compactIfNeeded(String name, HnswIndex index) {
+        int deleted = index.deletedCount();
+        if (deleted == 0 || deleted <= maxDeletedRatio * (index.size() + deleted)) {
+            return;
+        }
+        index.compact();
+        dirtyIndexes.add(name);
+        log.debug("Compacted similarity index {}: dropped {} tombstone(s), {} live entries", name, deleted, index.size());
+    }
+
+    private void loadIndexes() {
+        Path directory = Paths.get(indexPath);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                String name = fileName.substring(0, fileName.length() - FILE_SUFFIX.length());
+                try (InputStream in = Files.newInputStream(file)) {
+                    HnswIndex index = HnswIndex.readFrom(in);
+                    if (!index.embedderId().equals(embedder.id())) {
+                        log.info("Discarding similarity index {} built with {} (now {})",
+                                name, index.embedderId(), embedder.id());
+                        continue;
+                    }
+                    indexes.put(name, index);
+                    log.debug("Loaded similarity index {} ({} entries)", name, index.size());
+                } catch (IOException e) {
+                    log.warn("Ignoring unreadable similarity index {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to list similarity indexes in {}", directory, e);
+        }
+    }
+
+    private String catalogIndexName(String language) {
+        return CATALOG_INDEX_PREFIX + URLEncoder.encode(language.toLowerCase(Locale.ROOT), StandardCharsets.UTF_8);
+    }
+
+    private String findingText(String issueTitle, String rootCauseAnalysis) {
+        return join(issueTitle, rootCauseAnalysis);
+    }
+
+    private String join(String... parts) {
+        StringBuilder text = new StringBuilder();
+        for (String part : parts) {
+            if (part != null && !part.isBlank()) {
+                text.append(part).append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    private String truncate(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.length() > MAX_EMBED_CHARS ? text.substring(0, MAX_EMBED_CHARS) : text;
+    }
+}
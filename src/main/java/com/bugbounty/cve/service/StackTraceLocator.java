@@ -0,0 +1,229 @@
+package com.bugbounty.cve.service;
+
+import com.bugbounty.repository.domain.Repository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Locates the stack frames quoted in an issue in the repository and extracts the source lines
+ * around each, so root cause analysis sees the failing code instead of whole files.
+ *
+ * Frames ({@link StackTraceParser}) are mapped to repository paths through the symbol index:
+ * files with the frame's file name whose path shares the longest suffix with the printed path
+ * (for JVM frames the whole package directory must match). Frames the index cannot place (index
+ * not at HEAD, file of another language) are looked up by probing the clone for suffixes of the
+ * printed path. Windows of {@code app.cve.issue-analysis.stack-trace.window-lines} lines either
+ * side of each frame are merged per file where they overlap.
+ */
+@Service
+@Slf4j
+public class StackTraceLocator {
+
+    /** Source roots tried for JVM frames when the symbol index cannot place them. */
+    private static final List<String> JVM_SOURCE_ROOTS = List.of(
+            "", "src/main/java/", "src/main/kotlin/", "src/main/scala/", "src/");
+
+    @Value("${app.cve.issue-analysis.stack-trace.window-lines:15}")
+    private int windowLines = 15;
+
+    @Value("${app.cve.issue-analysis.stack-trace.max-frames:10}")
+    private int maxFrames = 10;
+
+    /**
+     * Source windows around the frames of the stack traces in {@code text} that belong to the
+     * repository, in the order the frames appear; empty if there are none.
+     */
+    public List<SourceWindow> locate(Repository repository, Optional<CodebaseSymbolIndex> symbolIndex, String text) {
+        List<StackTraceParser.StackFrame> frames = StackTraceParser.parse(text);
+        if (frames.isEmpty() || !repository.isCloned()) {
+            return List.of();
+        }
+
+        Path repoPath = Paths.get(repository.getLocalPath()).toAbsolutePath().normalize();
+        Map<String, List<Integer>> linesByPath = new LinkedHashMap<>();
+        int located = 0;
+        for (StackTraceParser.StackFrame frame : frames) {
+            if (located == maxFrames) {
+                break;
+            }
+            String path = resolve(frame, symbolIndex, repoPath);
+            if (path != null) {
+                linesByPath.computeIfAbsent(path, p -> new ArrayList<>()).add(frame.line());
+                located++;
+            }
+        }
+        log.debug("Located {}/{} stack frame(s) in {}", located, frames.size(), repository.getUrl());
+
+        List<SourceWindow> windows = new ArrayList<>();
+        linesByPath.forEach((path, lines) -> windows.addAll(extractWindows(repoPath, path, lines)));
+        return windows;
+    }
+
+    /**
+     * Repository-relative path of the frame's file, or null if it is not part of the repository.
+     */
+    private String resolve(StackTraceParser.StackFrame frame, Optional<CodebaseSymbolIndex> symbolIndex, Path repoPath) {
+        if (symbolIndex.isPresent()) {
+            String indexed = bestMatch(frame, symbolIndex.get().filesNamed(frame.basename()));
+            String packageDirectory = parent(frame.file());
+            if (indexed == null && frame.className() != null && !packageDirectory.isEmpty()) {
+                // Kotlin and Scala files need not be named after their classes
+                indexed = symbolIndex.get().filesDeclaring(frame.className()).stream()
+                        .filter(path -> ("/" + parent(path)).endsWith("/" + packageDirectory))
+                        .findFirst()
+                        .orElse(null);
+            }
+            if (indexed != null) {
+                return indexed;
+            }
+        }
+        return probe(frame, repoPath);
+    }
+
+    /**
+     * The candidate sharing the most trailing path segments with the frame's file; JVM frames
+     * must match their whole package directory, other frames at least the file name, and a
+     * match on the file name alone must be unambiguous.
+     */
+    private String bestMatch(StackTraceParser.StackFrame frame, List<String> candidates) {
+        String[] frameSegments = frame.file().split("/");
+        int required = frame.language() == StackTraceParser.Language.JAVA ? frameSegments.length : 1;
+        String best = null;
+        int bestShared = 0;
+        int tied = 0;
+        for (String candidate : candidates) {
+            int shared = sharedSuffix(frameSegments, candidate.split("/"));
+            if (shared > bestShared) {
+                best = candidate;
+                bestShared = shared;
+                tied = 1;
+            } else if (shared == bestShared) {
+                tied++;
+            }
+        }
+        if (bestShared < required || (bestShared == 1 && tied > 1)) {
+            return null;
+        }
+        return best;
+    }
+
+    /**
+     * Look for the printed path, then ever shorter suffixes of it, under the clone. JVM frames,
+     * printed relative to a source root, are tried under the common ones.
+     */
+    private String probe(StackTraceParser.StackFrame frame, Path repoPath) {
+        if (frame.language() == StackTraceParser.Language.JAVA) {
+            for (String root : JVM_SOURCE_ROOTS) {
+                if (isRepositoryFile(repoPath, root + frame.file())) {
+                    return root + frame.file();
+                }
+            }
+            return null;
+        }
+        String[] segments = frame.file().split("/");
+        for (int from = 0; from < segments.length; from++) {
+            if (segments[from].isEmpty() || segments[from].contains(":")) {
+                continue; // Root, drive letter or URL scheme
+            }
+            String candidate = String.join("/", Arrays.copyOfRange(segments, from, segments.length));
+            if (isRepositoryFile(repoPath, candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private boolean isRepositoryFile(Path repoPath, String relativePath) {
+        try {
+            Path file = repoPath.resolve(relativePath).normalize();
+            return file.startsWith(repoPath) && !file.startsWith(repoPath.resolve(".git")) && Files.isRegularFile(file);
+        } catch (RuntimeException e) {
+            return false; // Not a valid path on this platform
+        }
+    }
+
+    /**
+     * Windows around {@code frameLines} of one file, overlapping or touching windows merged.
+     * Frames past the end of the file (trace from another version) are skipped.
+     */
+    private List<SourceWindow> extractWindows(Path repoPath, String path, List<Integer> frameLines) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(repoPath.resolve(path));
+        } catch (IOException e) {
+            log.debug("Cannot read {} for stack frame context: {}", path, e.getMessage());
+            return List.of();
+        }
+
+        List<Integer> sorted = frameLines.stream()
+                .filter(line -> line >= 1 && line <= lines.size())
+                .distinct()
+                .sorted()
+                .toList();
+        List<SourceWindow> windows = new ArrayList<>();
+        int i = 0;
+        while (i < sorted.size()) {
+            int start = Math.max(1, sorted.get(i) - windowLines);
+            int end = Math.min(lines.size(), sorted.get(i) + windowLines);
+            List<Integer> covered = new ArrayList<>(List.of(sorted.get(i)));
+            i++;
+            while (i < sorted.size() && sorted.get(i) - windowLines <= end + 1) {
+                end = Math.min(lines.size(), sorted.get(i) + windowLines);
+                covered.add(sorted.get(i));
+                i++;
+            }
+            windows.add(new SourceWindow(path, start, end, covered,
+                    String.join("\n", lines.subList(start - 1, end)) + "\n"));
+        }
+        return windows;
+    }
+
+    private static int sharedSuffix(String[] a, String[] b) {
+        int shared = 0;
+        while (shared < a.length && shared < b.length
+                && a[a.length - 1 - shared].equals(b[b.length - 1 - shared])) {
+            shared++;
+        }
+        return shared;
+    }
+
+    private static String parent(String path) {
+        return path.substring(0, path.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * Source lines around one or more stack frames of a file.
+     *
+     * @param path       Repository-relative path
+     * @param startLine  First line (1-based)
+     * @param endLine    Last line, inclusive
+     * @param frameLines Lines named by stack frames, ascending
+     * @param content    The lines, newline-terminated
+     */
+    public record SourceWindow(String path, int startLine, int endLine, List<Integer> frameLines, String content) {
+
+        /**
+         * The lines prefixed with their numbers, frame lines marked with {@code >>}.
+         */
+        public String numbered() {
+            StringBuilder numbered = new StringBuilder(content.length() + (endLine - startLine + 1) * 10);
+            int number = startLine;
+            for (String line : content.split("\n", -1)) {
+                if (number > endLine) {
+                    break;
+                }
+                numbered.append(frameLines.contains(number) ? ">> " : "   ")
+                        .append(number).append(": ").append(line).append('\n');
+                number++;
+            }
+            return numbered.toString();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.bugbounty.cve.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Extracts stack frames from free text such as an issue description, in the formats printed by
+ * the JVM, CPython and V8/Node:
+ * <ul>
+ *   <li>{@code at com.example.Foo$Inner.bar(Foo.java:42)} (also Kotlin and Scala sources)</li>
+ *   <li>{@code File "/app/pkg/module.py", line 42, in handler}</li>
+ *   <li>{@code at handler (/srv/app/src/routes.js:42:7)} and {@code at /srv/app/src/routes.js:42:7}</li>
+ * </ul>
+ * Python and JavaScript frames of dependency and runtime code ({@code site-packages},
+ * {@code node_modules}, Node internals) are dropped; JVM frames of library classes are kept and
+ * simply resolve to no repository file. Frames are returned in the order they appear (innermost
+ * first, as printed) without duplicates.
+ */
+public final class StackTraceParser {
+
+    private static final Pattern JAVA_FRAME = Pattern.compile(
+            "\\bat\\s+(?:[\\w.$-]+(?:@[\\w.-]+)?//?)*([\\w$.]+)\\.([\\w$<>-]+)\\(([\\w$-]+\\.(?:java|kt|scala|groovy)):(\\d+)\\)");
+    private static final Pattern PYTHON_FRAME = Pattern.compile(
+            "File \"([^\"\\n]+\\.py)\", line (\\d+)(?:, in ([\\w<>.]+))?");
+    private static final Pattern JS_FRAME = Pattern.compile(
+            "\\bat\\s+(?:(?:async\\s+)?([^\\s()]+(?:\\s\\[as \\w+])?)\\s+\\()?((?:file://)?[^\\s()]+?\\.(?:[cm]?js|jsx|ts|tsx)):(\\d+):\\d+\\)?");
+
+    private static final List<String> DEPENDENCY_MARKERS = List.of(
+            "site-packages/", "dist-packages/", "node_modules/", "node:", "<frozen");
+
+    private StackTraceParser() {
+    }
+
+    /**
+     * Stack frames found in {@code text}; empty if it holds none.
+     */
+    public static List<StackFrame> parse(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        Set<StackFrame> frames = new LinkedHashSet<>();
+        for (String line : text.split("\\R")) {
+            if (line.length() > 2000) {
+                continue;
+            }
+            Matcher java = JAVA_FRAME.matcher(line);
+            if (java.find()) {
+                String qualifiedClass = java.group(1);
+                String packageName = qualifiedClass.contains(".")
+                        ? qualifiedClass.substring(0, qualifiedClass.lastIndexOf('.'))
+                        : "";
+                String className = qualifiedClass.substring(qualifiedClass.lastIndexOf('.') + 1);
+                int inner = className.indexOf('$');
+                if (inner > 0) {
+                    className = className.substring(0, inner);
+                }
+                String directory = packageName.replace('.', '/');
+                String file = directory.isEmpty() ? java.group(3) : directory + "/" + java.group(3);
+                frames.add(new StackFrame(Language.JAVA, file, Integer.parseInt(java.group(4)),
+                        className, java.group(2)));
+                continue;
+            }
+            Matcher python = PYTHON_FRAME.matcher(line);
+            if (python.find()) {
+                String file = normalize(python.group(1));
+                if (!isDependency(file)) {
+                    frames.add(new StackFrame(Language.PYTHON, file, Integer.parseInt(python.group(2)),
+                            null, python.group(3)));
+                }
+                continue;
+            }
+            Matcher js = JS_FRAME.matcher(line);
+            if (js.find()) {
+                String file = normalize(js.group(2));
+                if (!isDependency(file)) {
+                    frames.add(new StackFrame(Language.JAVASCRIPT, file, Integer.parseInt(js.group(3)),
+                            null, js.group(1)));
+                }
+            }
+        }
+        return new ArrayList<>(frames);
+    }
+
+    private static String normalize(String path) {
+        String normalized = path.replace('\\', '/');
+        for (String scheme : List.of("file://", "webpack:///", "webpack://")) {
+            if (normalized.startsWith(scheme)) {
+                normalized = normalized.substring(scheme.length());
+            }
+        }
+        while (normalized.startsWith("./")) {
+            normalized = normalized.substring(2);
+        }
+        return normalized;
+    }
+
+    private static boolean isDependency(String path) {
+        if (path.startsWith("internal/")) {
+            return true; // Node core modules in older traces
+        }
+        for (String marker : DEPENDENCY_MARKERS) {
+            if (path.contains(marker)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public enum Language {
+        JAVA, PYTHON, JAVASCRIPT
+    }
+
+    /**
+     * One frame of a stack trace.
+     *
+     * @param language  Trace format the frame was printed in
+     * @param file      Source file as printed; for JVM frames the package directory joined with the
+     *                  file name ({@code com/example/Foo.java}), otherwise the path as printed
+     *                  (often absolute, from the machine that ran it)
+     * @param line      1-based line number
+     * @param className Declaring top-level class (JVM frames only)
+     * @param function  Method or function name, if printed
+     */
+    public record StackFrame(Language language, String file, int line, String className, String function) {
+
+        /**
+         * File name without directories.
+         */
+        public String basename() {
+            return file.substring(file.lastIndexOf('/') + 1);
+        }
+    }
+}
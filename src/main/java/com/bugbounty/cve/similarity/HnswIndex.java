@@ -0,0 +1,493 @@
+package com.bugbounty.cve.similarity;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process approximate nearest-neighbour index over unit vectors, using a Hierarchical
+ * Navigable Small World graph (Malkov and Yashunin).
+ *
+ * Each vector is a node on layers 0..L, with L drawn from an exponential distribution, and is
+ * linked to up to M neighbours per layer (2M on layer 0). A search descends greedily through the
+ * sparse upper layers and then runs a beam search of width efSearch on layer 0, which makes
+ * lookups sub-millisecond for catalogs of this size.
+ *
+ * Vectors must be L2-normalised; distance is 1 - cosine similarity. Removing a key, or re-adding
+ * it with a different vector, tombstones the old node: it still routes searches but is never
+ * returned. {@link #compact()} rebuilds the graph from the live nodes to drop tombstones.
+ *
+ * Thread-safe: searches share a read lock, additions, removals and compaction take the write lock.
+ */
+public class HnswIndex {
+
+    private static final int MAGIC = 0x484E5357; // "HNSW"
+    private static final int FORMAT_VERSION = 1;
+    private static final long LEVEL_SEED = 42L;
+
+    private final String embedderId;
+    private final int dimensions;
+    private final int m;
+    private final int maxLinksLevel0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final Random random = new Random(LEVEL_SEED);
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<String, Integer> nodeByKey = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+    private int liveCount;
+
+    /**
+     * @param embedderId     Embedding space of the vectors (see {@code TextEmbedder#id()})
+     * @param dimensions     Vector length
+     * @param m              Links per node on the upper layers (2M on layer 0)
+     * @param efConstruction Beam width used while inserting
+     */
+    public HnswIndex(String embedderId, int dimensions, int m, int efConstruction) {
+        if (dimensions <= 0 || m < 2 || efConstruction < 1) {
+            throw new IllegalArgumentException("Invalid HNSW parameters: dimensions=" + dimensions
+                    + ", m=" + m + ", efConstruction=" + efConstruction);
+        }
+        this.embedderId = embedderId;
+        this.dimensions = dimensions;
+        this.m = m;
+        this.maxLinksLevel0 = 2 * m;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1.0 / Math.log(m);
+    }
+
+    /**
+     * Add or replace the vector stored under {@code key}.
+     */
+    public void add(String key, float[] vector) {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " dimensions, got " + vector.length);
+        }
+        lock.writeLock().lock();
+        try {
+            Integer existing = nodeByKey.get(key);
+            if (existing != null) {
+                Node previous = nodes.get(existing);
+                if (Arrays.equals(previous.vector, vector)) {
+                    return;
+                }
+                previous.deleted = true;
+                liveCount--;
+            }
+            insert(key, vector.clone());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Tombstone the vector stored under {@code key}, if any.
+     *
+     * @return true if the key was present
+     */
+    public boolean remove(String key) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = nodeByKey.remove(key);
+            if (existing == null) {
+                return false;
+            }
+            nodes.get(existing).deleted = true;
+            liveCount--;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuild the graph from the live nodes, dropping tombstones. Costs one insertion per live
+     * node (no re-embedding); searches wait for it to finish.
+     */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            List<Node> live = nodes.stream().filter(node -> !node.deleted).toList();
+            nodes.clear();
+            nodeByKey.clear();
+            entryPoint = -1;
+            maxLevel = -1;
+            liveCount = 0;
+            for (Node node : live) {
+                insert(node.key, node.vector);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Insert a new node; the caller holds the write lock and has tombstoned any previous node of the key.
+     */
+    private void insert(String key, float[] vector) {
+        int id = nodes.size();
+        Node node = new Node(key, vector, randomLevel(), m, maxLinksLevel0);
+        nodes.add(node);
+        nodeByKey.put(key, id);
+        liveCount++;
+
+        if (entryPoint < 0) {
+            entryPoint = id;
+            maxLevel = node.level();
+            return;
+        }
+
+        int current = entryPoint;
+        for (int level = maxLevel; level > node.level(); level--) {
+            current = greedyClosest(node.vector, current, level);
+        }
+        for (int level = Math.min(node.level(), maxLevel); level >= 0; level--) {
+            List<Candidate> candidates = searchLayer(node.vector, current, efConstruction, level);
+            List<Candidate> live = candidates.stream().filter(c -> !nodes.get(c.node()).deleted).toList();
+            for (Candidate neighbour : selectNeighbours(live, maxLinks(level))) {
+                node.addLink(level, neighbour.node());
+                connect(neighbour.node(), id, level);
+            }
+            current = candidates.get(0).node();
+        }
+
+        if (node.level() > maxLevel) {
+            maxLevel = node.level();
+            entryPoint = id;
+        }
+    }
+
+    /**
+     * Approximate k nearest neighbours of {@code query}, most similar first.
+     *
+     * @param efSearch Beam width on layer 0 (higher = better recall, slower); at least k is used
+     */
+    public List<Neighbour> search(float[] query, int k, int efSearch) {
+        if (query.length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " dimensions, got " + query.length);
+        }
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0 || k <= 0) {
+                return List.of();
+            }
+            int current = entryPoint;
+            for (int level = maxLevel; level > 0; level--) {
+                current = greedyClosest(query, current, level);
+            }
+            List<Neighbour> result = new ArrayList<>(k);
+            for (Candidate candidate : searchLayer(query, current, Math.max(efSearch, k), 0)) {
+                Node node = nodes.get(candidate.node());
+                if (!node.deleted) {
+                    result.add(new Neighbour(node.key, 1.0 - candidate.distance()));
+                    if (result.size() == k) {
+                        break;
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(String key) {
+        lock.readLock().lock();
+        try {
+            return nodeByKey.containsKey(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keys of the live vectors.
+     */
+    public Set<String> keys() {
+        lock.readLock().lock();
+        try {
+            return Set.copyOf(nodeByKey.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of tombstoned (removed or replaced) nodes still in the graph.
+     */
+    public int deletedCount() {
+        lock.readLock().lock();
+        try {
+            return nodes.size() - liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of live (non-replaced) vectors.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    public String embedderId() {
+        return embedderId;
+    }
+
+    /**
+     * Write the index, graph included, so it can be reloaded without re-embedding.
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        lock.readLock().lock();
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(embedderId);
+            out.writeInt(dimensions);
+            out.writeInt(m);
+            out.writeInt(efConstruction);
+            out.writeInt(nodes.size());
+            out.writeInt(entryPoint);
+            out.writeInt(maxLevel);
+            for (Node node : nodes) {
+                out.writeUTF(node.key);
+                out.writeBoolean(node.deleted);
+                out.writeInt(node.level());
+                for (float value : node.vector) {
+                    out.writeFloat(value);
+                }
+                for (int level = 0; level <= node.level(); level++) {
+                    out.writeInt(node.linkCounts[level]);
+                    for (int i = 0; i < node.linkCounts[level]; i++) {
+                        out.writeInt(node.links[level][i]);
+                    }
+                }
+            }
+            out.flush();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Read an index written by {@link #writeTo(OutputStream)}.
+     */
+    public static HnswIndex readFrom(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not an HNSW index file");
+        }
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported HNSW index format version " + version);
+        }
+        HnswIndex index = new HnswIndex(in.readUTF(), in.readInt(), in.readInt(), in.readInt());
+        int nodeCount = in.readInt();
+        index.entryPoint = in.readInt();
+        index.maxLevel = in.readInt();
+        for (int id = 0; id < nodeCount; id++) {
+            String key = in.readUTF();
+            boolean deleted = in.readBoolean();
+            int level = in.readInt();
+            float[] vector = new float[index.dimensions];
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] = in.readFloat();
+            }
+            Node node = new Node(key, vector, level, index.m, index.maxLinksLevel0);
+            for (int l = 0; l <= level; l++) {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    node.addLink(l, in.readInt());
+                }
+            }
+            node.deleted = deleted;
+            index.nodes.add(node);
+            if (!deleted) {
+                index.nodeByKey.put(key, id);
+                index.liveCount++;
+            }
+        }
+        return index;
+    }
+
+    private int randomLevel() {
+        return (int) Math.floor(-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+    }
+
+    private int maxLinks(int level) {
+        return level == 0 ? maxLinksLevel0 : m;
+    }
+
+    private int greedyClosest(float[] query, int start, int level) {
+        int current = start;
+        double currentDistance = distance(query, nodes.get(current).vector);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            Node node = nodes.get(current);
+            for (int i = 0; i < node.linkCounts[level]; i++) {
+                int neighbour = node.links[level][i];
+                double d = distance(query, nodes.get(neighbour).vector);
+                if (d < currentDistance) {
+                    current = neighbour;
+                    currentDistance = d;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Beam search on one layer. Returns up to {@code ef} candidates, closest first.
+     */
+    private List<Candidate> searchLayer(float[] query, int entry, int ef, int level) {
+        BitSet visited = new BitSet(nodes.size());
+        PriorityQueue<Candidate> toVisit = new PriorityQueue<>(Comparator.comparingDouble(Candidate::distance));
+        PriorityQueue<Candidate> best = new PriorityQueue<>(Comparator.comparingDouble(Candidate::distance).reversed());
+
+        Candidate start = new Candidate(entry, distance(query, nodes.get(entry).vector));
+        visited.set(entry);
+        toVisit.add(start);
+        best.add(start);
+
+        while (!toVisit.isEmpty()) {
+            Candidate candidate = toVisit.poll();
+            if (best.size() >= ef && candidate.distance() > best.peek().distance()) {
+                break;
+            }
+            Node node = nodes.get(candidate.node());
+            for (int i = 0; i < node.linkCounts[level]; i++) {
+                int neighbour = node.links[level][i];
+                if (visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+                double d = distance(query, nodes.get(neighbour).vector);
+                if (best.size() < ef || d < best.peek().distance()) {
+                    Candidate next = new Candidate(neighbour, d);
+                    toVisit.add(next);
+                    best.add(next);
+                    if (best.size() > ef) {
+                        best.poll();
+                    }
+                }
+            }
+        }
+
+        List<Candidate> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Candidate::distance));
+        return result;
+    }
+
+    /**
+     * Neighbour selection heuristic: prefer candidates closer to the base node than to any
+     * neighbour already chosen, which keeps links spread out; fill up with the rest.
+     *
+     * @param candidates Candidates sorted closest first
+     */
+    private List<Candidate> selectNeighbours(List<Candidate> candidates, int max) {
+        List<Candidate> selected = new ArrayList<>(max);
+        List<Candidate> pruned = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (selected.size() >= max) {
+                break;
+            }
+            float[] vector = nodes.get(candidate.node()).vector;
+            boolean diverse = true;
+            for (Candidate chosen : selected) {
+                if (distance(vector, nodes.get(chosen.node()).vector) < candidate.distance()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            (diverse ? selected : pruned).add(candidate);
+        }
+        for (int i = 0; i < pruned.size() && selected.size() < max; i++) {
+            selected.add(pruned.get(i));
+        }
+        return selected;
+    }
+
+    /**
+     * Link {@code target} back to {@code source}, re-selecting its links if it is full.
+     */
+    private void connect(int target, int source, int level) {
+        Node node = nodes.get(target);
+        int max = maxLinks(level);
+        if (node.linkCounts[level] < max) {
+            node.addLink(level, source);
+            return;
+        }
+        List<Candidate> candidates = new ArrayList<>(node.linkCounts[level] + 1);
+        candidates.add(new Candidate(source, distance(node.vector, nodes.get(source).vector)));
+        for (int i = 0; i < node.linkCounts[level]; i++) {
+            int neighbour = node.links[level][i];
+            candidates.add(new Candidate(neighbour, distance(node.vector, nodes.get(neighbour).vector)));
+        }
+        candidates.sort(Comparator.comparingDouble(Candidate::distance));
+        node.linkCounts[level] = 0;
+        for (Candidate candidate : selectNeighbours(candidates, max)) {
+            node.addLink(level, candidate.node());
+        }
+    }
+
+    private static double distance(float[] a, float[] b) {
+        double dot = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+        }
+        return 1.0 - dot;
+    }
+
+    private static final class Node {
+        private final String key;
+        private final float[] vector;
+        private final int[][] links;
+        private final int[] linkCounts;
+        private boolean deleted;
+
+        private Node(String key, float[] vector, int level, int m, int maxLinksLevel0) {
+            this.key = key;
+            this.vector = vector;
+            this.links = new int[level + 1][];
+            this.linkCounts = new int[level + 1];
+            for (int l = 0; l <= level; l++) {
+                links[l] = new int[l == 0 ? maxLinksLevel0 : m];
+            }
+        }
+
+        int level() {
+            return links.length - 1;
+        }
+
+        void addLink(int level, int neighbour) {
+            links[level][linkCounts[level]++] = neighbour;
+        }
+    }
+
+    private record Candidate(int node, double distance) {}
+
+    /**
+     * A search hit.
+     *
+     * @param key        Key the vector was added under
+     * @param similarity Cosine similarity to the query (1.0 = identical direction)
+     */
+    public record Neighbour(String key, double similarity) {}
+}
@@ -0,0 +1,227 @@
+package com.bugbounty.llm.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Two-tier cache for LLM completions, keyed by a content hash of (model, options, rendered prompt).
+ *
+ * The in-process tier is an access-ordered LRU map bounded by entry count and TTL. The Redis tier
+ * survives restarts and is shared between instances. Redis failures never fail the LLM call -
+ * they are logged and treated as a miss.
+ *
+ * Metrics (exposed via Actuator):
+ * - llm.cache.requests{tier, result}: hits and misses per tier
+ * - llm.cache.bytes{direction}: bytes served from and stored into the cache
+ * - llm.cache.local.entries / llm.cache.local.bytes: current in-process tier size
+ */
+@Component
+@Slf4j
+public class LlmResponseCache {
+
+    private static final String REDIS_KEY_PREFIX = "llm:cache:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Map<String, CacheEntry> localEntries = new LinkedHashMap<>(256, 0.75f, true);
+    private long localBytes;
+
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter redisHits;
+    private final Counter redisMisses;
+    private final Counter bytesServed;
+    private final Counter bytesStored;
+
+    @Value("${app.llm.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.llm.cache.local.max-entries:500}")
+    private int localMaxEntries;
+
+    @Value("${app.llm.cache.local.ttl-minutes:60}")
+    private long localTtlMinutes;
+
+    @Value("${app.llm.cache.redis.enabled:true}")
+    private boolean redisEnabled;
+
+    @Value("${app.llm.cache.redis.ttl-hours:24}")
+    private long redisTtlHours;
+
+    public LlmResponseCache(RedisTemplate<String, String> redisTemplate, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.localHits = requestCounter(meterRegistry, "local", "hit");
+        this.localMisses = requestCounter(meterRegistry, "local", "miss");
+        this.redisHits = requestCounter(meterRegistry, "redis", "hit");
+        this.redisMisses = requestCounter(meterRegistry, "redis", "miss");
+        this.bytesServed = Counter.builder("llm.cache.bytes")
+                .description("Bytes of LLM completions served from or stored into the cache")
+                .tag("direction", "served")
+                .register(meterRegistry);
+        this.bytesStored = Counter.builder("llm.cache.bytes")
+                .description("Bytes of LLM completions served from or stored into the cache")
+                .tag("direction", "stored")
+                .register(meterRegistry);
+        Gauge.builder("llm.cache.local.entries", this, LlmResponseCache::localEntryCount)
+                .description("Entries held in the in-process LLM cache tier")
+                .register(meterRegistry);
+        Gauge.builder("llm.cache.local.bytes", this, LlmResponseCache::localByteCount)
+                .description("Approximate bytes held in the in-process LLM cache tier")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Build the content-addressed cache key for a completion request.
+     */
+    public static String key(String model, String options, String renderedPrompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, model);
+            update(digest, options);
+            update(digest, renderedPrompt);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Look up a cached completion, checking the in-process tier before Redis.
+     * A Redis hit is promoted into the in-process tier.
+     */
+    public Optional<String> get(String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        CacheEntry local = getLocal(key);
+        if (local != null) {
+            localHits.increment();
+            bytesServed.increment(local.bytes());
+            return Optional.of(local.content());
+        }
+        localMisses.increment();
+
+        if (!redisEnabled) {
+            return Optional.empty();
+        }
+
+        try {
+            String remote = redisTemplate.opsForValue().get(REDIS_KEY_PREFIX + key);
+            if (remote != null) {
+                redisHits.increment();
+                bytesServed.increment(byteSize(remote));
+                putLocal(key, remote);
+                return Optional.of(remote);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to read LLM cache entry {} from Redis: {}", key, e.getMessage());
+        }
+        redisMisses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Store a completion in both tiers.
+     */
+    public void put(String key, String content) {
+        if (!enabled || content == null) {
+            return;
+        }
+
+        putLocal(key, content);
+        bytesStored.increment(byteSize(content));
+
+        if (!redisEnabled) {
+            return;
+        }
+
+        try {
+            redisTemplate.opsForValue().set(REDIS_KEY_PREFIX + key, content, Duration.ofHours(redisTtlHours));
+        } catch (Exception e) {
+            log.warn("Failed to write LLM cache entry {} to Redis: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Drop every entry from the in-process tier. Redis entries expire by TTL.
+     */
+    public synchronized void clearLocal() {
+        localEntries.clear();
+        localBytes = 0;
+    }
+
+    private synchronized CacheEntry getLocal(String key) {
+        CacheEntry entry = localEntries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis() < System.currentTimeMillis()) {
+            localEntries.remove(key);
+            localBytes -= entry.bytes();
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized void putLocal(String key, String content) {
+        long expiresAt = System.currentTimeMillis() + Duration.ofMinutes(localTtlMinutes).toMillis();
+        CacheEntry entry = new CacheEntry(content, byteSize(content), expiresAt);
+        CacheEntry previous = localEntries.put(key, entry);
+        if (previous != null) {
+            localBytes -= previous.bytes();
+        }
+        localBytes += entry.bytes();
+
+        // Evict least recently used entries beyond the configured size
+        Iterator<CacheEntry> eldest = localEntries.values().iterator();
+        while (localEntries.size() > Math.max(localMaxEntries, 0) && eldest.hasNext()) {
+            localBytes -= eldest.next().bytes();
+            eldest.remove();
+        }
+    }
+
+    private synchronized double localEntryCount() {
+        return localEntries.size();
+    }
+
+    private synchronized double localByteCount() {
+        return localBytes;
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("llm.cache.requests")
+                .description("LLM response cache lookups")
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        // Length-prefix each component so ("ab", "c") and ("a", "bc") hash differently
+        digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) ':');
+        digest.update(bytes);
+    }
+
+    private static long byteSize(String content) {
+        return content.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private record CacheEntry(String content, long bytes, long expiresAtMillis) {}
+}
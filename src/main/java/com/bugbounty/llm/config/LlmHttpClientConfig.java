@@ -0,0 +1,33 @@
+package com.bugbounty.llm.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * HTTP client for blocking LLM calls.
+ *
+ * The Ollama chat client is built from Boot's {@code RestClient.Builder}, which by default uses
+ * {@code HttpURLConnection}: a thread blocked reading a hung response ignores interrupts. The JDK
+ * {@link HttpClient} aborts the exchange when the calling thread is interrupted, so the per-call
+ * timeouts in {@link com.bugbounty.llm.service.LlmGateway} actually release the connection.
+ */
+@Configuration
+public class LlmHttpClientConfig {
+
+    @Value("${app.llm.http.connect-timeout-seconds:10}")
+    private long connectTimeoutSeconds = 10;
+
+    @Bean
+    public RestClientCustomizer interruptibleRestClientCustomizer() {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(connectTimeoutSeconds))
+                .build();
+        return builder -> builder.requestFactory(new JdkClientHttpRequestFactory(httpClient));
+    }
+}
@@ -0,0 +1,159 @@
+package com.bugbounty.llm.deadline;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Point in time by which a unit of work (a webhook delivery, a poll) must be finished.
+ *
+ * A deadline is attached where work is triggered and flows to every LLM call the work makes:
+ * through reactive pipelines in the Reactor {@link Context} (see {@link #writeTo} and
+ * {@link #fromCallable}), and within blocking code as the thread's {@link #current()} deadline.
+ * {@link com.bugbounty.llm.service.LlmGateway} caps each call and its retries by the remaining
+ * budget and fails fast once it is spent, so downstream steps stop instead of queueing more work.
+ */
+public final class Deadline {
+
+    private static final Deadline NONE = new Deadline(Long.MAX_VALUE, true);
+    private static final String CONTEXT_KEY = Deadline.class.getName();
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long expiresAtNanos;
+    private final boolean unbounded;
+
+    private Deadline(long expiresAtNanos, boolean unbounded) {
+        this.expiresAtNanos = expiresAtNanos;
+        this.unbounded = unbounded;
+    }
+
+    /**
+     * No deadline: calls are bounded only by their own per-call timeouts.
+     */
+    public static Deadline none() {
+        return NONE;
+    }
+
+    public static Deadline after(Duration budget) {
+        return new Deadline(System.nanoTime() + budget.toNanos(), false);
+    }
+
+    /**
+     * Deadline of the work running on this thread, or {@link #none()}.
+     */
+    public static Deadline current() {
+        Deadline current = CURRENT.get();
+        return current != null ? current : NONE;
+    }
+
+    /**
+     * Deadline carried by a Reactor context, combined with the thread's current one.
+     */
+    public static Deadline from(ContextView context) {
+        return current().earliest(context.getOrDefault(CONTEXT_KEY, NONE));
+    }
+
+    /**
+     * Like {@link Mono#fromCallable}, with the subscriber context's deadline installed as the
+     * thread's current deadline while the callable runs.
+     */
+    public static <T> Mono<T> fromCallable(Callable<T> callable) {
+        return Mono.deferContextual(context -> {
+            Deadline deadline = from(context);
+            return Mono.fromCallable(() -> deadline.call(callable));
+        });
+    }
+
+    /**
+     * For {@code contextWrite(deadline::writeTo)}: attach this deadline to a reactive pipeline.
+     */
+    public Context writeTo(Context context) {
+        return context.put(CONTEXT_KEY, earliest(context.getOrDefault(CONTEXT_KEY, NONE)));
+    }
+
+    /**
+     * Run {@code callable} with this deadline (or an earlier enclosing one) as the thread's current deadline.
+     */
+    public <T> T call(Callable<T> callable) throws Exception {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(earliest(previous != null ? previous : NONE));
+        try {
+            return callable.call();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Run {@code runnable} with this deadline as the thread's current deadline.
+     */
+    public void run(Runnable runnable) {
+        try {
+            call(() -> {
+                runnable.run();
+                return null;
+            });
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public boolean isUnbounded() {
+        return unbounded;
+    }
+
+    public boolean isExpired() {
+        return !unbounded && System.nanoTime() - expiresAtNanos >= 0;
+    }
+
+    /**
+     * Time left, zero once expired; {@code null} when unbounded.
+     */
+    public Duration remaining() {
+        if (unbounded) {
+            return null;
+        }
+        return Duration.ofNanos(Math.max(0L, expiresAtNanos - System.nanoTime()));
+    }
+
+    /**
+     * The shorter of {@code timeout} and the time left.
+     */
+    public Duration cap(Duration timeout) {
+        Duration remaining = remaining();
+        return remaining != null && remaining.compareTo(timeout) < 0 ? remaining : timeout;
+    }
+
+    /**
+     * @throws DeadlineExceededException if the deadline has passed
+     */
+    public void check(String step) {
+        if (isExpired()) {
+            throw new DeadlineExceededException("Deadline exceeded before " + step);
+        }
+    }
+
+    private Deadline earliest(Deadline other) {
+        if (other.unbounded) {
+            return this;
+        }
+        if (unbounded) {
+            return other;
+        }
+        return expiresAtNanos - other.expiresAtNanos <= 0 ? this : other;
+    }
+
+    @Override
+    public String toString() {
+        return unbounded ? "Deadline[none]" : "Deadline[" + remaining().toMillis() + "ms left]";
+    }
+}
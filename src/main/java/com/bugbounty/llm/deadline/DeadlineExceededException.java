@@ -0,0 +1,16 @@
+package com.bugbounty.llm.deadline;
+
+/**
+ * The time budget of the triggering webhook, poll or call site ran out.
+ * Not retried: there is no budget left to retry with.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,71 @@
+package com.bugbounty.llm.embedding;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Deterministic embedder using the hashing trick over word tokens and token bigrams.
+ *
+ * Needs no model or network, so it is used in tests and as an offline fallback. Similar texts
+ * share tokens and therefore land close together, but there is no semantic generalisation.
+ */
+@Component
+@ConditionalOnProperty(name = "app.similarity.embedder", havingValue = "hashing")
+public class HashingTextEmbedder implements TextEmbedder {
+
+    private static final Pattern TOKEN_PATTERN = Pattern.compile("[A-Za-z0-9_]+");
+
+    private final int dimensions;
+
+    public HashingTextEmbedder(@Value("${app.similarity.hashing.dimensions:256}") int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        float[] vector = new float[dimensions];
+        if (text == null) {
+            return vector;
+        }
+        Matcher matcher = TOKEN_PATTERN.matcher(text.toLowerCase(Locale.ROOT));
+        String previous = null;
+        while (matcher.find()) {
+            String token = matcher.group();
+            add(vector, token, 1.0f);
+            if (previous != null) {
+                add(vector, previous + " " + token, 0.5f);
+            }
+            previous = token;
+        }
+        return TextEmbedder.normalize(vector);
+    }
+
+    @Override
+    public String id() {
+        return "hashing-" + dimensions;
+    }
+
+    private void add(float[] vector, String feature, float weight) {
+        int hash = fnv1a(feature);
+        // One hash picks the bucket, its top bit the sign, so collisions tend to cancel out
+        vector[Math.floorMod(hash, dimensions)] += (hash >>> 31) == 0 ? weight : -weight;
+    }
+
+    /**
+     * FNV-1a over UTF-8 bytes: stable across JVMs and better mixed than String.hashCode for bucketing.
+     */
+    private static int fnv1a(String value) {
+        int hash = 0x811c9dc5;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x01000193;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,41 @@
+package com.bugbounty.llm.embedding;
+
+import org.springframework.ai.embedding.EmbeddingClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Embedder backed by the Ollama embedding model (Spring AI {@link EmbeddingClient}).
+ */
+@Component
+@ConditionalOnProperty(name = "app.similarity.embedder", havingValue = "ollama", matchIfMissing = true)
+public class OllamaTextEmbedder implements TextEmbedder {
+
+    private final EmbeddingClient embeddingClient;
+    private final String model;
+
+    public OllamaTextEmbedder(
+            EmbeddingClient embeddingClient,
+            @Value("${spring.ai.ollama.embedding.model:nomic-embed-text}") String model) {
+        this.embeddingClient = embeddingClient;
+        this.model = model;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        List<Double> embedding = embeddingClient.embed(text != null ? text : "");
+        float[] vector = new float[embedding.size()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = embedding.get(i).floatValue();
+        }
+        return TextEmbedder.normalize(vector);
+    }
+
+    @Override
+    public String id() {
+        return "ollama-" + model;
+    }
+}
@@ -0,0 +1,37 @@
+package com.bugbounty.llm.embedding;
+
+/**
+ * Turns text into a fixed-length, L2-normalised vector for similarity search.
+ *
+ * Implementations are selected with {@code app.similarity.embedder} ("ollama" or "hashing").
+ */
+public interface TextEmbedder {
+
+    /**
+     * Embed the text. The result has unit length, so cosine similarity is a dot product.
+     */
+    float[] embed(String text);
+
+    /**
+     * Identifies the embedding space (provider and model). Vectors from different ids are not comparable,
+     * so persisted indexes built with another id are discarded.
+     */
+    String id();
+
+    /**
+     * Scale a vector to unit length in place (zero vectors are left unchanged).
+     */
+    static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm > 0) {
+            float scale = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,169 @@
+package com.bugbounty.llm.prompt;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prompt template parsed once into literal segments and placeholder slots.
+ *
+ * Placeholders are {@code {name}} with a Java-style identifier as the name. Doubled braces render
+ * as single literal braces and any other brace is kept as-is, so the JSON examples in the prompts
+ * keep their existing escaping. Rendering sizes one buffer to the exact output length and fills it
+ * in a single pass; substituted values are copied verbatim and never scanned, so a diff or
+ * codebase index containing "{codebaseIndex}" stays literal.
+ *
+ * Compiled templates are immutable and thread-safe; a {@link Renderer} is single-use.
+ */
+public final class CompiledPromptTemplate {
+
+    // literals.length == slots.length + 1: literal, slot, literal, ..., slot, literal
+    private final String[] literals;
+    private final int[] slots;
+    private final String[] names;
+    private final int literalLength;
+
+    private CompiledPromptTemplate(String[] literals, int[] slots, String[] names) {
+        this.literals = literals;
+        this.slots = slots;
+        this.names = names;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Parse a template.
+     *
+     * @param template Template text with {@code {name}} placeholders
+     * @return Compiled template, to be kept in a static field and reused
+     */
+    public static CompiledPromptTemplate compile(String template) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        Map<String, Integer> names = new LinkedHashMap<>();
+        StringBuilder literal = new StringBuilder();
+
+        int i = 0;
+        int length = template.length();
+        while (i < length) {
+            char c = template.charAt(i);
+            if ((c == '{' || c == '}') && i + 1 < length && template.charAt(i + 1) == c) {
+                literal.append(c);
+                i += 2;
+                continue;
+            }
+            if (c == '{') {
+                int end = placeholderEnd(template, i + 1);
+                if (end > 0) {
+                    String name = template.substring(i + 1, end);
+                    literals.add(literal.toString());
+                    literal.setLength(0);
+                    slots.add(names.computeIfAbsent(name, n -> names.size()));
+                    i = end + 1;
+                    continue;
+                }
+            }
+            literal.append(c);
+            i++;
+        }
+        literals.add(literal.toString());
+
+        return new CompiledPromptTemplate(
+                literals.toArray(String[]::new),
+                slots.stream().mapToInt(Integer::intValue).toArray(),
+                names.keySet().toArray(String[]::new));
+    }
+
+    /**
+     * Position of the closing brace of a placeholder name starting at {@code start}, or -1.
+     */
+    private static int placeholderEnd(String template, int start) {
+        if (start >= template.length() || !Character.isJavaIdentifierStart(template.charAt(start))) {
+            return -1;
+        }
+        for (int i = start + 1; i < template.length(); i++) {
+            char c = template.charAt(i);
+            if (c == '}') {
+                return i;
+            }
+            if (!Character.isJavaIdentifierPart(c)) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Placeholder names in order of first appearance.
+     */
+    public List<String> placeholders() {
+        return List.of(names);
+    }
+
+    /**
+     * Start a rendering with one placeholder bound.
+     */
+    public Renderer with(String name, CharSequence value) {
+        return new Renderer().with(name, value);
+    }
+
+    /**
+     * Binds placeholder values and renders the template once.
+     */
+    public final class Renderer {
+
+        private final CharSequence[] values = new CharSequence[names.length];
+        private final boolean[] bound = new boolean[names.length];
+
+        private Renderer() {
+        }
+
+        /**
+         * Bind a placeholder; {@code null} renders as an empty string.
+         *
+         * @throws IllegalArgumentException if the template has no such placeholder
+         */
+        public Renderer with(String name, CharSequence value) {
+            int index = indexOf(name);
+            values[index] = value != null ? value : "";
+            bound[index] = true;
+            return this;
+        }
+
+        /**
+         * @throws IllegalStateException if a placeholder has not been bound
+         */
+        public String render() {
+            int length = literalLength;
+            for (int i = 0; i < values.length; i++) {
+                if (!bound[i]) {
+                    throw new IllegalStateException("No value for prompt placeholder {" + names[i] + "}");
+                }
+            }
+            for (int slot : slots) {
+                length += values[slot].length();
+            }
+
+            StringBuilder out = new StringBuilder(length);
+            out.append(literals[0]);
+            for (int i = 0; i < slots.length; i++) {
+                out.append(values[slots[i]]);
+                out.append(literals[i + 1]);
+            }
+            return out.toString();
+        }
+
+        private int indexOf(String name) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(name)) {
+                    return i;
+                }
+            }
+            throw new IllegalArgumentException("Prompt template has no placeholder {" + name + "}");
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.bugbounty.llm.replay;
+
+import com.bugbounty.llm.cache.LlmResponseCache;
+import com.bugbounty.llm.service.LlmGateway;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.util.context.ContextView;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * On-disk store of recorded LLM exchanges for {@link RecordingChatClient} and {@link ReplayChatClient}.
+ *
+ * The file is gzip-compressed JSON Lines, one {@code {"key", "latencyMs", "response"}} object per
+ * exchange (prompts themselves are not stored). The key is the SHA-256 of the model, the prompt's
+ * options, the mode and the rendered prompt, like the {@code LlmGateway} response cache key, so
+ * the same prompt sent to the cascade's screening and primary models, or streamed until different
+ * fields, is recorded separately. Each recording session appends a new gzip member, and a truncated
+ * tail from a killed run is ignored. Later lines win when a prompt was recorded more than once.
+ */
+@Slf4j
+public class ChatRecordingStore implements Closeable {
+
+    private static final String CALL_MODE = "call";
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private final String defaultModel;
+    private final Map<String, Recording> recordings = new ConcurrentHashMap<>();
+    private Writer writer;
+
+    /**
+     * @param defaultModel Model answering prompts that carry no options of their own
+     */
+    public ChatRecordingStore(Path file, ObjectMapper objectMapper, String defaultModel) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+        this.defaultModel = defaultModel;
+        load();
+    }
+
+    /**
+     * Replay key of a blocking call.
+     */
+    public String callKey(Prompt prompt) {
+        return key(prompt, CALL_MODE);
+    }
+
+    /**
+     * Replay key of a stream; {@code context} is the subscriber's, which carries the fields the
+     * gateway stops the stream at ({@link LlmGateway#REQUIRED_FIELDS_CONTEXT_KEY}).
+     */
+    public String streamKey(Prompt prompt, ContextView context) {
+        Collection<?> fields = context.getOrDefault(LlmGateway.REQUIRED_FIELDS_CONTEXT_KEY, List.of());
+        StringBuilder mode = new StringBuilder("stream|fields=");
+        fields.forEach(field -> mode.append(field).append(','));
+        return key(prompt, mode.toString());
+    }
+
+    private String key(Prompt prompt, String mode) {
+        StringBuilder rendered = new StringBuilder();
+        for (Message message : prompt.getInstructions()) {
+            rendered.append(message.getMessageType()).append(':').append(message.getContent()).append('\n');
+        }
+        return LlmResponseCache.key(defaultModel, describeOptions(prompt) + "|" + mode, rendered.toString());
+    }
+
+    private String describeOptions(Prompt prompt) {
+        if (prompt.getOptions() == null) {
+            return "default";
+        }
+        try {
+            return objectMapper.writeValueAsString(prompt.getOptions());
+        } catch (Exception e) {
+            return prompt.getOptions().toString();
+        }
+    }
+
+    public Optional<Recording> find(String key) {
+        return Optional.ofNullable(recordings.get(key));
+    }
+
+    public int size() {
+        return recordings.size();
+    }
+
+    /**
+     * Record an exchange and flush it to disk, so a killed run keeps everything recorded so far.
+     */
+    public synchronized void append(String key, String response, long latencyMillis) {
+        Recording recording = new Recording(key, latencyMillis, response);
+        recordings.put(key, recording);
+        try {
+            if (writer == null) {
+                Path parent = file.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                OutputStream out = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                writer = new OutputStreamWriter(new GZIPOutputStream(out, true), StandardCharsets.UTF_8);
+            }
+            ObjectNode line = objectMapper.createObjectNode()
+                    .put("key", key)
+                    .put("latencyMs", latencyMillis)
+                    .put("response", response);
+            writer.write(objectMapper.writeValueAsString(line));
+            writer.write('\n');
+            writer.flush();
+        } catch (IOException e) {
+            log.warn("Failed to write LLM recording to {}: {}", file, e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node = objectMapper.readTree(line);
+                String key = node.path("key").asText();
+                recordings.put(key, new Recording(key, node.path("latencyMs").asLong(), node.path("response").asText()));
+            }
+        } catch (IOException e) {
+            // An interrupted recording leaves an unterminated gzip member; keep what was read
+            log.warn("Stopped reading LLM recordings from {} after {} entries: {}", file, recordings.size(), e.getMessage());
+        }
+        log.info("Loaded {} recorded LLM exchanges from {}", recordings.size(), file);
+    }
+
+    /**
+     * @param key           Replay key of the request ({@link #callKey}, {@link #streamKey})
+     * @param latencyMillis Wall-clock time of the original call
+     * @param response      Completion text
+     */
+    public record Recording(String key, long latencyMillis, String response) {}
+}
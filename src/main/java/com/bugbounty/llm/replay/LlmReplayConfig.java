@@ -0,0 +1,64 @@
+package com.bugbounty.llm.replay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.ollama.OllamaChatClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+import java.nio.file.Paths;
+
+/**
+ * Record/replay of LLM traffic for deterministic, model-free load and regression runs.
+ *
+ * - Profile {@code llm-record}: calls go to Ollama and every exchange is appended to the store
+ * - Profile {@code llm-replay}: calls are answered from the store with simulated latency
+ *
+ * The replacing client is {@link Primary}, so {@code LlmGateway} picks it up for both blocking
+ * and streaming calls without any change to the services.
+ */
+@Configuration
+@Profile({"llm-record", "llm-replay"})
+public class LlmReplayConfig {
+
+    @Value("${app.llm.replay.path:./data/llm-recordings.jsonl.gz}")
+    private String recordingsPath;
+
+    @Value("${spring.ai.ollama.chat.options.model:deepseek-coder:6.7b}")
+    private String defaultModel;
+
+    @Bean(destroyMethod = "close")
+    public ChatRecordingStore chatRecordingStore(ObjectMapper objectMapper) {
+        return new ChatRecordingStore(Paths.get(recordingsPath), objectMapper, defaultModel);
+    }
+
+    @Bean
+    @Primary
+    @Profile("llm-record")
+    public RecordingChatClient recordingChatClient(OllamaChatClient ollamaChatClient, ChatRecordingStore store) {
+        return new RecordingChatClient(ollamaChatClient, ollamaChatClient, store);
+    }
+
+    @Bean
+    @Primary
+    @Profile("llm-replay")
+    public ReplayChatClient replayChatClient(
+            ChatRecordingStore store,
+            MeterRegistry meterRegistry,
+            @Value("${app.llm.replay.latency.distribution:recorded}") String distribution,
+            @Value("${app.llm.replay.latency.scale:1.0}") double scale,
+            @Value("${app.llm.replay.latency.fixed-ms:500}") long fixedMillis,
+            @Value("${app.llm.replay.latency.min-ms:200}") long minMillis,
+            @Value("${app.llm.replay.latency.max-ms:2000}") long maxMillis,
+            @Value("${app.llm.replay.latency.median-ms:800}") double medianMillis,
+            @Value("${app.llm.replay.latency.sigma:0.5}") double sigma,
+            @Value("${app.llm.replay.latency.seed:42}") long seed,
+            @Value("${app.llm.replay.miss-response:#{null}}") String missResponse) {
+        ReplayLatency latency = new ReplayLatency(ReplayLatency.Distribution.parse(distribution),
+                scale, fixedMillis, minMillis, maxMillis, medianMillis, sigma, seed);
+        return new ReplayChatClient(store, latency, missResponse, meterRegistry);
+    }
+}
@@ -0,0 +1,64 @@
+package com.bugbounty.llm.replay;
+
+import org.springframework.ai.chat.ChatClient;
+import org.springframework.ai.chat.ChatResponse;
+import org.springframework.ai.chat.StreamingChatClient;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Passes calls through to the live model and records every exchange (profile {@code llm-record}).
+ *
+ * Streams are recorded when they complete or are cancelled; a stream stopped early by its
+ * consumer is stored as the text received up to that point, which is what the consumer used.
+ */
+public class RecordingChatClient implements ChatClient, StreamingChatClient {
+
+    private final ChatClient delegate;
+    private final StreamingChatClient streamingDelegate;
+    private final ChatRecordingStore store;
+
+    public RecordingChatClient(ChatClient delegate, StreamingChatClient streamingDelegate, ChatRecordingStore store) {
+        this.delegate = delegate;
+        this.streamingDelegate = streamingDelegate;
+        this.store = store;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        long startNanos = System.nanoTime();
+        ChatResponse response = delegate.call(prompt);
+        String content = response.getResult().getOutput().getContent();
+        if (content != null) {
+            store.append(store.callKey(prompt), content, elapsedMillis(startNanos));
+        }
+        return response;
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return Flux.deferContextual(context -> {
+            String key = store.streamKey(prompt, context);
+            long startNanos = System.nanoTime();
+            StringBuilder content = new StringBuilder();
+            return streamingDelegate.stream(prompt)
+                    .doOnNext(response -> {
+                        if (response.getResult() != null && response.getResult().getOutput().getContent() != null) {
+                            content.append(response.getResult().getOutput().getContent());
+                        }
+                    })
+                    .doFinally(signal -> {
+                        if (signal != SignalType.ON_ERROR && !content.isEmpty()) {
+                            store.append(key, content.toString(), elapsedMillis(startNanos));
+                        }
+                    });
+        });
+    }
+
+    private long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
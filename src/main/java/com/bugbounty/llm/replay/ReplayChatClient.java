@@ -0,0 +1,118 @@
+package com.bugbounty.llm.replay;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.ChatClient;
+import org.springframework.ai.chat.ChatResponse;
+import org.springframework.ai.chat.Generation;
+import org.springframework.ai.chat.StreamingChatClient;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serves recorded completions instead of calling a model (profile {@code llm-replay}).
+ *
+ * Responses are looked up by request (model, options, prompt, and for streams the fields the
+ * gateway stops at) in a {@link ChatRecordingStore}; each call is delayed by a
+ * {@link ReplayLatency} sample. Streamed replies are split into small chunks spread over that
+ * latency, so early-stopping stream consumers behave as they would against a live model.
+ * A prompt that was never recorded fails with {@link IllegalStateException}, unless a miss
+ * response is configured.
+ *
+ * Metric: llm.replay.requests{outcome=hit|miss}
+ */
+@Slf4j
+public class ReplayChatClient implements ChatClient, StreamingChatClient {
+
+    private static final int STREAM_CHUNK_CHARS = 16;
+
+    private final ChatRecordingStore store;
+    private final ReplayLatency latency;
+    private final String missResponse;
+    private final Counter hits;
+    private final Counter misses;
+
+    /**
+     * @param missResponse Completion returned for prompts that were never recorded; null to fail instead
+     */
+    public ReplayChatClient(ChatRecordingStore store, ReplayLatency latency, String missResponse, MeterRegistry meterRegistry) {
+        this.store = store;
+        this.latency = latency;
+        this.missResponse = missResponse;
+        this.hits = Counter.builder("llm.replay.requests")
+                .description("Replayed LLM requests by whether a recording was found")
+                .tag("outcome", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("llm.replay.requests")
+                .description("Replayed LLM requests by whether a recording was found")
+                .tag("outcome", "miss")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        ChatRecordingStore.Recording recording = lookup(store.callKey(prompt));
+        long delayMillis = latency.sampleMillis(recording.latencyMillis());
+        if (delayMillis > 0) {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while replaying LLM response", e);
+            }
+        }
+        return response(recording.response());
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return Flux.deferContextual(context -> {
+            ChatRecordingStore.Recording recording = lookup(store.streamKey(prompt, context));
+            List<String> chunks = chunks(recording.response());
+            long delayMillis = latency.sampleMillis(recording.latencyMillis());
+            Flux<String> replay = Flux.fromIterable(chunks);
+            if (delayMillis > 0 && !chunks.isEmpty()) {
+                replay = replay.delayElements(Duration.ofNanos(delayMillis * 1_000_000L / chunks.size()));
+            }
+            return replay.map(this::response);
+        });
+    }
+
+    private ChatRecordingStore.Recording lookup(String key) {
+        ChatRecordingStore.Recording recording = store.find(key).orElse(null);
+        if (recording != null) {
+            hits.increment();
+            return recording;
+        }
+        misses.increment();
+        if (missResponse == null) {
+            throw new IllegalStateException("No recorded LLM response for prompt " + key);
+        }
+        log.debug("No recorded LLM response for prompt {}, replaying miss response", key);
+        return new ChatRecordingStore.Recording(key, 0, missResponse);
+    }
+
+    private List<String> chunks(String text) {
+        List<String> chunks = new ArrayList<>();
+        int start = 0;
+        while (start < text.length()) {
+            int end = Math.min(text.length(), start + STREAM_CHUNK_CHARS);
+            // Keep surrogate pairs together
+            if (end < text.length() && Character.isHighSurrogate(text.charAt(end - 1))) {
+                end++;
+            }
+            chunks.add(text.substring(start, end));
+            start = end;
+        }
+        return chunks;
+    }
+
+    private ChatResponse response(String content) {
+        return new ChatResponse(List.of(new Generation(content)));
+    }
+}
@@ -0,0 +1,66 @@
+package com.bugbounty.llm.replay;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Latency injected by {@link ReplayChatClient} per replayed call.
+ *
+ * - NONE: replay instantly (measures pipeline overhead only)
+ * - RECORDED: the latency of the original call, multiplied by {@code scale}
+ * - FIXED: always {@code fixedMillis}
+ * - UNIFORM: uniform in [{@code minMillis}, {@code maxMillis}]
+ * - LOG_NORMAL: log-normal with median {@code medianMillis} and shape {@code sigma} (long-tailed, like real inference)
+ *
+ * Samples come from a seeded generator, so a replay run is repeatable.
+ */
+public class ReplayLatency {
+
+    public enum Distribution {
+        NONE, RECORDED, FIXED, UNIFORM, LOG_NORMAL;
+
+        public static Distribution parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    private final Distribution distribution;
+    private final double scale;
+    private final long fixedMillis;
+    private final long minMillis;
+    private final long maxMillis;
+    private final double medianMillis;
+    private final double sigma;
+    private final Random random;
+
+    public ReplayLatency(Distribution distribution, double scale, long fixedMillis, long minMillis,
+                         long maxMillis, double medianMillis, double sigma, long seed) {
+        this.distribution = distribution;
+        this.scale = scale;
+        this.fixedMillis = fixedMillis;
+        this.minMillis = minMillis;
+        this.maxMillis = Math.max(minMillis, maxMillis);
+        this.medianMillis = medianMillis;
+        this.sigma = sigma;
+        this.random = new Random(seed);
+    }
+
+    public static ReplayLatency none() {
+        return new ReplayLatency(Distribution.NONE, 1.0, 0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Latency for one replayed call.
+     *
+     * @param recordedMillis Latency of the original call
+     */
+    public long sampleMillis(long recordedMillis) {
+        return switch (distribution) {
+            case NONE -> 0;
+            case RECORDED -> Math.round(recordedMillis * scale);
+            case FIXED -> fixedMillis;
+            case UNIFORM -> minMillis + (long) (random.nextDouble() * (maxMillis - minMillis + 1));
+            case LOG_NORMAL -> Math.round(medianMillis * Math.exp(sigma * random.nextGaussian()));
+        };
+    }
+}
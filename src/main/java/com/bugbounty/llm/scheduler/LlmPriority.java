@@ -0,0 +1,18 @@
+package com.bugbounty.llm.scheduler;
+
+/**
+ * Priority classes for LLM requests, highest first.
+ * The scheduler always grants a free slot to the highest non-empty class.
+ */
+public enum LlmPriority {
+    /** Bounty triage - gates everything else and is latency sensitive */
+    TRIAGE,
+    /** Root cause analysis of a reported issue */
+    ISSUE_ANALYSIS,
+    /** Root cause / fix verification of an existing finding */
+    VERIFICATION,
+    /** Scanning pushed commits for known CVE patterns (arrives in bursts) */
+    COMMIT_ANALYSIS,
+    /** Generating CVE catalog entries - background work */
+    CATALOG
+}
@@ -0,0 +1,270 @@
+package com.bugbounty.llm.scheduler;
+
+import com.bugbounty.llm.deadline.DeadlineExceededException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Central admission control for LLM requests.
+ *
+ * Each model backend (e.g. one Ollama instance) has a bounded number of in-flight requests.
+ * Callers beyond that wait in a queue ordered by {@link LlmPriority}; within one priority class,
+ * waiting requests are served round-robin across fairness keys (normally the repository URL), so a
+ * burst of pushes to one repository cannot monopolise the backend.
+ *
+ * Metrics (exposed via Actuator):
+ * - llm.scheduler.queue.depth{backend, priority}: requests waiting for a slot
+ * - llm.scheduler.in.flight{backend}: requests currently running
+ * - llm.scheduler.wait{backend, priority}: time spent waiting for a slot
+ */
+@Component
+@Slf4j
+public class LlmRequestScheduler {
+
+    private static final String DEFAULT_FAIRNESS_KEY = "default";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Backend> backends = new ConcurrentHashMap<>();
+
+    @Value("${app.llm.scheduler.max-in-flight:2}")
+    private int defaultMaxInFlight = 2;
+
+    /**
+     * Per-backend overrides, e.g. "ollama=2,ollama-small=4".
+     */
+    @Value("${app.llm.scheduler.backend-max-in-flight:}")
+    private String backendMaxInFlight = "";
+
+    public LlmRequestScheduler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Run {@code work} once a slot on {@code backend} is granted, blocking the caller until then.
+     *
+     * @param backend     Model backend the work will call
+     * @param priority    Priority class of the request
+     * @param fairnessKey Key to share the backend fairly across (repository URL); may be null
+     * @param work        The LLM call
+     */
+    public <T> T execute(String backend, LlmPriority priority, String fairnessKey, Supplier<T> work) {
+        return execute(backend, priority, fairnessKey, null, work);
+    }
+
+    /**
+     * Like {@link #execute(String, LlmPriority, String, Supplier)}, but give up waiting for a slot
+     * after {@code maxWait}.
+     *
+     * @param maxWait Longest time to wait in the queue; null waits indefinitely
+     * @throws DeadlineExceededException if no slot was granted within {@code maxWait}
+     */
+    public <T> T execute(String backend, LlmPriority priority, String fairnessKey, Duration maxWait, Supplier<T> work) {
+        Backend target = backends.computeIfAbsent(backend, this::createBackend);
+        target.acquire(priority, fairnessKey != null ? fairnessKey : DEFAULT_FAIRNESS_KEY, maxWait);
+        try {
+            return work.get();
+        } finally {
+            target.release();
+        }
+    }
+
+    /**
+     * Requests currently waiting for a slot on the backend at the given priority.
+     */
+    public int queueDepth(String backend, LlmPriority priority) {
+        Backend target = backends.get(backend);
+        return target != null ? target.queueDepth(priority) : 0;
+    }
+
+    /**
+     * Requests currently holding a slot on the backend.
+     */
+    public int inFlight(String backend) {
+        Backend target = backends.get(backend);
+        return target != null ? target.inFlight() : 0;
+    }
+
+    private Backend createBackend(String name) {
+        int maxInFlight = parseBackendLimits().getOrDefault(name, defaultMaxInFlight);
+        log.info("LLM backend {} limited to {} in-flight request(s)", name, maxInFlight);
+        return new Backend(name, Math.max(1, maxInFlight));
+    }
+
+    private Map<String, Integer> parseBackendLimits() {
+        Map<String, Integer> limits = new HashMap<>();
+        if (backendMaxInFlight == null || backendMaxInFlight.isBlank()) {
+            return limits;
+        }
+        for (String pair : backendMaxInFlight.split(",")) {
+            String[] parts = pair.split("=", 2);
+            if (parts.length != 2) {
+                continue;
+            }
+            try {
+                limits.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring invalid LLM backend limit '{}'", pair);
+            }
+        }
+        return limits;
+    }
+
+    private final class Backend {
+
+        private final int maxInFlight;
+        private final Map<LlmPriority, LinkedHashMap<String, ArrayDeque<Ticket>>> queues = new EnumMap<>(LlmPriority.class);
+        private final Map<LlmPriority, Timer> waitTimers = new EnumMap<>(LlmPriority.class);
+        private int inFlight;
+
+        private Backend(String name, int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+            for (LlmPriority priority : LlmPriority.values()) {
+                queues.put(priority, new LinkedHashMap<>());
+                waitTimers.put(priority, Timer.builder("llm.scheduler.wait")
+                        .description("Time LLM requests wait for a backend slot")
+                        .tag("backend", name)
+                        .tag("priority", priority.name())
+                        .register(meterRegistry));
+                Gauge.builder("llm.scheduler.queue.depth", this, backend -> backend.queueDepth(priority))
+                        .description("LLM requests waiting for a backend slot")
+                        .tag("backend", name)
+                        .tag("priority", priority.name())
+                        .register(meterRegistry);
+            }
+            Gauge.builder("llm.scheduler.in.flight", this, Backend::inFlight)
+                    .description("LLM requests currently running against the backend")
+                    .tag("backend", name)
+                    .register(meterRegistry);
+        }
+
+        void acquire(LlmPriority priority, String fairnessKey, Duration maxWait) {
+            long startNanos = System.nanoTime();
+            Ticket ticket;
+            synchronized (this) {
+                if (inFlight < maxInFlight && isEmpty()) {
+                    inFlight++;
+                    waitTimers.get(priority).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                    return;
+                }
+                ticket = new Ticket();
+                queues.get(priority).computeIfAbsent(fairnessKey, key -> new ArrayDeque<>()).add(ticket);
+            }
+
+            try {
+                if (maxWait == null) {
+                    ticket.granted.await();
+                } else if (!ticket.granted.await(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                    synchronized (this) {
+                        if (!ticket.isGranted() && remove(priority, fairnessKey, ticket)) {
+                            throw new DeadlineExceededException("Gave up waiting " + maxWait.toMillis()
+                                    + "ms for an LLM slot at priority " + priority);
+                        }
+                    }
+                    // The slot was handed over just as the wait ran out - use it
+                }
+            } catch (InterruptedException e) {
+                synchronized (this) {
+                    if (!ticket.isGranted() && remove(priority, fairnessKey, ticket)) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while waiting for an LLM slot", e);
+                    }
+                }
+                // The slot was handed over concurrently - keep it and let the caller proceed
+                Thread.currentThread().interrupt();
+            }
+            waitTimers.get(priority).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+
+        synchronized void release() {
+            Ticket next = pollNext();
+            if (next != null) {
+                // Hand the slot straight to the next waiter; in-flight count is unchanged
+                next.grant();
+            } else {
+                inFlight--;
+            }
+        }
+
+        synchronized int queueDepth(LlmPriority priority) {
+            int depth = 0;
+            for (ArrayDeque<Ticket> queue : queues.get(priority).values()) {
+                depth += queue.size();
+            }
+            return depth;
+        }
+
+        synchronized int inFlight() {
+            return inFlight;
+        }
+
+        private boolean isEmpty() {
+            for (LinkedHashMap<String, ArrayDeque<Ticket>> byKey : queues.values()) {
+                if (!byKey.isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Highest priority first; round-robin across fairness keys within a priority.
+         */
+        private Ticket pollNext() {
+            for (LinkedHashMap<String, ArrayDeque<Ticket>> byKey : queues.values()) {
+                Iterator<Map.Entry<String, ArrayDeque<Ticket>>> keys = byKey.entrySet().iterator();
+                if (!keys.hasNext()) {
+                    continue;
+                }
+                Map.Entry<String, ArrayDeque<Ticket>> first = keys.next();
+                Ticket ticket = first.getValue().poll();
+                keys.remove();
+                if (!first.getValue().isEmpty()) {
+                    // Move this key to the back of the rotation
+                    byKey.put(first.getKey(), first.getValue());
+                }
+                return ticket;
+            }
+            return null;
+        }
+
+        private boolean remove(LlmPriority priority, String fairnessKey, Ticket ticket) {
+            LinkedHashMap<String, ArrayDeque<Ticket>> byKey = queues.get(priority);
+            ArrayDeque<Ticket> queue = byKey.get(fairnessKey);
+            if (queue == null || !queue.remove(ticket)) {
+                return false;
+            }
+            if (queue.isEmpty()) {
+                byKey.remove(fairnessKey);
+            }
+            return true;
+        }
+    }
+
+    private static final class Ticket {
+        private final CountDownLatch granted = new CountDownLatch(1);
+
+        void grant() {
+            granted.countDown();
+        }
+
+        boolean isGranted() {
+            return granted.getCount() == 0;
+        }
+    }
+}
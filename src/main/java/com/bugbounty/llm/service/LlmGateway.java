@@ -0,0 +1,419 @@
+package com.bugbounty.llm.service;
+
+import com.bugbounty.llm.cache.LlmResponseCache;
+import com.bugbounty.llm.deadline.Deadline;
+import com.bugbounty.llm.deadline.DeadlineExceededException;
+import com.bugbounty.llm.scheduler.LlmPriority;
+import com.bugbounty.llm.scheduler.LlmRequestScheduler;
+import com.bugbounty.llm.stream.IncrementalJsonReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.ChatClient;
+import org.springframework.ai.chat.ChatResponse;
+import org.springframework.ai.chat.StreamingChatClient;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.ollama.api.OllamaOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Single entry point for every LLM call in the application.
+ * Services submit rendered prompts here instead of calling {@link ChatClient} directly,
+ * so cross-cutting concerns (response caching, admission control, metrics) live in one place.
+ *
+ * Model cascade (app.llm.cascade.*, off by default): {@link #cascade} first asks a small screening
+ * model and escalates to the primary model unless the screen confidently rejects. Metrics:
+ * - llm.cascade.latency{workflow, tier=screen|primary}: calls and latency per tier
+ * - llm.cascade.decisions{workflow, outcome=rejected|escalated|screen-failed}: escalation rate
+ *
+ * Timeouts and retries: every attempt is bounded by the call site's timeout (app.llm.triage.* for
+ * triage, app.llm.call.* otherwise) and by the caller's {@link Deadline}; a timed-out attempt is
+ * cancelled, which interrupts the blocking HTTP call or closes the stream. Transient failures
+ * (timeouts, I/O errors, 5xx responses) are retried with full-jitter exponential backoff while the
+ * backoff still fits in the remaining budget.
+ * Queue time in the {@link LlmRequestScheduler} counts against the deadline too. Metrics:
+ * - llm.call.retries{priority}: attempts retried after a failure or timeout
+ * - llm.call.timeouts: attempts cancelled by their timeout
+ */
+@Service
+@Slf4j
+public class LlmGateway {
+
+    /**
+     * Reactor context entry holding the sorted fields a stream is stopped at, for streaming
+     * clients whose behaviour depends on them (record/replay keys).
+     */
+    public static final String REQUIRED_FIELDS_CONTEXT_KEY = "llm.requiredFields";
+
+    private final ChatClient chatClient;
+    private final StreamingChatClient streamingChatClient;
+    private final LlmResponseCache responseCache;
+    private final LlmRequestScheduler requestScheduler;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Counter streamsStoppedEarly;
+    private final Counter streamsCompleted;
+
+    @Value("${app.llm.streaming.enabled:true}")
+    private boolean streamingEnabled = true;
+
+    @Value("${app.llm.scheduler.backend:ollama}")
+    private String backend = "ollama";
+
+    @Value("${spring.ai.ollama.chat.options.model:deepseek-coder:6.7b}")
+    private String defaultModel;
+
+    @Value("${spring.ai.ollama.chat.options.temperature:0.3}")
+    private String defaultTemperature;
+
+    @Value("${app.llm.cascade.enabled:false}")
+    private boolean cascadeEnabled = false;
+
+    @Value("${app.llm.cascade.screen-model:qwen2.5-coder:1.5b}")
+    private String screenModel = "qwen2.5-coder:1.5b";
+
+    @Value("${app.llm.cascade.reject-confidence:0.8}")
+    private double rejectConfidence = 0.8;
+
+    @Value("${app.llm.triage.timeout-seconds:30}")
+    private long triageTimeoutSeconds = 30;
+
+    @Value("${app.llm.triage.max-retries:3}")
+    private int triageMaxRetries = 3;
+
+    @Value("${app.llm.call.timeout-seconds:300}")
+    private long callTimeoutSeconds = 300;
+
+    @Value("${app.llm.call.max-retries:1}")
+    private int callMaxRetries = 1;
+
+    @Value("${app.llm.retry.initial-backoff-ms:500}")
+    private long initialBackoffMs = 500;
+
+    @Value("${app.llm.retry.max-backoff-ms:8000}")
+    private long maxBackoffMs = 8000;
+
+    /**
+     * @param streamingChatClient Streaming client for the same backend; may be null, in which case
+     *                            {@link #stream} falls back to a blocking call
+     */
+    public LlmGateway(ChatClient chatClient,
+                      StreamingChatClient streamingChatClient,
+                      LlmResponseCache responseCache,
+                      LlmRequestScheduler requestScheduler,
+                      ObjectMapper objectMapper,
+                      MeterRegistry meterRegistry) {
+        this.chatClient = chatClient;
+        this.streamingChatClient = streamingChatClient;
+        this.responseCache = responseCache;
+        this.requestScheduler = requestScheduler;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.streamsStoppedEarly = Counter.builder("llm.stream.completions")
+                .description("Streamed LLM completions by how they ended")
+                .tag("outcome", "stopped-early")
+                .register(meterRegistry);
+        this.streamsCompleted = Counter.builder("llm.stream.completions")
+                .description("Streamed LLM completions by how they ended")
+                .tag("outcome", "completed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Call the LLM with the given prompt and return the completion text.
+     * Identical (model, options, prompt) requests are answered from the response cache;
+     * everything else waits for a backend slot in the {@link LlmRequestScheduler}.
+     *
+     * @param prompt      The prompt to send
+     * @param priority    Priority class of the calling workflow
+     * @param fairnessKey Key the backend is shared fairly across, normally the repository URL
+     * @throws DeadlineExceededException if the thread's {@link Deadline#current() deadline} ran out
+     */
+    public String call(Prompt prompt, LlmPriority priority, String fairnessKey) {
+        String cacheKey = cacheKey(prompt, "");
+
+        Optional<String> cached = responseCache.get(cacheKey);
+        if (cached.isPresent()) {
+            log.debug("LLM response cache hit for key {}", cacheKey);
+            return cached.get();
+        }
+
+        ChatResponse response = execute(priority, fairnessKey, timeout -> blockingCall(prompt, timeout));
+        String content = response.getResult().getOutput().getContent();
+
+        if (content != null && !content.isBlank()) {
+            responseCache.put(cacheKey, content);
+        }
+        return content;
+    }
+
+    /**
+     * Stream a completion and stop generation as soon as the given top-level JSON fields are parsed.
+     *
+     * Returns a JSON object holding the fields parsed so far when generation was stopped early,
+     * or the full completion text when the model finished first (or the output was not JSON), so
+     * existing response parsers work unchanged. Fields the caller did not require may be missing.
+     *
+     * @param requiredFields Top-level fields the caller needs; generation stops once all are known
+     */
+    public String stream(Prompt prompt, LlmPriority priority, String fairnessKey, Set<String> requiredFields) {
+        if (!streamingEnabled || streamingChatClient == null || requiredFields.isEmpty()) {
+            return call(prompt, priority, fairnessKey);
+        }
+
+        // A truncated completion is only valid for the same field set
+        String cacheKey = cacheKey(prompt, "fields=" + String.join(",", new TreeSet<>(requiredFields)));
+
+        Optional<String> cached = responseCache.get(cacheKey);
+        if (cached.isPresent()) {
+            log.debug("LLM response cache hit for key {}", cacheKey);
+            return cached.get();
+        }
+
+        String content = execute(priority, fairnessKey, timeout -> streamUntilFields(prompt, requiredFields, timeout));
+
+        if (content != null && !content.isBlank()) {
+            responseCache.put(cacheKey, content);
+        }
+        return content;
+    }
+
+    /**
+     * Two-tier call: the screening model answers first, and its answer is final only when it rejects
+     * with at least {@code app.llm.cascade.reject-confidence}; everything else (including screening
+     * failures) is escalated to the primary model. With the cascade disabled this is a plain
+     * {@link #stream} (or {@link #call} when no fields are required) on the primary model.
+     *
+     * @param requiredFields   Fields to stop streaming at; empty for a blocking call
+     * @param workflow         Metric tag identifying the calling workflow
+     * @param rejectConfidence How confidently a completion rejects the item (0 = does not reject);
+     *                         must tolerate malformed completions
+     */
+    public String cascade(Prompt prompt, LlmPriority priority, String fairnessKey, Set<String> requiredFields,
+                          String workflow, ToDoubleFunction<String> rejectConfidence) {
+        if (!cascadeEnabled) {
+            return stream(prompt, priority, fairnessKey, requiredFields);
+        }
+
+        Prompt screenPrompt = new Prompt(prompt.getInstructions(),
+                OllamaOptions.create().withModel(screenModel).withTemperature(Float.valueOf(defaultTemperature)));
+        try {
+            String screened = timeTier(workflow, "screen", () -> stream(screenPrompt, priority, fairnessKey, requiredFields));
+            double confidence = rejectConfidence.applyAsDouble(screened);
+            if (confidence >= this.rejectConfidence) {
+                recordDecision(workflow, "rejected");
+                log.debug("{} rejected by screening model {} (confidence {})", workflow, screenModel, confidence);
+                return screened;
+            }
+            recordDecision(workflow, "escalated");
+        } catch (DeadlineExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            recordDecision(workflow, "screen-failed");
+            log.warn("Screening model {} failed for {}, escalating: {}", screenModel, workflow, e.getMessage());
+        }
+        return timeTier(workflow, "primary", () -> stream(prompt, priority, fairnessKey, requiredFields));
+    }
+
+    /**
+     * Run one LLM exchange in a scheduler slot, retrying failures within the call's deadline.
+     *
+     * @param attempt One attempt, given the time it may take; must abort once that time is spent
+     */
+    private <T> T execute(LlmPriority priority, String fairnessKey, Function<Duration, T> attempt) {
+        Deadline deadline = Deadline.current();
+        boolean triage = priority == LlmPriority.TRIAGE;
+        Duration timeout = Duration.ofSeconds(triage ? triageTimeoutSeconds : callTimeoutSeconds);
+        int maxRetries = triage ? triageMaxRetries : callMaxRetries;
+
+        for (int retry = 0; ; retry++) {
+            deadline.check("LLM call at priority " + priority);
+            try {
+                // The timeout is taken after the slot is granted, so time spent queueing is not billed to it twice
+                return requestScheduler.execute(backend, priority, fairnessKey, deadline.remaining(),
+                        () -> attempt.apply(deadline.cap(timeout)));
+            } catch (DeadlineExceededException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                if (deadline.isExpired()) {
+                    throw new DeadlineExceededException("Deadline exceeded during LLM call at priority " + priority, e);
+                }
+                if (retry >= maxRetries || !isTransient(e) || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                Duration backoff = backoff(retry);
+                Duration remaining = deadline.remaining();
+                if (remaining != null && backoff.compareTo(remaining) >= 0) {
+                    log.warn("LLM call at priority {} failed with no budget left to retry: {}", priority, e.getMessage());
+                    throw e;
+                }
+                log.warn("LLM call at priority {} failed (attempt {} of {}), retrying in {}ms: {}",
+                        priority, retry + 1, maxRetries + 1, backoff.toMillis(), e.getMessage());
+                countRetry(priority);
+                sleep(backoff);
+            }
+        }
+    }
+
+    /**
+     * Worth retrying: the backend may answer the same request next time.
+     */
+    private static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException || cause instanceof IOException
+                    || cause instanceof HttpServerErrorException) {
+                return true;
+            }
+            if (cause instanceof WebClientResponseException response && response.getStatusCode().is5xxServerError()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Full jitter: uniform in [0, min(max, initial * 2^retry)], so retries from a burst of failed
+     * calls do not arrive at the backend together.
+     */
+    private Duration backoff(int retry) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(retry, 20));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+
+    private void sleep(Duration backoff) {
+        try {
+            Thread.sleep(backoff);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off before an LLM retry", e);
+        }
+    }
+
+    /**
+     * Blocking call on a worker thread, so that the timeout can interrupt it: cancelling the
+     * subscription interrupts the worker, which aborts the in-flight HTTP request.
+     */
+    private ChatResponse blockingCall(Prompt prompt, Duration timeout) {
+        return Mono.fromCallable(() -> chatClient.call(prompt))
+                .subscribeOn(Schedulers.boundedElastic())
+                .timeout(timeout)
+                .onErrorMap(TimeoutException.class, e -> timedOut(timeout, e))
+                .block();
+    }
+
+    private RuntimeException timedOut(Duration timeout, TimeoutException cause) {
+        Counter.builder("llm.call.timeouts")
+                .description("LLM attempts cancelled by their timeout")
+                .register(meterRegistry)
+                .increment();
+        return new IllegalStateException("LLM call timed out after " + timeout.toMillis() + "ms", cause);
+    }
+
+    private void countRetry(LlmPriority priority) {
+        Counter.builder("llm.call.retries")
+                .description("LLM attempts retried after a failure or timeout")
+                .tag("priority", priority.name())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private String timeTier(String workflow, String tier, Supplier<String> call) {
+        Timer timer = Timer.builder("llm.cascade.latency")
+                .description("LLM cascade calls and latency per model tier")
+                .tag("workflow", workflow)
+                .tag("tier", tier)
+                .register(meterRegistry);
+        return timer.record(call);
+    }
+
+    private void recordDecision(String workflow, String outcome) {
+        Counter.builder("llm.cascade.decisions")
+                .description("Screening model outcomes; escalated / total is the escalation rate")
+                .tag("workflow", workflow)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private String streamUntilFields(Prompt prompt, Set<String> requiredFields, Duration timeout) {
+        IncrementalJsonReader reader = new IncrementalJsonReader(objectMapper, requiredFields);
+
+        // takeUntil and the timeout both cancel the upstream subscription, which closes the
+        // connection and stops generation. The timeout is applied to the completion signal, so it
+        // bounds the whole stream rather than the gap between chunks.
+        streamingChatClient.stream(prompt)
+                .map(this::chunkContent)
+                .takeUntil(reader::feed)
+                .then()
+                .timeout(timeout)
+                .onErrorMap(TimeoutException.class, e -> timedOut(timeout, e))
+                .contextWrite(Context.of(REQUIRED_FIELDS_CONTEXT_KEY, List.copyOf(new TreeSet<>(requiredFields))))
+                .block();
+
+        if (reader.isSatisfied() && !reader.isComplete()) {
+            streamsStoppedEarly.increment();
+            log.debug("Stopped LLM generation after fields {} ({} chars received)",
+                    requiredFields, reader.raw().length());
+            return reader.fields().toString();
+        }
+        streamsCompleted.increment();
+        return reader.raw();
+    }
+
+    private String chunkContent(ChatResponse response) {
+        if (response.getResult() == null || response.getResult().getOutput() == null) {
+            return "";
+        }
+        String content = response.getResult().getOutput().getContent();
+        return content != null ? content : "";
+    }
+
+    /**
+     * Build the cache key from the effective model, options, response variant and rendered prompt text.
+     */
+    String cacheKey(Prompt prompt, String variant) {
+        StringBuilder rendered = new StringBuilder();
+        for (Message message : prompt.getInstructions()) {
+            rendered.append(message.getMessageType()).append(':').append(message.getContent()).append('\n');
+        }
+        String options = describeOptions(prompt.getOptions());
+        if (!variant.isEmpty()) {
+            options = options + "|" + variant;
+        }
+        return LlmResponseCache.key(defaultModel, options, rendered.toString());
+    }
+
+    private String describeOptions(ChatOptions options) {
+        if (options == null) {
+            return "temperature=" + defaultTemperature;
+        }
+        try {
+            return objectMapper.writeValueAsString(options);
+        } catch (Exception e) {
+            log.debug("Could not serialize chat options for cache key, using toString(): {}", e.getMessage());
+            return options.toString();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.bugbounty.llm.stream;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+
+/**
+ * Reads a JSON object out of an LLM completion as it streams in.
+ *
+ * Text before the first '{' (prose, markdown fences) is skipped. Chunks are fed to Jackson's
+ * non-blocking parser, and every top-level field is available from {@link #fields()} as soon as
+ * its value is complete - so a caller can stop generation once the fields it needs are known.
+ * Malformed JSON stops incremental parsing; the raw text is still accumulated for a fallback parse.
+ *
+ * Not thread-safe: one reader per completion.
+ */
+@Slf4j
+public class IncrementalJsonReader {
+
+    private final ObjectMapper objectMapper;
+    private final Set<String> requiredFields;
+    private final StringBuilder raw = new StringBuilder();
+    private final Deque<JsonNode> containers = new ArrayDeque<>();
+    private final Deque<String> containerNames = new ArrayDeque<>();
+
+    private JsonParser parser;
+    private ObjectNode root;
+    private boolean complete;
+    private boolean failed;
+    private char pendingHighSurrogate;
+
+    public IncrementalJsonReader(ObjectMapper objectMapper, Set<String> requiredFields) {
+        this.objectMapper = objectMapper;
+        this.requiredFields = requiredFields;
+    }
+
+    /**
+     * Feed the next chunk of completion text.
+     *
+     * @return true once the required fields are parsed or the root object is complete
+     */
+    public boolean feed(String chunk) {
+        if (chunk == null || chunk.isEmpty()) {
+            return isDone();
+        }
+        raw.append(chunk);
+        if (complete || failed) {
+            return isDone();
+        }
+
+        String text = chunk;
+        if (pendingHighSurrogate != 0) {
+            text = pendingHighSurrogate + text;
+            pendingHighSurrogate = 0;
+        }
+        // Never split a surrogate pair across two UTF-8 encodings
+        if (Character.isHighSurrogate(text.charAt(text.length() - 1))) {
+            pendingHighSurrogate = text.charAt(text.length() - 1);
+            text = text.substring(0, text.length() - 1);
+        }
+
+        try {
+            if (parser == null) {
+                int start = text.indexOf('{');
+                if (start < 0) {
+                    return false;
+                }
+                parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+                text = text.substring(start);
+            }
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).feedInput(bytes, 0, bytes.length);
+            drain();
+        } catch (IOException e) {
+            log.debug("Stopped incremental JSON parsing: {}", e.getMessage());
+            failed = true;
+        }
+        return isDone();
+    }
+
+    /**
+     * True once every required top-level field has a complete value.
+     */
+    public boolean isSatisfied() {
+        if (root == null) {
+            return false;
+        }
+        for (String field : requiredFields) {
+            if (!root.has(field)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * True once the root object has been closed.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Top-level fields whose values are complete so far (empty before the root object starts).
+     */
+    public ObjectNode fields() {
+        return root != null ? root.deepCopy() : objectMapper.createObjectNode();
+    }
+
+    /**
+     * All text fed so far, unmodified.
+     */
+    public String raw() {
+        return raw.toString();
+    }
+
+    private boolean isDone() {
+        return complete || (!failed && isSatisfied());
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while (!complete && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            switch (token) {
+                case START_OBJECT, START_ARRAY -> {
+                    JsonNode container = token == JsonToken.START_OBJECT
+                            ? JsonNodeFactory.instance.objectNode()
+                            : JsonNodeFactory.instance.arrayNode();
+                    if (root == null) {
+                        if (!container.isObject()) {
+                            throw new IOException("Expected a JSON object");
+                        }
+                        root = (ObjectNode) container;
+                    }
+                    containerNames.push(parser.currentName() != null ? parser.currentName() : "");
+                    containers.push(container);
+                }
+                case END_OBJECT, END_ARRAY -> {
+                    JsonNode container = containers.pop();
+                    String name = containerNames.pop();
+                    if (containers.isEmpty()) {
+                        complete = true;
+                    } else {
+                        attach(name, container);
+                    }
+                }
+                case FIELD_NAME -> {
+                    // Value follows
+                }
+                case VALUE_STRING -> attach(parser.currentName(), JsonNodeFactory.instance.textNode(parser.getText()));
+                case VALUE_NUMBER_INT -> attach(parser.currentName(), JsonNodeFactory.instance.numberNode(parser.getLongValue()));
+                case VALUE_NUMBER_FLOAT -> attach(parser.currentName(), JsonNodeFactory.instance.numberNode(parser.getDoubleValue()));
+                case VALUE_TRUE, VALUE_FALSE -> attach(parser.currentName(), JsonNodeFactory.instance.booleanNode(token == JsonToken.VALUE_TRUE));
+                case VALUE_NULL -> attach(parser.currentName(), JsonNodeFactory.instance.nullNode());
+                default -> throw new IOException("Unexpected token " + token);
+            }
+        }
+    }
+
+    private void attach(String name, JsonNode value) {
+        JsonNode parent = containers.peek();
+        if (parent instanceof ObjectNode object) {
+            object.set(name, value);
+        } else if (parent instanceof ArrayNode array) {
+            array.add(value);
+        }
+    }
+}
@@ -5,6 +5,8 @@ import org.eclipse.jgit.api.PullResult;
 import org.eclipse.jgit.api.errors.GitAPIException;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.function.Predicate;
 
 public interface GitOperations {
     Git cloneRepository(String url, String localPath) throws GitAPIException;
@@ -13,5 +15,17 @@ public interface GitOperations {
     String readFile(String localPath, String filePath) throws IOException;
     String[] listFiles(String localPath, String directoryPath) throws IOException;
     String getCommitDiff(String localPath, String commitId) throws IOException, GitAPIException;
+    String getHeadCommitId(String localPath) throws IOException;
+    List<String> getChangedPaths(String localPath, String fromCommitId, String toCommitId) throws IOException;
+    void walkCommittedFiles(String localPath, String commitId, Predicate<String> pathFilter,
+                            CommittedFileVisitor visitor) throws Exception;
+
+    /**
+     * Receives each text file of a committed tree, read from the object store.
+     */
+    @FunctionalInterface
+    interface CommittedFileVisitor {
+        void visit(String path, String content) throws Exception;
+    }
 }
 
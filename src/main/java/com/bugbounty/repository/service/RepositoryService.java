@@ -7,6 +7,8 @@ import org.springframework.stereotype.Service;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
+import java.util.function.Predicate;
 
 @Service
 @RequiredArgsConstructor
@@ -75,5 +77,39 @@ public class RepositoryService {
 
         return gitOperations.getCommitDiff(repository.getLocalPath(), commitId);
     }
-}
 
+    /**
+     * Commit currently checked out, or null if the repository has no commits.
+     */
+    public String getHeadCommitId(Repository repository) throws Exception {
+        if (!repository.isCloned()) {
+            throw new IllegalStateException("Repository not cloned: " + repository.getUrl());
+        }
+
+        return gitOperations.getHeadCommitId(repository.getLocalPath());
+    }
+
+    /**
+     * Files added, modified or deleted between two commits.
+     */
+    public List<String> getChangedFiles(Repository repository, String fromCommitId, String toCommitId) throws Exception {
+        if (!repository.isCloned()) {
+            throw new IllegalStateException("Repository not cloned: " + repository.getUrl());
+        }
+
+        return gitOperations.getChangedPaths(repository.getLocalPath(), fromCommitId, toCommitId);
+    }
+
+    /**
+     * Text files committed at {@code commitId}, read from the object store rather than the working
+     * tree; gitignored, linguist-generated/vendored and binary files are skipped.
+     */
+    public void walkCommittedFiles(Repository repository, String commitId, Predicate<String> pathFilter,
+                                   GitOperations.CommittedFileVisitor visitor) throws Exception {
+        if (!repository.isCloned()) {
+            throw new IllegalStateException("Repository not cloned: " + repository.getUrl());
+        }
+
+        gitOperations.walkCommittedFiles(repository.getLocalPath(), commitId, pathFilter, visitor);
+    }
+}
@@ -5,8 +5,17 @@ import lombok.extern.slf4j.Slf4j;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.PullResult;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.attributes.Attributes;
+import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.ignore.IgnoreNode;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectLoader;
+import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.patch.FileHeader;
 import org.eclipse.jgit.revwalk.RevCommit;
@@ -15,16 +24,25 @@ import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
 import org.eclipse.jgit.treewalk.AbstractTreeIterator;
 import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.util.RawParseUtils;
 import org.eclipse.jgit.util.io.NullOutputStream;
 import org.springframework.stereotype.Component;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 @Component
@@ -158,5 +176,153 @@ public class JGitOperations implements GitOperations {
             return outputStream.toString();
         }
     }
-}
 
+    @Override
+    public String getHeadCommitId(String localPath) throws IOException {
+        try (Git git = openRepository(localPath)) {
+            ObjectId head = git.getRepository().resolve(Constants.HEAD);
+            return head != null ? head.name() : null;
+        }
+    }
+
+    /**
+     * Paths added, modified or deleted between two commits, relative to the repository root.
+     * A rename is reported as its old and its new path.
+     */
+    @Override
+    public List<String> getChangedPaths(String localPath, String fromCommitId, String toCommitId) throws IOException {
+        try (Git git = openRepository(localPath);
+             RevWalk walk = new RevWalk(git.getRepository());
+             DiffFormatter diffFormatter = new DiffFormatter(NullOutputStream.INSTANCE)) {
+
+            ObjectId fromObjectId = git.getRepository().resolve(fromCommitId);
+            ObjectId toObjectId = git.getRepository().resolve(toCommitId);
+            if (fromObjectId == null) {
+                throw new IllegalArgumentException("Commit not found: " + fromCommitId);
+            }
+            if (toObjectId == null) {
+                throw new IllegalArgumentException("Commit not found: " + toCommitId);
+            }
+
+            RevTree fromTree = walk.parseCommit(fromObjectId).getTree();
+            RevTree toTree = walk.parseCommit(toObjectId).getTree();
+
+            diffFormatter.setRepository(git.getRepository());
+            Set<String> paths = new LinkedHashSet<>();
+            for (DiffEntry diffEntry : diffFormatter.scan(fromTree, toTree)) {
+                if (diffEntry.getChangeType() != DiffEntry.ChangeType.ADD) {
+                    paths.add(diffEntry.getOldPath());
+                }
+                if (diffEntry.getChangeType() != DiffEntry.ChangeType.DELETE) {
+                    paths.add(diffEntry.getNewPath());
+                }
+            }
+            return new ArrayList<>(paths);
+        }
+    }
+
+    /**
+     * Visit the text files committed at {@code commitId}, reading blobs from the object store so
+     * the working tree (and a concurrent pull) is never touched. Skipped without being read:
+     * paths matched by the tree's {@code .gitignore} files (committed anyway, e.g. force-added
+     * vendored code), paths marked {@code linguist-generated} or {@code linguist-vendored} in
+     * {@code .gitattributes}, symlinks, submodules and paths rejected by {@code pathFilter}.
+     * Binary blobs (a NUL byte near the start) and blobs too large to load at once are skipped
+     * after the content sniff.
+     */
+    @Override
+    public void walkCommittedFiles(String localPath, String commitId, Predicate<String> pathFilter,
+                                   CommittedFileVisitor visitor) throws Exception {
+        try (Git git = openRepository(localPath);
+             RevWalk walk = new RevWalk(git.getRepository());
+             TreeWalk treeWalk = new TreeWalk(git.getRepository())) {
+
+            ObjectId commitObjectId = git.getRepository().resolve(commitId);
+            if (commitObjectId == null) {
+                throw new IllegalArgumentException("Commit not found: " + commitId);
+            }
+            RevTree tree = walk.parseCommit(commitObjectId).getTree();
+            ObjectReader reader = treeWalk.getObjectReader();
+            treeWalk.addTree(tree);
+            treeWalk.setRecursive(false);
+
+            // Innermost directory first; entries at depth d are governed by scopes of depth <= d
+            Deque<IgnoreScope> ignoreScopes = new ArrayDeque<>();
+            ignoreScopes.push(new IgnoreScope(0, "", readIgnoreNode(reader, tree)));
+
+            while (treeWalk.next()) {
+                int depth = treeWalk.getDepth();
+                while (ignoreScopes.peek().depth() > depth) {
+                    ignoreScopes.pop();
+                }
+                String path = treeWalk.getPathString();
+                boolean directory = treeWalk.isSubtree();
+                if (isIgnored(ignoreScopes, path, directory) || isLinguistExcluded(treeWalk.getAttributes())) {
+                    continue;
+                }
+
+                if (directory) {
+                    ignoreScopes.push(new IgnoreScope(depth + 1, path + "/", readIgnoreNode(reader, treeWalk.getObjectId(0))));
+                    treeWalk.enterSubtree();
+                    continue;
+                }
+                if ((treeWalk.getRawMode(0) & FileMode.TYPE_MASK) != FileMode.TYPE_FILE || !pathFilter.test(path)) {
+                    continue;
+                }
+
+                ObjectLoader loader = reader.open(treeWalk.getObjectId(0), Constants.OBJ_BLOB);
+                if (loader.isLarge()) {
+                    log.debug("Skipping large blob {} ({} bytes)", path, loader.getSize());
+                    continue;
+                }
+                byte[] content = loader.getCachedBytes();
+                if (RawText.isBinary(content)) {
+                    continue;
+                }
+                visitor.visit(path, RawParseUtils.decode(content));
+            }
+        }
+    }
+
+    private static IgnoreNode readIgnoreNode(ObjectReader reader, AnyObjectId tree) throws IOException {
+        try (TreeWalk gitignore = TreeWalk.forPath(reader, Constants.GITIGNORE_FILENAME, tree)) {
+            if (gitignore == null) {
+                return null;
+            }
+            IgnoreNode node = new IgnoreNode();
+            try (InputStream in = reader.open(gitignore.getObjectId(0), Constants.OBJ_BLOB).openStream()) {
+                node.parse(in);
+            }
+            return node;
+        }
+    }
+
+    /**
+     * Git's rule: the innermost {@code .gitignore} with a matching pattern decides.
+     */
+    private static boolean isIgnored(Deque<IgnoreScope> scopes, String path, boolean directory) {
+        for (IgnoreScope scope : scopes) {
+            if (scope.node() == null) {
+                continue;
+            }
+            Boolean ignored = scope.node().checkIgnored(path.substring(scope.prefix().length()), directory);
+            if (ignored != null) {
+                return ignored;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isLinguistExcluded(Attributes attributes) {
+        return isTrue(attributes, "linguist-generated") || isTrue(attributes, "linguist-vendored");
+    }
+
+    private static boolean isTrue(Attributes attributes, String key) {
+        return attributes.isSet(key) || "true".equalsIgnoreCase(attributes.getValue(key));
+    }
+
+    /**
+     * The {@code .gitignore} of a directory; its patterns are relative to {@code prefix}.
+     */
+    private record IgnoreScope(int depth, String prefix, IgnoreNode node) {}
+}
@@ -2,9 +2,13 @@ package com.bugbounty.webhook.service;
 
 import com.bugbounty.bounty.domain.Bounty;
 import com.bugbounty.bounty.service.GitHubIssueScannerService;
+import com.bugbounty.cve.domain.BugFinding;
+import com.bugbounty.cve.service.CodeSearchService;
 import com.bugbounty.cve.service.CommitAnalysisService;
 import com.bugbounty.cve.service.CodebaseIndexService;
 import com.bugbounty.cve.service.IssueAnalysisService;
+import com.bugbounty.llm.deadline.Deadline;
+import com.bugbounty.llm.deadline.DeadlineExceededException;
 import com.bugbounty.repository.domain.Repository;
 import com.bugbounty.repository.entity.RepositoryEntity;
 import com.bugbounty.repository.repository.RepositoryRepository;
@@ -16,10 +20,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -41,9 +49,22 @@ public class GitHubWebhookService {
     private final CodebaseIndexService codebaseIndexService;
     private final GitHubIssueScannerService githubIssueScannerService;
     private final IssueAnalysisService issueAnalysisService;
+    private final CodeSearchService codeSearchService;
     
     @Value("${app.repository.clone.base-path:./repos}")
     private String basePath;
+
+    /**
+     * Budget for all analysis triggered by one push delivery; commits not reached in time are skipped.
+     */
+    @Value("${app.webhooks.github.push-deadline-seconds:1800}")
+    private long pushDeadlineSeconds = 1800;
+
+    /**
+     * Budget for the issue analysis triggered by one issue delivery.
+     */
+    @Value("${app.webhooks.github.issue-deadline-seconds:600}")
+    private long issueDeadlineSeconds = 600;
     
     /**
      * Process a GitHub push event.
@@ -63,6 +84,7 @@ public class GitHubWebhookService {
             return false;
         }
         
+        Deadline deadline = Deadline.after(Duration.ofSeconds(pushDeadlineSeconds));
         log.info("Processing push event for repository: {} (branch: {})", 
                 pushEvent.getRepository().getFullName(),
                 pushEvent.getBranchName());
@@ -102,7 +124,7 @@ public class GitHubWebhookService {
                 log.info("Received {} commit(s) in push event", pushEvent.getCommits().size());
                 
                 // Analyze commits for CVE vulnerabilities
-                analyzeCommitsForCVEs(repository, pushEvent);
+                analyzeCommitsForCVEs(repository, pushEvent, deadline);
                 
                 pushEvent.getCommits().forEach(commit -> {
                     String commitId = commit.getId();
@@ -137,9 +159,9 @@ public class GitHubWebhookService {
     }
     
     /**
-     * Analyze commits for CVE vulnerabilities.
+     * Analyze commits for CVE vulnerabilities within the push's deadline.
      */
-    private void analyzeCommitsForCVEs(Repository repository, GitHubPushEvent pushEvent) {
+    private void analyzeCommitsForCVEs(Repository repository, GitHubPushEvent pushEvent, Deadline deadline) {
         if (pushEvent.getCommits() == null || pushEvent.getCommits().isEmpty()) {
             return;
         }
@@ -165,48 +187,81 @@ public class GitHubWebhookService {
             }
         }
         
-        // Create/update codebase index
-        try {
-            codebaseIndexService.indexRepository(repository, language);
-        } catch (Exception e) {
-            log.warn("Failed to index repository, continuing with analysis: {}", repository.getUrl(), e);
+        indexCodebase(repository, language);
+        
+        // Analyze the pushed commits one after another in a single pipeline rather than one
+        // subscription per commit; the LLM scheduler bounds what reaches the model across pushes
+        Repository analyzedRepository = repository;
+        Flux.fromIterable(pushEvent.getCommits())
+                .concatMap(commit -> analyzeCommitForCVEs(analyzedRepository, commit, language, deadline))
+                .contextWrite(deadline::writeTo)
+                .subscribe();
+    }
+    
+    /**
+     * Create or update the codebase index of every language in the repository, one language per
+     * virtual thread, and the code search index on another. Each language is indexed in its own
+     * transaction; failures are logged and analysis continues with whatever indexes exist.
+     */
+    private void indexCodebase(Repository repository, String primaryLanguage) {
+        List<String> languages = codebaseIndexService.languagesToIndex(repository, primaryLanguage);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(() -> codeSearchService.updateIndex(repository));
+            for (String language : languages) {
+                executor.submit(() -> {
+                    try {
+                        codebaseIndexService.indexRepository(repository, language);
+                    } catch (Exception e) {
+                        log.warn("Failed to index repository for {}, continuing with analysis: {}",
+                                language, repository.getUrl(), e);
+                    }
+                });
+            }
+        } // close() waits for every language
+    }
+    
+    /**
+     * Analyze a single pushed commit for CVE vulnerabilities.
+     * Errors are logged and swallowed so one bad commit does not stop the rest of the push.
+     */
+    private Flux<BugFinding> analyzeCommitForCVEs(Repository repository, GitHubPushEvent.Commit commit, String language,
+                                                  Deadline deadline) {
+        if (deadline.isExpired()) {
+            log.warn("Push deadline exceeded, skipping CVE analysis of commit {}", commit.getId());
+            return Flux.empty();
+        }
+
+        // Collect affected files
+        List<String> affectedFiles = new ArrayList<>();
+        if (commit.getAdded() != null) {
+            affectedFiles.addAll(commit.getAdded());
+        }
+        if (commit.getModified() != null) {
+            affectedFiles.addAll(commit.getModified());
+        }
+        if (commit.getRemoved() != null) {
+            affectedFiles.addAll(commit.getRemoved());
         }
         
-        // Analyze each commit
-        for (GitHubPushEvent.Commit commit : pushEvent.getCommits()) {
-            try {
-                // Get commit diff
-                String commitDiff = repositoryService.getCommitDiff(repository, commit.getId());
-                
-                // Collect affected files
-                List<String> affectedFiles = new ArrayList<>();
-                if (commit.getAdded() != null) {
-                    affectedFiles.addAll(commit.getAdded());
-                }
-                if (commit.getModified() != null) {
-                    affectedFiles.addAll(commit.getModified());
-                }
-                if (commit.getRemoved() != null) {
-                    affectedFiles.addAll(commit.getRemoved());
-                }
-                
-                // Analyze commit for CVEs
-                commitAnalysisService.analyzeCommit(
+        // Get commit diff, then analyze commit for CVEs
+        return Mono.fromCallable(() -> repositoryService.getCommitDiff(repository, commit.getId()))
+                .flatMapMany(commitDiff -> commitAnalysisService.analyzeCommit(
                         repository.getUrl(),
                         commit.getId(),
                         commitDiff,
                         affectedFiles,
                         language
-                )
+                ))
                 .doOnNext(finding -> log.info("Found potential CVE {} in commit {} (confidence: {})",
                         finding.getCveId(), commit.getId(), finding.getPresenceConfidence()))
-                .doOnError(error -> log.error("Error analyzing commit {} for CVEs", commit.getId(), error))
-                .subscribe();
-                
-            } catch (Exception e) {
-                log.error("Error analyzing commit {} for CVEs", commit.getId(), e);
-            }
-        }
+                .onErrorResume(DeadlineExceededException.class, error -> {
+                    log.warn("Push deadline exceeded during CVE analysis of commit {}", commit.getId());
+                    return Flux.empty();
+                })
+                .onErrorResume(error -> {
+                    log.error("Error analyzing commit {} for CVEs", commit.getId(), error);
+                    return Flux.empty();
+                });
     }
     
     /**
@@ -240,6 +295,7 @@ public class GitHubWebhookService {
             return true; // Not an error
         }
         
+        Deadline deadline = Deadline.after(Duration.ofSeconds(issueDeadlineSeconds));
         String repositoryUrl = issueEvent.getRepositoryUrl();
         Integer issueNumber = issueEvent.getIssue().getNumber();
         String issueTitle = issueEvent.getIssue().getTitle();
@@ -270,6 +326,7 @@ public class GitHubWebhookService {
                         .doOnNext(finding -> log.info("Issue analysis completed for issue #{} - Root cause confidence: {}", 
                                 issueNumber, finding.getRootCauseConfidence()))
                         .doOnError(error -> log.error("Error analyzing issue #{}", issueNumber, error))
+                        .contextWrite(deadline::writeTo)
                         .subscribe();
                 
                 return true;
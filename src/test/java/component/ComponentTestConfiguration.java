@@ -1,6 +1,7 @@
 package com.bugbounty.component;
 
 import org.springframework.ai.chat.ChatClient;
+import org.springframework.ai.chat.StreamingChatClient;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Bean;
@@ -14,7 +15,7 @@ import static org.mockito.Mockito.mock;
  * Containers are managed by AbstractComponentTest via @Container annotations.
  * 
  * This configuration:
- * - Provides a default mock ChatClient to prevent Spring AI from trying to connect to Ollama
+ * - Provides default mock ChatClient and StreamingChatClient beans to prevent Spring AI from trying to connect to Ollama
  * - Tests that need LLM functionality can override with @MockBean
  * - Scheduled tasks are disabled via properties in application-component-test.yml
  */
@@ -31,5 +32,14 @@ public class ComponentTestConfiguration {
     public ChatClient chatClient() {
         return mock(ChatClient.class);
     }
-}
 
+    /**
+     * Default mock StreamingChatClient so LlmGateway never streams from a real Ollama.
+     * Streaming is disabled in application-component-test.yml, so triage reaches the ChatClient mock.
+     */
+    @Bean
+    @Primary
+    public StreamingChatClient streamingChatClient() {
+        return mock(StreamingChatClient.class);
+    }
+}
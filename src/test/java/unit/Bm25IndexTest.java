@@ -0,0 +1,120 @@
+package com.bugbounty.cve.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Bm25Index Tests")
+class Bm25IndexTest {
+
+    private static final String PARSER = """
+            class HeaderParser {
+              // Splits raw HTTP headers into name/value pairs
+              Map<String, String> parseHeaders(String raw) {
+                if (raw == null) {
+                  throw new NullPointerException("raw headers");
+                }
+                return split(raw);
+              }
+            }
+            """;
+
+    private static final String CACHE = """
+            class LruCache {
+              void evictOldest() {
+                entries.removeFirst();
+              }
+            }
+            """;
+
+    @Test
+    @DisplayName("Should split identifiers into their camelCase and snake_case parts")
+    void shouldSplitIdentifiers() {
+        Map<String, Integer> terms = Bm25Index.termFrequencies("parseHttpHeader HTTPServer max_retry_count the x 404");
+
+        assertEquals(Map.of(
+                "parsehttpheader", 1, "parse", 1, "http", 2, "header", 1,
+                "httpserver", 1, "server", 1,
+                "max_retry_count", 1, "max", 1, "retry", 1, "count", 1), terms);
+    }
+
+    @Test
+    @DisplayName("Should rank the chunk sharing the rarest terms first")
+    void shouldRankMatchingChunkFirst() {
+        Bm25Index index = new Bm25Index(40);
+        index.replaceFile("src/HeaderParser.java", PARSER);
+        index.replaceFile("src/LruCache.java", CACHE);
+
+        List<Bm25Index.Hit> hits = index.search("NullPointerException while parsing HTTP headers", 5);
+
+        assertEquals(1, hits.size());
+        assertEquals("src/HeaderParser.java", hits.get(0).path());
+        assertEquals(1, hits.get(0).startLine());
+        assertEquals(9, hits.get(0).endLine());
+        assertEquals("src/LruCache.java", index.search("cache evicts the oldest entries", 5).get(0).path());
+    }
+
+    @Test
+    @DisplayName("Should cut files into chunks of the configured number of lines")
+    void shouldChunkFiles() {
+        Bm25Index index = new Bm25Index(4);
+        index.replaceFile("src/HeaderParser.java", PARSER);
+
+        List<Bm25Index.Hit> hits = index.search("NullPointerException", 5);
+
+        assertEquals(2, index.size()); // The closing brace alone has no terms
+        assertEquals(1, hits.size());
+        assertEquals(5, hits.get(0).startLine());
+        assertEquals(8, hits.get(0).endLine());
+    }
+
+    @Test
+    @DisplayName("Should replace and remove files incrementally")
+    void shouldReplaceAndRemoveFiles() {
+        Bm25Index index = new Bm25Index(40);
+        index.replaceFile("src/HeaderParser.java", PARSER);
+        index.replaceFile("src/LruCache.java", CACHE);
+
+        index.replaceFile("src/LruCache.java", "class LruCache { void clear() {} }");
+        index.removeFile("src/HeaderParser.java");
+
+        assertEquals(1, index.fileCount());
+        assertEquals(1, index.size());
+        assertTrue(index.search("evictOldest", 5).isEmpty());
+        assertTrue(index.search("headers", 5).isEmpty());
+        assertEquals("src/LruCache.java", index.search("clear", 5).get(0).path());
+    }
+
+    @Test
+    @DisplayName("Should return the same results after a write and read round trip")
+    void shouldRoundTrip() throws IOException {
+        Bm25Index index = new Bm25Index(4);
+        index.replaceFile("src/HeaderParser.java", PARSER);
+        index.replaceFile("src/LruCache.java", CACHE);
+        index.removeFile("src/LruCache.java");
+        index.replaceFile("src/LruCache.java", CACHE);
+        index.setCommit("abc123");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        index.writeTo(out);
+        Bm25Index restored = Bm25Index.readFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals("abc123", restored.commit());
+        assertEquals(4, restored.chunkLines());
+        assertEquals(index.size(), restored.size());
+        assertEquals(index.search("raw headers evict", 10), restored.search("raw headers evict", 10));
+    }
+
+    @Test
+    @DisplayName("Should reject files that are not BM25 indexes")
+    void shouldRejectForeignFiles() {
+        assertThrows(IOException.class, () -> Bm25Index.readFrom(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8})));
+    }
+}
@@ -2,6 +2,10 @@ package com.bugbounty.bounty.triage;
 
 import com.bugbounty.bounty.domain.Bounty;
 import com.bugbounty.bounty.domain.BountyStatus;
+import com.bugbounty.bounty.triage.classifier.TriageClassifier;
+import com.bugbounty.llm.cache.LlmResponseCache;
+import com.bugbounty.llm.scheduler.LlmRequestScheduler;
+import com.bugbounty.llm.service.LlmGateway;
 import com.bugbounty.repository.entity.RepositoryEntity;
 import com.bugbounty.repository.repository.RepositoryRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,18 +20,22 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.ai.chat.ChatClient;
 import org.springframework.ai.chat.ChatResponse;
+import org.springframework.ai.chat.Generation;
 import org.springframework.ai.chat.messages.AssistantMessage;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.doReturn;
 
@@ -39,6 +47,9 @@ class BountyFilteringServiceTest {
     @Mock
     private ChatClient chatClient;
 
+    @Mock
+    private LlmResponseCache responseCache;
+
     @Mock
     private ChatResponse chatResponse;
 
@@ -48,6 +59,15 @@ class BountyFilteringServiceTest {
     @Mock
     private RepositoryRepository repositoryRepository;
 
+    @Mock
+    private TriageDecisionStore triageDecisionStore;
+
+    @Mock
+    private TriageRuleEngine triageRuleEngine;
+
+    @Mock
+    private TriageClassifier triageClassifier;
+
     private ObjectMapper objectMapper;
 
     private BountyFilteringService filteringService;
@@ -56,7 +76,11 @@ class BountyFilteringServiceTest {
     void setUp() {
         // Use real ObjectMapper for JSON parsing
         objectMapper = new ObjectMapper();
-        filteringService = new BountyFilteringService(chatClient, objectMapper, repositoryRepository);
+        // No streaming client: triage falls back to the blocking ChatClient mock
+        LlmGateway llmGateway = new LlmGateway(chatClient, null, responseCache,
+                new LlmRequestScheduler(new SimpleMeterRegistry()), objectMapper, new SimpleMeterRegistry());
+        filteringService = new BountyFilteringService(llmGateway, objectMapper, repositoryRepository, triageDecisionStore,
+                triageRuleEngine, triageClassifier);
         
         // Set default supported languages and max complexity via reflection
         ReflectionTestUtils.setField(filteringService, "supportedLanguagesConfig", "Java,TypeScript,JavaScript,Python");
@@ -229,6 +253,8 @@ class BountyFilteringServiceTest {
         assertNotNull(result);
         // Should default to false on error (fail-safe)
         assertFalse(result.shouldProcess());
+        // ...but marked failed, not rejected, so the bounty is triaged again
+        assertTrue(result.failed());
         verify(chatClient, times(1)).call(any(Prompt.class));
     }
 
@@ -971,5 +997,205 @@ class BountyFilteringServiceTest {
         // Should still process if complexity field is missing
         assertTrue(result.shouldProcess());
     }
-}
 
+    @Test
+    @DisplayName("Should triage several bounties with one LLM call")
+    void shouldTriageBatchInOneCall() {
+        // Given
+        Bounty typo = batchBounty("batch-1", "100.00", "Fix typo in error message");
+        Bounty expensive = batchBounty("batch-2", "500.00", "Rewrite the scheduler");
+        Bounty nullCheck = batchBounty("batch-3", "80.00", "Add missing null check");
+
+        String batchResponse = """
+                ```json
+                [
+                  {"id": "B2", "shouldProcess": false, "confidence": 0.9, "estimatedTimeMinutes": 90,
+                   "complexity": "moderate", "reason": "Touches several files"},
+                  {"id": "B1", "shouldProcess": true, "confidence": 0.95, "estimatedTimeMinutes": 10,
+                   "complexity": "simple", "reason": "Single-line typo"}
+                ]
+                ```
+                """;
+        when(chatClient.call(any(Prompt.class))).thenReturn(new ChatResponse(List.of(new Generation(batchResponse))));
+
+        // When
+        List<FilterResult> results = filteringService.shouldProcessBatch(List.of(typo, expensive, nullCheck));
+
+        // Then
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).shouldProcess());
+        assertEquals(10, results.get(0).estimatedTimeMinutes());
+        // Rejected by the amount pre-filter without reaching the LLM
+        assertFalse(results.get(1).shouldProcess());
+        assertTrue(results.get(1).reason().contains("exceeds maximum"));
+        assertFalse(results.get(2).shouldProcess());
+        assertTrue(results.get(2).reason().contains("time estimate too high"));
+        verify(chatClient, times(1)).call(any(Prompt.class));
+    }
+
+    @Test
+    @DisplayName("Should fall back to single calls for bounties missing from the batch response")
+    void shouldFallBackToSingleCallsForMissingBatchItems() {
+        // Given
+        Bounty first = batchBounty("batch-1", "100.00", "Fix typo in error message");
+        Bounty second = batchBounty("batch-2", "120.00", "Add missing null check");
+
+        String batchResponse = """
+                [{"id": "B1", "shouldProcess": true, "confidence": 0.95, "estimatedTimeMinutes": 10, "complexity": "simple"},
+                 {"id": "B2", "shouldProcess": "unsure"}]
+                """;
+        String singleResponse = """
+                {"shouldProcess": true, "confidence": 0.8, "estimatedTimeMinutes": 20, "complexity": "simple", "reason": "Null check"}
+                """;
+        when(chatClient.call(any(Prompt.class))).thenReturn(
+                new ChatResponse(List.of(new Generation(batchResponse))),
+                new ChatResponse(List.of(new Generation(singleResponse))));
+
+        // When
+        List<FilterResult> results = filteringService.shouldProcessBatch(List.of(first, second));
+
+        // Then
+        assertTrue(results.get(0).shouldProcess());
+        assertEquals(0.95, results.get(0).confidence(), 0.001);
+        assertTrue(results.get(1).shouldProcess());
+        assertEquals("Null check", results.get(1).reason());
+        verify(chatClient, times(2)).call(any(Prompt.class));
+    }
+
+    @Test
+    @DisplayName("Should fall back to single calls when the batch response is not a JSON array")
+    void shouldFallBackToSingleCallsWhenBatchUnparseable() {
+        // Given
+        Bounty first = batchBounty("batch-1", "100.00", "Fix typo in error message");
+        Bounty second = batchBounty("batch-2", "120.00", "Add missing null check");
+
+        String singleResponse = """
+                {"shouldProcess": false, "confidence": 0.9, "estimatedTimeMinutes": 20, "complexity": "simple", "reason": "Needs a POC"}
+                """;
+        when(chatClient.call(any(Prompt.class))).thenReturn(
+                new ChatResponse(List.of(new Generation("I cannot evaluate these bounties."))),
+                new ChatResponse(List.of(new Generation(singleResponse))));
+
+        // When
+        List<FilterResult> results = filteringService.shouldProcessBatch(List.of(first, second));
+
+        // Then
+        assertEquals(2, results.size());
+        assertFalse(results.get(0).shouldProcess());
+        assertFalse(results.get(1).shouldProcess());
+        verify(chatClient, times(3)).call(any(Prompt.class));
+    }
+
+    @Test
+    @DisplayName("Should answer from a memoized decision without calling the LLM")
+    void shouldUseMemoizedDecision() {
+        // Given
+        Bounty bounty = batchBounty("memo-1", "100.00", "Fix typo in error message");
+        FilterResult memoized = new FilterResult(true, 0.95, 10, "Typo fix");
+        when(triageDecisionStore.get(anyString())).thenReturn(Optional.of(memoized));
+
+        // When
+        FilterResult result = filteringService.shouldProcess(bounty);
+
+        // Then
+        assertSame(memoized, result);
+        verify(chatClient, never()).call(any(Prompt.class));
+        verify(triageDecisionStore, never()).put(anyString(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should memoize parsed decisions but not unparseable responses")
+    void shouldMemoizeParsedDecisionsOnly() {
+        // Given
+        Bounty parsed = batchBounty("memo-1", "100.00", "Fix typo in error message");
+        Bounty unparseable = batchBounty("memo-2", "100.00", "Add missing null check");
+        String response = """
+                {"shouldProcess": true, "confidence": 0.95, "estimatedTimeMinutes": 10, "complexity": "simple", "reason": "Typo"}
+                """;
+        when(chatClient.call(any(Prompt.class))).thenReturn(
+                new ChatResponse(List.of(new Generation(response))),
+                new ChatResponse(List.of(new Generation("not json"))));
+
+        // When
+        FilterResult first = filteringService.shouldProcess(parsed);
+        filteringService.shouldProcess(unparseable);
+
+        // Then
+        verify(triageDecisionStore, times(1)).put(anyString(), eq(parsed), eq(first));
+        verify(triageDecisionStore, never()).put(anyString(), eq(unparseable), any());
+    }
+
+    @Test
+    @DisplayName("Should reject on a keyword rule without calling the LLM")
+    void shouldRejectOnKeywordRuleWithoutLlm() {
+        // Given
+        Bounty bounty = batchBounty("rule-1", "100.00", "Refactor the plugin loader");
+        FilterResult rejection = new FilterResult(false, 1.0, 0, "Rejected by triage rule(s): architecture (\"refactor\")");
+        when(triageRuleEngine.evaluate(bounty)).thenReturn(Optional.of(rejection));
+
+        // When
+        FilterResult single = filteringService.shouldProcess(bounty);
+        List<FilterResult> batch = filteringService.shouldProcessBatch(List.of(bounty));
+
+        // Then
+        assertSame(rejection, single);
+        assertSame(rejection, batch.get(0));
+        verify(chatClient, never()).call(any(Prompt.class));
+        verify(triageDecisionStore, never()).get(anyString());
+    }
+
+    @Test
+    @DisplayName("Should reject confident classifier rejections without calling the LLM")
+    void shouldRejectOnClassifierPrediction() {
+        // Given
+        Bounty first = batchBounty("clf-1", "100.00", "Migrate the build to a new plugin system");
+        Bounty second = batchBounty("clf-2", "100.00", "Rework the scheduler");
+        when(triageClassifier.predict(any(), any())).thenReturn(
+                Optional.of(new TriageClassifier.Prediction(0.01, TriageClassifier.Verdict.REJECT)));
+
+        // When
+        FilterResult single = filteringService.shouldProcess(first);
+        List<FilterResult> batch = filteringService.shouldProcessBatch(List.of(first, second));
+
+        // Then
+        assertFalse(single.shouldProcess());
+        assertEquals(0.99, single.confidence(), 1e-9);
+        assertTrue(single.reason().contains("classifier"));
+        assertTrue(batch.stream().noneMatch(FilterResult::shouldProcess));
+        verify(chatClient, never()).call(any(Prompt.class));
+        verify(triageDecisionStore, never()).put(anyString(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should still ask the LLM for bounties the classifier escalates")
+    void shouldCallLlmForEscalatedBounties() {
+        // Given
+        Bounty bounty = batchBounty("clf-3", "100.00", "Fix typo in error message");
+        when(triageClassifier.predict(any(), any())).thenReturn(
+                Optional.of(new TriageClassifier.Prediction(0.9, TriageClassifier.Verdict.ESCALATE)));
+        String response = """
+                {"shouldProcess": true, "confidence": 0.95, "estimatedTimeMinutes": 10, "complexity": "simple", "reason": "Typo"}
+                """;
+        when(chatClient.call(any(Prompt.class))).thenReturn(new ChatResponse(List.of(new Generation(response))));
+
+        // When
+        FilterResult result = filteringService.shouldProcess(bounty);
+
+        // Then
+        assertTrue(result.shouldProcess());
+        verify(chatClient, times(1)).call(any(Prompt.class));
+        verify(triageDecisionStore, times(1)).put(anyString(), eq(bounty), eq(result));
+    }
+
+    private Bounty batchBounty(String issueId, String amount, String title) {
+        return Bounty.builder()
+                .issueId(issueId)
+                .repositoryUrl("https://github.com/owner/" + issueId)
+                .platform("algora")
+                .amount(new BigDecimal(amount))
+                .title(title)
+                .description(title + " - see the linked issue")
+                .status(BountyStatus.OPEN)
+                .build();
+    }
+}
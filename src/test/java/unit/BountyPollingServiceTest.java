@@ -19,6 +19,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -77,8 +78,7 @@ class BountyPollingServiceTest {
         when(bountyMapper.toEntity(any(Bounty.class))).thenReturn(entity);
         when(bountyRepository.save(any(BountyEntity.class))).thenReturn(entity);
         when(bountyMapper.toDomain(any(BountyEntity.class))).thenReturn(newBounty);
-        when(filteringService.shouldProcess(any(Bounty.class)))
-                .thenReturn(new com.bugbounty.bounty.triage.FilterResult(true, 0.8, 30, "Good candidate"));
+        acceptAllInBatch();
 
         // When
         List<Bounty> result = bountyPollingService.pollAlgora().collectList().block();
@@ -87,7 +87,7 @@ class BountyPollingServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         verify(bountyRepository, times(1)).save(any(BountyEntity.class));
-        verify(filteringService, times(1)).shouldProcess(any(Bounty.class));
+        verify(filteringService, times(1)).shouldProcessBatch(anyList());
         verify(triageQueueService, times(1)).enqueue(any(Bounty.class));
     }
 
@@ -158,8 +158,7 @@ class BountyPollingServiceTest {
                     .status(e.getStatus())
                     .build();
         });
-        when(filteringService.shouldProcess(any(Bounty.class)))
-                .thenReturn(new com.bugbounty.bounty.triage.FilterResult(true, 0.8, 30, "Good candidate"));
+        acceptAllInBatch();
 
         // When
         List<Bounty> result = bountyPollingService.pollAlgora(new BigDecimal("50.00"))
@@ -210,8 +209,7 @@ class BountyPollingServiceTest {
         when(bountyMapper.toEntity(any(Bounty.class))).thenReturn(entity);
         when(bountyRepository.save(any(BountyEntity.class))).thenReturn(entity);
         when(bountyMapper.toDomain(any(BountyEntity.class))).thenReturn(newBounty);
-        when(filteringService.shouldProcess(any(Bounty.class)))
-                .thenReturn(new com.bugbounty.bounty.triage.FilterResult(true, 0.8, 30, "Good candidate"));
+        acceptAllInBatch();
 
         // When
         List<Bounty> result = bountyPollingService.pollPolar().collectList().block();
@@ -264,8 +262,7 @@ class BountyPollingServiceTest {
             BountyEntity e = invocation.getArgument(0);
             return e.getPlatform().equals("algora") ? algoraBounty : polarBounty;
         });
-        when(filteringService.shouldProcess(any(Bounty.class)))
-                .thenReturn(new com.bugbounty.bounty.triage.FilterResult(true, 0.8, 30, "Good candidate"));
+        acceptAllInBatch();
 
         // When
         List<Bounty> result = bountyPollingService.pollAllPlatforms().collectList().block();
@@ -275,5 +272,103 @@ class BountyPollingServiceTest {
         assertEquals(2, result.size());
         verify(bountyRepository, times(2)).save(any(BountyEntity.class));
     }
-}
 
+    @Test
+    @DisplayName("Should triage all new bounties from a poll in one batch")
+    void shouldTriageNewBountiesInOneBatch() {
+        // Given
+        Bounty first = Bounty.builder().issueId("algora-1").platform("algora")
+                .amount(new BigDecimal("100.00")).status(BountyStatus.OPEN).build();
+        Bounty second = Bounty.builder().issueId("algora-2").platform("algora")
+                .amount(new BigDecimal("120.00")).status(BountyStatus.OPEN).build();
+
+        when(algoraApiClient.fetchBounties()).thenReturn(Flux.just(first, second));
+        when(bountyRepository.existsByIssueIdAndPlatform(anyString(), anyString())).thenReturn(false);
+        when(bountyMapper.toEntity(any(Bounty.class))).thenReturn(new BountyEntity());
+        when(bountyRepository.save(any(BountyEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(bountyMapper.toDomain(any(BountyEntity.class))).thenReturn(first, second);
+        when(filteringService.shouldProcessBatch(List.of(first, second))).thenReturn(List.of(
+                new com.bugbounty.bounty.triage.FilterResult(false, 0.9, 120, "Too complex"),
+                new com.bugbounty.bounty.triage.FilterResult(true, 0.95, 20, "Typo fix")));
+
+        // When
+        List<Bounty> result = bountyPollingService.pollAlgora().collectList().block();
+
+        // Then
+        assertEquals(List.of(first, second), result);
+        verify(filteringService, times(1)).shouldProcessBatch(anyList());
+        verify(filteringService, never()).shouldProcess(any(Bounty.class));
+        verify(triageQueueService, times(1)).enqueue(second);
+        verify(triageQueueService, never()).enqueue(first);
+    }
+
+    @Test
+    @DisplayName("Should release a bounty whose triage failed so the next poll retries it")
+    void shouldReleaseBountyWhoseTriageFailed() {
+        // Given
+        Bounty failed = Bounty.builder().issueId("algora-1").platform("algora")
+                .amount(new BigDecimal("100.00")).status(BountyStatus.OPEN).build();
+        Bounty rejected = Bounty.builder().issueId("algora-2").platform("algora")
+                .amount(new BigDecimal("120.00")).status(BountyStatus.OPEN).build();
+        BountyEntity failedEntity = BountyEntity.builder().issueId("algora-1").platform("algora").build();
+
+        when(algoraApiClient.fetchBounties()).thenReturn(Flux.just(failed, rejected));
+        when(bountyRepository.existsByIssueIdAndPlatform(anyString(), anyString())).thenReturn(false);
+        when(bountyMapper.toEntity(any(Bounty.class))).thenReturn(new BountyEntity());
+        when(bountyRepository.save(any(BountyEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(bountyMapper.toDomain(any(BountyEntity.class))).thenReturn(failed, rejected);
+        when(bountyRepository.findByIssueIdAndPlatform("algora-1", "algora")).thenReturn(java.util.Optional.of(failedEntity));
+        when(filteringService.shouldProcessBatch(List.of(failed, rejected))).thenReturn(List.of(
+                com.bugbounty.bounty.triage.FilterResult.failed("Error during filtering: connection reset"),
+                new com.bugbounty.bounty.triage.FilterResult(false, 0.9, 120, "Too complex")));
+
+        // When
+        List<Bounty> result = bountyPollingService.pollAlgora().collectList().block();
+
+        // Then
+        assertEquals(List.of(rejected), result);
+        verify(bountyRepository).delete(failedEntity);
+        verify(bountyRepository, never()).findByIssueIdAndPlatform("algora-2", "algora");
+        verify(triageQueueService, never()).enqueue(any(Bounty.class));
+    }
+
+    @Test
+    @DisplayName("Should release every bounty of a poll whose triage deadline expired")
+    void shouldReleaseBountiesWhenTriageDeadlineExpires() {
+        // Given
+        Bounty first = Bounty.builder().issueId("algora-1").platform("algora")
+                .amount(new BigDecimal("100.00")).status(BountyStatus.OPEN).build();
+        Bounty second = Bounty.builder().issueId("algora-2").platform("algora")
+                .amount(new BigDecimal("120.00")).status(BountyStatus.OPEN).build();
+        BountyEntity firstEntity = BountyEntity.builder().issueId("algora-1").platform("algora").build();
+        BountyEntity secondEntity = BountyEntity.builder().issueId("algora-2").platform("algora").build();
+
+        when(algoraApiClient.fetchBounties()).thenReturn(Flux.just(first, second));
+        when(bountyRepository.existsByIssueIdAndPlatform(anyString(), anyString())).thenReturn(false);
+        when(bountyMapper.toEntity(any(Bounty.class))).thenReturn(new BountyEntity());
+        when(bountyRepository.save(any(BountyEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(bountyMapper.toDomain(any(BountyEntity.class))).thenReturn(first, second);
+        when(bountyRepository.findByIssueIdAndPlatform("algora-1", "algora")).thenReturn(java.util.Optional.of(firstEntity));
+        when(bountyRepository.findByIssueIdAndPlatform("algora-2", "algora")).thenReturn(java.util.Optional.of(secondEntity));
+        when(filteringService.shouldProcessBatch(anyList()))
+                .thenThrow(new com.bugbounty.llm.deadline.DeadlineExceededException("Deadline exceeded during LLM call at priority TRIAGE"));
+
+        // When
+        List<Bounty> result = bountyPollingService.pollAlgora().collectList().block();
+
+        // Then
+        assertEquals(List.of(), result);
+        verify(bountyRepository).delete(firstEntity);
+        verify(bountyRepository).delete(secondEntity);
+        verify(triageQueueService, never()).enqueue(any(Bounty.class));
+    }
+
+    private void acceptAllInBatch() {
+        when(filteringService.shouldProcessBatch(anyList())).thenAnswer(invocation -> {
+            List<?> bounties = invocation.getArgument(0);
+            return bounties.stream()
+                    .map(bounty -> new com.bugbounty.bounty.triage.FilterResult(true, 0.8, 30, "Good candidate"))
+                    .toList();
+        });
+    }
+}
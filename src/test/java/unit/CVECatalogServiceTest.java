@@ -5,7 +5,11 @@ import com.bugbounty.cve.domain.CVECatalog;
 import com.bugbounty.cve.entity.CVECatalogEntity;
 import com.bugbounty.cve.mapper.CVECatalogMapper;
 import com.bugbounty.cve.repository.CVECatalogRepository;
+import com.bugbounty.llm.cache.LlmResponseCache;
+import com.bugbounty.llm.scheduler.LlmRequestScheduler;
+import com.bugbounty.llm.service.LlmGateway;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -39,6 +43,9 @@ class CVECatalogServiceTest {
     @Mock
     private ChatClient chatClient;
 
+    @Mock
+    private LlmResponseCache responseCache;
+
     @Mock
     private ChatResponse chatResponse;
 
@@ -54,6 +61,9 @@ class CVECatalogServiceTest {
     @Mock
     private LanguageMappingService languageMappingService;
 
+    @Mock
+    private SimilarityIndexService similarityIndexService;
+
     @InjectMocks
     private CVECatalogService catalogService;
 
@@ -67,8 +77,13 @@ class CVECatalogServiceTest {
             java.lang.reflect.Field field = CVECatalogService.class.getDeclaredField("objectMapper");
             field.setAccessible(true);
             field.set(catalogService, objectMapper);
+            
+            java.lang.reflect.Field gatewayField = CVECatalogService.class.getDeclaredField("llmGateway");
+            gatewayField.setAccessible(true);
+            gatewayField.set(catalogService, new LlmGateway(chatClient, null, responseCache,
+                new LlmRequestScheduler(new SimpleMeterRegistry()), objectMapper, new SimpleMeterRegistry()));
         } catch (Exception e) {
-            throw new RuntimeException("Failed to set objectMapper", e);
+            throw new RuntimeException("Failed to set fields", e);
         }
     }
 
@@ -150,6 +165,7 @@ class CVECatalogServiceTest {
                 .verify(java.time.Duration.ofSeconds(5));
 
         verify(catalogRepository, times(1)).save(any(CVECatalogEntity.class));
+        verify(similarityIndexService, times(1)).indexCatalogEntry(any());
     }
 
     @Test
@@ -0,0 +1,117 @@
+package com.bugbounty.cve.service;
+
+import com.bugbounty.cve.domain.CVECatalog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CVECatalogShortlister Tests")
+class CVECatalogShortlisterTest {
+
+    private static final String DESERIALIZATION_DIFF = """
+            diff --git a/src/main/java/com/example/Import.java b/src/main/java/com/example/Import.java
+            --- a/src/main/java/com/example/Import.java
+            +++ b/src/main/java/com/example/Import.java
+            @@ -10,3 +10,4 @@ public class Import {
+                 public Object load(InputStream in) throws IOException {
+            -        return null;
+            +        ObjectInputStream ois = new ObjectInputStream(in);
+            +        return ois.readObject();
+                 }
+            """;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CVECatalogShortlister shortlister;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        shortlister = new CVECatalogShortlister(meterRegistry);
+        ReflectionTestUtils.setField(shortlister, "topK", 2);
+        ReflectionTestUtils.setField(shortlister, "minScore", 1.0);
+    }
+
+    @Test
+    @DisplayName("Should rank entries sharing API names with the diff first")
+    void shouldShortlistEntriesMatchingDiff() {
+        List<CVECatalog> catalog = catalog();
+
+        List<CVECatalog> shortlist = shortlister.shortlist("Java", catalog, DESERIALIZATION_DIFF);
+
+        assertFalse(shortlist.isEmpty());
+        assertTrue(shortlist.size() <= 2);
+        assertEquals("CVE-2015-4852", shortlist.get(0).getCveId());
+        assertTrue(shortlist.stream().noneMatch(entry -> entry.getCveId().equals("CVE-2021-44228")));
+        assertEquals(1L, meterRegistry.get("cve.catalog.shortlist.size").summary().count());
+    }
+
+    @Test
+    @DisplayName("Should return no candidates when nothing in the diff matches")
+    void shouldReturnEmptyWhenNothingMatches() {
+        String diff = """
+                +    private int retries = 3;
+                -    private int retries = 2;
+                """;
+
+        List<CVECatalog> shortlist = shortlister.shortlist("Java", catalog(), diff);
+
+        assertTrue(shortlist.isEmpty());
+        assertEquals(1.0, meterRegistry.get("cve.catalog.shortlist.empty").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should pass small catalogs through unfiltered")
+    void shouldPassThroughSmallCatalogs() {
+        List<CVECatalog> small = catalog().subList(0, 2);
+
+        List<CVECatalog> shortlist = shortlister.shortlist("Java", small, "+ int unrelated = 1;");
+
+        assertEquals(small, shortlist);
+    }
+
+    @Test
+    @DisplayName("Should rebuild the index when the catalog changes")
+    void shouldRebuildIndexWhenCatalogChanges() {
+        List<CVECatalog> catalog = new ArrayList<>(catalog());
+        assertTrue(shortlister.shortlist("Java", catalog, "+ Pattern.compile(userRegex);").isEmpty());
+
+        catalog.add(entry("CVE-2024-0002", "Regular expression denial of service",
+                "User-controlled regex passed to Pattern.compile", "Pattern.compile(request.getParameter(\"re\"))"));
+        List<CVECatalog> shortlist = shortlister.shortlist("Java", catalog, "+ Pattern.compile(userRegex);");
+
+        assertEquals("CVE-2024-0002", shortlist.get(0).getCveId());
+    }
+
+    private List<CVECatalog> catalog() {
+        return List.of(
+                entry("CVE-2021-44228", "Log4Shell JNDI lookup in log messages",
+                        "Logging attacker-controlled strings with Log4j message lookups enabled",
+                        "logger.error(\"Request: \" + request.getHeader(\"X-Api-Version\"));"),
+                entry("CVE-2015-4852", "Unsafe deserialization of untrusted streams",
+                        "Calling ObjectInputStream.readObject on attacker-supplied bytes",
+                        "ObjectInputStream in = new ObjectInputStream(socket.getInputStream()); in.readObject();"),
+                entry("CVE-2022-22965", "Spring4Shell class loader manipulation via data binding",
+                        "Binding request parameters onto objects exposing getClass().getClassLoader()",
+                        "@PostMapping public String greet(Greeting greeting) { }"),
+                entry("CVE-2017-5638", "Struts Content-Type OGNL injection",
+                        "Evaluating OGNL expressions from the Content-Type header",
+                        "OgnlUtil.getValue(request.getContentType(), context, root);"));
+    }
+
+    private CVECatalog entry(String cveId, String summary, String vulnerablePattern, String codeExample) {
+        return CVECatalog.builder()
+                .cveId(cveId)
+                .language("Java")
+                .summary(summary)
+                .vulnerablePattern(vulnerablePattern)
+                .codeExample(codeExample)
+                .build();
+    }
+}
@@ -3,13 +3,16 @@ package com.bugbounty.cve.service;
 import com.bugbounty.cve.domain.BugFinding;
 import com.bugbounty.cve.entity.BugFindingEntity;
 import com.bugbounty.cve.entity.CVECatalogEntity;
-import com.bugbounty.cve.entity.CodebaseIndexEntity;
 import com.bugbounty.cve.mapper.BugFindingMapper;
 import com.bugbounty.cve.repository.BugFindingRepository;
 import com.bugbounty.cve.repository.CVECatalogRepository;
+import com.bugbounty.llm.cache.LlmResponseCache;
+import com.bugbounty.llm.scheduler.LlmRequestScheduler;
+import com.bugbounty.llm.service.LlmGateway;
 import com.bugbounty.repository.repository.RepositoryRepository;
 import com.bugbounty.repository.entity.RepositoryEntity;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -19,8 +22,10 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.ai.chat.ChatClient;
 import org.springframework.ai.chat.ChatResponse;
+import org.springframework.ai.chat.Generation;
 import org.springframework.ai.chat.messages.AssistantMessage;
 import org.springframework.ai.chat.prompt.Prompt;
 import reactor.test.StepVerifier;
@@ -41,6 +46,9 @@ class CVEVerificationServiceTest {
     @Mock
     private ChatClient chatClient;
 
+    @Mock
+    private LlmResponseCache responseCache;
+
     @Mock
     private ChatResponse chatResponse;
 
@@ -74,8 +82,17 @@ class CVEVerificationServiceTest {
             java.lang.reflect.Field field = CVEVerificationService.class.getDeclaredField("objectMapper");
             field.setAccessible(true);
             field.set(verificationService, objectMapper);
+            
+            java.lang.reflect.Field gatewayField = CVEVerificationService.class.getDeclaredField("llmGateway");
+            gatewayField.setAccessible(true);
+            gatewayField.set(verificationService, new LlmGateway(chatClient, null, responseCache,
+                new LlmRequestScheduler(new SimpleMeterRegistry()), objectMapper, new SimpleMeterRegistry()));
+            
+            java.lang.reflect.Field assemblerField = CVEVerificationService.class.getDeclaredField("contextAssembler");
+            assemblerField.setAccessible(true);
+            assemblerField.set(verificationService, new CodebaseContextAssembler(objectMapper, new SimpleMeterRegistry()));
         } catch (Exception e) {
-            throw new RuntimeException("Failed to set objectMapper", e);
+            throw new RuntimeException("Failed to set fields", e);
         }
     }
 
@@ -149,11 +166,8 @@ class CVEVerificationServiceTest {
         when(catalogRepository.findByCveIdAndLanguage("CVE-2024-1234", "Java"))
                 .thenReturn(Optional.of(catalog));
 
-        CodebaseIndexEntity index = CodebaseIndexEntity.builder()
-                .indexData("{}")
-                .build();
-        when(codebaseIndexService.getIndex("https://github.com/owner/repo", "Java"))
-                .thenReturn(Optional.of(index));
+        when(codebaseIndexService.getIndexData(eq("https://github.com/owner/repo"), eq("Java"), any(), any()))
+                .thenReturn(Optional.of("{}"));
 
         // Mock verification response
         String verificationResponse = """
@@ -272,11 +286,8 @@ class CVEVerificationServiceTest {
         when(catalogRepository.findByCveIdAndLanguage("CVE-2024-1234", "Java"))
                 .thenReturn(Optional.of(catalog));
 
-        CodebaseIndexEntity index = CodebaseIndexEntity.builder()
-                .indexData("{}")
-                .build();
-        when(codebaseIndexService.getIndex("https://github.com/owner/repo", "Java"))
-                .thenReturn(Optional.of(index));
+        when(codebaseIndexService.getIndexData(eq("https://github.com/owner/repo"), eq("Java"), any(), any()))
+                .thenReturn(Optional.of("{}"));
 
         // Mock low confidence verification
         String verificationResponse = """
@@ -323,5 +334,197 @@ class CVEVerificationServiceTest {
                 })
                 .verifyComplete();
     }
-}
 
+    @Test
+    @DisplayName("Should use a speculatively generated fix when the root cause is confirmed")
+    void shouldUseSpeculativeFixWhenRootCauseConfirmed() {
+        // Given
+        SimpleMeterRegistry meterRegistry = enableSpeculativeFix();
+        UUID findingId = stubFinding();
+        stubResponses("""
+                {"understood": true, "confidence": 0.9, "analysis": "confirmed", "notes": "ok"}
+                """);
+
+        // When
+        BugFinding result = verificationService.verifyAndProcessBugFinding(findingId)
+                .block(java.time.Duration.ofSeconds(5));
+
+        // Then
+        assertNotNull(result);
+        assertEquals("fixed code", result.getRecommendedFix());
+        assertEquals(BugFinding.BugFindingStatus.FIX_CONFIRMED, result.getStatus());
+        assertTrue(result.getVerificationNotes().contains("Fix Generation: fix generated"));
+        verify(chatClient, times(3)).call(any(Prompt.class));
+        assertEquals(1.0, meterRegistry.get("llm.verification.speculative").tag("outcome", "used").counter().count());
+        assertEquals(1L, meterRegistry.get("llm.verification.speculative.saved").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should discard the speculative fix when root cause confidence is low")
+    void shouldDiscardSpeculativeFixOnLowRootCauseConfidence() {
+        // Given
+        SimpleMeterRegistry meterRegistry = enableSpeculativeFix();
+        UUID findingId = stubFinding();
+        stubResponses("""
+                {"understood": false, "confidence": 0.4, "analysis": "unclear", "notes": "uncertain"}
+                """);
+
+        // When
+        BugFinding result = verificationService.verifyAndProcessBugFinding(findingId)
+                .block(java.time.Duration.ofSeconds(5));
+
+        // Then
+        assertNotNull(result);
+        assertNull(result.getRecommendedFix());
+        assertEquals(BugFinding.BugFindingStatus.HUMAN_REVIEW, result.getStatus());
+        assertTrue(result.getRequiresHumanReview());
+        assertEquals(1.0, meterRegistry.get("llm.verification.speculative").tag("outcome", "discarded").counter().count());
+        assertEquals(1L, meterRegistry.get("llm.verification.speculative.wasted").tag("outcome", "discarded").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should generate the fix sequentially when the speculative fix fails")
+    void shouldFallBackToSequentialFixWhenSpeculativeFixFails() {
+        // Given
+        SimpleMeterRegistry meterRegistry = enableSpeculativeFix();
+        UUID findingId = stubFinding();
+        java.util.concurrent.atomic.AtomicInteger fixRequests = new java.util.concurrent.atomic.AtomicInteger();
+        when(chatClient.call(any(Prompt.class))).thenAnswer(invocation -> {
+            String contents = invocation.<Prompt>getArgument(0).getContents();
+            String json;
+            if (contents.startsWith("Verify that we understand the root cause")) {
+                json = """
+                        {"understood": true, "confidence": 0.9, "analysis": "confirmed", "notes": "ok"}
+                        """;
+            } else if (contents.startsWith("Generate a code fix")) {
+                if (fixRequests.incrementAndGet() == 1) {
+                    throw new IllegalStateException("model unavailable");
+                }
+                json = """
+                        {"fixCode": "fixed code", "notes": "fix generated"}
+                        """;
+            } else {
+                json = """
+                        {"solvesIssue": true, "confidence": 0.9, "notes": "fix confirmed"}
+                        """;
+            }
+            return new ChatResponse(List.of(new Generation(json)));
+        });
+
+        // When
+        BugFinding result = verificationService.verifyAndProcessBugFinding(findingId)
+                .block(java.time.Duration.ofSeconds(5));
+
+        // Then
+        assertNotNull(result);
+        assertEquals("fixed code", result.getRecommendedFix());
+        assertEquals(BugFinding.BugFindingStatus.FIX_CONFIRMED, result.getStatus());
+        assertEquals(2, fixRequests.get());
+        assertEquals(1.0, meterRegistry.get("llm.verification.speculative").tag("outcome", "rejected").counter().count());
+        assertEquals(1L, meterRegistry.get("llm.verification.speculative.wasted").tag("outcome", "rejected").timer().count());
+        assertTrue(meterRegistry.get("llm.verification.speculative.wasted.tokens").tag("outcome", "rejected").counter().count() > 0);
+        assertNull(meterRegistry.find("llm.verification.speculative").tag("outcome", "used").counter());
+        assertNull(meterRegistry.find("llm.verification.speculative.saved").timer());
+    }
+
+    @Test
+    @DisplayName("Should count a speculative fix that fails the fix check, and the check itself, as wasted")
+    void shouldCountRejectedSpeculativeFixAsWasted() {
+        // Given
+        SimpleMeterRegistry meterRegistry = enableSpeculativeFix();
+        UUID findingId = stubFinding();
+        java.util.concurrent.atomic.AtomicInteger fixChecks = new java.util.concurrent.atomic.AtomicInteger();
+        when(chatClient.call(any(Prompt.class))).thenAnswer(invocation -> {
+            String contents = invocation.<Prompt>getArgument(0).getContents();
+            String json;
+            if (contents.startsWith("Verify that we understand the root cause")) {
+                json = """
+                        {"understood": true, "confidence": 0.9, "analysis": "confirmed", "notes": "ok"}
+                        """;
+            } else if (contents.startsWith("Generate a code fix")) {
+                json = """
+                        {"fixCode": "fixed code", "notes": "fix generated"}
+                        """;
+            } else if (fixChecks.incrementAndGet() == 1) {
+                json = """
+                        {"solvesIssue": false, "confidence": 0.3, "notes": "does not fix it"}
+                        """;
+            } else {
+                json = """
+                        {"solvesIssue": true, "confidence": 0.9, "notes": "fix confirmed"}
+                        """;
+            }
+            return new ChatResponse(List.of(new Generation(json)));
+        });
+
+        // When
+        BugFinding result = verificationService.verifyAndProcessBugFinding(findingId)
+                .block(java.time.Duration.ofSeconds(5));
+
+        // Then
+        assertNotNull(result);
+        assertEquals(BugFinding.BugFindingStatus.FIX_CONFIRMED, result.getStatus());
+        assertEquals(2, fixChecks.get());
+        verify(chatClient, times(5)).call(any(Prompt.class));
+        assertEquals(1.0, meterRegistry.get("llm.verification.speculative").tag("outcome", "rejected").counter().count());
+        assertEquals(1L, meterRegistry.get("llm.verification.speculative.wasted").tag("outcome", "rejected").timer().count());
+        // Tokens of both the fix generation and the rejected check
+        double wastedTokens = meterRegistry.get("llm.verification.speculative.wasted.tokens")
+                .tag("outcome", "rejected").counter().count();
+        assertTrue(wastedTokens > 0);
+        assertNull(meterRegistry.find("llm.verification.speculative.wasted").tag("outcome", "discarded").timer());
+    }
+
+    private SimpleMeterRegistry enableSpeculativeFix() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(verificationService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(verificationService, "speculativeFixEnabled", true);
+        return meterRegistry;
+    }
+
+    private UUID stubFinding() {
+        UUID findingId = UUID.randomUUID();
+        BugFindingEntity entity = BugFindingEntity.builder()
+                .id(findingId)
+                .repositoryUrl("https://github.com/owner/repo")
+                .status(BugFindingEntity.BugFindingStatus.DETECTED)
+                .build();
+        when(bugFindingRepository.findById(findingId)).thenReturn(Optional.of(entity));
+        when(bugFindingMapper.toDomain(entity))
+                .thenReturn(BugFinding.builder()
+                        .id(findingId)
+                        .repositoryUrl("https://github.com/owner/repo")
+                        .issueTitle("NPE when config is missing")
+                        .rootCauseAnalysis("Config lookup result is not null-checked")
+                        .status(BugFinding.BugFindingStatus.DETECTED)
+                        .affectedFiles(List.of("src/main/java/Config.java"))
+                        .build());
+        when(bugFindingMapper.toEntity(any(BugFinding.class))).thenReturn(entity);
+        when(repositoryRepository.findByUrl("https://github.com/owner/repo")).thenReturn(Optional.empty());
+        when(codebaseIndexService.getIndexData(any(), any(), any(), any())).thenReturn(Optional.empty());
+        return findingId;
+    }
+
+    /**
+     * Answer each of the three prompts by its wording, since the root cause check and the
+     * speculative fix run concurrently.
+     */
+    private void stubResponses(String rootCauseResponse) {
+        when(chatClient.call(any(Prompt.class))).thenAnswer(invocation -> {
+            String contents = invocation.<Prompt>getArgument(0).getContents();
+            String json;
+            if (contents.startsWith("Verify that we understand the root cause")) {
+                json = rootCauseResponse;
+            } else if (contents.startsWith("Generate a code fix")) {
+                json = """
+                        {"fixCode": "fixed code", "notes": "fix generated"}
+                        """;
+            } else {
+                json = """
+                        {"solvesIssue": true, "confidence": 0.9, "notes": "fix confirmed"}
+                        """;
+            }
+            return new ChatResponse(List.of(new Generation(json)));
+        });
+    }
+}
@@ -0,0 +1,203 @@
+package com.bugbounty.cve.service;
+
+import com.bugbounty.cve.index.JavaIndexer;
+import com.bugbounty.cve.search.Bm25Index;
+import com.bugbounty.repository.domain.Repository;
+import com.bugbounty.repository.service.GitOperations;
+import com.bugbounty.repository.service.RepositoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CodeSearchService Tests")
+class CodeSearchServiceTest {
+
+    @Mock
+    private RepositoryService repositoryService;
+
+    @TempDir
+    Path tempDir;
+
+    private Repository repository;
+
+    /** Files committed at the commit being walked. */
+    private final Map<String, String> committed = new HashMap<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path clone = Files.createDirectories(tempDir.resolve("owner/repo"));
+        repository = Repository.builder().url("https://github.com/owner/repo").build();
+        repository.markAsCloned(clone.toString());
+
+        lenient().doAnswer(invocation -> {
+            Predicate<String> filter = invocation.getArgument(2);
+            GitOperations.CommittedFileVisitor visitor = invocation.getArgument(3);
+            for (Map.Entry<String, String> file : committed.entrySet()) {
+                if (filter.test(file.getKey())) {
+                    visitor.visit(file.getKey(), file.getValue());
+                }
+            }
+            return null;
+        }).when(repositoryService).walkCommittedFiles(eq(repository), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should return the lines of the chunks matching the issue text")
+    void shouldSearchCommittedFiles() throws Exception {
+        // Given
+        commit("src/TokenValidator.java", """
+                class TokenValidator {
+                  boolean isExpired(Token token) {
+                    return token.expiry().isBefore(clock.instant());
+                  }
+                }
+                """);
+        commit("src/ReportExporter.java", "class ReportExporter { void exportCsv() {} }");
+        when(repositoryService.getHeadCommitId(repository)).thenReturn("c1");
+
+        // When
+        List<CodeSearchService.CodeChunk> chunks = service().search(repository, "Expired tokens are still accepted");
+
+        // Then
+        assertEquals(1, chunks.size());
+        assertEquals("src/TokenValidator.java", chunks.get(0).path());
+        assertEquals(1, chunks.get(0).startLine());
+        assertTrue(chunks.get(0).content().contains("isExpired(Token token)"));
+    }
+
+    @Test
+    @DisplayName("Should re-read only files changed since the indexed commit")
+    void shouldUpdateFromDiff() throws Exception {
+        // Given
+        commit("src/TokenValidator.java", "class TokenValidator { boolean isExpired() {} }");
+        commit("src/ReportExporter.java", "class ReportExporter { void exportCsv() {} }");
+        when(repositoryService.getHeadCommitId(repository)).thenReturn("c1");
+        CodeSearchService service = service();
+        service.updateIndex(repository);
+
+        commit("src/ReportExporter.java", "class ReportExporter { void exportPdf() {} }");
+        committed.remove("src/TokenValidator.java");
+        when(repositoryService.getHeadCommitId(repository)).thenReturn("c2");
+        when(repositoryService.getChangedFiles(repository, "c1", "c2"))
+                .thenReturn(List.of("src/ReportExporter.java", "src/TokenValidator.java"));
+
+        // When
+        Bm25Index index = service.updateIndex(repository).orElseThrow();
+
+        // Then
+        assertEquals("c2", index.commit());
+        assertEquals(1, index.fileCount());
+        assertTrue(index.search("exportCsv", 5).isEmpty());
+        assertTrue(index.search("expired", 5).isEmpty());
+        assertEquals("src/ReportExporter.java", index.search("pdf", 5).get(0).path());
+        verify(repositoryService).walkCommittedFiles(eq(repository), eq("c2"), argThat(filter ->
+                filter.test("src/ReportExporter.java") && !filter.test("src/Other.java")), any());
+    }
+
+    @Test
+    @DisplayName("Should reload the persisted index instead of reading the tree again")
+    void shouldReloadPersistedIndex() throws Exception {
+        // Given
+        commit("src/TokenValidator.java", "class TokenValidator { boolean isExpired() {} }");
+        when(repositoryService.getHeadCommitId(repository)).thenReturn("c1");
+        service().updateIndex(repository);
+        clearInvocations(repositoryService);
+
+        // When
+        Bm25Index index = service().updateIndex(repository).orElseThrow();
+
+        // Then
+        assertTrue(Files.isRegularFile(tempDir.resolve(".code-search/owner/repo.bm25")));
+        assertEquals("c1", index.commit());
+        assertEquals(1, index.fileCount());
+        verify(repositoryService, never()).walkCommittedFiles(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should index only source files")
+    void shouldIndexOnlySourceFiles() throws Exception {
+        // Given
+        commit("src/TokenValidator.java", "class TokenValidator { boolean isExpired() {} }");
+        commit("package-lock.json", "{\"expired\": \"expired expired\"}");
+        commit("fixtures/tokens.csv", "expired,expired,expired");
+        when(repositoryService.getHeadCommitId(repository)).thenReturn("c1");
+
+        // When
+        Bm25Index index = service().updateIndex(repository).orElseThrow();
+
+        // Then
+        assertEquals(Set.of("src/TokenValidator.java"), index.paths());
+    }
+
+    @Test
+    @DisplayName("Should read result lines from the indexed commit, not the working tree")
+    void shouldReadResultLinesFromIndexedCommit() throws Exception {
+        // Given
+        commit("src/TokenValidator.java", "class TokenValidator {\n  boolean isExpired() {}\n}\n");
+        Files.writeString(Path.of(repository.getLocalPath()).resolve("src/TokenValidator.java"),
+                "class TokenValidator {\n  // uncommitted edit\n}\n");
+        when(repositoryService.getHeadCommitId(repository)).thenReturn("c1");
+
+        // When
+        List<CodeSearchService.CodeChunk> chunks = service().search(repository, "expired token");
+
+        // Then
+        assertEquals(1, chunks.size());
+        assertEquals("class TokenValidator {\n  boolean isExpired() {}\n}\n", chunks.get(0).content());
+        verify(repositoryService, times(2)).walkCommittedFiles(eq(repository), eq("c1"), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should rebuild when ignore or attribute rules changed")
+    void shouldRebuildWhenExclusionRulesChange() throws Exception {
+        // Given
+        commit("src/TokenValidator.java", "class TokenValidator { boolean isExpired() {} }");
+        when(repositoryService.getHeadCommitId(repository)).thenReturn("c1");
+        CodeSearchService service = service();
+        service.updateIndex(repository);
+
+        commit("src/Generated.java", "class Generated { void exportPdf() {} }");
+        when(repositoryService.getHeadCommitId(repository)).thenReturn("c2");
+        when(repositoryService.getChangedFiles(repository, "c1", "c2")).thenReturn(List.of(".gitattributes"));
+
+        // When
+        Bm25Index index = service.updateIndex(repository).orElseThrow();
+
+        // Then
+        assertEquals("c2", index.commit());
+        assertEquals(Set.of("src/TokenValidator.java", "src/Generated.java"), index.paths());
+    }
+
+    private void commit(String path, String content) throws Exception {
+        committed.put(path, content);
+        Path file = Path.of(repository.getLocalPath()).resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    private CodeSearchService service() throws Exception {
+        CodeSearchService service = new CodeSearchService(repositoryService, List.of(new JavaIndexer()));
+        java.lang.reflect.Field basePathField = CodeSearchService.class.getDeclaredField("basePath");
+        basePathField.setAccessible(true);
+        basePathField.set(service, tempDir.toString());
+        return service;
+    }
+}
@@ -0,0 +1,116 @@
+package com.bugbounty.cve.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CodebaseContextAssembler Tests")
+class CodebaseContextAssemblerTest {
+
+    private static final String JAVA_INDEX = """
+            {
+              "language": "Java",
+              "totalClasses": 4,
+              "packages": [
+                {"package": "com.example.billing", "class": "InvoiceService",
+                 "path": "src/main/java/com/example/billing/InvoiceService.java", "methods": ["createInvoice", "voidInvoice"]},
+                {"package": "com.example.auth", "class": "LoginController",
+                 "path": "src/main/java/com/example/auth/LoginController.java", "methods": ["login", "logout"]},
+                {"package": "com.example.auth", "class": "TokenValidator",
+                 "path": "src/main/java/com/example/auth/TokenValidator.java", "methods": ["validate"]},
+                {"package": "com.example.report", "class": "ReportExporter",
+                 "path": "src/main/java/com/example/report/ReportExporter.java", "methods": ["exportCsv"]}
+              ]
+            }
+            """;
+
+    private ObjectMapper objectMapper;
+    private SimpleMeterRegistry meterRegistry;
+    private CodebaseContextAssembler assembler;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        meterRegistry = new SimpleMeterRegistry();
+        assembler = new CodebaseContextAssembler(objectMapper, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should keep only entries near the seed paths")
+    void shouldSelectEntriesByPathProximity() throws Exception {
+        CodebaseContextAssembler.AssembledContext context = assembler.assemble(JAVA_INDEX,
+                List.of("src/main/java/com/example/auth/LoginController.java"), "", 10_000);
+
+        JsonNode packages = objectMapper.readTree(context.content()).get("packages");
+        assertEquals("LoginController", packages.get(0).get("class").asText());
+        assertEquals("TokenValidator", packages.get(1).get("class").asText());
+        assertEquals(4, context.totalEntries());
+        assertTrue(context.includedEntries() < 4);
+        assertEquals(4 - context.includedEntries(),
+                objectMapper.readTree(context.content()).get("omittedEntries").asInt());
+    }
+
+    @Test
+    @DisplayName("Should rank entries by symbol overlap with the seed text")
+    void shouldSelectEntriesBySymbolOverlap() throws Exception {
+        String diff = "-    return exportCsv(rows);\n+    return ReportExporter.exportCsv(escape(rows));";
+
+        CodebaseContextAssembler.AssembledContext context = assembler.assemble(JAVA_INDEX, List.of(), diff, 10_000);
+
+        JsonNode packages = objectMapper.readTree(context.content()).get("packages");
+        assertEquals(1, packages.size());
+        assertEquals("ReportExporter", packages.get(0).get("class").asText());
+    }
+
+    @Test
+    @DisplayName("Should stay within the token budget and keep header fields")
+    void shouldRespectTokenBudget() throws Exception {
+        int budget = 80;
+
+        CodebaseContextAssembler.AssembledContext context = assembler.assemble(JAVA_INDEX, List.of(), "", budget);
+
+        assertTrue(context.estimatedTokens() <= budget, "estimated tokens " + context.estimatedTokens());
+        assertTrue(context.trimmedTokens() > 0);
+        JsonNode root = objectMapper.readTree(context.content());
+        assertEquals("Java", root.get("language").asText());
+        assertEquals(4, root.get("totalClasses").asInt());
+        assertEquals(1.0, meterRegistry.get("llm.context.index.trimmed.tokens").summary().count());
+    }
+
+    @Test
+    @DisplayName("Should handle generic indexes that list plain file paths")
+    void shouldHandleGenericIndex() throws Exception {
+        String index = "{\"language\":\"Go\",\"sourceFiles\":[\"cmd/main.go\",\"pkg/http/server.go\",\"pkg/http/router.go\"],\"totalFiles\":3}";
+
+        CodebaseContextAssembler.AssembledContext context = assembler.assemble(index,
+                List.of("pkg/http/server.go"), "", 10_000);
+
+        JsonNode files = objectMapper.readTree(context.content()).get("sourceFiles");
+        assertEquals("pkg/http/server.go", files.get(0).asText());
+        assertEquals("pkg/http/router.go", files.get(1).asText());
+        assertEquals(2, files.size());
+    }
+
+    @Test
+    @DisplayName("Should fall back to index order when nothing is relevant")
+    void shouldFallBackToIndexOrderWithoutSeeds() throws Exception {
+        CodebaseContextAssembler.AssembledContext context = assembler.assemble(JAVA_INDEX, null, null, 10_000);
+
+        assertEquals(4, context.includedEntries());
+        assertFalse(objectMapper.readTree(context.content()).has("omittedEntries"));
+    }
+
+    @Test
+    @DisplayName("Should return an empty object for a missing index")
+    void shouldHandleMissingIndex() {
+        assertEquals("{}", assembler.assemble(null, List.of(), "diff", 100).content());
+        assertEquals("{}", assembler.assemble("{}", List.of(), "diff", 100).content());
+    }
+}
@@ -1,8 +1,20 @@
 package com.bugbounty.cve.service;
 
 import com.bugbounty.cve.entity.CodebaseIndexEntity;
+import com.bugbounty.cve.entity.CodebaseIndexFileEntity;
+import com.bugbounty.cve.entity.CodebaseIndexSymbol;
+import com.bugbounty.cve.index.CSharpIndexer;
+import com.bugbounty.cve.index.GoIndexer;
+import com.bugbounty.cve.index.JavaIndexer;
+import com.bugbounty.cve.index.JavaScriptIndexer;
+import com.bugbounty.cve.index.PhpIndexer;
+import com.bugbounty.cve.index.PythonIndexer;
+import com.bugbounty.cve.index.RubyIndexer;
+import com.bugbounty.cve.index.RustIndexer;
+import com.bugbounty.cve.repository.CodebaseIndexFileRepository;
 import com.bugbounty.cve.repository.CodebaseIndexRepository;
 import com.bugbounty.repository.domain.Repository;
+import com.bugbounty.repository.service.GitOperations;
 import com.bugbounty.repository.service.RepositoryService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,16 +22,21 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,9 +46,15 @@ class CodebaseIndexServiceTest {
     @Mock
     private CodebaseIndexRepository indexRepository;
 
+    @Mock
+    private CodebaseIndexFileRepository fileRepository;
+
     @Mock
     private RepositoryService repositoryService;
 
+    @Mock
+    private CodebaseIndexShardService shardService;
+
     @InjectMocks
     private CodebaseIndexService indexService;
 
@@ -52,13 +75,23 @@ class CodebaseIndexServiceTest {
             java.lang.reflect.Field basePathField = CodebaseIndexService.class.getDeclaredField("basePath");
             basePathField.setAccessible(true);
             basePathField.set(indexService, tempDir.toString());
+            
+            java.lang.reflect.Field indexersField = CodebaseIndexService.class.getDeclaredField("languageIndexers");
+            indexersField.setAccessible(true);
+            indexersField.set(indexService, List.of(new JavaIndexer(), new PythonIndexer(), new JavaScriptIndexer(),
+                    new GoIndexer(), new RustIndexer(), new RubyIndexer(), new PhpIndexer(), new CSharpIndexer()));
+            
+            // Most tests index plain directories; committed-tree indexing is covered separately
+            java.lang.reflect.Field fromGitField = CodebaseIndexService.class.getDeclaredField("fromGit");
+            fromGitField.setAccessible(true);
+            fromGitField.set(indexService, false);
         } catch (Exception e) {
             throw new RuntimeException("Failed to set fields", e);
         }
     }
 
     @Test
-    @DisplayName("Should index Java repository")
+    @DisplayName("Should index Java repository into per-file rows")
     void shouldIndexJavaRepository() throws Exception {
         // Given
         Path javaFile = tempDir.resolve("Test.java");
@@ -76,10 +109,12 @@ class CodebaseIndexServiceTest {
                 .build();
         repository.markAsCloned(tempDir.toString());
 
+        UUID indexId = UUID.randomUUID();
         when(indexRepository.findByRepositoryUrlAndLanguage(anyString(), anyString()))
                 .thenReturn(Optional.empty());
         when(indexRepository.save(any(CodebaseIndexEntity.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
+                .thenAnswer(invocation -> withId(invocation.getArgument(0), indexId));
+        when(fileRepository.findByIndexIdOrderByPath(indexId)).thenReturn(List.of());
 
         // When
         CodebaseIndexEntity result = indexService.indexRepository(repository, "Java");
@@ -88,9 +123,18 @@ class CodebaseIndexServiceTest {
         assertNotNull(result);
         assertEquals("https://github.com/owner/repo", result.getRepositoryUrl());
         assertEquals("Java", result.getLanguage());
-        assertNotNull(result.getIndexData());
-        assertTrue(result.getIndexData().contains("Java"));
+        assertNull(result.getIndexData());
         verify(indexRepository, times(1)).save(any(CodebaseIndexEntity.class));
+        verify(shardService).rebuildShards(indexId);
+
+        List<CodebaseIndexFileEntity> files = savedFiles();
+        assertEquals(1, files.size());
+        assertEquals(indexId, files.get(0).getIndexId());
+        assertEquals("Test.java", files.get(0).getPath());
+        assertEquals("", files.get(0).getDirectory());
+        assertTrue(files.get(0).getEntryData().contains("\"package\":\"com.example\""));
+        assertEquals(List.of(new CodebaseIndexSymbol("Test", "class"), new CodebaseIndexSymbol("method", "method")),
+                files.get(0).getSymbols());
     }
 
     @Test
@@ -106,7 +150,7 @@ class CodebaseIndexServiceTest {
         repository.markAsCloned(tempDir.toString());
 
         CodebaseIndexEntity existing = CodebaseIndexEntity.builder()
-                .id(java.util.UUID.randomUUID())
+                .id(UUID.randomUUID())
                 .repositoryUrl("https://github.com/owner/repo")
                 .language("Java")
                 .indexVersion(1)
@@ -163,5 +207,535 @@ class CodebaseIndexServiceTest {
         assertTrue(result.isPresent());
         assertEquals("Java", result.get().getLanguage());
     }
-}
 
+    @Test
+    @DisplayName("Should upsert only files changed since the indexed commit")
+    void shouldReindexOnlyChangedFiles() throws Exception {
+        // Given
+        Files.writeString(tempDir.resolve("A.java"), "package com.example;\npublic class A {}");
+        Files.writeString(tempDir.resolve("C.java"), """
+                package com.example;
+                
+                public class C {
+                    public void added() {
+                    }
+                }
+                """);
+
+        Repository repository = Repository.builder()
+                .url("https://github.com/owner/repo")
+                .build();
+        repository.markAsCloned(tempDir.toString());
+
+        UUID indexId = UUID.randomUUID();
+        CodebaseIndexEntity existing = CodebaseIndexEntity.builder()
+                .id(indexId)
+                .repositoryUrl("https://github.com/owner/repo")
+                .language("Java")
+                .indexVersion(3)
+                .indexedCommit("c1")
+                .build();
+        CodebaseIndexFileEntity deleted = CodebaseIndexFileEntity.builder()
+                .indexId(indexId)
+                .path("B.java")
+                .entryData("{\"path\":\"B.java\"}")
+                .build();
+
+        when(repositoryService.getHeadCommitId(repository)).thenReturn("c2");
+        when(repositoryService.getChangedFiles(repository, "c1", "c2")).thenReturn(List.of("B.java", "C.java"));
+        when(indexRepository.findByRepositoryUrlAndLanguage(anyString(), anyString()))
+                .thenReturn(Optional.of(existing));
+        when(indexRepository.save(any(CodebaseIndexEntity.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(fileRepository.findByIndexIdAndPathIn(indexId, List.of("B.java", "C.java")))
+                .thenReturn(List.of(deleted));
+
+        // When
+        CodebaseIndexEntity result = indexService.indexRepository(repository, "Java");
+
+        // Then
+        assertEquals("c2", result.getIndexedCommit());
+        assertEquals(4, result.getIndexVersion());
+        verify(fileRepository).deleteAll(argThat(files -> List.copyOf((java.util.Collection<?>) files).equals(List.of(deleted))));
+        List<CodebaseIndexFileEntity> files = savedFiles();
+        assertEquals(List.of("C.java"), files.stream().map(CodebaseIndexFileEntity::getPath).toList()); // A.java not re-read
+        assertTrue(files.get(0).getEntryData().contains("\"signature\":\"public void added()\""));
+        verify(fileRepository, never()).findByIndexIdOrderByPath(any());
+    }
+
+    @Test
+    @DisplayName("Should rebuild the whole index when ignore or attribute rules changed")
+    void shouldRebuildWhenExclusionRulesChange() throws Exception {
+        // Given
+        Files.writeString(tempDir.resolve("A.java"), "package com.example;\npublic class A {}");
+
+        Repository repository = Repository.builder()
+                .url("https://github.com/owner/repo")
+                .build();
+        repository.markAsCloned(tempDir.toString());
+
+        UUID indexId = UUID.randomUUID();
+        CodebaseIndexEntity existing = CodebaseIndexEntity.builder()
+                .id(indexId)
+                .repositoryUrl("https://github.com/owner/repo")
+                .language("Java")
+                .indexVersion(1)
+                .indexedCommit("c1")
+                .build();
+        CodebaseIndexFileEntity nowVendored = CodebaseIndexFileEntity.builder()
+                .indexId(indexId)
+                .path("vendor/Lib.java")
+                .entryData("{\"path\":\"vendor/Lib.java\"}")
+                .build();
+
+        when(repositoryService.getHeadCommitId(repository)).thenReturn("c2");
+        when(repositoryService.getChangedFiles(repository, "c1", "c2")).thenReturn(List.of("sub/.gitattributes"));
+        when(indexRepository.findByRepositoryUrlAndLanguage(anyString(), anyString()))
+                .thenReturn(Optional.of(existing));
+        when(indexRepository.save(any(CodebaseIndexEntity.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(fileRepository.findByIndexIdOrderByPath(indexId)).thenReturn(List.of(nowVendored));
+
+        // When
+        CodebaseIndexEntity result = indexService.indexRepository(repository, "Java");
+
+        // Then
+        assertEquals("c2", result.getIndexedCommit());
+        assertEquals(List.of("A.java"), savedFiles().stream().map(CodebaseIndexFileEntity::getPath).toList());
+        verify(fileRepository).deleteAll(argThat(files -> List.copyOf((java.util.Collection<?>) files).equals(List.of(nowVendored))));
+        verify(fileRepository, never()).findByIndexIdAndPathIn(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should leave index untouched when HEAD is the indexed commit")
+    void shouldSkipIndexWhenHeadUnchanged() throws Exception {
+        // Given
+        Repository repository = Repository.builder()
+                .url("https://github.com/owner/repo")
+                .build();
+        repository.markAsCloned(tempDir.toString());
+
+        CodebaseIndexEntity existing = CodebaseIndexEntity.builder()
+                .repositoryUrl("https://github.com/owner/repo")
+                .language("Java")
+                .indexedCommit("c1")
+                .build();
+
+        when(repositoryService.getHeadCommitId(repository)).thenReturn("c1");
+        when(indexRepository.findByRepositoryUrlAndLanguage(anyString(), anyString()))
+                .thenReturn(Optional.of(existing));
+
+        // When
+        CodebaseIndexEntity result = indexService.indexRepository(repository, "Java");
+
+        // Then
+        assertSame(existing, result);
+        verify(repositoryService, never()).getChangedFiles(any(), any(), any());
+        verify(indexRepository, never()).save(any());
+        verifyNoInteractions(fileRepository);
+    }
+
+    @Test
+    @DisplayName("Should rebuild the whole index when the indexed commit cannot be diffed")
+    void shouldRebuildWhenDiffFails() throws Exception {
+        // Given
+        Files.writeString(tempDir.resolve("A.java"), "package com.example;\npublic class A {}");
+
+        Repository repository = Repository.builder()
+                .url("https://github.com/owner/repo")
+                .build();
+        repository.markAsCloned(tempDir.toString());
+
+        UUID indexId = UUID.randomUUID();
+        CodebaseIndexEntity existing = CodebaseIndexEntity.builder()
+                .id(indexId)
+                .repositoryUrl("https://github.com/owner/repo")
+                .language("Java")
+                .indexVersion(1)
+                .indexedCommit("rewritten")
+                .build();
+
+        when(repositoryService.getHeadCommitId(repository)).thenReturn("c2");
+        when(repositoryService.getChangedFiles(repository, "rewritten", "c2"))
+                .thenThrow(new IllegalArgumentException("Commit not found: rewritten"));
+        when(indexRepository.findByRepositoryUrlAndLanguage(anyString(), anyString()))
+                .thenReturn(Optional.of(existing));
+        when(indexRepository.save(any(CodebaseIndexEntity.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(fileRepository.findByIndexIdOrderByPath(indexId)).thenReturn(List.of());
+
+        // When
+        CodebaseIndexEntity result = indexService.indexRepository(repository, "Java");
+
+        // Then
+        assertEquals("c2", result.getIndexedCommit());
+        assertEquals(List.of("A.java"), savedFiles().stream().map(CodebaseIndexFileEntity::getPath).toList());
+    }
+
+    @Test
+    @DisplayName("Should rebuild a legacy JSON blob index into per-file rows")
+    void shouldRebuildLegacyBlobIndex() throws Exception {
+        // Given
+        Files.writeString(tempDir.resolve("A.java"), "package com.example;\npublic class A {}");
+
+        Repository repository = Repository.builder()
+                .url("https://github.com/owner/repo")
+                .build();
+        repository.markAsCloned(tempDir.toString());
+
+        UUID indexId = UUID.randomUUID();
+        CodebaseIndexEntity existing = CodebaseIndexEntity.builder()
+                .id(indexId)
+                .repositoryUrl("https://github.com/owner/repo")
+                .language("Java")
+                .indexVersion(2)
+                .indexData("{\"language\":\"Java\",\"totalClasses\":0,\"packages\":[]}")
+                .indexedCommit("c1")
+                .build();
+
+        when(repositoryService.getHeadCommitId(repository)).thenReturn("c2");
+        when(indexRepository.findByRepositoryUrlAndLanguage(anyString(), anyString()))
+                .thenReturn(Optional.of(existing));
+        when(indexRepository.save(any(CodebaseIndexEntity.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(fileRepository.findByIndexIdOrderByPath(indexId)).thenReturn(List.of());
+
+        // When
+        CodebaseIndexEntity result = indexService.indexRepository(repository, "Java");
+
+        // Then
+        assertNull(result.getIndexData());
+        verify(repositoryService, never()).getChangedFiles(any(), any(), any());
+        assertEquals(List.of("A.java"), savedFiles().stream().map(CodebaseIndexFileEntity::getPath).toList());
+    }
+
+    @Test
+    @DisplayName("Should render the stored rows as the legacy JSON document")
+    @SuppressWarnings("unchecked")
+    void shouldRenderIndexDataFromRows() throws Exception {
+        // Given
+        UUID indexId = UUID.randomUUID();
+        CodebaseIndexEntity entity = CodebaseIndexEntity.builder()
+                .id(indexId)
+                .repositoryUrl("https://github.com/owner/repo")
+                .language("Java")
+                .build();
+        when(indexRepository.findByRepositoryUrlAndLanguage("https://github.com/owner/repo", "Java"))
+                .thenReturn(Optional.of(entity));
+        when(fileRepository.findEntryDataByIndexId(indexId)).thenReturn(List.of(
+                "{\"package\":\"com.example\",\"class\":\"A\",\"path\":\"A.java\",\"methods\":[]}",
+                "{\"package\":\"com.example\",\"class\":\"B\",\"path\":\"B.java\",\"methods\":[]}"));
+
+        // When
+        String json = indexService.getIndexData("https://github.com/owner/repo", "Java").orElseThrow();
+
+        // Then
+        Map<String, Object> index = objectMapper.readValue(json, Map.class);
+        assertEquals("Java", index.get("language"));
+        assertEquals(2, index.get("totalClasses"));
+        List<Map<String, Object>> packages = (List<Map<String, Object>>) index.get("packages");
+        assertEquals(List.of("A.java", "B.java"), packages.stream().map(p -> p.get("path")).toList());
+    }
+
+    @Test
+    @DisplayName("Should return the legacy blob for indexes not yet stored per file")
+    void shouldRenderLegacyBlob() {
+        // Given
+        CodebaseIndexEntity entity = CodebaseIndexEntity.builder()
+                .language("Java")
+                .indexData("{\"language\":\"Java\"}")
+                .build();
+        when(indexRepository.findByRepositoryUrlAndLanguage("https://github.com/owner/repo", "Java"))
+                .thenReturn(Optional.of(entity));
+
+        // When
+        Optional<String> json = indexService.getIndexData("https://github.com/owner/repo", "Java");
+
+        // Then
+        assertEquals(Optional.of("{\"language\":\"Java\"}"), json);
+        verifyNoInteractions(fileRepository);
+    }
+
+    @Test
+    @DisplayName("Should render the selected shards of an index too large for the prompt")
+    void shouldRenderSelectedShards() throws Exception {
+        // Given
+        UUID indexId = UUID.randomUUID();
+        CodebaseIndexEntity entity = CodebaseIndexEntity.builder().id(indexId).language("Java").build();
+        when(indexRepository.findByRepositoryUrlAndLanguage("https://github.com/owner/repo", "Java"))
+                .thenReturn(Optional.of(entity));
+        when(shardService.selectShards(eq(indexId), eq(List.of("billing/src/Invoice.java")), eq("Invoice total"), anyLong()))
+                .thenReturn(Optional.of(new CodebaseIndexShardService.ShardSelection(40, List.of("billing/src"),
+                        List.of("{\"directory\":\".\",\"files\":0,\"totalFiles\":40}"), 39)));
+        when(fileRepository.findEntryDataByIndexIdAndDirectoryIn(indexId, List.of("billing/src"))).thenReturn(List.of(
+                "{\"package\":\"billing\",\"class\":\"Invoice\",\"path\":\"billing/src/Invoice.java\",\"methods\":[]}"));
+
+        // When
+        String json = indexService.getIndexData("https://github.com/owner/repo", "Java",
+                List.of("billing/src/Invoice.java"), "Invoice total").orElseThrow();
+
+        // Then
+        Map<String, Object> index = objectMapper.readValue(json, Map.class);
+        assertEquals(40, index.get("totalClasses"));
+        assertEquals(39, index.get("omittedFiles"));
+        assertEquals(1, ((List<?>) index.get("packages")).size());
+        assertEquals(".", ((Map<?, ?>) ((List<?>) index.get("directories")).get(0)).get("directory"));
+        verify(fileRepository, never()).findEntryDataByIndexId(any());
+    }
+
+    @Test
+    @DisplayName("Should render the whole index when it fits the prompt or has no shards yet")
+    void shouldRenderWholeIndexWithoutShardSelection() {
+        // Given
+        UUID indexId = UUID.randomUUID();
+        CodebaseIndexEntity entity = CodebaseIndexEntity.builder().id(indexId).language("Java").build();
+        when(indexRepository.findByRepositoryUrlAndLanguage("https://github.com/owner/repo", "Java"))
+                .thenReturn(Optional.of(entity));
+        when(shardService.selectShards(eq(indexId), any(), any(), anyLong())).thenReturn(Optional.empty());
+        when(fileRepository.findEntryDataByIndexId(indexId)).thenReturn(List.of(
+                "{\"package\":\"com.example\",\"class\":\"A\",\"path\":\"A.java\",\"methods\":[]}"));
+
+        // When
+        String json = indexService.getIndexData("https://github.com/owner/repo", "Java", List.of(), "A").orElseThrow();
+
+        // Then
+        assertTrue(json.endsWith("\"totalClasses\":1}"));
+        assertFalse(json.contains("omittedFiles"));
+    }
+
+    @Test
+    @DisplayName("Should look up files by path prefix and by declared symbol")
+    void shouldFindFilesByPathPrefixAndSymbol() {
+        // Given
+        UUID indexId = UUID.randomUUID();
+        CodebaseIndexEntity entity = CodebaseIndexEntity.builder().id(indexId).language("Java").build();
+        CodebaseIndexFileEntity file = CodebaseIndexFileEntity.builder().indexId(indexId).path("src/A.java").build();
+        when(indexRepository.findByRepositoryUrlAndLanguage("https://github.com/owner/repo", "Java"))
+                .thenReturn(Optional.of(entity));
+        when(fileRepository.findByIndexIdAndPathStartingWithOrderByPath(indexId, "src/")).thenReturn(List.of(file));
+        when(fileRepository.findBySymbolName(indexId, "A")).thenReturn(List.of(file));
+
+        // When / Then
+        assertEquals(List.of(file), indexService.findFiles("https://github.com/owner/repo", "Java", "src/"));
+        assertEquals(List.of(file), indexService.findFilesDeclaring("https://github.com/owner/repo", "Java", "A"));
+        assertEquals(List.of(), indexService.findFiles("https://github.com/other/repo", "Java", "src/"));
+    }
+
+    @Test
+    @DisplayName("Should serve the symbol index built by indexing until HEAD moves")
+    void shouldServeSymbolIndexWhileFresh() throws Exception {
+        // Given
+        Files.writeString(tempDir.resolve("UserService.java"), """
+                package com.example;
+                
+                public class UserService {
+                    public User findUser(String id) {
+                    }
+                }
+                """);
+
+        Repository repository = Repository.builder()
+                .url("https://github.com/owner/repo")
+                .build();
+        repository.markAsCloned(tempDir.toString());
+
+        UUID indexId = UUID.randomUUID();
+        when(repositoryService.getHeadCommitId(repository)).thenReturn("c1", "c1", "c2");
+        when(indexRepository.findByRepositoryUrlAndLanguage(anyString(), anyString()))
+                .thenReturn(Optional.empty());
+        when(indexRepository.save(any(CodebaseIndexEntity.class)))
+                .thenAnswer(invocation -> withId(invocation.getArgument(0), indexId));
+        when(fileRepository.findByIndexIdOrderByPath(indexId)).thenReturn(List.of());
+        indexService.indexRepository(repository, "Java");
+
+        // When
+        Optional<CodebaseSymbolIndex> fresh = indexService.getSymbolIndex(repository, "Java");
+        Optional<CodebaseSymbolIndex> stale = indexService.getSymbolIndex(repository, "Java");
+
+        // Then
+        assertTrue(fresh.isPresent());
+        assertEquals(List.of("UserService.java"), fresh.get().filesDeclaring("userservice"));
+        assertEquals(List.of("UserService.java"), fresh.get().filesDeclaring("finduser"));
+        assertEquals(List.of("UserService.java"), fresh.get().filesNamed("userservice.java"));
+        assertTrue(stale.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should load the symbol index from stored rows when the index is at HEAD")
+    void shouldLoadSymbolIndexFromRows() {
+        // Given
+        Repository repository = Repository.builder()
+                .url("https://github.com/owner/repo")
+                .build();
+        repository.markAsCloned(tempDir.toString());
+
+        UUID indexId = UUID.randomUUID();
+        CodebaseIndexEntity entity = CodebaseIndexEntity.builder()
+                .id(indexId)
+                .language("Java")
+                .indexedCommit("c1")
+                .build();
+        CodebaseIndexFileEntity file = CodebaseIndexFileEntity.builder()
+                .indexId(indexId)
+                .path("src/A.java")
+                .symbols(List.of(new CodebaseIndexSymbol("A", "class")))
+                .build();
+        when(repositoryService.getHeadCommitId(repository)).thenReturn("c1");
+        when(indexRepository.findByRepositoryUrlAndLanguage("https://github.com/owner/repo", "Java"))
+                .thenReturn(Optional.of(entity));
+        when(fileRepository.findByIndexIdOrderByPath(indexId)).thenReturn(List.of(file));
+
+        // When
+        Optional<CodebaseSymbolIndex> first = indexService.getSymbolIndex(repository, "Java");
+        Optional<CodebaseSymbolIndex> second = indexService.getSymbolIndex(repository, "Java");
+
+        // Then
+        assertEquals(List.of("src/A.java"), first.orElseThrow().filesDeclaring("a"));
+        assertSame(first.get(), second.orElseThrow());
+        verify(fileRepository, times(1)).findByIndexIdOrderByPath(indexId);
+    }
+
+    @Test
+    @DisplayName("Should index the tree committed at HEAD instead of the working tree")
+    void shouldIndexCommittedTree() throws Exception {
+        // Given
+        org.springframework.test.util.ReflectionTestUtils.setField(indexService, "fromGit", true);
+        Files.writeString(tempDir.resolve("Uncommitted.java"), "public class Uncommitted {}");
+
+        Repository repository = Repository.builder()
+                .url("https://github.com/owner/repo")
+                .build();
+        repository.markAsCloned(tempDir.toString());
+
+        UUID indexId = UUID.randomUUID();
+        Map<String, String> committed = Map.of(
+                "src/main/java/A.java", "package com.example;\npublic class A {\n    public void run() {\n    }\n}",
+                "src/test/java/ATest.java", "public class ATest {}",
+                "README.md", "docs");
+        when(repositoryService.getHeadCommitId(repository)).thenReturn("c1");
+        doAnswer(invocation -> {
+            java.util.function.Predicate<String> filter = invocation.getArgument(2);
+            GitOperations.CommittedFileVisitor visitor = invocation.getArgument(3);
+            for (Map.Entry<String, String> file : committed.entrySet()) {
+                if (filter.test(file.getKey())) {
+                    visitor.visit(file.getKey(), file.getValue());
+                }
+            }
+            return null;
+        }).when(repositoryService).walkCommittedFiles(eq(repository), eq("c1"), any(), any());
+        when(indexRepository.findByRepositoryUrlAndLanguage(anyString(), anyString()))
+                .thenReturn(Optional.empty());
+        when(indexRepository.save(any(CodebaseIndexEntity.class)))
+                .thenAnswer(invocation -> withId(invocation.getArgument(0), indexId));
+        when(fileRepository.findByIndexIdOrderByPath(indexId)).thenReturn(List.of());
+
+        // When
+        indexService.indexRepository(repository, "Java");
+
+        // Then
+        List<CodebaseIndexFileEntity> files = savedFiles();
+        assertEquals(List.of("src/main/java/A.java"), files.stream().map(CodebaseIndexFileEntity::getPath).toList());
+        assertTrue(files.get(0).getEntryData().contains("\"signature\":\"public void run()\""));
+    }
+
+    @Test
+    @DisplayName("Should index files in parallel, keeping walk order and per-file symbols")
+    @SuppressWarnings("unchecked")
+    void shouldIndexFilesInParallel() throws Exception {
+        // Given
+        org.springframework.test.util.ReflectionTestUtils.setField(indexService, "parallelism", 4);
+        for (int i = 0; i < 200; i++) {
+            Path dir = Files.createDirectories(tempDir.resolve("src/main/java/pkg" + (i % 10)));
+            Files.writeString(dir.resolve("Type" + i + ".java"), """
+                    package pkg%d;
+                    
+                    public class Type%d {
+                        public int value%d() {
+                            return %d;
+                        }
+                    }
+                    """.formatted(i % 10, i, i, i));
+        }
+        Files.writeString(tempDir.resolve("README.md"), "not indexed");
+
+        // When
+        List<Object> entries = indexService.buildEntries(tempDir, "Java");
+
+        // Then
+        assertEquals(200, entries.size());
+        for (Object entry : entries) {
+            Map<String, Object> pkg = (Map<String, Object>) entry;
+            String className = (String) pkg.get("class");
+            int i = Integer.parseInt(className.substring("Type".length()));
+            assertEquals("pkg" + (i % 10), pkg.get("package"));
+            assertEquals(List.of(Map.of("kind", "class", "name", "Type" + i, "lines", List.of(3, 7))), pkg.get("types"));
+            assertEquals(List.of(Map.of("name", "value" + i, "signature", "public int value" + i + "()",
+                    "lines", List.of(4, 6))), pkg.get("methods"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should list the primary language first, then other languages with files to index")
+    void shouldDetectLanguagesToIndex() throws Exception {
+        // Given
+        Files.createDirectories(tempDir.resolve("src/main/java"));
+        Files.writeString(tempDir.resolve("src/main/java/App.java"), "class App {}");
+        Files.createDirectories(tempDir.resolve("web"));
+        Files.writeString(tempDir.resolve("web/app.ts"), "export const app = 1;");
+        Files.createDirectories(tempDir.resolve("tools"));
+        Files.writeString(tempDir.resolve("tools/gen.go"), "package main");
+        Files.writeString(tempDir.resolve("tools/gen_test.go"), "package main");
+        Files.createDirectories(tempDir.resolve("src/test/python"));
+        Files.writeString(tempDir.resolve("src/test/python/test_app.py"), "def test(): pass");
+
+        Repository repository = Repository.builder()
+                .url("https://github.com/owner/repo")
+                .build();
+        repository.markAsCloned(tempDir.toString());
+
+        // When
+        List<String> languages = indexService.languagesToIndex(repository, "TypeScript");
+
+        // Then
+        assertEquals(List.of("TypeScript", "Java", "Go"), languages);
+    }
+
+    @Test
+    @DisplayName("Should index Go through its indexer and languages without one as a file list")
+    void shouldIndexGoFilesThroughItsIndexer() throws Exception {
+        // Given
+        Files.createDirectories(tempDir.resolve("cmd"));
+        Files.writeString(tempDir.resolve("cmd/main.go"), "package main\n\nfunc main() {\n}\n");
+        Files.writeString(tempDir.resolve("cmd/notes.txt"), "not go");
+
+        // When
+        List<Object> goEntries = indexService.buildEntries(tempDir, "Go");
+        List<Object> genericEntries = indexService.buildEntries(tempDir, "Haskell");
+
+        // Then
+        assertEquals(List.of(Map.of("module", "main.go", "path", "cmd/main.go", "package", "main",
+                "declarations", List.of(Map.of("kind", "func", "name", "main", "line", 3)))), goEntries);
+        assertEquals(List.of("cmd/main.go", "cmd/notes.txt"), genericEntries.stream().sorted().toList());
+    }
+
+    @Test
+    @DisplayName("Should report which file types a language's index covers")
+    void shouldReportCoveredFileTypes() {
+        // Then
+        assertTrue(indexService.covers("Java", "UserService.java"));
+        assertFalse(indexService.covers("Java", "application.yml"));
+        assertFalse(indexService.covers("Java", "README.md"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<CodebaseIndexFileEntity> savedFiles() {
+        ArgumentCaptor<List<CodebaseIndexFileEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(fileRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    private static CodebaseIndexEntity withId(CodebaseIndexEntity index, UUID id) {
+        index.setId(id);
+        return index;
+    }
+}
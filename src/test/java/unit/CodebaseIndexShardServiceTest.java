@@ -0,0 +1,187 @@
+package com.bugbounty.cve.service;
+
+import com.bugbounty.cve.entity.CodebaseIndexShardEntity;
+import com.bugbounty.cve.repository.CodebaseIndexFileRepository;
+import com.bugbounty.cve.repository.CodebaseIndexShardRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CodebaseIndexShardService Tests")
+class CodebaseIndexShardServiceTest {
+
+    @Mock
+    private CodebaseIndexFileRepository fileRepository;
+
+    @Mock
+    private CodebaseIndexShardRepository shardRepository;
+
+    private CodebaseIndexShardService shardService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final UUID indexId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        shardService = new CodebaseIndexShardService(fileRepository, shardRepository, objectMapper);
+    }
+
+    @Test
+    @DisplayName("Should roll file counts and sizes up to every ancestor directory")
+    void shouldRollUpShards() throws Exception {
+        // Given
+        when(fileRepository.findFileSizesByIndexId(indexId)).thenReturn(List.of(
+                fileSize("pom.xml", 10),
+                fileSize("billing/src/Invoice.java", 100),
+                fileSize("billing/src/Tax.java", 50),
+                fileSize("billing/api/Api.java", 40),
+                fileSize("search/Query.java", 30)));
+        when(shardRepository.findByIndexId(indexId)).thenReturn(List.of());
+
+        // When
+        shardService.rebuildShards(indexId);
+
+        // Then
+        Map<String, CodebaseIndexShardEntity> shards = savedShards();
+        assertEquals(Set.of("", "billing", "billing/src", "billing/api", "search"), shards.keySet());
+
+        CodebaseIndexShardEntity root = shards.get("");
+        assertEquals(1, root.getFileCount());
+        assertEquals(5, root.getTotalFiles());
+        assertEquals(10, root.getEntrySize());
+        assertEquals(230, root.getTotalSize());
+
+        CodebaseIndexShardEntity billing = shards.get("billing");
+        assertEquals(0, billing.getFileCount());
+        assertEquals(3, billing.getTotalFiles());
+        assertEquals(190, billing.getTotalSize());
+
+        Map<String, Object> summary = objectMapper.readValue(root.getSummary(), Map.class);
+        assertEquals(".", summary.get("directory"));
+        assertEquals(Map.of("billing", 3, "search", 1), summary.get("subdirectories"));
+    }
+
+    @Test
+    @DisplayName("Should only write changed shards and delete shards of emptied directories")
+    void shouldWriteOnlyChangedShards() throws Exception {
+        // Given
+        when(fileRepository.findFileSizesByIndexId(indexId)).thenReturn(List.of(fileSize("src/A.java", 10)));
+        when(shardRepository.findByIndexId(indexId)).thenReturn(List.of());
+        shardService.rebuildShards(indexId);
+        List<CodebaseIndexShardEntity> previous = new ArrayList<>(savedShards().values());
+        CodebaseIndexShardEntity stale = CodebaseIndexShardEntity.builder().indexId(indexId).directory("old").build();
+        previous.add(stale);
+        reset(shardRepository);
+        when(shardRepository.findByIndexId(indexId)).thenReturn(previous);
+
+        // When
+        shardService.rebuildShards(indexId);
+
+        // Then
+        verify(shardRepository).deleteAll(argThat(shards -> List.copyOf((Collection<?>) shards).equals(List.of(stale))));
+        verify(shardRepository).saveAll(List.of());
+    }
+
+    @Test
+    @DisplayName("Should select the whole index when it fits the budget")
+    void shouldSelectWholeIndexWithinBudget() {
+        // Given
+        when(shardRepository.findByIndexIdAndDirectory(indexId, ""))
+                .thenReturn(Optional.of(shard("", 0, 12, 0, 1_000)));
+
+        // When
+        Optional<CodebaseIndexShardService.ShardSelection> selection =
+                shardService.selectShards(indexId, List.of("src/A.java"), "A", 2_000);
+
+        // Then
+        assertTrue(selection.orElseThrow().wholeIndex());
+        assertEquals(12, selection.get().totalFiles());
+        verifyNoInteractions(fileRepository);
+    }
+
+    @Test
+    @DisplayName("Should select seed directories, then summaries of their ancestors")
+    void shouldSelectSeedShardsAndAncestorSummaries() {
+        // Given
+        CodebaseIndexShardEntity root = shard("", 0, 100, 0, 1_000_000);
+        CodebaseIndexShardEntity billing = shard("billing", 0, 10, 0, 5_000);
+        CodebaseIndexShardEntity billingSrc = shard("billing/src", 4, 4, 2_000, 2_000);
+        CodebaseIndexShardEntity search = shard("search", 30, 30, 50_000, 50_000);
+        when(shardRepository.findByIndexIdAndDirectory(indexId, "")).thenReturn(Optional.of(root));
+        when(fileRepository.findPathsDeclaringAny(eq(indexId), any()))
+                .thenReturn(List.of("search/Query.java"));
+        when(shardRepository.findByIndexIdAndDirectoryIn(eq(indexId), any()))
+                .thenReturn(List.of(billing, billingSrc, search));
+
+        // When
+        CodebaseIndexShardService.ShardSelection selection = shardService.selectShards(indexId,
+                List.of("/billing/src/Invoice.java"), "QueryParser fails", 4_000).orElseThrow();
+
+        // Then
+        assertFalse(selection.wholeIndex());
+        assertEquals(List.of("billing/src"), selection.directories());
+        assertEquals(List.of(root.getSummary(), billing.getSummary(), search.getSummary()), selection.summaries());
+        assertEquals(96, selection.omittedFiles());
+    }
+
+    @Test
+    @DisplayName("Should select nothing for indexes without shards")
+    void shouldSelectNothingWithoutShards() {
+        // Given
+        when(shardRepository.findByIndexIdAndDirectory(indexId, "")).thenReturn(Optional.empty());
+
+        // When / Then
+        assertTrue(shardService.selectShards(indexId, List.of(), "", 1_000).isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, CodebaseIndexShardEntity> savedShards() {
+        ArgumentCaptor<Iterable<CodebaseIndexShardEntity>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(shardRepository).saveAll(captor.capture());
+        List<CodebaseIndexShardEntity> saved = new ArrayList<>();
+        captor.getValue().forEach(saved::add);
+        return saved.stream().collect(Collectors.toMap(CodebaseIndexShardEntity::getDirectory, Function.identity()));
+    }
+
+    private static CodebaseIndexShardEntity shard(String directory, int files, int totalFiles,
+                                                  long entrySize, long totalSize) {
+        return CodebaseIndexShardEntity.builder()
+                .directory(directory)
+                .fileCount(files)
+                .totalFiles(totalFiles)
+                .entrySize(entrySize)
+                .totalSize(totalSize)
+                .summary("{\"directory\":\"" + (directory.isEmpty() ? "." : directory) + "\"}")
+                .build();
+    }
+
+    private static CodebaseIndexFileRepository.FileSize fileSize(String path, int size) {
+        return new CodebaseIndexFileRepository.FileSize() {
+            @Override
+            public String getPath() {
+                return path;
+            }
+
+            @Override
+            public Integer getSize() {
+                return size;
+            }
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package com.bugbounty.cve.service;
+
+import com.bugbounty.cve.entity.CodebaseIndexFileEntity;
+import com.bugbounty.cve.entity.CodebaseIndexSymbol;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CodebaseSymbolIndex Tests")
+class CodebaseSymbolIndexTest {
+
+    @Test
+    @DisplayName("Should find files by declared symbol and by basename, case-insensitively")
+    void shouldFindFilesBySymbolAndBasename() {
+        // Given
+        CodebaseSymbolIndex index = CodebaseSymbolIndex.of("c1", List.of(
+                file("src/b/UserService.java", "UserService", "findUser"),
+                file("src/a/UserService.java", "UserService", "save"),
+                file("src/a/Order.java", "Order", "save")));
+
+        // Then
+        assertEquals("c1", index.commit());
+        assertEquals(List.of("src/a/UserService.java", "src/b/UserService.java"), index.filesDeclaring("userservice"));
+        assertEquals(List.of("src/a/Order.java", "src/a/UserService.java"), index.filesDeclaring("SAVE"));
+        assertEquals(List.of("src/a/Order.java"), index.filesNamed("order.java"));
+        assertEquals(List.of(), index.filesDeclaring("Missing"));
+    }
+
+    @Test
+    @DisplayName("Should replace changed files and drop deleted ones without touching the original")
+    void shouldUpdateChangedFiles() {
+        // Given
+        CodebaseSymbolIndex original = CodebaseSymbolIndex.of("c1", List.of(
+                file("A.java", "A", "run"),
+                file("B.java", "B", "run")));
+
+        // When
+        CodebaseSymbolIndex updated = original.update("c2", List.of("A.java", "B.java", "README.md"), List.of(
+                file("A.java", "A", "start")));
+
+        // Then
+        assertEquals("c2", updated.commit());
+        assertEquals(List.of("A.java"), updated.filesDeclaring("start"));
+        assertEquals(List.of(), updated.filesDeclaring("run"));
+        assertEquals(List.of(), updated.filesNamed("B.java"));
+        assertEquals(List.of("A.java", "B.java"), original.filesDeclaring("run"));
+    }
+
+    @Test
+    @DisplayName("Should keep the last entry when a file is listed twice")
+    void shouldKeepLastEntryForDuplicatePath() {
+        // When
+        CodebaseSymbolIndex index = CodebaseSymbolIndex.of("c1", List.of(
+                file("A.java", "A", "run"),
+                file("A.java", "A", "start")));
+
+        // Then
+        assertEquals(List.of("A.java"), index.filesDeclaring("A"));
+        assertEquals(List.of("A.java"), index.filesDeclaring("start"));
+        assertEquals(List.of(), index.filesDeclaring("run"));
+        assertEquals(List.of("A.java"), index.filesNamed("A.java"));
+    }
+
+    private static CodebaseIndexFileEntity file(String path, String className, String... methods) {
+        List<CodebaseIndexSymbol> symbols = new java.util.ArrayList<>();
+        symbols.add(new CodebaseIndexSymbol(className, "class"));
+        Arrays.stream(methods).forEach(method -> symbols.add(new CodebaseIndexSymbol(method, "method")));
+        return CodebaseIndexFileEntity.builder()
+                .path(path)
+                .entryData("{}")
+                .symbols(symbols)
+                .build();
+    }
+}
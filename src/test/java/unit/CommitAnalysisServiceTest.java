@@ -2,12 +2,15 @@ package com.bugbounty.cve.service;
 
 import com.bugbounty.cve.domain.BugFinding;
 import com.bugbounty.cve.entity.CVECatalogEntity;
-import com.bugbounty.cve.entity.CodebaseIndexEntity;
 import com.bugbounty.cve.mapper.BugFindingMapper;
 import com.bugbounty.cve.repository.BugFindingRepository;
 import com.bugbounty.cve.repository.CVECatalogRepository;
+import com.bugbounty.llm.cache.LlmResponseCache;
+import com.bugbounty.llm.scheduler.LlmRequestScheduler;
+import com.bugbounty.llm.service.LlmGateway;
 import com.bugbounty.repository.service.RepositoryService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -39,6 +42,9 @@ class CommitAnalysisServiceTest {
     @Mock
     private ChatClient chatClient;
 
+    @Mock
+    private LlmResponseCache responseCache;
+
     @Mock
     private ChatResponse chatResponse;
 
@@ -72,8 +78,21 @@ class CommitAnalysisServiceTest {
             java.lang.reflect.Field field = CommitAnalysisService.class.getDeclaredField("objectMapper");
             field.setAccessible(true);
             field.set(commitAnalysisService, objectMapper);
+            
+            java.lang.reflect.Field gatewayField = CommitAnalysisService.class.getDeclaredField("llmGateway");
+            gatewayField.setAccessible(true);
+            gatewayField.set(commitAnalysisService, new LlmGateway(chatClient, null, responseCache,
+                new LlmRequestScheduler(new SimpleMeterRegistry()), objectMapper, new SimpleMeterRegistry()));
+            
+            java.lang.reflect.Field assemblerField = CommitAnalysisService.class.getDeclaredField("contextAssembler");
+            assemblerField.setAccessible(true);
+            assemblerField.set(commitAnalysisService, new CodebaseContextAssembler(objectMapper, new SimpleMeterRegistry()));
+            
+            java.lang.reflect.Field shortlisterField = CommitAnalysisService.class.getDeclaredField("catalogShortlister");
+            shortlisterField.setAccessible(true);
+            shortlisterField.set(commitAnalysisService, new CVECatalogShortlister(new SimpleMeterRegistry()));
         } catch (Exception e) {
-            throw new RuntimeException("Failed to set objectMapper", e);
+            throw new RuntimeException("Failed to set fields", e);
         }
     }
 
@@ -146,12 +165,8 @@ class CommitAnalysisServiceTest {
         when(catalogRepository.findByLanguage("Java"))
                 .thenReturn(List.of(catalogEntity));
 
-        CodebaseIndexEntity index = CodebaseIndexEntity.builder()
-                .indexData("{}")
-                .build();
-
-        when(codebaseIndexService.getIndex("https://github.com/owner/repo", "Java"))
-                .thenReturn(Optional.of(index));
+        when(codebaseIndexService.getIndexData(eq("https://github.com/owner/repo"), eq("Java"), any(), any()))
+                .thenReturn(Optional.of("{}"));
         
         // Mock repository service for file contents (not cloned, so returns empty map)
         when(repositoryService.isCloned(any(com.bugbounty.repository.domain.Repository.class)))
@@ -193,12 +208,8 @@ class CommitAnalysisServiceTest {
         when(catalogRepository.findByLanguage("Java"))
                 .thenReturn(List.of(catalogEntity));
 
-        CodebaseIndexEntity index = CodebaseIndexEntity.builder()
-                .indexData("{}")
-                .build();
-
-        when(codebaseIndexService.getIndex("https://github.com/owner/repo", "Java"))
-                .thenReturn(Optional.of(index));
+        when(codebaseIndexService.getIndexData(eq("https://github.com/owner/repo"), eq("Java"), any(), any()))
+                .thenReturn(Optional.of("{}"));
         
         // Mock repository service for file contents (not cloned, so returns empty map)
         when(repositoryService.isCloned(any(com.bugbounty.repository.domain.Repository.class)))
@@ -261,5 +272,88 @@ class CommitAnalysisServiceTest {
 
         verify(bugFindingRepository, times(1)).save(any());
     }
-}
 
+    @Test
+    @DisplayName("Should escalate an empty screen list without a confident rejection to the primary model")
+    void shouldEscalateUnconfidentEmptyScreen() {
+        // Given
+        enableCascade();
+        stubScreenAndPrimary("[]", "{\"cveIds\": [], \"confidence\": 0.9}");
+
+        // When
+        StepVerifier.create(analyzeJavaCommit())
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        // Then - the bare "[]" states no confidence, so the primary model decides
+        verify(chatClient, times(1)).call(argThat((Prompt prompt) -> prompt.getOptions() != null));
+        verify(chatClient, times(1)).call(argThat((Prompt prompt) -> prompt.getOptions() == null));
+    }
+
+    @Test
+    @DisplayName("Should escalate an empty screen list whose confidence is below the reject threshold")
+    void shouldEscalateLowConfidenceEmptyScreen() {
+        // Given
+        enableCascade();
+        stubScreenAndPrimary("{\"cveIds\": [], \"confidence\": 0.5}", "{\"cveIds\": [], \"confidence\": 0.9}");
+
+        // When
+        StepVerifier.create(analyzeJavaCommit())
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        // Then
+        verify(chatClient, times(1)).call(argThat((Prompt prompt) -> prompt.getOptions() == null));
+    }
+
+    @Test
+    @DisplayName("Should stop at the screen when it confidently finds no CVEs")
+    void shouldStopAtConfidentScreenRejection() {
+        // Given
+        enableCascade();
+        stubScreenAndPrimary("{\"cveIds\": [], \"confidence\": 0.95}", "{\"cveIds\": [], \"confidence\": 0.9}");
+
+        // When
+        StepVerifier.create(analyzeJavaCommit())
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        // Then
+        verify(chatClient, times(1)).call(any(Prompt.class));
+        verify(chatClient, never()).call(argThat((Prompt prompt) -> prompt.getOptions() == null));
+    }
+
+    private void enableCascade() {
+        LlmGateway gateway = (LlmGateway) org.springframework.test.util.ReflectionTestUtils
+                .getField(commitAnalysisService, "llmGateway");
+        org.springframework.test.util.ReflectionTestUtils.setField(gateway, "cascadeEnabled", true);
+        org.springframework.test.util.ReflectionTestUtils.setField(gateway, "defaultTemperature", "0.3");
+
+        CVECatalogEntity catalogEntity = CVECatalogEntity.builder()
+                .cveId("CVE-2024-1234")
+                .language("Java")
+                .summary("Test CVE")
+                .vulnerablePattern("pattern")
+                .fixedPattern("fixed")
+                .build();
+        when(catalogRepository.findByLanguage("Java")).thenReturn(List.of(catalogEntity));
+        when(codebaseIndexService.getIndexData(eq("https://github.com/owner/repo"), eq("Java"), any(), any()))
+                .thenReturn(Optional.of("{}"));
+        when(repositoryService.isCloned(any(com.bugbounty.repository.domain.Repository.class))).thenReturn(false);
+    }
+
+    /**
+     * The screening model's prompt carries its model in the options; the primary model's has none.
+     */
+    private void stubScreenAndPrimary(String screenResponse, String primaryResponse) {
+        ChatResponse screen = createMockChatResponse(screenResponse);
+        ChatResponse primary = createMockChatResponse(primaryResponse);
+        when(chatClient.call(any(Prompt.class))).thenAnswer(invocation ->
+                invocation.<Prompt>getArgument(0).getOptions() != null ? screen : primary);
+    }
+
+    private reactor.core.publisher.Flux<BugFinding> analyzeJavaCommit() {
+        return commitAnalysisService.analyzeCommit(
+                "https://github.com/owner/repo", "abc123", "diff content", List.of("file.java"), "Java");
+    }
+}
@@ -0,0 +1,67 @@
+package com.bugbounty.llm.prompt;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CompiledPromptTemplate Tests")
+class CompiledPromptTemplateTest {
+
+    @Test
+    @DisplayName("Should substitute every occurrence of each placeholder")
+    void shouldSubstitutePlaceholders() {
+        CompiledPromptTemplate template = CompiledPromptTemplate.compile(
+                "CVE: {cveId}\nLanguage: {language}\n\"cveId\": \"{cveId}\"");
+
+        String rendered = template.with("cveId", "CVE-2021-44228").with("language", "Java").render();
+
+        assertEquals("CVE: CVE-2021-44228\nLanguage: Java\n\"cveId\": \"CVE-2021-44228\"", rendered);
+        assertEquals(List.of("cveId", "language"), template.placeholders());
+    }
+
+    @Test
+    @DisplayName("Should not expand placeholders inside substituted values")
+    void shouldNotRescanSubstitutedValues() {
+        CompiledPromptTemplate template = CompiledPromptTemplate.compile("Diff:\n{commitDiff}\nIndex:\n{codebaseIndex}");
+
+        String rendered = template
+                .with("commitDiff", "+ String s = \"{codebaseIndex}\";")
+                .with("codebaseIndex", "{\"files\": []}")
+                .render();
+
+        assertEquals("Diff:\n+ String s = \"{codebaseIndex}\";\nIndex:\n{\"files\": []}", rendered);
+    }
+
+    @Test
+    @DisplayName("Should unescape doubled braces and keep other braces literal")
+    void shouldHandleLiteralBraces() {
+        CompiledPromptTemplate template = CompiledPromptTemplate.compile(
+                "{{\n  \"affectedCode\": {{ \"a.java\": \"{code}\" }},\n  \"range\": { 0-1 }\n}}");
+
+        String rendered = template.with("code", "x").render();
+
+        assertEquals("{\n  \"affectedCode\": { \"a.java\": \"x\" },\n  \"range\": { 0-1 }\n}", rendered);
+    }
+
+    @Test
+    @DisplayName("Should render null values as empty and accept StringBuilder values")
+    void shouldRenderNullAndCharSequenceValues() {
+        CompiledPromptTemplate template = CompiledPromptTemplate.compile("[{title}] {body}");
+
+        String rendered = template.with("title", null).with("body", new StringBuilder("text")).render();
+
+        assertEquals("[] text", rendered);
+    }
+
+    @Test
+    @DisplayName("Should reject unknown and unbound placeholders")
+    void shouldRejectUnknownAndMissingPlaceholders() {
+        CompiledPromptTemplate template = CompiledPromptTemplate.compile("{title}: {description}");
+
+        assertThrows(IllegalArgumentException.class, () -> template.with("titel", "x"));
+        assertThrows(IllegalStateException.class, () -> template.with("title", "x").render());
+    }
+}
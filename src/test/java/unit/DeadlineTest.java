@@ -0,0 +1,61 @@
+package com.bugbounty.llm.deadline;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Deadline Tests")
+class DeadlineTest {
+
+    @Test
+    @DisplayName("Should carry the deadline from the subscriber context into blocking callables")
+    void shouldPropagateThroughReactorContext() {
+        Deadline deadline = Deadline.after(Duration.ofMinutes(5));
+
+        Deadline seen = Deadline.fromCallable(Deadline::current)
+                .subscribeOn(Schedulers.boundedElastic())
+                .contextWrite(deadline::writeTo)
+                .block();
+
+        assertNotNull(seen);
+        assertFalse(seen.isUnbounded());
+        assertTrue(seen.remaining().compareTo(Duration.ofMinutes(4)) > 0);
+        assertTrue(Deadline.current().isUnbounded());
+    }
+
+    @Test
+    @DisplayName("Should keep the earlier of nested deadlines")
+    void shouldKeepEarliestDeadline() throws Exception {
+        Deadline outer = Deadline.after(Duration.ofSeconds(1));
+        Deadline inner = Deadline.after(Duration.ofHours(1));
+
+        Duration remaining = outer.call(() -> inner.call(() -> Deadline.current().remaining()));
+        Deadline fromContext = Mono.deferContextual(context -> Mono.just(Deadline.from(context)))
+                .contextWrite(inner::writeTo)
+                .contextWrite(outer::writeTo)
+                .block();
+
+        assertTrue(remaining.compareTo(Duration.ofSeconds(1)) <= 0);
+        assertTrue(fromContext.remaining().compareTo(Duration.ofSeconds(1)) <= 0);
+        assertTrue(Deadline.current().isUnbounded());
+    }
+
+    @Test
+    @DisplayName("Should cap timeouts by the time left and fail checks once expired")
+    void shouldCapAndCheck() {
+        Deadline expired = Deadline.after(Duration.ZERO);
+        Deadline later = Deadline.after(Duration.ofSeconds(10));
+
+        assertTrue(expired.isExpired());
+        assertEquals(Duration.ZERO, expired.cap(Duration.ofSeconds(30)));
+        assertThrows(DeadlineExceededException.class, () -> expired.check("triage"));
+        assertEquals(Duration.ofSeconds(5), later.cap(Duration.ofSeconds(5)));
+        assertEquals(Duration.ofSeconds(30), Deadline.none().cap(Duration.ofSeconds(30)));
+        assertDoesNotThrow(() -> Deadline.none().check("triage"));
+    }
+}
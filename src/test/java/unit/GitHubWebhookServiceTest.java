@@ -2,6 +2,7 @@ package com.bugbounty.webhook.service;
 
 import com.bugbounty.bounty.domain.Bounty;
 import com.bugbounty.bounty.service.GitHubIssueScannerService;
+import com.bugbounty.cve.service.CodeSearchService;
 import com.bugbounty.cve.service.CommitAnalysisService;
 import com.bugbounty.cve.service.CodebaseIndexService;
 import com.bugbounty.repository.domain.Repository;
@@ -47,6 +48,9 @@ class GitHubWebhookServiceTest {
     @Mock
     private GitHubIssueScannerService githubIssueScannerService;
 
+    @Mock
+    private CodeSearchService codeSearchService;
+
     @InjectMocks
     private GitHubWebhookService webhookService;
 
@@ -0,0 +1,161 @@
+package com.bugbounty.cve.similarity;
+
+import com.bugbounty.llm.embedding.TextEmbedder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HnswIndex Tests")
+class HnswIndexTest {
+
+    private static final int DIMENSIONS = 32;
+
+    @Test
+    @DisplayName("Should find nearly the same neighbours as an exhaustive search")
+    void shouldMatchExhaustiveSearch() {
+        Random random = new Random(7);
+        List<float[]> vectors = new ArrayList<>();
+        HnswIndex index = new HnswIndex("test", DIMENSIONS, 8, 64);
+        for (int i = 0; i < 2000; i++) {
+            float[] vector = randomVector(random);
+            vectors.add(vector);
+            index.add("v" + i, vector);
+        }
+
+        int hits = 0;
+        int queries = 50;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomVector(random);
+            Set<String> expected = new HashSet<>(IntStream.range(0, vectors.size()).boxed()
+                    .sorted(Comparator.comparingDouble(i -> -dot(query, vectors.get(i))))
+                    .limit(10)
+                    .map(i -> "v" + i)
+                    .toList());
+            for (HnswIndex.Neighbour neighbour : index.search(query, 10, 64)) {
+                if (expected.contains(neighbour.key())) {
+                    hits++;
+                }
+            }
+        }
+
+        double recall = hits / (queries * 10.0);
+        assertTrue(recall >= 0.9, "Recall@10 was " + recall);
+        assertEquals(2000, index.size());
+    }
+
+    @Test
+    @DisplayName("Should return the closest vector first with its cosine similarity")
+    void shouldOrderResultsBySimilarity() {
+        HnswIndex index = new HnswIndex("test", 3, 4, 16);
+        index.add("x", TextEmbedder.normalize(new float[]{1, 0, 0}));
+        index.add("xy", TextEmbedder.normalize(new float[]{1, 1, 0}));
+        index.add("z", TextEmbedder.normalize(new float[]{0, 0, 1}));
+
+        List<HnswIndex.Neighbour> result = index.search(TextEmbedder.normalize(new float[]{1, 0.1f, 0}), 2, 10);
+
+        assertEquals(List.of("x", "xy"), result.stream().map(HnswIndex.Neighbour::key).toList());
+        assertTrue(result.get(0).similarity() > 0.99);
+    }
+
+    @Test
+    @DisplayName("Should replace the vector when a key is added again")
+    void shouldReplaceExistingKey() {
+        HnswIndex index = new HnswIndex("test", 3, 4, 16);
+        index.add("entry", TextEmbedder.normalize(new float[]{1, 0, 0}));
+        index.add("other", TextEmbedder.normalize(new float[]{0, 1, 0}));
+        index.add("entry", TextEmbedder.normalize(new float[]{0, 0, 1}));
+
+        List<HnswIndex.Neighbour> result = index.search(TextEmbedder.normalize(new float[]{1, 0, 0}), 3, 10);
+
+        assertEquals(2, index.size());
+        assertEquals(2, result.size());
+        assertEquals(1, result.stream().filter(neighbour -> neighbour.key().equals("entry")).count());
+        assertEquals(0.0, result.stream().filter(neighbour -> neighbour.key().equals("entry"))
+                .findFirst().orElseThrow().similarity(), 1e-6);
+    }
+
+    @Test
+    @DisplayName("Should drop removed keys from results and tombstones on compaction")
+    void shouldRemoveAndCompact() {
+        Random random = new Random(5);
+        HnswIndex index = new HnswIndex("test", DIMENSIONS, 8, 32);
+        List<float[]> vectors = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            vectors.add(randomVector(random));
+            index.add("v" + i, vectors.get(i));
+        }
+        for (int i = 0; i < 150; i++) {
+            assertTrue(index.remove("v" + i));
+        }
+        assertFalse(index.remove("v0"));
+
+        assertEquals(50, index.size());
+        assertEquals(150, index.deletedCount());
+        assertFalse(index.contains("v0"));
+        assertTrue(index.search(vectors.get(0), 5, 32).stream().noneMatch(neighbour -> neighbour.key().equals("v0")));
+
+        index.compact();
+
+        assertEquals(50, index.size());
+        assertEquals(0, index.deletedCount());
+        assertEquals(IntStream.range(150, 200).mapToObj(i -> "v" + i).collect(java.util.stream.Collectors.toSet()), index.keys());
+        assertEquals("v170", index.search(vectors.get(170), 1, 32).get(0).key());
+    }
+
+    @Test
+    @DisplayName("Should give identical results after a save and reload")
+    void shouldRoundTripThroughStream() throws Exception {
+        Random random = new Random(11);
+        HnswIndex index = new HnswIndex("hashing-32", DIMENSIONS, 8, 32);
+        for (int i = 0; i < 300; i++) {
+            index.add("v" + i, randomVector(random));
+        }
+        index.add("v0", randomVector(random));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        index.writeTo(out);
+        HnswIndex reloaded = HnswIndex.readFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals("hashing-32", reloaded.embedderId());
+        assertEquals(index.size(), reloaded.size());
+        assertTrue(reloaded.contains("v0"));
+        float[] query = randomVector(random);
+        assertEquals(index.search(query, 5, 32), reloaded.search(query, 5, 32));
+    }
+
+    @Test
+    @DisplayName("Should reject vectors of the wrong length")
+    void shouldRejectWrongDimensions() {
+        HnswIndex index = new HnswIndex("test", 3, 4, 16);
+
+        assertThrows(IllegalArgumentException.class, () -> index.add("bad", new float[]{1, 0}));
+        assertTrue(index.search(new float[]{1, 0, 0}, 3, 10).isEmpty());
+    }
+
+    private float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return TextEmbedder.normalize(vector);
+    }
+
+    private double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
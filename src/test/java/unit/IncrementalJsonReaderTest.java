@@ -0,0 +1,75 @@
+package com.bugbounty.llm.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("IncrementalJsonReader Tests")
+class IncrementalJsonReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Should report fields as soon as their values are complete")
+    void shouldReportFieldsIncrementally() {
+        IncrementalJsonReader reader = new IncrementalJsonReader(objectMapper, Set.of("present", "confidence"));
+
+        assertFalse(reader.feed("Here is my analysis:\n```json\n{\"pres"));
+        assertFalse(reader.feed("ent\": true, \"confid"));
+        assertFalse(reader.isSatisfied());
+        assertFalse(reader.feed("ence\": 0.8"));
+        // A number is only complete once a delimiter follows it
+        assertTrue(reader.feed(", \"notes\": \"still generating"));
+
+        ObjectNode fields = reader.fields();
+        assertTrue(fields.get("present").asBoolean());
+        assertEquals(0.8, fields.get("confidence").asDouble());
+        assertFalse(fields.has("notes"));
+        assertFalse(reader.isComplete());
+    }
+
+    @Test
+    @DisplayName("Should parse nested values and detect the end of the root object")
+    void shouldParseNestedValues() {
+        IncrementalJsonReader reader = new IncrementalJsonReader(objectMapper, Set.of("affectedFiles", "affectedCode"));
+
+        reader.feed("{\"affectedFiles\": [\"a.java\", \"b.java\"], \"affectedCode\": {\"a.java\": ");
+        assertFalse(reader.isSatisfied());
+        assertTrue(reader.feed("\"int x = 1;\"}, \"confidence\": 0.5}\n```"));
+
+        ObjectNode fields = reader.fields();
+        assertEquals(2, fields.get("affectedFiles").size());
+        assertEquals("int x = 1;", fields.get("affectedCode").get("a.java").asText());
+        assertEquals(0.5, fields.get("confidence").asDouble());
+        assertTrue(reader.isComplete());
+    }
+
+    @Test
+    @DisplayName("Should handle multi-byte characters split across chunks")
+    void shouldHandleSplitSurrogatePairs() {
+        String emoji = "🐛";
+        IncrementalJsonReader reader = new IncrementalJsonReader(objectMapper, Set.of("reason"));
+
+        reader.feed("{\"reason\": \"bug " + emoji.charAt(0));
+        assertTrue(reader.feed(emoji.charAt(1) + " found\"}"));
+
+        assertEquals("bug " + emoji + " found", reader.fields().get("reason").asText());
+    }
+
+    @Test
+    @DisplayName("Should stop parsing malformed JSON but keep the raw text")
+    void shouldKeepRawTextOnMalformedJson() {
+        IncrementalJsonReader reader = new IncrementalJsonReader(objectMapper, Set.of("shouldProcess"));
+
+        assertFalse(reader.feed("{\"shouldProcess\": maybe, "));
+        assertFalse(reader.feed("\"confidence\": 0.2}"));
+
+        assertFalse(reader.isSatisfied());
+        assertEquals("{\"shouldProcess\": maybe, \"confidence\": 0.2}", reader.raw());
+    }
+}
@@ -2,6 +2,7 @@ package com.bugbounty.repository.service.impl;
 
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.PersonIdent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.DisplayName;
@@ -12,6 +13,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -138,5 +140,76 @@ class JGitOperationsTest {
         assertNotNull(files);
         assertEquals(0, files.length);
     }
-}
 
+    @Test
+    @DisplayName("Should list files added, modified and deleted between commits")
+    void shouldListChangedPathsBetweenCommits() throws Exception {
+        // Given
+        PersonIdent author = new PersonIdent("Test", "test@example.com");
+        String first;
+        String second;
+        try (Git git = Git.init().setDirectory(tempDir.toFile()).call()) {
+            Files.writeString(tempDir.resolve("kept.txt"), "kept");
+            Files.writeString(tempDir.resolve("modified.txt"), "v1");
+            Files.writeString(tempDir.resolve("deleted.txt"), "gone soon");
+            git.add().addFilepattern(".").call();
+            first = git.commit().setMessage("first").setAuthor(author).setCommitter(author).call().name();
+
+            Files.writeString(tempDir.resolve("modified.txt"), "v2");
+            Files.delete(tempDir.resolve("deleted.txt"));
+            Files.createDirectories(tempDir.resolve("src"));
+            Files.writeString(tempDir.resolve("src/added.txt"), "new");
+            git.add().addFilepattern(".").call();
+            git.rm().addFilepattern("deleted.txt").call();
+            second = git.commit().setMessage("second").setAuthor(author).setCommitter(author).call().name();
+        }
+
+        // When
+        String head = gitOperations.getHeadCommitId(tempDir.toString());
+        List<String> changed = gitOperations.getChangedPaths(tempDir.toString(), first, head);
+
+        // Then
+        assertEquals(second, head);
+        assertEquals(3, changed.size());
+        assertTrue(changed.containsAll(List.of("modified.txt", "deleted.txt", "src/added.txt")));
+        assertTrue(gitOperations.getChangedPaths(tempDir.toString(), head, head).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should walk committed text files, honouring .gitignore and linguist attributes")
+    void shouldWalkCommittedFiles() throws Exception {
+        // Given
+        PersonIdent author = new PersonIdent("Test", "test@example.com");
+        String commit;
+        try (Git git = Git.init().setDirectory(tempDir.toFile()).call()) {
+            // Tracked before .gitignore matched them, as vendored code often is
+            Files.createDirectories(tempDir.resolve("vendor"));
+            Files.writeString(tempDir.resolve("vendor/Lib.java"), "class Lib {}");
+            Files.createDirectories(tempDir.resolve("src/nested"));
+            Files.writeString(tempDir.resolve("src/nested/Local.java"), "class Local {}");
+            git.add().addFilepattern(".").call();
+
+            Files.writeString(tempDir.resolve(".gitignore"), "vendor/\n*.log\n");
+            Files.writeString(tempDir.resolve(".gitattributes"), "generated/** linguist-generated\n");
+            Files.writeString(tempDir.resolve("src/Main.java"), "class Main {}");
+            Files.writeString(tempDir.resolve("src/nested/.gitignore"), "Local.java\n");
+            Files.writeString(tempDir.resolve("src/nested/Kept.java"), "class Kept {}");
+            Files.createDirectories(tempDir.resolve("generated"));
+            Files.writeString(tempDir.resolve("generated/Gen.java"), "class Gen {}");
+            Files.write(tempDir.resolve("src/image.png"), new byte[] {(byte) 0x89, 'P', 'N', 'G', 0, 0, 1});
+            git.add().addFilepattern(".").call();
+            commit = git.commit().setMessage("first").setAuthor(author).setCommitter(author).call().name();
+        }
+        Files.writeString(tempDir.resolve("src/Main.java"), "class Main { /* uncommitted */ }");
+
+        // When
+        java.util.Map<String, String> visited = new java.util.TreeMap<>();
+        gitOperations.walkCommittedFiles(tempDir.toString(), commit, path -> !path.endsWith(".gitattributes"),
+                visited::put);
+
+        // Then
+        assertEquals(List.of(".gitignore", "src/Main.java", "src/nested/.gitignore", "src/nested/Kept.java"),
+                List.copyOf(visited.keySet()));
+        assertEquals("class Main {}", visited.get("src/Main.java"));
+    }
+}
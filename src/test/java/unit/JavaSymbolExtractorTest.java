@@ -0,0 +1,183 @@
+package com.bugbounty.cve.index;
+
+import com.bugbounty.cve.index.JavaSymbolExtractor.JavaSymbols;
+import com.bugbounty.cve.index.JavaSymbolExtractor.MethodDeclaration;
+import com.bugbounty.cve.index.JavaSymbolExtractor.TypeDeclaration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JavaSymbolExtractor Tests")
+class JavaSymbolExtractorTest {
+
+    @Test
+    @DisplayName("Should extract package, types and methods with their line ranges")
+    void shouldExtractDeclarations() {
+        // Given
+        String source = """
+                package com.example.service;
+
+                import java.util.List;
+
+                public class UserService {
+                    private final List<String> names = List.of();
+
+                    public UserService() {
+                    }
+
+                    @Override
+                    public String toString() {
+                        return "UserService";
+                    }
+
+                    static class Cache {
+                        void clear() {}
+                    }
+                }
+                """;
+
+        // When
+        JavaSymbols symbols = JavaSymbolExtractor.extract(source);
+
+        // Then
+        assertEquals("com.example.service", symbols.packageName());
+        assertEquals(List.of(
+                new TypeDeclaration("class", "UserService", 5, 19),
+                new TypeDeclaration("class", "Cache", 16, 18)), symbols.types());
+        assertEquals(List.of(
+                new MethodDeclaration("UserService", "public UserService()", 8, 9),
+                new MethodDeclaration("toString", "public String toString()", 12, 14),
+                new MethodDeclaration("clear", "void clear()", 17, 17)), symbols.methods());
+    }
+
+    @Test
+    @DisplayName("Should join signatures spanning several lines and leave out annotations")
+    void shouldExtractMultiLineSignatures() {
+        // Given
+        String source = """
+                class Repo {
+                    @Transactional(readOnly = true)
+                    public <T extends Entity> Map<String, List<T>> findAll(
+                            @Param("ids") List<UUID> ids,
+                            int limit) throws IOException,
+                            SQLException {
+                        return null;
+                    }
+                }
+                """;
+
+        // When
+        List<MethodDeclaration> methods = JavaSymbolExtractor.extract(source).methods();
+
+        // Then
+        assertEquals(List.of(new MethodDeclaration("findAll",
+                "public <T extends Entity> Map<String, List<T>> findAll(@Param(\"ids\") List<UUID> ids, int limit) "
+                        + "throws IOException, SQLException", 3, 8)), methods);
+        assertEquals("default", JavaSymbolExtractor.extract(source).packageName());
+    }
+
+    @Test
+    @DisplayName("Should ignore braces and declarations inside strings, comments and text blocks")
+    void shouldIgnoreBracesInLiterals() {
+        // Given
+        String source = """
+                class Tricky {
+                    private static final String OPEN = "{ public void fake() {";
+                    private static final char CLOSE = '}';
+                    // public void commented() {
+                    /* } */
+                    String block() {
+                        return \"""
+                            }} public void inText() {
+                            \""";
+                    }
+                    void after() {}
+                }
+                """;
+
+        // When
+        JavaSymbols symbols = JavaSymbolExtractor.extract(source);
+
+        // Then
+        assertEquals(List.of(new TypeDeclaration("class", "Tricky", 1, 12)), symbols.types());
+        assertEquals(List.of("block", "after"), symbols.methods().stream().map(MethodDeclaration::name).toList());
+    }
+
+    @Test
+    @DisplayName("Should skip field initializers, enum constant bodies and anonymous classes")
+    void shouldSkipBodiesThatAreNotMembers() {
+        // Given
+        String source = """
+                enum Mode implements Runnable {
+                    FAST("f") {
+                        public void run() { }
+                    },
+                    SLOW("s");
+
+                    private final Runnable task = () -> { work(); };
+                    private final Object anon = new Object() { public String toString() { return ""; } };
+                    private final int[] values = {1, 2};
+
+                    Mode(String code) { }
+
+                    public void run() { }
+                }
+                """;
+
+        // When
+        JavaSymbols symbols = JavaSymbolExtractor.extract(source);
+
+        // Then
+        assertEquals(List.of(new TypeDeclaration("enum", "Mode", 1, 14)), symbols.types());
+        assertEquals(List.of(
+                new MethodDeclaration("Mode", "Mode(String code)", 11, 11),
+                new MethodDeclaration("run", "public void run()", 13, 13)), symbols.methods());
+    }
+
+    @Test
+    @DisplayName("Should extract interface, record and annotation members")
+    void shouldExtractBodilessMembers() {
+        // Given
+        String source = """
+                interface Api {
+                    int count();
+                    default void record(int x) { }
+                }
+                record Point(int x, int y) implements Api { }
+                @interface Marker {
+                    String value() default "";
+                }
+                """;
+
+        // When
+        JavaSymbols symbols = JavaSymbolExtractor.extract(source);
+
+        // Then
+        assertEquals(List.of(
+                new TypeDeclaration("interface", "Api", 1, 4),
+                new TypeDeclaration("record", "Point", 5, 5),
+                new TypeDeclaration("annotation", "Marker", 6, 8)), symbols.types());
+        assertEquals(List.of(
+                new MethodDeclaration("count", "int count()", 2, 2),
+                new MethodDeclaration("record", "default void record(int x)", 3, 3),
+                new MethodDeclaration("value", "String value() default \"\"", 7, 7)), symbols.methods());
+    }
+
+    @Test
+    @DisplayName("Should handle a long minified line in linear time")
+    void shouldHandleLongMinifiedLines() {
+        // Given
+        String body = "x = f(g(h(1, 2), \"(\"), 3); ".repeat(50_000);
+        String source = "public class Min { public void a() { " + body + "} private int b(int y) { return y; } }";
+
+        // When
+        JavaSymbols symbols = assertTimeoutPreemptively(java.time.Duration.ofSeconds(5),
+                () -> JavaSymbolExtractor.extract(source));
+
+        // Then
+        assertEquals(List.of("a", "b"), symbols.methods().stream().map(MethodDeclaration::name).toList());
+    }
+}
@@ -0,0 +1,184 @@
+package com.bugbounty.cve.index;
+
+import com.bugbounty.cve.entity.CodebaseIndexSymbol;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LanguageIndexer Tests")
+class LanguageIndexerTest {
+
+    @Test
+    @DisplayName("Should index Go package, types, functions and methods")
+    void shouldIndexGo() throws Exception {
+        // Given
+        String source = """
+                package server
+
+                type Server struct {
+                \taddr string
+                }
+
+                func NewServer(addr string) *Server {
+                \treturn &Server{addr: addr}
+                }
+
+                func (s *Server) Start() error {
+                \treturn nil
+                }
+                """;
+
+        // When
+        Map<String, Object> entry = index(new GoIndexer(), "pkg/server/server.go", source);
+
+        // Then
+        assertEquals("server", entry.get("package"));
+        assertEquals("pkg/server/server.go", entry.get("path"));
+        assertEquals(List.of(
+                Map.of("kind", "type", "name", "Server", "line", 3),
+                Map.of("kind", "func", "name", "NewServer", "line", 7),
+                Map.of("kind", "func", "name", "Start", "line", 11)), entry.get("declarations"));
+        assertEquals(List.of(new CodebaseIndexSymbol("Server", "type"), new CodebaseIndexSymbol("NewServer", "func"),
+                new CodebaseIndexSymbol("Start", "func")), new GoIndexer().symbols(entry));
+    }
+
+    @Test
+    @DisplayName("Should index Rust items whatever their visibility")
+    void shouldIndexRust() throws Exception {
+        // Given
+        String source = """
+                pub struct Config {
+                    pub path: String,
+                }
+                pub(crate) enum Mode { Fast, Slow }
+                pub trait Loader {
+                    fn load(&self) -> Config;
+                }
+                impl Config {
+                    pub async fn read(path: &str) -> Self {
+                        todo!()
+                    }
+                }
+                """;
+
+        // When
+        Map<String, Object> entry = index(new RustIndexer(), "src/config.rs", source);
+
+        // Then
+        assertNull(entry.get("package"));
+        assertEquals(List.of("Config", "Mode", "Loader", "load", "read"), names(entry));
+    }
+
+    @Test
+    @DisplayName("Should index Ruby modules, classes and methods")
+    void shouldIndexRuby() throws Exception {
+        // Given
+        String source = """
+                module Billing
+                  class Invoice < Base
+                    def self.create(attrs)
+                    end
+
+                    def paid?
+                      true
+                    end
+                  end
+                end
+                """;
+
+        // When
+        Map<String, Object> entry = index(new RubyIndexer(), "app/models/invoice.rb", source);
+
+        // Then
+        assertEquals(List.of("Billing", "Invoice", "create", "paid?"), names(entry));
+    }
+
+    @Test
+    @DisplayName("Should index PHP namespace, classes and functions")
+    void shouldIndexPhp() throws Exception {
+        // Given
+        String source = """
+                <?php
+                namespace App\\Http\\Controllers;
+
+                final class UserController extends Controller
+                {
+                    public function show(int $id)
+                    {
+                        return view('user');
+                    }
+                }
+                """;
+
+        // When
+        Map<String, Object> entry = index(new PhpIndexer(), "app/Http/Controllers/UserController.php", source);
+
+        // Then
+        assertEquals("App\\Http\\Controllers", entry.get("package"));
+        assertEquals(List.of("UserController", "show"), names(entry));
+    }
+
+    @Test
+    @DisplayName("Should index C# namespace, types and members declared with modifiers")
+    void shouldIndexCSharp() throws Exception {
+        // Given
+        String source = """
+                namespace Shop.Orders
+                {
+                    public sealed class OrderService
+                    {
+                        public OrderService(IRepo repo) { }
+
+                        public async Task<Order> GetAsync(Guid id)
+                        {
+                            var total = Compute(id);
+                            return await repo.Find(id);
+                        }
+
+                        public int Count { get; set; }
+                    }
+
+                    public record OrderDto(Guid Id);
+                }
+                """;
+
+        // When
+        Map<String, Object> entry = index(new CSharpIndexer(), "src/Orders/OrderService.cs", source);
+
+        // Then
+        assertEquals("Shop.Orders", entry.get("package"));
+        assertEquals(List.of("OrderService", "OrderService", "GetAsync", "OrderDto"), names(entry));
+    }
+
+    @Test
+    @DisplayName("Should match languages by name or alias and files by extension outside tests")
+    void shouldSelectLanguagesAndFiles() {
+        // Then
+        assertTrue(new CSharpIndexer().serves("C#"));
+        assertTrue(new CSharpIndexer().serves("csharp"));
+        assertTrue(new JavaScriptIndexer().serves("TypeScript"));
+        assertFalse(new GoIndexer().serves("Java"));
+
+        assertTrue(new GoIndexer().includes("/repo/cmd/main.go"));
+        assertFalse(new GoIndexer().includes("/repo/cmd/main_test.go"));
+        assertFalse(new RubyIndexer().includes("/repo/spec/models/invoice_spec.rb"));
+        assertFalse(new JavaIndexer().includes("/repo/src/test/java/FooTest.java"));
+        assertFalse(new PhpIndexer().includes("/repo/README.md"));
+    }
+
+    private static Map<String, Object> index(LanguageIndexer indexer, String path, String source) throws Exception {
+        return indexer.index(path, new BufferedReader(new StringReader(source)));
+    }
+
+    private static List<Object> names(Map<String, Object> entry) {
+        return ((List<?>) entry.get("declarations")).stream()
+                .map(declaration -> ((Map<?, ?>) declaration).get("name"))
+                .toList();
+    }
+}
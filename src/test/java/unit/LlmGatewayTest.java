@@ -0,0 +1,273 @@
+package com.bugbounty.llm.service;
+
+import com.bugbounty.llm.cache.LlmResponseCache;
+import com.bugbounty.llm.deadline.Deadline;
+import com.bugbounty.llm.deadline.DeadlineExceededException;
+import com.bugbounty.llm.scheduler.LlmPriority;
+import com.bugbounty.llm.scheduler.LlmRequestScheduler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.chat.ChatClient;
+import org.springframework.ai.chat.ChatResponse;
+import org.springframework.ai.chat.Generation;
+import org.springframework.ai.chat.StreamingChatClient;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.ollama.api.OllamaOptions;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LlmGateway Tests")
+class LlmGatewayTest {
+
+    @Mock
+    private ChatClient chatClient;
+
+    @Mock
+    private StreamingChatClient streamingChatClient;
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    private LlmGateway gateway;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        LlmResponseCache cache = new LlmResponseCache(redisTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "localMaxEntries", 10);
+        ReflectionTestUtils.setField(cache, "localTtlMinutes", 60L);
+        ReflectionTestUtils.setField(cache, "redisEnabled", false);
+
+        meterRegistry = new SimpleMeterRegistry();
+        gateway = new LlmGateway(chatClient, streamingChatClient, cache,
+                new LlmRequestScheduler(new SimpleMeterRegistry()), new ObjectMapper(), meterRegistry);
+        ReflectionTestUtils.setField(gateway, "defaultModel", "deepseek-coder:6.7b");
+        ReflectionTestUtils.setField(gateway, "defaultTemperature", "0.3");
+    }
+
+    @Test
+    @DisplayName("Should answer repeated prompts from the cache")
+    void shouldAnswerRepeatedPromptsFromCache() {
+        when(chatClient.call(any(Prompt.class)))
+                .thenReturn(new ChatResponse(List.of(new Generation("[\"CVE-2024-1234\"]"))));
+
+        String first = gateway.call(new Prompt("Analyze this diff"), LlmPriority.TRIAGE, "repo");
+        String second = gateway.call(new Prompt("Analyze this diff"), LlmPriority.TRIAGE, "repo");
+
+        assertEquals("[\"CVE-2024-1234\"]", first);
+        assertEquals(first, second);
+        verify(chatClient, times(1)).call(any(Prompt.class));
+    }
+
+    @Test
+    @DisplayName("Should call the model again for a different prompt")
+    void shouldCallModelForDifferentPrompt() {
+        when(chatClient.call(any(Prompt.class)))
+                .thenReturn(new ChatResponse(List.of(new Generation("[]"))));
+
+        gateway.call(new Prompt("Analyze diff A"), LlmPriority.TRIAGE, "repo");
+        gateway.call(new Prompt("Analyze diff B"), LlmPriority.TRIAGE, "repo");
+
+        verify(chatClient, times(2)).call(any(Prompt.class));
+    }
+
+    @Test
+    @DisplayName("Should not cache blank completions")
+    void shouldNotCacheBlankCompletions() {
+        when(chatClient.call(any(Prompt.class)))
+                .thenReturn(new ChatResponse(List.of(new Generation(""))));
+
+        gateway.call(new Prompt("Analyze this diff"), LlmPriority.TRIAGE, "repo");
+        gateway.call(new Prompt("Analyze this diff"), LlmPriority.TRIAGE, "repo");
+
+        verify(chatClient, times(2)).call(any(Prompt.class));
+    }
+
+    @Test
+    @DisplayName("Should stop streaming once the required fields are parsed")
+    void shouldStopStreamingOnceRequiredFieldsParsed() throws Exception {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicInteger emitted = new AtomicInteger();
+        when(streamingChatClient.stream(any(Prompt.class))).thenReturn(chunks(
+                "```json\n{\"shouldProcess\": fal", "se, \"confidence\": 0.9",
+                "5, \"complexity\": \"simple\",", " \"reason\": \"The issue mentions",
+                " a proof of concept and touches several modules", "\"}\n```")
+                .doOnNext(chunk -> emitted.incrementAndGet())
+                .doOnCancel(() -> cancelled.set(true)));
+
+        String content = gateway.stream(new Prompt("Triage this bounty"), LlmPriority.TRIAGE, "repo",
+                Set.of("shouldProcess", "confidence", "complexity"));
+
+        assertTrue(cancelled.get());
+        assertEquals(3, emitted.get());
+        var node = new ObjectMapper().readTree(content);
+        assertFalse(node.get("shouldProcess").asBoolean());
+        assertEquals(0.95, node.get("confidence").asDouble());
+        assertFalse(node.has("reason"));
+        verify(chatClient, never()).call(any(Prompt.class));
+    }
+
+    @Test
+    @DisplayName("Should return the full completion when the model finishes first")
+    void shouldReturnFullCompletionWhenFieldsMissing() {
+        String completion = "{\"shouldProcess\": true, \"reason\": \"trivial typo\"}";
+        when(streamingChatClient.stream(any(Prompt.class))).thenReturn(chunks(completion.substring(0, 10), completion.substring(10)));
+
+        String content = gateway.stream(new Prompt("Triage this bounty"), LlmPriority.TRIAGE, "repo",
+                Set.of("shouldProcess", "confidence"));
+
+        assertEquals(completion, content);
+    }
+
+    @Test
+    @DisplayName("Should cancel a stream that stalls after its first chunk")
+    void shouldCancelStreamThatStallsAfterFirstChunk() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        when(streamingChatClient.stream(any(Prompt.class))).thenReturn(
+                Flux.concat(chunks("{\"shouldProcess\": "), Flux.<ChatResponse>never())
+                        .doOnCancel(() -> cancelled.set(true)));
+
+        assertThrows(DeadlineExceededException.class, () -> Deadline.after(Duration.ofMillis(200))
+                .call(() -> gateway.stream(new Prompt("Triage this bounty"), LlmPriority.TRIAGE, "repo",
+                        Set.of("shouldProcess"))));
+
+        assertTrue(cancelled.get());
+        assertEquals(1.0, meterRegistry.get("llm.call.timeouts").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should fall back to a blocking call when streaming is disabled")
+    void shouldFallBackToBlockingCallWhenStreamingDisabled() {
+        ReflectionTestUtils.setField(gateway, "streamingEnabled", false);
+        when(chatClient.call(any(Prompt.class)))
+                .thenReturn(new ChatResponse(List.of(new Generation("{\"shouldProcess\": false}"))));
+
+        String content = gateway.stream(new Prompt("Triage this bounty"), LlmPriority.TRIAGE, "repo",
+                Set.of("shouldProcess"));
+
+        assertEquals("{\"shouldProcess\": false}", content);
+        verifyNoInteractions(streamingChatClient);
+    }
+
+    @Test
+    @DisplayName("Should settle confident rejections with the screening model")
+    void shouldSettleConfidentRejectionsWithScreeningModel() {
+        enableCascade();
+        answerByModel("{\"shouldProcess\": false, \"confidence\": 0.95}", "{\"shouldProcess\": true, \"confidence\": 0.9}");
+
+        String content = gateway.cascade(new Prompt("Triage this bounty"), LlmPriority.TRIAGE, "repo", Set.of(),
+                "triage", completion -> completion.contains("false") ? 0.95 : 0.0);
+
+        assertEquals("{\"shouldProcess\": false, \"confidence\": 0.95}", content);
+        verify(chatClient, times(1)).call(any(Prompt.class));
+        assertEquals(1.0, meterRegistry.get("llm.cascade.decisions").tag("outcome", "rejected").counter().count());
+        assertEquals(1L, meterRegistry.get("llm.cascade.latency").tag("tier", "screen").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should escalate unconfident screens and screening failures to the primary model")
+    void shouldEscalateToPrimaryModel() {
+        enableCascade();
+        answerByModel("{\"shouldProcess\": false, \"confidence\": 0.5}", "{\"shouldProcess\": true, \"confidence\": 0.9}");
+
+        String escalated = gateway.cascade(new Prompt("Triage this bounty"), LlmPriority.TRIAGE, "repo", Set.of(),
+                "triage", completion -> completion.contains("false") ? 0.5 : 0.0);
+        String failed = gateway.cascade(new Prompt("Triage another bounty"), LlmPriority.TRIAGE, "repo", Set.of(),
+                "triage", completion -> {
+                    throw new IllegalStateException("unparseable");
+                });
+
+        assertEquals("{\"shouldProcess\": true, \"confidence\": 0.9}", escalated);
+        assertEquals("{\"shouldProcess\": true, \"confidence\": 0.9}", failed);
+        assertEquals(1.0, meterRegistry.get("llm.cascade.decisions").tag("outcome", "escalated").counter().count());
+        assertEquals(1.0, meterRegistry.get("llm.cascade.decisions").tag("outcome", "screen-failed").counter().count());
+        assertEquals(2L, meterRegistry.get("llm.cascade.latency").tag("tier", "primary").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should retry transient failures with backoff")
+    void shouldRetryTransientFailures() {
+        ReflectionTestUtils.setField(gateway, "initialBackoffMs", 1L);
+        when(chatClient.call(any(Prompt.class)))
+                .thenThrow(new ResourceAccessException("Connection reset", new IOException("Connection reset")))
+                .thenReturn(new ChatResponse(List.of(new Generation("[]"))));
+
+        String content = gateway.call(new Prompt("Analyze this diff"), LlmPriority.TRIAGE, "repo");
+
+        assertEquals("[]", content);
+        verify(chatClient, times(2)).call(any(Prompt.class));
+        assertEquals(1.0, meterRegistry.get("llm.call.retries").tag("priority", "TRIAGE").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should interrupt a hung call once the caller's deadline is spent")
+    void shouldCancelHungCallAtDeadline() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(chatClient.call(any(Prompt.class))).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(30_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return new ChatResponse(List.of(new Generation("too late")));
+        });
+
+        assertThrows(DeadlineExceededException.class, () -> Deadline.after(Duration.ofMillis(200))
+                .call(() -> gateway.call(new Prompt("Analyze this diff"), LlmPriority.TRIAGE, "repo")));
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.get("llm.call.timeouts").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should not call the model once the deadline has passed")
+    void shouldFailFastAfterDeadline() {
+        assertThrows(DeadlineExceededException.class, () -> Deadline.after(Duration.ZERO)
+                .call(() -> gateway.call(new Prompt("Analyze this diff"), LlmPriority.COMMIT_ANALYSIS, "repo")));
+
+        verifyNoInteractions(chatClient);
+    }
+
+    private void enableCascade() {
+        ReflectionTestUtils.setField(gateway, "cascadeEnabled", true);
+        ReflectionTestUtils.setField(gateway, "screenModel", "small-model");
+        ReflectionTestUtils.setField(gateway, "rejectConfidence", 0.8);
+    }
+
+    private void answerByModel(String screenCompletion, String primaryCompletion) {
+        when(chatClient.call(any(Prompt.class))).thenAnswer(invocation -> {
+            Prompt prompt = invocation.getArgument(0);
+            boolean screen = prompt.getOptions() instanceof OllamaOptions options
+                    && "small-model".equals(options.getModel());
+            return new ChatResponse(List.of(new Generation(screen ? screenCompletion : primaryCompletion)));
+        });
+    }
+
+    private Flux<ChatResponse> chunks(String... parts) {
+        return Flux.fromArray(parts).map(part -> new ChatResponse(List.of(new Generation(part))));
+    }
+}
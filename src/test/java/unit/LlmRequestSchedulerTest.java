@@ -0,0 +1,171 @@
+package com.bugbounty.llm.scheduler;
+
+import com.bugbounty.llm.deadline.DeadlineExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LlmRequestScheduler Tests")
+class LlmRequestSchedulerTest {
+
+    private static final String BACKEND = "ollama";
+
+    private SimpleMeterRegistry meterRegistry;
+    private LlmRequestScheduler scheduler;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new LlmRequestScheduler(meterRegistry);
+        ReflectionTestUtils.setField(scheduler, "defaultMaxInFlight", 1);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should not exceed the max in-flight count for a backend")
+    void shouldBoundInFlightRequests() throws Exception {
+        CountDownLatch release = holdSlot();
+
+        CountDownLatch secondRan = new CountDownLatch(1);
+        executor.submit(() -> scheduler.execute(BACKEND, LlmPriority.TRIAGE, "repo", () -> {
+            secondRan.countDown();
+            return null;
+        }));
+
+        waitUntil(() -> scheduler.queueDepth(BACKEND, LlmPriority.TRIAGE) == 1);
+        assertEquals(1, scheduler.inFlight(BACKEND));
+        assertEquals(1L, secondRan.getCount());
+
+        release.countDown();
+        assertTrue(secondRan.await(5, TimeUnit.SECONDS));
+        waitUntil(() -> scheduler.inFlight(BACKEND) == 0);
+    }
+
+    @Test
+    @DisplayName("Should grant freed slots to the highest priority first")
+    void shouldServeHigherPriorityFirst() throws Exception {
+        CountDownLatch release = holdSlot();
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        enqueue(LlmPriority.CATALOG, "repo", "catalog", order);
+        enqueue(LlmPriority.VERIFICATION, "repo", "verification", order);
+        enqueue(LlmPriority.TRIAGE, "repo", "triage", order);
+
+        release.countDown();
+        waitUntil(() -> order.size() == 3);
+        assertEquals(List.of("triage", "verification", "catalog"), order);
+    }
+
+    @Test
+    @DisplayName("Should round-robin across repositories within a priority")
+    void shouldQueueFairlyAcrossRepositories() throws Exception {
+        CountDownLatch release = holdSlot();
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        enqueue(LlmPriority.COMMIT_ANALYSIS, "busy-repo", "busy-1", order);
+        enqueue(LlmPriority.COMMIT_ANALYSIS, "busy-repo", "busy-2", order);
+        enqueue(LlmPriority.COMMIT_ANALYSIS, "busy-repo", "busy-3", order);
+        enqueue(LlmPriority.COMMIT_ANALYSIS, "quiet-repo", "quiet-1", order);
+
+        release.countDown();
+        waitUntil(() -> order.size() == 4);
+        assertEquals(List.of("busy-1", "quiet-1", "busy-2", "busy-3"), order);
+    }
+
+    @Test
+    @DisplayName("Should release the slot when the work fails")
+    void shouldReleaseSlotOnFailure() {
+        assertThrows(IllegalStateException.class, () -> scheduler.execute(BACKEND, LlmPriority.TRIAGE, null, () -> {
+            throw new IllegalStateException("model unavailable");
+        }));
+
+        assertEquals(0, scheduler.inFlight(BACKEND));
+        assertEquals("ok", scheduler.execute(BACKEND, LlmPriority.TRIAGE, null, () -> "ok"));
+    }
+
+    @Test
+    @DisplayName("Should give up waiting for a slot after the max wait and leave the queue")
+    void shouldGiveUpWaitingAfterMaxWait() throws Exception {
+        CountDownLatch release = holdSlot();
+
+        assertThrows(DeadlineExceededException.class, () -> scheduler.execute(BACKEND, LlmPriority.TRIAGE, "repo",
+                Duration.ofMillis(50), () -> "too late"));
+
+        assertEquals(0, scheduler.queueDepth(BACKEND, LlmPriority.TRIAGE));
+        release.countDown();
+        waitUntil(() -> scheduler.inFlight(BACKEND) == 0);
+        assertEquals("ok", scheduler.execute(BACKEND, LlmPriority.TRIAGE, "repo", Duration.ofMillis(50), () -> "ok"));
+    }
+
+    @Test
+    @DisplayName("Should apply per-backend limits and record wait metrics")
+    void shouldApplyBackendLimitsAndRecordMetrics() {
+        ReflectionTestUtils.setField(scheduler, "backendMaxInFlight", "small=3, ollama=1");
+
+        scheduler.execute("small", LlmPriority.TRIAGE, "repo", () -> "ok");
+        scheduler.execute("small", LlmPriority.CATALOG, "repo", () -> "ok");
+
+        assertEquals(1L, meterRegistry.get("llm.scheduler.wait")
+                .tag("backend", "small").tag("priority", "TRIAGE").timer().count());
+        assertEquals(0.0, meterRegistry.get("llm.scheduler.queue.depth")
+                .tag("backend", "small").tag("priority", "CATALOG").gauge().value());
+        assertEquals(0.0, meterRegistry.get("llm.scheduler.in.flight")
+                .tag("backend", "small").gauge().value());
+    }
+
+    /**
+     * Occupy the single slot until the returned latch is released.
+     */
+    private CountDownLatch holdSlot() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> scheduler.execute(BACKEND, LlmPriority.TRIAGE, "holder", () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+
+    private void enqueue(LlmPriority priority, String repository, String label, List<String> order) {
+        int depthBefore = scheduler.queueDepth(BACKEND, priority);
+        executor.submit(() -> scheduler.execute(BACKEND, priority, repository, () -> order.add(label)));
+        // Enqueue strictly in call order so the expected sequence is deterministic
+        waitUntil(() -> scheduler.queueDepth(BACKEND, priority) == depthBefore + 1);
+    }
+
+    private void waitUntil(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition not met within 5 seconds");
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.bugbounty.llm.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LlmResponseCache Tests")
+class LlmResponseCacheTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private LlmResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new LlmResponseCache(redisTemplate, meterRegistry);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "localMaxEntries", 2);
+        ReflectionTestUtils.setField(cache, "localTtlMinutes", 60L);
+        ReflectionTestUtils.setField(cache, "redisEnabled", true);
+        ReflectionTestUtils.setField(cache, "redisTtlHours", 24L);
+    }
+
+    @Test
+    @DisplayName("Should produce stable keys that differ by model, options and prompt")
+    void shouldProduceContentAddressedKeys() {
+        String key = LlmResponseCache.key("deepseek-coder:6.7b", "temperature=0.3", "prompt");
+
+        assertEquals(key, LlmResponseCache.key("deepseek-coder:6.7b", "temperature=0.3", "prompt"));
+        assertNotEquals(key, LlmResponseCache.key("llama3", "temperature=0.3", "prompt"));
+        assertNotEquals(key, LlmResponseCache.key("deepseek-coder:6.7b", "temperature=0.7", "prompt"));
+        assertNotEquals(key, LlmResponseCache.key("deepseek-coder:6.7b", "temperature=0.3", "prompt2"));
+        assertNotEquals(LlmResponseCache.key("ab", "c", ""), LlmResponseCache.key("a", "bc", ""));
+    }
+
+    @Test
+    @DisplayName("Should serve stored entries from the local tier without touching Redis")
+    void shouldServeFromLocalTier() {
+        cache.put("k1", "{\"shouldProcess\": false}");
+
+        Optional<String> result = cache.get("k1");
+
+        assertEquals(Optional.of("{\"shouldProcess\": false}"), result);
+        verify(valueOperations, never()).get(anyString());
+        assertEquals(1.0, meterRegistry.get("llm.cache.requests")
+                .tag("tier", "local").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should write through to Redis with TTL")
+    void shouldWriteThroughToRedis() {
+        cache.put("k1", "content");
+
+        verify(valueOperations).set("llm:cache:k1", "content", Duration.ofHours(24));
+        assertEquals(7.0, meterRegistry.get("llm.cache.bytes").tag("direction", "stored").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should fall back to Redis and promote the entry to the local tier")
+    void shouldPromoteRedisHitToLocalTier() {
+        when(valueOperations.get("llm:cache:k1")).thenReturn("remote");
+
+        assertEquals(Optional.of("remote"), cache.get("k1"));
+        assertEquals(Optional.of("remote"), cache.get("k1"));
+
+        verify(valueOperations, times(1)).get("llm:cache:k1");
+        assertEquals(1.0, meterRegistry.get("llm.cache.requests")
+                .tag("tier", "redis").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("llm.cache.local.entries").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should evict least recently used entries beyond max size")
+    void shouldEvictLeastRecentlyUsed() {
+        ReflectionTestUtils.setField(cache, "redisEnabled", false);
+        cache.put("k1", "one");
+        cache.put("k2", "two");
+        cache.get("k1");
+        cache.put("k3", "three");
+
+        assertTrue(cache.get("k1").isPresent());
+        assertTrue(cache.get("k2").isEmpty());
+        assertTrue(cache.get("k3").isPresent());
+        assertEquals(2.0, meterRegistry.get("llm.cache.local.entries").gauge().value());
+        assertEquals(8.0, meterRegistry.get("llm.cache.local.bytes").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should expire local entries after TTL")
+    void shouldExpireLocalEntries() {
+        ReflectionTestUtils.setField(cache, "redisEnabled", false);
+        ReflectionTestUtils.setField(cache, "localTtlMinutes", -1L);
+        cache.put("k1", "content");
+
+        assertTrue(cache.get("k1").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should treat Redis failures as a miss")
+    void shouldTreatRedisFailureAsMiss() {
+        when(valueOperations.get(anyString())).thenThrow(new RuntimeException("connection refused"));
+
+        assertTrue(cache.get("k1").isEmpty());
+        assertEquals(1.0, meterRegistry.get("llm.cache.requests")
+                .tag("tier", "redis").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should bypass both tiers when disabled")
+    void shouldBypassWhenDisabled() {
+        ReflectionTestUtils.setField(cache, "enabled", false);
+        cache.put("k1", "content");
+
+        assertTrue(cache.get("k1").isEmpty());
+        verifyNoInteractions(redisTemplate);
+    }
+}
@@ -0,0 +1,167 @@
+package com.bugbounty.llm.replay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.chat.ChatClient;
+import org.springframework.ai.chat.ChatResponse;
+import org.springframework.ai.chat.Generation;
+import org.springframework.ai.chat.StreamingChatClient;
+import com.bugbounty.llm.service.LlmGateway;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.ollama.api.OllamaOptions;
+import reactor.core.publisher.Flux;
+import reactor.util.context.Context;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReplayChatClient Tests")
+class ReplayChatClientTest {
+
+    private static final String MODEL = "deepseek-coder:6.7b";
+    private static final Prompt TRIAGE_PROMPT = new Prompt("Evaluate this bounty: fix typo in README");
+    private static final Prompt ANALYSIS_PROMPT = new Prompt("Analyze this commit diff for CVEs");
+
+    @Mock
+    private ChatClient liveClient;
+
+    @Mock
+    private StreamingChatClient liveStreamingClient;
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private Path recordings;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        recordings = directory.resolve("recordings.jsonl.gz");
+    }
+
+    @Test
+    @DisplayName("Should replay blocking and streamed exchanges recorded in an earlier run")
+    void shouldReplayRecordedExchanges() throws Exception {
+        when(liveClient.call(any(Prompt.class))).thenReturn(response("{\"shouldProcess\": true}"));
+        when(liveStreamingClient.stream(any(Prompt.class))).thenReturn(Flux.just(
+                response("[\"CVE-2024"), response("-1234\"]")));
+
+        try (ChatRecordingStore store = new ChatRecordingStore(recordings, objectMapper, MODEL)) {
+            RecordingChatClient recorder = new RecordingChatClient(liveClient, liveStreamingClient, store);
+            recorder.call(TRIAGE_PROMPT);
+            recorder.stream(ANALYSIS_PROMPT).blockLast();
+        }
+        assertTrue(Files.size(recordings) > 0);
+
+        ChatRecordingStore reloaded = new ChatRecordingStore(recordings, objectMapper, MODEL);
+        ReplayChatClient replay = new ReplayChatClient(reloaded, ReplayLatency.none(), null, meterRegistry);
+
+        assertEquals(2, reloaded.size());
+        assertEquals("{\"shouldProcess\": true}", content(replay.call(TRIAGE_PROMPT)));
+        String streamed = replay.stream(ANALYSIS_PROMPT)
+                .map(this::content)
+                .collect(Collectors.joining())
+                .block();
+        assertEquals("[\"CVE-2024-1234\"]", streamed);
+        assertEquals(2.0, meterRegistry.get("llm.replay.requests").tag("outcome", "hit").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should record the same prompt separately per model, options and streamed fields")
+    void shouldKeyByModelOptionsAndMode() {
+        Prompt screenPrompt = new Prompt(TRIAGE_PROMPT.getInstructions(),
+                OllamaOptions.create().withModel("qwen2.5-coder:1.5b"));
+        when(liveClient.call(any(Prompt.class))).thenAnswer(invocation ->
+                response(invocation.<Prompt>getArgument(0).getOptions() == null ? "primary" : "screen"));
+        when(liveStreamingClient.stream(any(Prompt.class))).thenReturn(Flux.just(response("{\"shouldProcess\": false}")));
+
+        ChatRecordingStore store = new ChatRecordingStore(recordings, objectMapper, MODEL);
+        RecordingChatClient recorder = new RecordingChatClient(liveClient, liveStreamingClient, store);
+        recorder.call(screenPrompt);
+        recorder.call(TRIAGE_PROMPT);
+        recorder.stream(TRIAGE_PROMPT)
+                .contextWrite(Context.of(LlmGateway.REQUIRED_FIELDS_CONTEXT_KEY, List.of("shouldProcess")))
+                .blockLast();
+
+        ReplayChatClient replay = new ReplayChatClient(store, ReplayLatency.none(), null, meterRegistry);
+        assertEquals(3, store.size());
+        assertEquals("screen", content(replay.call(screenPrompt)));
+        assertEquals("primary", content(replay.call(new Prompt(List.of(new UserMessage(TRIAGE_PROMPT.getContents()))))));
+        assertEquals("{\"shouldProcess\": false}", replay.stream(TRIAGE_PROMPT)
+                .map(this::content)
+                .collect(Collectors.joining())
+                .contextWrite(Context.of(LlmGateway.REQUIRED_FIELDS_CONTEXT_KEY, List.of("shouldProcess")))
+                .block());
+        assertThrows(IllegalStateException.class, () -> replay.stream(TRIAGE_PROMPT)
+                .contextWrite(Context.of(LlmGateway.REQUIRED_FIELDS_CONTEXT_KEY, List.of("confidence")))
+                .blockLast());
+        assertThrows(IllegalStateException.class, () -> new ReplayChatClient(
+                new ChatRecordingStore(recordings, objectMapper, "other-model"), ReplayLatency.none(), null, meterRegistry)
+                .call(TRIAGE_PROMPT));
+    }
+
+    @Test
+    @DisplayName("Should fail on unrecorded prompts unless a miss response is configured")
+    void shouldHandleMisses() {
+        ChatRecordingStore store = new ChatRecordingStore(recordings, objectMapper, MODEL);
+
+        ReplayChatClient strict = new ReplayChatClient(store, ReplayLatency.none(), null, meterRegistry);
+        assertThrows(IllegalStateException.class, () -> strict.call(TRIAGE_PROMPT));
+
+        ReplayChatClient lenient = new ReplayChatClient(store, ReplayLatency.none(), "[]", meterRegistry);
+        assertEquals("[]", content(lenient.call(TRIAGE_PROMPT)));
+        assertEquals(2.0, meterRegistry.get("llm.replay.requests").tag("outcome", "miss").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should delay replies according to the latency distribution")
+    void shouldApplyLatency() {
+        ChatRecordingStore store = new ChatRecordingStore(recordings, objectMapper, MODEL);
+        store.append(store.callKey(TRIAGE_PROMPT), "{}", 4000);
+
+        ReplayLatency recordedAtOnePercent = new ReplayLatency(
+                ReplayLatency.Distribution.parse("recorded"), 0.01, 0, 0, 0, 0, 0, 1);
+        ReplayChatClient replay = new ReplayChatClient(store, recordedAtOnePercent, null, meterRegistry);
+
+        long start = System.nanoTime();
+        replay.call(TRIAGE_PROMPT);
+        assertTrue(System.nanoTime() - start >= 40_000_000L);
+
+        ReplayLatency uniform = new ReplayLatency(
+                ReplayLatency.Distribution.parse("uniform"), 1.0, 0, 100, 200, 0, 0, 7);
+        ReplayLatency sameSeed = new ReplayLatency(
+                ReplayLatency.Distribution.parse("uniform"), 1.0, 0, 100, 200, 0, 0, 7);
+        for (int i = 0; i < 20; i++) {
+            long sample = uniform.sampleMillis(0);
+            assertTrue(sample >= 100 && sample <= 200);
+            assertEquals(sample, sameSeed.sampleMillis(0));
+        }
+        assertTrue(new ReplayLatency(ReplayLatency.Distribution.parse("log-normal"),
+                1.0, 0, 0, 0, 800, 0.5, 3).sampleMillis(0) > 0);
+    }
+
+    private ChatResponse response(String content) {
+        return new ChatResponse(List.of(new Generation(content)));
+    }
+
+    private String content(ChatResponse response) {
+        return response.getResult().getOutput().getContent();
+    }
+}
@@ -0,0 +1,211 @@
+package com.bugbounty.cve.service;
+
+import com.bugbounty.cve.domain.BugFinding;
+import com.bugbounty.cve.domain.CVECatalog;
+import com.bugbounty.cve.entity.CVECatalogEntity;
+import com.bugbounty.cve.mapper.CVECatalogMapper;
+import com.bugbounty.cve.repository.BugFindingRepository;
+import com.bugbounty.cve.repository.CVECatalogRepository;
+import com.bugbounty.cve.similarity.HnswIndex;
+import com.bugbounty.llm.embedding.HashingTextEmbedder;
+import com.bugbounty.llm.embedding.TextEmbedder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("SimilarityIndexService Tests")
+class SimilarityIndexServiceTest {
+
+    @Mock
+    private CVECatalogRepository catalogRepository;
+
+    @Mock
+    private BugFindingRepository bugFindingRepository;
+
+    @TempDir
+    Path indexDirectory;
+
+    private final CVECatalogMapper catalogMapper = new CVECatalogMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicInteger embeddings;
+    private SimilarityIndexService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        embeddings = new AtomicInteger();
+        service = newService();
+        when(catalogRepository.findAll()).thenReturn(List.of());
+        when(bugFindingRepository.findAll()).thenReturn(List.of());
+    }
+
+    @Test
+    @DisplayName("Should retrieve catalog entries similar to a commit diff within its language")
+    void shouldFindSimilarCVEs() {
+        catalog().forEach(service::indexCatalogEntry);
+
+        List<HnswIndex.Neighbour> matches = service.findSimilarCVEs("Java", """
+                +        ObjectInputStream ois = new ObjectInputStream(socket.getInputStream());
+                +        Object payload = ois.readObject();
+                """);
+
+        assertFalse(matches.isEmpty());
+        assertEquals("CVE-2015-4852", matches.get(0).key());
+        assertTrue(service.findSimilarCVEs("Python", "ObjectInputStream readObject").isEmpty());
+        assertEquals(1L, meterRegistry.get("similarity.search").tag("index", "catalog").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should retrieve past findings with a similar root cause")
+    void shouldFindSimilarFindings() {
+        BugFinding npe = finding("NPE in config loader", "ConfigLoader.load dereferences the optional profile without a null check");
+        BugFinding race = finding("Counter drifts under load", "Request counter is incremented without synchronization from worker threads");
+        service.indexFinding(npe);
+        service.indexFinding(race);
+        service.indexFinding(BugFinding.builder().issueTitle("Not analysed yet").build());
+
+        List<HnswIndex.Neighbour> matches = service.findSimilarFindings(
+                "Profile is null when ConfigLoader.load runs before the null check", 1);
+
+        assertEquals(List.of(npe.getId().toString()), matches.stream().map(HnswIndex.Neighbour::key).toList());
+    }
+
+    @Test
+    @DisplayName("Should reload persisted indexes and only embed entries added since")
+    void shouldReloadAndCatchUp() throws Exception {
+        catalog().forEach(service::indexCatalogEntry);
+        service.flush();
+        assertTrue(Files.exists(indexDirectory.resolve("catalog-java.hnsw")));
+
+        List<CVECatalogEntity> entities = catalog().stream().map(catalogMapper::toEntity)
+                .collect(java.util.stream.Collectors.toCollection(java.util.ArrayList::new));
+        entities.add(catalogMapper.toEntity(entry("CVE-2024-0002", "Regular expression denial of service",
+                "User-controlled regex passed to Pattern.compile", "Pattern.compile(request.getParameter(\"re\"))")));
+        when(catalogRepository.findAll()).thenReturn(entities);
+
+        embeddings.set(0);
+        SimilarityIndexService restarted = newService();
+        restarted.loadAndCatchUp();
+
+        assertEquals(1, embeddings.get());
+        assertEquals("CVE-2024-0002", restarted.findSimilarCVEs("Java", "Pattern.compile(userRegex)").get(0).key());
+    }
+
+    @Test
+    @DisplayName("Should skip catalog rows without a language and drop deleted entries on catch-up")
+    void shouldSkipUnindexableRowsAndDropDeletedEntries() throws Exception {
+        catalog().forEach(service::indexCatalogEntry);
+        service.flush();
+
+        List<CVECatalogEntity> entities = catalog().stream()
+                .filter(entry -> !entry.getCveId().equals("CVE-2017-5638"))
+                .map(catalogMapper::toEntity)
+                .collect(java.util.stream.Collectors.toCollection(java.util.ArrayList::new));
+        CVECatalogEntity noLanguage = catalogMapper.toEntity(entry("CVE-2024-0003", "Unknown language", "n/a", "n/a"));
+        noLanguage.setLanguage(null);
+        entities.add(0, noLanguage);
+        when(catalogRepository.findAll()).thenReturn(entities);
+
+        embeddings.set(0);
+        SimilarityIndexService restarted = newService();
+        restarted.loadAndCatchUp();
+
+        assertEquals(0, embeddings.get());
+        assertEquals(java.util.Set.of("CVE-2021-44228", "CVE-2015-4852"), indexes(restarted).get("catalog-java").keys());
+        assertTrue(restarted.findSimilarCVEs("Java", "OgnlUtil.getValue(request.getContentType(), context, root);")
+                .stream().noneMatch(match -> match.key().equals("CVE-2017-5638")));
+    }
+
+    @Test
+    @DisplayName("Should rebuild an index once replaced entries pass the tombstone ratio")
+    void shouldCompactReplacedEntries() {
+        ReflectionTestUtils.setField(service, "maxDeletedRatio", 0.3);
+        List<CVECatalog> entries = catalog();
+        entries.forEach(service::indexCatalogEntry);
+
+        service.indexCatalogEntry(entry("CVE-2021-44228", "Log4Shell", "JNDI lookups", "updated"));
+        HnswIndex index = indexes(service).get("catalog-java");
+        assertEquals(1, index.deletedCount());
+
+        service.indexCatalogEntry(entry("CVE-2015-4852", "Deserialization", "readObject", "updated"));
+
+        assertEquals(0, index.deletedCount());
+        assertEquals(3, index.size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private java.util.Map<String, HnswIndex> indexes(SimilarityIndexService target) {
+        return (java.util.Map<String, HnswIndex>) ReflectionTestUtils.getField(target, "indexes");
+    }
+
+    private SimilarityIndexService newService() {
+        HashingTextEmbedder hashing = new HashingTextEmbedder(256);
+        TextEmbedder counting = new TextEmbedder() {
+            @Override
+            public float[] embed(String text) {
+                embeddings.incrementAndGet();
+                return hashing.embed(text);
+            }
+
+            @Override
+            public String id() {
+                return hashing.id();
+            }
+        };
+        SimilarityIndexService created = new SimilarityIndexService(
+                counting, catalogRepository, catalogMapper, bugFindingRepository, meterRegistry);
+        ReflectionTestUtils.setField(created, "indexPath", indexDirectory.toString());
+        ReflectionTestUtils.setField(created, "minSimilarity", 0.1);
+        return created;
+    }
+
+    private List<CVECatalog> catalog() {
+        return List.of(
+                entry("CVE-2021-44228", "Log4Shell JNDI lookup in log messages",
+                        "Logging attacker-controlled strings with Log4j message lookups enabled",
+                        "logger.error(\"Request: \" + request.getHeader(\"X-Api-Version\"));"),
+                entry("CVE-2015-4852", "Unsafe deserialization of untrusted streams",
+                        "Calling ObjectInputStream readObject on attacker-supplied bytes",
+                        "ObjectInputStream in = new ObjectInputStream(socket.getInputStream()); in.readObject();"),
+                entry("CVE-2017-5638", "Struts Content-Type OGNL injection",
+                        "Evaluating OGNL expressions from the Content-Type header",
+                        "OgnlUtil.getValue(request.getContentType(), context, root);"));
+    }
+
+    private CVECatalog entry(String cveId, String summary, String vulnerablePattern, String codeExample) {
+        return CVECatalog.builder()
+                .cveId(cveId)
+                .language("Java")
+                .summary(summary)
+                .vulnerablePattern(vulnerablePattern)
+                .codeExample(codeExample)
+                .build();
+    }
+
+    private BugFinding finding(String issueTitle, String rootCauseAnalysis) {
+        return BugFinding.builder()
+                .id(UUID.randomUUID())
+                .issueTitle(issueTitle)
+                .rootCauseAnalysis(rootCauseAnalysis)
+                .build();
+    }
+}
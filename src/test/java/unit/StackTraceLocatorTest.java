@@ -0,0 +1,125 @@
+package com.bugbounty.cve.service;
+
+import com.bugbounty.cve.entity.CodebaseIndexFileEntity;
+import com.bugbounty.cve.entity.CodebaseIndexSymbol;
+import com.bugbounty.repository.domain.Repository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StackTraceLocator Tests")
+class StackTraceLocatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Repository repository;
+
+    private StackTraceLocator locator;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = Repository.builder().url("https://github.com/owner/repo").build();
+        repository.markAsCloned(tempDir.toString());
+
+        locator = new StackTraceLocator();
+        java.lang.reflect.Field windowField = StackTraceLocator.class.getDeclaredField("windowLines");
+        windowField.setAccessible(true);
+        windowField.set(locator, 3);
+    }
+
+    @Test
+    @DisplayName("Should map JVM frames through the symbol index and merge overlapping windows")
+    void shouldLocateJavaFramesThroughSymbolIndex() throws Exception {
+        // Given
+        write("billing/src/main/java/com/example/billing/InvoiceService.java", 40);
+        write("legacy/src/main/java/com/example/old/InvoiceService.java", 40);
+        CodebaseSymbolIndex symbolIndex = CodebaseSymbolIndex.of("c1", List.of(
+                file("billing/src/main/java/com/example/billing/InvoiceService.java", "InvoiceService"),
+                file("legacy/src/main/java/com/example/old/InvoiceService.java", "InvoiceService")));
+
+        // When
+        List<StackTraceLocator.SourceWindow> windows = locator.locate(repository, Optional.of(symbolIndex), """
+                java.lang.IllegalStateException: negative total
+                    at com.example.billing.InvoiceService$Totals.sum(InvoiceService.java:14)
+                    at com.example.billing.InvoiceService.total(InvoiceService.java:10)
+                    at java.base/java.util.ArrayList.forEach(ArrayList.java:1541)
+                """);
+
+        // Then
+        assertEquals(1, windows.size());
+        StackTraceLocator.SourceWindow window = windows.get(0);
+        assertEquals("billing/src/main/java/com/example/billing/InvoiceService.java", window.path());
+        assertEquals(7, window.startLine());
+        assertEquals(17, window.endLine());
+        assertEquals(List.of(10, 14), window.frameLines());
+        assertTrue(window.content().startsWith("line 7\n"));
+        assertTrue(window.numbered().contains(">> 14: line 14\n"));
+        assertTrue(window.numbered().contains("   13: line 13\n"));
+    }
+
+    @Test
+    @DisplayName("Should probe the clone for frames the symbol index cannot place")
+    void shouldProbeCloneWithoutSymbolIndex() throws Exception {
+        // Given
+        write("billing/views.py", 5);
+
+        // When
+        List<StackTraceLocator.SourceWindow> windows = locator.locate(repository, Optional.empty(), """
+                Traceback (most recent call last):
+                  File "/srv/app/billing/views.py", line 2, in checkout
+                  File "/srv/app/billing/views.py", line 90, in stale
+                  File "/srv/app/billing/missing.py", line 3, in gone
+                """);
+
+        // Then
+        assertEquals(1, windows.size());
+        assertEquals("billing/views.py", windows.get(0).path());
+        assertEquals(1, windows.get(0).startLine());
+        assertEquals(5, windows.get(0).endLine());
+        assertEquals(List.of(2), windows.get(0).frameLines());
+    }
+
+    @Test
+    @DisplayName("Should not guess between files that only share the frame's file name")
+    void shouldSkipAmbiguousFileNames() throws Exception {
+        // Given
+        write("client/index.js", 20);
+        write("server/index.js", 20);
+        CodebaseSymbolIndex symbolIndex = CodebaseSymbolIndex.of("c1", List.of(
+                file("client/index.js", "render"),
+                file("server/index.js", "listen")));
+
+        // When
+        List<StackTraceLocator.SourceWindow> windows = locator.locate(repository, Optional.of(symbolIndex),
+                "    at start (/opt/deploy/index.js:5:3)");
+
+        // Then
+        assertTrue(windows.isEmpty());
+    }
+
+    private void write(String path, int lines) throws Exception {
+        Path file = tempDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, IntStream.rangeClosed(1, lines)
+                .mapToObj(line -> "line " + line)
+                .collect(Collectors.joining("\n", "", "\n")));
+    }
+
+    private static CodebaseIndexFileEntity file(String path, String symbol) {
+        return CodebaseIndexFileEntity.builder()
+                .path(path)
+                .symbols(List.of(new CodebaseIndexSymbol(symbol, "class")))
+                .build();
+    }
+}
@@ -0,0 +1,77 @@
+package com.bugbounty.cve.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StackTraceParser Tests")
+class StackTraceParserTest {
+
+    @Test
+    @DisplayName("Should parse JVM frames into package paths, dropping inner class suffixes")
+    void shouldParseJavaFrames() {
+        List<StackTraceParser.StackFrame> frames = StackTraceParser.parse("""
+                java.lang.NullPointerException: total is null
+                    at com.example.billing.InvoiceService$Totals.sum(InvoiceService.java:87)
+                    at java.base/java.util.ArrayList.forEach(ArrayList.java:1541)
+                    at app//com.example.Main.main(Main.java:10)
+                    at com.example.Native.call(Native Method)
+                """);
+
+        assertEquals(List.of(
+                new StackTraceParser.StackFrame(StackTraceParser.Language.JAVA,
+                        "com/example/billing/InvoiceService.java", 87, "InvoiceService", "sum"),
+                new StackTraceParser.StackFrame(StackTraceParser.Language.JAVA,
+                        "java/util/ArrayList.java", 1541, "ArrayList", "forEach"),
+                new StackTraceParser.StackFrame(StackTraceParser.Language.JAVA,
+                        "com/example/Main.java", 10, "Main", "main")), frames);
+    }
+
+    @Test
+    @DisplayName("Should parse Python frames and drop installed packages")
+    void shouldParsePythonFrames() {
+        List<StackTraceParser.StackFrame> frames = StackTraceParser.parse("""
+                Traceback (most recent call last):
+                  File "/srv/app/billing/views.py", line 12, in checkout
+                    total = invoice.total()
+                  File "/usr/lib/python3.11/site-packages/django/db/models.py", line 5, in run
+                  File "billing/models.py", line 40
+                TypeError: unsupported operand type(s)
+                """);
+
+        assertEquals(List.of(
+                new StackTraceParser.StackFrame(StackTraceParser.Language.PYTHON,
+                        "/srv/app/billing/views.py", 12, null, "checkout"),
+                new StackTraceParser.StackFrame(StackTraceParser.Language.PYTHON,
+                        "billing/models.py", 40, null, null)), frames);
+    }
+
+    @Test
+    @DisplayName("Should parse Node frames with and without function names and drop dependencies")
+    void shouldParseJavaScriptFrames() {
+        List<StackTraceParser.StackFrame> frames = StackTraceParser.parse("""
+                TypeError: Cannot read properties of undefined (reading 'id')
+                    at getUser (/home/dev/proj/src/users.js:17:9)
+                    at async Promise.all (index 0)
+                    at C:\\work\\proj\\src\\index.ts:3:1
+                    at Module._compile (node:internal/modules/cjs/loader:1105:14)
+                    at Router.handle (/home/dev/proj/node_modules/express/lib/router.js:5:3)
+                """);
+
+        assertEquals(List.of(
+                new StackTraceParser.StackFrame(StackTraceParser.Language.JAVASCRIPT,
+                        "/home/dev/proj/src/users.js", 17, null, "getUser"),
+                new StackTraceParser.StackFrame(StackTraceParser.Language.JAVASCRIPT,
+                        "C:/work/proj/src/index.ts", 3, null, null)), frames);
+    }
+
+    @Test
+    @DisplayName("Should find nothing in text without stack traces")
+    void shouldIgnorePlainText() {
+        assertTrue(StackTraceParser.parse("Clicking save at the checkout page (twice) loses the cart").isEmpty());
+        assertTrue(StackTraceParser.parse(null).isEmpty());
+    }
+}
@@ -0,0 +1,89 @@
+package com.bugbounty.bounty.triage.classifier;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TriageClassifierTrainer Tests")
+class TriageClassifierTrainerTest {
+
+    private static final String[] TRIVIAL = {"Fix typo in error message", "Wrong variable name in log line",
+            "Missing null check in parser", "Off by one in pagination label"};
+    private static final String[] COMPLEX = {"Implement plugin system for exporters", "Redesign storage layer",
+            "Add distributed tracing across services", "Support multi-tenant authentication"};
+
+    @Test
+    @DisplayName("Should learn to separate accepted from rejected bounties and report precision")
+    void shouldLearnAndReport() {
+        List<TriageClassifierTrainer.Example> examples = syntheticExamples(2000);
+
+        TriageClassifierTrainer.Result result = new TriageClassifierTrainer(10, 0.1, 1e-5)
+                .train(examples, 0.05, 0.6);
+
+        TriageClassifierModel model = result.model();
+        double trivial = model.probability(features("Fix typo in README link", "algora", 50));
+        double complex = model.probability(features("Redesign storage layer for sharding", "algora", 1500));
+        assertTrue(trivial > 0.6, "trivial bounty probability " + trivial);
+        assertTrue(complex < 0.05, "complex bounty probability " + complex);
+
+        TriageClassifierReport report = result.report();
+        assertTrue(report.evaluationExamples() > 0);
+        assertTrue(report.rejectPrecision() > 0.95, report.summary());
+        assertTrue(report.llmCallsSaved() > 0.3, report.summary());
+        assertEquals(report.trainingExamples() + report.calibrationExamples() + report.evaluationExamples(), examples.size());
+    }
+
+    @Test
+    @DisplayName("Should round-trip a trained model through its file format")
+    void shouldRoundTripModel() throws Exception {
+        TriageClassifierModel model = new TriageClassifierTrainer(3, 0.1, 1e-5)
+                .train(syntheticExamples(600), 0.05, 0.6).model();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        model.writeTo(out);
+
+        TriageClassifierModel loaded = TriageClassifierModel.readFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        TriageFeatures.Vector vector = features("Missing null check in config loader", "polar", 80);
+        assertEquals(model.probability(vector), loaded.probability(vector), 1e-9);
+        assertEquals(model.trainedAt(), loaded.trainedAt());
+    }
+
+    @Test
+    @DisplayName("Should refuse to train without both accepted and rejected examples")
+    void shouldRequireBothClasses() {
+        List<TriageClassifierTrainer.Example> rejectedOnly = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            rejectedOnly.add(new TriageClassifierTrainer.Example("key-" + i, features(COMPLEX[i % COMPLEX.length], "algora", 500), false));
+        }
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriageClassifierTrainer(1, 0.1, 1e-5).train(rejectedOnly, 0.05, 0.6));
+    }
+
+    private List<TriageClassifierTrainer.Example> syntheticExamples(int count) {
+        Random random = new Random(7);
+        List<TriageClassifierTrainer.Example> examples = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // Roughly one accept in five, as with real triage
+            boolean accepted = random.nextInt(5) == 0;
+            String title = (accepted ? TRIVIAL : COMPLEX)[random.nextInt(4)] + " #" + random.nextInt(1000);
+            int amount = accepted ? 30 + random.nextInt(120) : 300 + random.nextInt(3000);
+            String platform = random.nextBoolean() ? "algora" : "polar";
+            examples.add(new TriageClassifierTrainer.Example("key-" + i, features(title, platform, amount), accepted));
+        }
+        return examples;
+    }
+
+    private TriageFeatures.Vector features(String title, String platform, int amount) {
+        return TriageFeatures.extract(title, title + " - see the linked issue for details", platform, "Java",
+                new BigDecimal(amount), "USD");
+    }
+}
@@ -0,0 +1,113 @@
+package com.bugbounty.bounty.triage.classifier;
+
+import com.bugbounty.bounty.entity.BountyEntity;
+import com.bugbounty.bounty.entity.TriageDecisionEntity;
+import com.bugbounty.bounty.repository.BountyRepository;
+import com.bugbounty.bounty.repository.TriageDecisionRepository;
+import com.bugbounty.repository.repository.RepositoryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TriageClassifierTrainingJob Tests")
+class TriageClassifierTrainingJobTest {
+
+    @Mock
+    private TriageDecisionRepository triageDecisionRepository;
+
+    @Mock
+    private BountyRepository bountyRepository;
+
+    @Mock
+    private RepositoryRepository repositoryRepository;
+
+    @Mock
+    private TriageClassifier triageClassifier;
+
+    private TriageClassifierTrainingJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new TriageClassifierTrainingJob(triageDecisionRepository, bountyRepository, repositoryRepository,
+                triageClassifier, new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("Should not retrain while the classifier is disabled")
+    void shouldNotRetrainWhileClassifierDisabled() {
+        // Given
+        ReflectionTestUtils.setField(job, "classifierEnabled", false);
+
+        // When
+        job.scheduledRetrain();
+
+        // Then
+        verifyNoInteractions(triageDecisionRepository, bountyRepository, triageClassifier);
+    }
+
+    @Test
+    @DisplayName("Should read at most max-examples decisions, a page at a time, with one bounty query per page")
+    void shouldReadBoundedPagesOfDecisions() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(job, "maxExamples", 3);
+        ReflectionTestUtils.setField(job, "pageSize", 2);
+        when(triageDecisionRepository.findByIssueIdIsNotNullAndPlatformIsNotNull(any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    Pageable page = invocation.getArgument(0);
+                    int first = page.getPageNumber() * 2 + 1;
+                    return new SliceImpl<>(List.of(decision("issue-" + first), decision("issue-" + (first + 1))), page, true);
+                });
+        when(bountyRepository.findByIssueIdIn(List.of("issue-1", "issue-2"))).thenReturn(List.of(
+                bounty("issue-1", "algora", "https://github.com/owner/repo"),
+                bounty("issue-2", "polar", "https://github.com/owner/other")));
+        when(repositoryRepository.findByUrl("https://github.com/owner/repo")).thenReturn(Optional.empty());
+
+        // When
+        Optional<TriageClassifierReport> report = job.retrain();
+
+        // Then
+        assertTrue(report.isEmpty());
+        verify(triageDecisionRepository).findByIssueIdIsNotNullAndPlatformIsNotNull(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "createdAt")));
+        verify(triageDecisionRepository, times(2)).findByIssueIdIsNotNullAndPlatformIsNotNull(any(Pageable.class));
+        verify(bountyRepository).findByIssueIdIn(List.of("issue-3"));
+        verify(bountyRepository, never()).findByIssueIdAndPlatform(anyString(), anyString());
+        // Only issue-1 matches on both issue ID and platform
+        verify(repositoryRepository, never()).findByUrl("https://github.com/owner/other");
+        verify(triageClassifier, never()).install(any());
+    }
+
+    private static TriageDecisionEntity decision(String issueId) {
+        return TriageDecisionEntity.builder()
+                .contentHash("hash-" + issueId)
+                .issueId(issueId)
+                .platform("algora")
+                .build();
+    }
+
+    private static BountyEntity bounty(String issueId, String platform, String repositoryUrl) {
+        return BountyEntity.builder()
+                .issueId(issueId)
+                .platform(platform)
+                .repositoryUrl(repositoryUrl)
+                .title("Fix typo")
+                .build();
+    }
+}
@@ -0,0 +1,124 @@
+package com.bugbounty.bounty.triage;
+
+import com.bugbounty.bounty.domain.Bounty;
+import com.bugbounty.bounty.entity.TriageDecisionEntity;
+import com.bugbounty.bounty.repository.TriageDecisionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TriageDecisionStore Tests")
+class TriageDecisionStoreTest {
+
+    @Mock
+    private TriageDecisionRepository repository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TriageDecisionStore store;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        store = new TriageDecisionStore(repository, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should ignore case, whitespace and small amount changes in the key")
+    void shouldIgnoreImmaterialChanges() {
+        String original = TriageDecisionStore.key(bounty("Fix typo in  README", "Line 3 says teh.", "50"), "Java", "v1");
+        String edited = TriageDecisionStore.key(bounty("fix typo in README", "Line 3 says teh.\n", "60"), "java", "v1");
+
+        assertEquals(original, edited);
+    }
+
+    @Test
+    @DisplayName("Should change the key on material content, amount or threshold changes")
+    void shouldChangeKeyOnMaterialChanges() {
+        String original = TriageDecisionStore.key(bounty("Fix typo", "Line 3 says teh.", "50"), "Java", "v1");
+
+        assertNotEquals(original, TriageDecisionStore.key(bounty("Fix typo", "Line 4 says teh.", "50"), "Java", "v1"));
+        assertNotEquals(original, TriageDecisionStore.key(bounty("Fix typo", "Line 3 says teh.", "150"), "Java", "v1"));
+        assertNotEquals(original, TriageDecisionStore.key(bounty("Fix typo", "Line 3 says teh.", "50"), "Python", "v1"));
+        assertNotEquals(original, TriageDecisionStore.key(bounty("Fix typo", "Line 3 says teh.", "50"), "Java", "v2"));
+    }
+
+    @Test
+    @DisplayName("Should persist decisions and answer repeats from the local tier")
+    void shouldPersistAndServeLocally() {
+        Bounty bounty = bounty("Fix typo", "Line 3", "50");
+        FilterResult result = new FilterResult(true, 0.95, 10, "Typo");
+        when(repository.findByContentHash("key")).thenReturn(Optional.empty());
+
+        store.put("key", bounty, result);
+
+        ArgumentCaptor<TriageDecisionEntity> saved = ArgumentCaptor.forClass(TriageDecisionEntity.class);
+        verify(repository).save(saved.capture());
+        assertEquals("key", saved.getValue().getContentHash());
+        assertTrue(saved.getValue().isShouldProcess());
+        assertEquals(Optional.of(result), store.get("key"));
+        verify(repository, times(1)).findByContentHash("key");
+        assertEquals(1.0, meterRegistry.get("bounty.triage.memo.requests")
+                .tag("tier", "local").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should load persisted decisions and ignore expired ones")
+    void shouldLoadPersistedDecisions() {
+        when(repository.findByContentHash("fresh")).thenReturn(Optional.of(entity("fresh", LocalDateTime.now().minusDays(1))));
+        when(repository.findByContentHash("stale")).thenReturn(Optional.of(entity("stale", LocalDateTime.now().minusDays(90))));
+
+        Optional<FilterResult> fresh = store.get("fresh");
+
+        assertTrue(fresh.isPresent());
+        assertEquals(0.9, fresh.get().confidence());
+        assertTrue(store.get("stale").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should treat database failures as a miss")
+    void shouldTreatDatabaseFailuresAsMiss() {
+        when(repository.findByContentHash(anyString())).thenThrow(new RuntimeException("connection refused"));
+
+        assertTrue(store.get("key").isEmpty());
+        assertDoesNotThrow(() -> store.put("key", bounty("t", "d", "1"), new FilterResult(false, 0.9, 5, "r")));
+        verify(repository, never()).save(any());
+    }
+
+    private Bounty bounty(String title, String description, String amount) {
+        return Bounty.builder()
+                .issueId("issue-1")
+                .platform("algora")
+                .repositoryUrl("https://github.com/owner/repo")
+                .title(title)
+                .description(description)
+                .amount(new BigDecimal(amount))
+                .currency("USD")
+                .build();
+    }
+
+    private TriageDecisionEntity entity(String contentHash, LocalDateTime createdAt) {
+        return TriageDecisionEntity.builder()
+                .contentHash(contentHash)
+                .shouldProcess(false)
+                .confidence(0.9)
+                .estimatedTimeMinutes(30)
+                .reason("Needs a POC")
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,110 @@
+package com.bugbounty.bounty.triage;
+
+import com.bugbounty.bounty.domain.Bounty;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TriageRuleEngine Tests")
+class TriageRuleEngineTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TriageRuleEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, List<String>> rules = new LinkedHashMap<>();
+        rules.put("poc-required", List.of("proof of concept", "PoC", "exploit"));
+        rules.put("architecture", List.of("refactor", "design pattern"));
+        rules.put("security", List.of("security", "exploit"));
+        meterRegistry = new SimpleMeterRegistry();
+        engine = new TriageRuleEngine(rules, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should reject on phrases regardless of case and whitespace, naming every matched rule")
+    void shouldRejectOnMatchingPhrases() {
+        Optional<FilterResult> result = engine.evaluate(bounty("Crash on login",
+                "Please include a Proof   of\nConcept. We may need to REFACTOR the session code."));
+
+        assertTrue(result.isPresent());
+        assertFalse(result.get().shouldProcess());
+        assertEquals("Rejected by triage rule(s): poc-required (\"proof of concept\"), architecture (\"refactor\")",
+                result.get().reason());
+        assertEquals(1.0, meterRegistry.get("bounty.triage.rules.hits").tag("rule", "poc-required").counter().count());
+        assertEquals(0.0, meterRegistry.get("bounty.triage.rules.hits").tag("rule", "security").counter().count());
+        assertEquals(1.0, meterRegistry.get("bounty.triage.rules.evaluations").tag("outcome", "rejected").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should only match whole words")
+    void shouldMatchWholeWordsOnly() {
+        Optional<FilterResult> result = engine.evaluate(bounty("Wrong epoch in refactored timestamp helper",
+                "Timestamps are off by one second since the last release"));
+
+        assertTrue(result.isEmpty());
+        assertEquals(1.0, meterRegistry.get("bounty.triage.rules.evaluations").tag("outcome", "passed").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should count a keyword shared by several rules for each of them")
+    void shouldReportSharedKeywordForEveryRule() {
+        Optional<FilterResult> result = engine.evaluate(bounty("Exploit in upload handler", null));
+
+        assertTrue(result.isPresent());
+        assertEquals(1.0, meterRegistry.get("bounty.triage.rules.hits").tag("rule", "poc-required").counter().count());
+        assertEquals(1.0, meterRegistry.get("bounty.triage.rules.hits").tag("rule", "security").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should pass everything when disabled")
+    void shouldPassWhenDisabled() {
+        ReflectionTestUtils.setField(engine, "enabled", false);
+
+        assertTrue(engine.evaluate(bounty("Security: exploit PoC", "refactor")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should bind rules from configuration as lists or comma-separated strings")
+    void shouldBindRulesFromEnvironment() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.bounty.triage.rules.keywords.performance[0]", "benchmark")
+                .withProperty("app.bounty.triage.rules.keywords.performance[1]", "memory leak")
+                .withProperty("app.bounty.triage.rules.keywords.documentation", "readme,docs site");
+        TriageRuleEngine configured = new TriageRuleEngine(environment, new SimpleMeterRegistry());
+
+        assertTrue(configured.evaluate(bounty("Memory leak in cache", null)).isPresent());
+        assertTrue(configured.evaluate(bounty("Update the README", null)).isPresent());
+        assertTrue(configured.evaluate(bounty("Off-by-one in pagination", null)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should find overlapping keywords through failure links")
+    void shouldFindOverlappingKeywords() {
+        KeywordAutomaton automaton = KeywordAutomaton.compile(List.of("he", "she", "his", "hers"));
+        List<String> found = new ArrayList<>();
+
+        automaton.scan("ushers he his she", id -> found.add(automaton.keyword(id)));
+
+        assertEquals(List.of("he", "his", "she"), found);
+    }
+
+    private Bounty bounty(String title, String description) {
+        return Bounty.builder()
+                .issueId("issue-1")
+                .title(title)
+                .description(description)
+                .build();
+    }
+}